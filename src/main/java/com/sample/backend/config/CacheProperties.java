@@ -0,0 +1,39 @@
+package com.sample.backend.config;
+
+import com.sample.backend.model.CacheRegions;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the Hibernate second-level cache of entities and collections and for the query
+ * cache, both held in Caffeine.
+ *
+ * @param enabled whether entities, their collections and the cacheable queries are cached
+ * @param defaults size and expiry of the regions missing from {@code regions}
+ * @param regions size and expiry by region, named as in {@link CacheRegions}
+ */
+@ConfigurationProperties(prefix = "catalog.cache")
+public record CacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue Region defaults,
+    Map<String, Region> regions) {
+
+  public CacheProperties {
+    regions = regions == null ? Map.of() : Map.copyOf(regions);
+  }
+
+  /** Returns the settings of {@code region}. */
+  public Region region(String region) {
+    return regions.getOrDefault(region, defaults);
+  }
+
+  /**
+   * Size and expiry of a cache region.
+   *
+   * @param maxEntries most entries kept; beyond it the least valuable ones are evicted
+   * @param timeToLive how long an entry is kept after it was written, or for ever when unset
+   */
+  public record Region(@DefaultValue("10000") long maxEntries, Duration timeToLive) {}
+}
@@ -0,0 +1,64 @@
+package com.sample.backend.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the caches of movie, actor, director and role DTOs in front of the services' lookups
+ * by id.
+ *
+ * @param enabled whether lookups by id are cached; when disabled every lookup reads the database
+ * @param defaults bounds and expiry of the caches missing from {@code caches}
+ * @param caches bounds and expiry by cache, named as in {@link
+ *     com.sample.backend.service.DtoCaches}
+ * @param offHeap the store of the serialized movies, actors and roles outside the heap
+ */
+@ConfigurationProperties(prefix = "catalog.dto-cache")
+public record DtoCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue Cache defaults,
+    Map<String, Cache> caches,
+    @DefaultValue OffHeap offHeap) {
+
+  public DtoCacheProperties {
+    caches = caches == null ? Map.of() : Map.copyOf(caches);
+  }
+
+  /** Returns the settings of {@code cache}. */
+  public Cache cache(String cache) {
+    return caches.getOrDefault(cache, defaults);
+  }
+
+  /**
+   * Bounds and expiry of a DTO cache.
+   *
+   * @param maxEntries most DTOs kept, used when {@code maxWeight} is unset
+   * @param maxWeight most heap the DTOs are estimated to take; beyond it the least valuable ones
+   *     are evicted
+   * @param timeToLive how long a DTO is kept after it was read, or for ever when unset
+   */
+  public record Cache(
+      @DefaultValue("10000") long maxEntries, DataSize maxWeight, Duration timeToLive) {}
+
+  /**
+   * The serialized JSON of the movies, actors and roles looked up by id, kept outside the heap and
+   * written to responses as it is.
+   *
+   * @param enabled whether the JSON is kept; it never is when the DTO caches are disabled
+   * @param size off-heap memory of each of the three stores
+   * @param slotSize space for one response; larger responses are serialized on every request
+   */
+  public record OffHeap(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("8MB") DataSize size,
+      @DefaultValue("512B") DataSize slotSize) {
+
+    /** Responses each store keeps. */
+    public int slots() {
+      return (int) Math.max(1, size.toBytes() / slotSize.toBytes());
+    }
+  }
+}
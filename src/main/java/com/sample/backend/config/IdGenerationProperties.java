@@ -0,0 +1,15 @@
+package com.sample.backend.config;
+
+import com.sample.backend.model.IdStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the primary keys of the catalogue entities.
+ *
+ * @param strategy how ids are generated
+ * @param allocationSize number of ids reserved per sequence call with {@link IdStrategy#POOLED}
+ */
+@ConfigurationProperties(prefix = "catalog.id")
+public record IdGenerationProperties(
+    @DefaultValue("POOLED") IdStrategy strategy, @DefaultValue("50") int allocationSize) {}
@@ -0,0 +1,19 @@
+package com.sample.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits on how many rows a single request may read.
+ *
+ * @param maxPageSize largest page size served; larger requested sizes are reduced to it
+ * @param listLimit largest number of rows the unpaginated list and search endpoints return; when
+ *     more rows match, the request is rejected and the paginated form has to be used
+ * @param countLimit largest number of rows counted for an approximate total; beyond it the total is
+ *     reported as a lower bound
+ */
+@ConfigurationProperties(prefix = "catalog.pagination")
+public record PaginationProperties(
+    @DefaultValue("100") int maxPageSize,
+    @DefaultValue("1000") int listLimit,
+    @DefaultValue("10000") int countLimit) {}
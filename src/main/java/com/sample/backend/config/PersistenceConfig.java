@@ -0,0 +1,68 @@
+package com.sample.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.sample.backend.model.CacheRegions;
+import com.sample.backend.model.CatalogIdGenerator;
+import java.util.OptionalLong;
+import javax.cache.CacheManager;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+  /** Hands the {@code catalog.id.*} properties to {@link CatalogIdGenerator}. */
+  @Bean
+  public static HibernatePropertiesCustomizer idGenerationCustomizer(
+      IdGenerationProperties properties) {
+    return hibernateProperties -> {
+      hibernateProperties.put(CatalogIdGenerator.STRATEGY_SETTING, properties.strategy().name());
+      hibernateProperties.put(
+          CatalogIdGenerator.ALLOCATION_SIZE_SETTING, properties.allocationSize());
+    };
+  }
+
+  /**
+   * Caffeine caches backing the second-level cache regions, sized from the {@code catalog.cache.*}
+   * properties. Each application context gets a provider of its own, so contexts sharing a JVM, as
+   * tests do, never see each other's rows.
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(CacheProperties properties) {
+    CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+    for (String region : CacheRegions.ALL) {
+      CacheProperties.Region settings = properties.region(region);
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      configuration.setStoreByValue(false);
+      configuration.setMaximumSize(OptionalLong.of(settings.maxEntries()));
+      if (settings.timeToLive() != null) {
+        configuration.setExpireAfterWrite(OptionalLong.of(settings.timeToLive().toNanos()));
+      }
+      cacheManager.createCache(region, configuration);
+    }
+    return cacheManager;
+  }
+
+  /**
+   * Turns on the second-level and query caches in {@link #hibernateCacheManager}. Regions missing
+   * from {@link CacheRegions}, such as the table timestamps of the query cache, are created
+   * unbounded.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer cacheCustomizer(
+      CacheProperties properties, CacheManager hibernateCacheManager) {
+    return hibernateProperties -> {
+      hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.enabled());
+      hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, properties.enabled());
+      hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+      // Writes to the owning side of a relation, such as a new role, evict the cached collection.
+      hibernateProperties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+    };
+  }
+}
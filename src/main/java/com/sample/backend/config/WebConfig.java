@@ -0,0 +1,21 @@
+package com.sample.backend.config;
+
+import com.sample.backend.controller.CollectionVersionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  private final CollectionVersionInterceptor collectionVersionInterceptor;
+
+  public WebConfig(CollectionVersionInterceptor collectionVersionInterceptor) {
+    this.collectionVersionInterceptor = collectionVersionInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(collectionVersionInterceptor).addPathPatterns("/api/**");
+  }
+}
@@ -2,8 +2,13 @@ package com.sample.backend.controller;
 
 import com.sample.backend.config.ApiStandardResponses;
 import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Actor;
 import com.sample.backend.service.ActorService;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,6 +17,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -21,9 +30,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
 @RequestMapping("/api/actors")
@@ -32,9 +43,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class ActorController {
 
   private final ActorService actorService;
+  private final SerializedResponses serializedResponses;
 
-  public ActorController(ActorService actorService) {
+  public ActorController(ActorService actorService, SerializedResponses serializedResponses) {
     this.actorService = actorService;
+    this.serializedResponses = serializedResponses;
   }
 
   @Operation(
@@ -42,6 +55,7 @@ public class ActorController {
       description = "Retrieves a paginated list of all available actors")
   @ApiResponse(responseCode = "200", description = "Successfully retrieved actors")
   @ApiStandardResponses
+  @CollectionVersion(Actor.class)
   @GetMapping
   public ResponseEntity<PagedResponse<ActorDTO>> getAllActors(
       @Parameter(description = "Page number (0-based)", example = "0")
@@ -61,24 +75,131 @@ public class ActorController {
     return ResponseEntity.ok(actorService.getAllActors(page, size, sort, direction));
   }
 
+  @Operation(
+      summary = "Get actors with selected fields",
+      description =
+          "Retrieves a paginated list of actors with only the fields listed, reading only their"
+              + " columns; fields without a value are left out. Fails with 400 if a field is"
+              + " unknown")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved actors")
+  @ApiStandardResponses
+  @CollectionVersion(Actor.class)
+  @GetMapping(params = {"fields", "!cursor", "!ids"})
+  public ResponseEntity<PagedResponse<Map<String, Object>>> getAllActorsFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,lastName")
+          @RequestParam
+          String fields,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          @Min(0)
+          int page,
+      @Parameter(description = "Page size", example = "10")
+          @RequestParam(defaultValue = "10")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "lastName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(actorService.getAllActors(fields, page, size, sort, direction));
+  }
+
+  /** Rejects a request paging by both page number and cursor, which no single mapping serves. */
+  @Hidden
+  @GetMapping(params = {"page", "cursor"})
+  public ResponseEntity<Void> rejectPageWithCursor() {
+    throw new BadRequestException("Page by either page or cursor, not both");
+  }
+
+  @Operation(
+      summary = "Get actors by cursor",
+      description =
+          "Retrieves one page of actors by keyset pagination. Pass an empty cursor for the first"
+              + " page, then the next or prev cursor of the response. Unlike page numbers, deep"
+              + " pages are as fast as the first one")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved actors")
+  @ApiStandardResponses
+  @CollectionVersion(Actor.class)
+  @GetMapping(params = "cursor")
+  public ResponseEntity<PagedResponse<ActorDTO>> scrollActors(
+      @Parameter(description = "Cursor from a previous page; empty for the first page")
+          @RequestParam
+          String cursor,
+      @Parameter(description = "Page size", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field of the first page", example = "lastName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction of the first page (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(actorService.scrollActors(cursor, size, sort, direction));
+  }
+
+  /** Rejects selecting fields of rows looked up by ids, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"ids", "fields", "!cursor"})
+  public ResponseEntity<Void> rejectIdsWithFields() {
+    throw new BadRequestException("Select fields of a page or of all rows, not of rows by ids");
+  }
+
+  @Operation(
+      summary = "Get actors by IDs",
+      description =
+          "Retrieves the actors with the listed IDs in their order, leaving out those not found."
+              + " Cached actors are served without a query and the others are read together."
+              + " Fails with 400 if more IDs are listed than the maximum page size")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved actors")
+  @ApiStandardResponses
+  @CollectionVersion(Actor.class)
+  @GetMapping(params = {"ids", "!cursor", "!fields"})
+  public ResponseEntity<List<ActorDTO>> getActorsByIds(
+      @Parameter(description = "Comma separated actor IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    return ResponseEntity.ok(actorService.getActorsByIds(ids));
+  }
+
   @Operation(summary = "Get actor by ID", description = "Retrieves a specific actor by its ID")
   @ApiResponse(responseCode = "200", description = "Actor found")
+  @ApiResponse(responseCode = "304", description = "Actor unchanged since the If-None-Match tag")
   @ApiStandardResponses
   @GetMapping("/{id}")
   public ResponseEntity<ActorDTO> getActorById(
-      @Parameter(description = "Actor ID", required = true) @PathVariable Long id) {
-    return ResponseEntity.ok(actorService.getActorById(id));
+      @Parameter(description = "Actor ID", required = true) @PathVariable Long id,
+      ServletWebRequest request)
+      throws IOException {
+    return serializedResponses.actor(id, request, actorService::getVersionedActor);
   }
 
   @Operation(summary = "Search actors", description = "Search actors by name")
   @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion(Actor.class)
   @GetMapping("/search")
   public ResponseEntity<PagedResponse<ActorDTO>> searchActors(
       @Parameter(description = "Actor name (partial match)") @RequestParam String name,
       @RequestParam(defaultValue = "0") @Min(0) int page,
-      @RequestParam(defaultValue = "10") @Min(1) int size) {
-    return ResponseEntity.ok(actorService.searchActors(name, page, size));
+      @RequestParam(defaultValue = "10") @Min(1) int size,
+      @Parameter(
+              description =
+                  "Count all matches exactly; when false the total may be an approximate lower"
+                      + " bound, which is cheaper for broad searches")
+          @RequestParam(defaultValue = "true")
+          boolean exact,
+      @Parameter(
+              description =
+                  "Match names within a few typos or that sound alike, closest first, and count"
+                      + " the matches")
+          @RequestParam(defaultValue = "false")
+          boolean fuzzy) {
+    if (fuzzy) {
+      return ResponseEntity.ok(actorService.fuzzySearchActors(name, page, size));
+    }
+    return ResponseEntity.ok(actorService.searchActors(name, page, size, exact));
   }
 
   @Operation(summary = "Create actor", description = "Creates a new actor entry")
@@ -94,24 +215,49 @@ public class ActorController {
     return new ResponseEntity<>(actorService.createActor(actorDTO), HttpStatus.CREATED);
   }
 
+  @Operation(
+      summary = "Create actors in batch",
+      description =
+          "Creates several actors in one transaction. Unless allowPartial is set, no actor is"
+              + " created when any of them is invalid")
+  @ApiResponse(responseCode = "201", description = "All actors created")
+  @ApiResponse(responseCode = "207", description = "Some actors created, see the per-item results")
+  @ApiStandardResponses
+  @PostMapping("/batch")
+  public ResponseEntity<BatchResponse<ActorDTO>> createActors(
+      @Parameter(description = "Actor data", required = true) @Valid @RequestBody
+          List<ActorDTO> actorDTOs,
+      @Parameter(description = "Create the valid actors even if others fail")
+          @RequestParam(defaultValue = "false")
+          boolean allowPartial) {
+    BatchResponse<ActorDTO> response = actorService.createActors(actorDTOs, allowPartial);
+    return new ResponseEntity<>(response, response.status());
+  }
+
   @Operation(summary = "Update actor", description = "Updates an existing actor's information")
   @ApiResponse(responseCode = "200", description = "Actor updated successfully")
+  @ApiResponse(responseCode = "409", description = "Actor changed by a concurrent update")
+  @ApiResponse(responseCode = "412", description = "If-Match lists none of the actor's tags")
   @ApiStandardResponses
   @PutMapping("/{id}")
   public ResponseEntity<ActorDTO> updateActor(
       @Parameter(description = "Actor ID", required = true) @PathVariable Long id,
       @Parameter(description = "Updated actor data", required = true) @Valid @RequestBody
-          ActorDTO actorDTO) {
-    return ResponseEntity.ok(actorService.updateActor(id, actorDTO));
+          ActorDTO actorDTO,
+      @Parameter(description = "Entity tag the update is based on; 412 if it is no longer current")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
+    return ResponseEntity.ok(actorService.updateActor(id, actorDTO, ifMatch));
   }
 
-  @Operation(summary = "Delete actor", description = "Removes an actor from the database")
-  @ApiResponse(responseCode = "204", description = "Actor deleted successfully")
+  @Operation(
+      summary = "Delete actor",
+      description = "Removes an actor and their roles from the database")
+  @ApiResponse(responseCode = "200", description = "Actor deleted successfully")
   @ApiStandardResponses
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> deleteActor(
+  public ResponseEntity<DeletionResult> deleteActor(
       @Parameter(description = "Actor ID", required = true) @PathVariable Long id) {
-    actorService.deleteActor(id);
-    return ResponseEntity.noContent().build();
+    return ResponseEntity.ok(actorService.deleteActor(id));
   }
 }
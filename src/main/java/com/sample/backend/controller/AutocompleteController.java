@@ -0,0 +1,50 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.Suggestion;
+import com.sample.backend.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@Tag(name = "Search", description = "Ranked full-text search APIs")
+@Validated
+public class AutocompleteController {
+
+  private final SearchService searchService;
+
+  public AutocompleteController(SearchService searchService) {
+    this.searchService = searchService;
+  }
+
+  @Operation(
+      summary = "Complete a prefix",
+      description =
+          "Suggests the movie titles and actor and director names with a word starting with the"
+              + " prefix, ignoring case and accents. Movies and actors with the most roles and"
+              + " directors with the most movies come first")
+  @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+  @ApiStandardResponses
+  @GetMapping
+  public ResponseEntity<List<Suggestion>> autocomplete(
+      @Parameter(description = "Prefix typed so far", example = "dark kn") @RequestParam String q,
+      @Parameter(
+              description = "Number of suggestions, at most catalog.search.autocomplete-size",
+              example = "10")
+          @RequestParam(defaultValue = "10")
+          @Min(1)
+          int limit) {
+    return ResponseEntity.ok(searchService.autocomplete(q, limit));
+  }
+}
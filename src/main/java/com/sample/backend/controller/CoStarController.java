@@ -0,0 +1,73 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.ActorPath;
+import com.sample.backend.dto.CoStar;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
+import com.sample.backend.service.CoStarService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/actors")
+@Tag(name = "Co-stars", description = "Actor co-star and degrees-of-separation APIs")
+@Validated
+public class CoStarController {
+
+  private final CoStarService coStarService;
+
+  public CoStarController(CoStarService coStarService) {
+    this.coStarService = coStarService;
+  }
+
+  @Operation(
+      summary = "Get an actor's co-stars",
+      description =
+          "Returns the actors who played in a movie with the actor, those sharing the most movies"
+              + " first")
+  @ApiResponse(responseCode = "200", description = "Co-stars retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Actor.class, Role.class})
+  @GetMapping("/{id}/costars")
+  public ResponseEntity<List<CoStar>> getCoStars(
+      @Parameter(description = "Actor ID", required = true) @PathVariable Long id,
+      @Parameter(description = "Most co-stars returned, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int limit) {
+    return ResponseEntity.ok(coStarService.getCoStars(id, limit));
+  }
+
+  @Operation(
+      summary = "Find the degrees of separation between two actors",
+      description =
+          "Returns a shortest chain of actors and the movies they shared linking the first actor to"
+              + " the second, or connected=false when none has at most maxDegrees movies")
+  @ApiResponse(responseCode = "200", description = "Path searched successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Actor.class, Movie.class, Role.class})
+  @GetMapping("/{id}/path/{otherId}")
+  public ResponseEntity<ActorPath> findPath(
+      @Parameter(description = "ID of the first actor", required = true) @PathVariable Long id,
+      @Parameter(description = "ID of the second actor", required = true) @PathVariable
+          Long otherId,
+      @Parameter(description = "Most movies on the chain", example = "6")
+          @RequestParam(defaultValue = "6")
+          @Min(1)
+          int maxDegrees) {
+    return ResponseEntity.ok(coStarService.findPath(id, otherId, maxDegrees));
+  }
+}
@@ -0,0 +1,19 @@
+package com.sample.backend.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a list endpoint whose response depends only on the rows of {@link #value()}. Its ETag and
+ * Last-Modified come from {@link com.sample.backend.repository.TableVersions}, and a conditional
+ * request for an unchanged list is answered with 304 Not Modified before the handler runs.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CollectionVersion {
+
+  /** The entities whose tables the list shows. */
+  Class<?>[] value();
+}
@@ -0,0 +1,40 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional requests to the endpoints marked {@link CollectionVersion}. The stamp is
+ * taken before the handler reads the list, so the ETag sent with a list is never newer than the
+ * list itself.
+ */
+@Component
+public class CollectionVersionInterceptor implements HandlerInterceptor {
+
+  private final TableVersions tableVersions;
+
+  public CollectionVersionInterceptor(TableVersions tableVersions) {
+    this.tableVersions = tableVersions;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!(handler instanceof HandlerMethod method)) {
+      return true;
+    }
+    CollectionVersion collection = method.getMethodAnnotation(CollectionVersion.class);
+    if (collection == null) {
+      return true;
+    }
+    VersionStamp stamp = tableVersions.stamp(collection.value());
+    return !new ServletWebRequest(request, response)
+        .checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli());
+  }
+}
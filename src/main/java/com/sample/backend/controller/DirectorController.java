@@ -1,8 +1,16 @@
 package com.sample.backend.controller;
 
 import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Director;
+import com.sample.backend.repository.VersionStamp;
 import com.sample.backend.service.DirectorService;
+import com.sample.backend.service.Versioned;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,7 +18,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -20,9 +31,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/directors")
@@ -38,34 +51,207 @@ public class DirectorController {
 
   @Operation(
       summary = "Get all directors",
-      description = "Retrieves a list of all available directors")
+      description =
+          "Retrieves a list of all available directors. Fails with 400 if more than the list limit match; use the page parameter then")
   @ApiResponse(responseCode = "200", description = "Successfully retrieved all directors")
   @ApiStandardResponses
+  @CollectionVersion(Director.class)
   @GetMapping
   public ResponseEntity<List<DirectorDTO>> getAllDirectors() {
     return ResponseEntity.ok(directorService.getAllDirectors());
   }
 
+  @Operation(
+      summary = "Get directors by page",
+      description =
+          "Retrieves one page of directors without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(params = "page")
+  public ResponseEntity<PagedResponse<DirectorDTO>> getDirectors(
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "lastName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(directorService.getDirectors(page, size, sort, direction));
+  }
+
+  @Operation(
+      summary = "Get all directors with selected fields",
+      description =
+          "Retrieves every director with only the fields listed, reading only their columns; fields"
+              + " without a value are left out. Fails with 400 if a field is unknown or more than"
+              + " the list limit match; use the page parameter then")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved all directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(params = {"fields", "!page", "!cursor", "!ids"})
+  public ResponseEntity<List<Map<String, Object>>> getAllDirectorsFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,lastName")
+          @RequestParam
+          String fields) {
+    return ResponseEntity.ok(directorService.getAllDirectors(fields));
+  }
+
+  @Operation(
+      summary = "Get directors by page with selected fields",
+      description =
+          "Retrieves one page of directors with only the fields listed, reading only their columns;"
+              + " fields without a value are left out. Fails with 400 if a field is unknown")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(params = {"fields", "page", "!cursor"})
+  public ResponseEntity<PagedResponse<Map<String, Object>>> getDirectorsFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,lastName")
+          @RequestParam
+          String fields,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "lastName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(directorService.getDirectors(fields, page, size, sort, direction));
+  }
+
+  /** Rejects a request paging by both page number and cursor, which no single mapping serves. */
+  @Hidden
+  @GetMapping(params = {"page", "cursor"})
+  public ResponseEntity<Void> rejectPageWithCursor() {
+    throw new BadRequestException("Page by either page or cursor, not both");
+  }
+
+  @Operation(
+      summary = "Get directors by cursor",
+      description =
+          "Retrieves one page of directors by keyset pagination. Pass an empty cursor for the first"
+              + " page, then the next or prev cursor of the response. Unlike page numbers, deep"
+              + " pages are as fast as the first one")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(params = "cursor")
+  public ResponseEntity<PagedResponse<DirectorDTO>> scrollDirectors(
+      @Parameter(description = "Cursor from a previous page; empty for the first page")
+          @RequestParam
+          String cursor,
+      @Parameter(description = "Page size", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field of the first page", example = "lastName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction of the first page (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(directorService.scrollDirectors(cursor, size, sort, direction));
+  }
+
+  /** Rejects selecting fields of rows looked up by ids, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"ids", "fields", "!page", "!cursor"})
+  public ResponseEntity<Void> rejectIdsWithFields() {
+    throw new BadRequestException("Select fields of a page or of all rows, not of rows by ids");
+  }
+
+  @Operation(
+      summary = "Get directors by IDs",
+      description =
+          "Retrieves the directors with the listed IDs in their order, leaving out those not found."
+              + " Cached directors are served without a query and the others are read together."
+              + " Fails with 400 if more IDs are listed than the maximum page size")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(params = {"ids", "!page", "!cursor", "!fields"})
+  public ResponseEntity<List<DirectorDTO>> getDirectorsByIds(
+      @Parameter(description = "Comma separated director IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    return ResponseEntity.ok(directorService.getDirectorsByIds(ids));
+  }
+
   @Operation(
       summary = "Get director by ID",
       description = "Retrieves a specific director by its ID")
   @ApiResponse(responseCode = "200", description = "Director found")
+  @ApiResponse(responseCode = "304", description = "Director unchanged since the If-None-Match tag")
   @ApiStandardResponses
   @GetMapping("/{id}")
   public ResponseEntity<DirectorDTO> getDirectorById(
-      @Parameter(description = "Director ID", required = true) @PathVariable Long id) {
-    return ResponseEntity.ok(directorService.getDirectorById(id));
+      @Parameter(description = "Director ID", required = true) @PathVariable Long id,
+      WebRequest request) {
+    Versioned<DirectorDTO> director = directorService.getVersionedDirector(id);
+    VersionStamp stamp = director.stamp();
+    if (request.checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli())) {
+      return null;
+    }
+    return ResponseEntity.ok(director.dto());
   }
 
-  @Operation(summary = "Search directors", description = "Search directors by name")
+  @Operation(
+      summary = "Search directors",
+      description =
+          "Search directors by name. Fails with 400 if more than the list limit match; use the page parameter then")
   @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion(Director.class)
   @GetMapping("/search")
   public ResponseEntity<List<DirectorDTO>> searchDirectors(
-      @Parameter(description = "Director name (partial match)") @RequestParam String name) {
+      @Parameter(description = "Director name (partial match)") @RequestParam String name,
+      @Parameter(description = "Match names within a few typos or that sound alike, closest first")
+          @RequestParam(defaultValue = "false")
+          boolean fuzzy) {
+    if (fuzzy) {
+      return ResponseEntity.ok(directorService.fuzzySearchDirectors(name));
+    }
     return ResponseEntity.ok(directorService.searchDirectors(name));
   }
 
+  @Operation(
+      summary = "Search directors by page",
+      description =
+          "Search directors by name, one page at a time without counting them, so totalElements and totalPages are -1 unless fuzzy")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved directors")
+  @ApiStandardResponses
+  @CollectionVersion(Director.class)
+  @GetMapping(value = "/search", params = "page")
+  public ResponseEntity<PagedResponse<DirectorDTO>> searchDirectors(
+      @Parameter(description = "Director name (partial match)") @RequestParam String name,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(
+              description =
+                  "Match names within a few typos or that sound alike, closest first, and count"
+                      + " the matches")
+          @RequestParam(defaultValue = "false")
+          boolean fuzzy) {
+    if (fuzzy) {
+      return ResponseEntity.ok(directorService.fuzzySearchDirectors(name, page, size));
+    }
+    return ResponseEntity.ok(directorService.searchDirectors(name, page, size));
+  }
+
   @Operation(summary = "Create director", description = "Creates a new director entry")
   @ApiResponse(
       responseCode = "201",
@@ -79,26 +265,55 @@ public class DirectorController {
     return new ResponseEntity<>(directorService.createDirector(directorDTO), HttpStatus.CREATED);
   }
 
+  @Operation(
+      summary = "Create directors in batch",
+      description =
+          "Creates several directors in one transaction. Unless allowPartial is set, no director is"
+              + " created when any of them is invalid")
+  @ApiResponse(responseCode = "201", description = "All directors created")
+  @ApiResponse(
+      responseCode = "207",
+      description = "Some directors created, see the per-item results")
+  @ApiStandardResponses
+  @PostMapping("/batch")
+  public ResponseEntity<BatchResponse<DirectorDTO>> createDirectors(
+      @Parameter(description = "Director data", required = true) @Valid @RequestBody
+          List<DirectorDTO> directorDTOs,
+      @Parameter(description = "Create the valid directors even if others fail")
+          @RequestParam(defaultValue = "false")
+          boolean allowPartial) {
+    BatchResponse<DirectorDTO> response =
+        directorService.createDirectors(directorDTOs, allowPartial);
+    return new ResponseEntity<>(response, response.status());
+  }
+
   @Operation(
       summary = "Update director",
       description = "Updates an existing director's information")
   @ApiResponse(responseCode = "200", description = "Director updated successfully")
+  @ApiResponse(responseCode = "409", description = "Director changed by a concurrent update")
+  @ApiResponse(responseCode = "412", description = "If-Match lists none of the director's tags")
   @ApiStandardResponses
   @PutMapping("/{id}")
   public ResponseEntity<DirectorDTO> updateDirector(
       @Parameter(description = "Director ID", required = true) @PathVariable Long id,
       @Parameter(description = "Updated director data", required = true) @Valid @RequestBody
-          DirectorDTO directorDTO) {
-    return ResponseEntity.ok(directorService.updateDirector(id, directorDTO));
+          DirectorDTO directorDTO,
+      @Parameter(description = "Entity tag the update is based on; 412 if it is no longer current")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
+    return ResponseEntity.ok(directorService.updateDirector(id, directorDTO, ifMatch));
   }
 
-  @Operation(summary = "Delete director", description = "Removes a director from the database")
-  @ApiResponse(responseCode = "204", description = "Director deleted successfully")
+  @Operation(
+      summary = "Delete director",
+      description =
+          "Removes a director, their movies and the roles in those movies from the database")
+  @ApiResponse(responseCode = "200", description = "Director deleted successfully")
   @ApiStandardResponses
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> deleteDirector(
+  public ResponseEntity<DeletionResult> deleteDirector(
       @Parameter(description = "Director ID", required = true) @PathVariable Long id) {
-    directorService.deleteDirector(id);
-    return ResponseEntity.noContent().build();
+    return ResponseEntity.ok(directorService.deleteDirector(id));
   }
 }
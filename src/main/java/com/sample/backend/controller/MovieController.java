@@ -1,9 +1,19 @@
 package com.sample.backend.controller;
 
 import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieDetails;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Director;
 import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
 import com.sample.backend.service.MovieService;
+import com.sample.backend.service.Versioned;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,9 +21,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -24,9 +41,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 /** REST controller for movie operations. Exposes endpoints for managing movies. */
 @RestController
@@ -37,9 +56,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class MovieController {
 
   private final MovieService movieService;
+  private final SerializedResponses serializedResponses;
 
-  public MovieController(MovieService movieService) {
+  public MovieController(MovieService movieService, SerializedResponses serializedResponses) {
     this.movieService = movieService;
+    this.serializedResponses = serializedResponses;
   }
 
   /**
@@ -47,15 +68,165 @@ public class MovieController {
    *
    * @return List of all movies
    */
-  @Operation(summary = "Get all movies", description = "Retrieves a list of all available movies")
+  @Operation(
+      summary = "Get all movies",
+      description =
+          "Retrieves a list of all available movies. Fails with 400 if more than the list limit match; use the page parameter then")
   @ApiResponse(responseCode = "200", description = "Successfully retrieved all movies")
   @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
   @GetMapping
   public ResponseEntity<List<MovieDTO>> getAllMovies() {
     log.info("REST request to get all movies");
     return ResponseEntity.ok(movieService.getAllMovies());
   }
 
+  /**
+   * Get one page of movies by page number.
+   *
+   * @return Page of movies
+   */
+  @Operation(
+      summary = "Get movies by page",
+      description =
+          "Retrieves one page of movies without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(params = "page")
+  public ResponseEntity<PagedResponse<MovieDTO>> getMovies(
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "releaseDate")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    log.info("REST request to get movies page: {}", page);
+    return ResponseEntity.ok(movieService.getMovies(page, size, sort, direction));
+  }
+
+  @Operation(
+      summary = "Get all movies with selected fields",
+      description =
+          "Retrieves every movie with only the fields listed, reading only their columns; fields"
+              + " without a value are left out. Fails with 400 if a field is unknown or more than"
+              + " the list limit match; use the page parameter then")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved all movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(params = {"fields", "!page", "!cursor", "!ids"})
+  public ResponseEntity<List<Map<String, Object>>> getAllMoviesFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,title")
+          @RequestParam
+          String fields) {
+    log.info("REST request to get all movies with fields: {}", fields);
+    return ResponseEntity.ok(movieService.getAllMovies(fields));
+  }
+
+  @Operation(
+      summary = "Get movies by page with selected fields",
+      description =
+          "Retrieves one page of movies with only the fields listed, reading only their columns;"
+              + " fields without a value are left out. Fails with 400 if a field is unknown")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(params = {"fields", "page", "!cursor"})
+  public ResponseEntity<PagedResponse<Map<String, Object>>> getMoviesFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,title")
+          @RequestParam
+          String fields,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "title") @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    log.info("REST request to get movies page: {} with fields: {}", page, fields);
+    return ResponseEntity.ok(movieService.getMovies(fields, page, size, sort, direction));
+  }
+
+  /** Rejects a request paging by both page number and cursor, which no single mapping serves. */
+  @Hidden
+  @GetMapping(params = {"page", "cursor"})
+  public ResponseEntity<Void> rejectPageWithCursor() {
+    throw new BadRequestException("Page by either page or cursor, not both");
+  }
+
+  /**
+   * Get one page of movies by cursor.
+   *
+   * @return Page of movies with the cursors of the neighbouring pages
+   */
+  @Operation(
+      summary = "Get movies by cursor",
+      description =
+          "Retrieves one page of movies by keyset pagination. Pass an empty cursor for the first"
+              + " page, then the next or prev cursor of the response. Unlike page numbers, deep"
+              + " pages are as fast as the first one")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(params = "cursor")
+  public ResponseEntity<PagedResponse<MovieDTO>> scrollMovies(
+      @Parameter(description = "Cursor from a previous page; empty for the first page")
+          @RequestParam
+          String cursor,
+      @Parameter(description = "Page size", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field of the first page", example = "releaseDate")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction of the first page (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    log.info("REST request to get movies at cursor: {}", cursor);
+    return ResponseEntity.ok(movieService.scrollMovies(cursor, size, sort, direction));
+  }
+
+  /** Rejects selecting fields of rows looked up by ids, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"ids", "fields", "!page", "!cursor"})
+  public ResponseEntity<Void> rejectIdsWithFields() {
+    throw new BadRequestException("Select fields of a page or of all rows, not of rows by ids");
+  }
+
+  /**
+   * Get several movies by ID.
+   *
+   * @param ids Movie IDs
+   * @return The movies found, in the order of their IDs
+   */
+  @Operation(
+      summary = "Get movies by IDs",
+      description =
+          "Retrieves the movies with the listed IDs in their order, leaving out those not found."
+              + " Cached movies are served without a query and the others are read together."
+              + " Fails with 400 if more IDs are listed than the maximum page size")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(params = {"ids", "!page", "!cursor", "!fields"})
+  public ResponseEntity<List<MovieDTO>> getMoviesByIds(
+      @Parameter(description = "Comma separated movie IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    log.info("REST request to get movies with IDs: {}", ids);
+    return ResponseEntity.ok(movieService.getMoviesByIds(ids));
+  }
+
   /**
    * Get a specific movie by ID.
    *
@@ -64,12 +235,43 @@ public class MovieController {
    */
   @Operation(summary = "Get movie by ID", description = "Retrieves a specific movie by its ID")
   @ApiResponse(responseCode = "200", description = "Movie found")
+  @ApiResponse(responseCode = "304", description = "Movie unchanged since the If-None-Match tag")
   @ApiStandardResponses
   @GetMapping("/{id}")
   public ResponseEntity<MovieDTO> getMovieById(
-      @Parameter(description = "Movie ID", required = true) @PathVariable Long id) {
+      @Parameter(description = "Movie ID", required = true) @PathVariable Long id,
+      ServletWebRequest request)
+      throws IOException {
     log.info("REST request to get movie with ID: {}", id);
-    return ResponseEntity.ok(movieService.getMovieById(id));
+    return serializedResponses.movie(id, request, movieService::getVersionedMovie);
+  }
+
+  /**
+   * Get a movie with its director and cast.
+   *
+   * @param id Movie ID
+   * @return The movie, its director and its roles with their actors
+   */
+  @Operation(
+      summary = "Get movie details",
+      description =
+          "Retrieves a movie with its director and its roles with their actors in one request, read"
+              + " in two queries whatever the size of the cast. The ETag changes when the movie,"
+              + " its director, its roles or their actors do")
+  @ApiResponse(responseCode = "200", description = "Movie found")
+  @ApiResponse(responseCode = "304", description = "Details unchanged since the If-None-Match tag")
+  @ApiStandardResponses
+  @GetMapping("/{id}/full")
+  public ResponseEntity<MovieDetails> getMovieDetails(
+      @Parameter(description = "Movie ID", required = true) @PathVariable Long id,
+      ServletWebRequest request) {
+    log.info("REST request to get details of movie with ID: {}", id);
+    Versioned<MovieDetails> details = movieService.getMovieDetails(id);
+    if (request.checkNotModified(
+        details.stamp().etag(), details.stamp().lastModified().toEpochMilli())) {
+      return null;
+    }
+    return ResponseEntity.ok(details.dto());
   }
 
   /**
@@ -79,16 +281,26 @@ public class MovieController {
    * @param genre Optional genre search term
    * @return List of matching movies
    */
-  @Operation(summary = "Search movies", description = "Search movies by title or genre")
+  @Operation(
+      summary = "Search movies",
+      description =
+          "Search movies by title or genre. Fails with 400 if more than the list limit match; use the page parameter then")
   @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
   @GetMapping("/search")
   public ResponseEntity<List<MovieDTO>> searchMovies(
       @Parameter(description = "Movie title (partial match)") @RequestParam(required = false)
           String title,
       @Parameter(description = "Movie genre (exact match)") @RequestParam(required = false)
-          Genre genre) {
+          Genre genre,
+      @Parameter(description = "Match title words within a few typos, closest first")
+          @RequestParam(defaultValue = "false")
+          boolean fuzzy) {
     log.info("REST request to search movies with title: {} and genre: {}", title, genre);
+    if (fuzzy && (title != null) && !title.isEmpty()) {
+      return ResponseEntity.ok(movieService.fuzzySearchMovies(title, genre));
+    }
     if (((title != null) && !title.isEmpty()) && (genre != null)) {
       try {
         return ResponseEntity.ok(movieService.getMoviesByTitleAndGenre(title, genre));
@@ -112,6 +324,102 @@ public class MovieController {
     return ResponseEntity.ok(movieService.getAllMovies());
   }
 
+  /**
+   * Search movies by title or genre, one page at a time.
+   *
+   * @return Page of matching movies
+   */
+  @Operation(
+      summary = "Search movies by page",
+      description =
+          "Search movies by title or genre, one page at a time without counting them, so totalElements and totalPages are -1 unless fuzzy")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping(value = "/search", params = "page")
+  public ResponseEntity<PagedResponse<MovieDTO>> searchMovies(
+      @Parameter(description = "Movie title (partial match)") @RequestParam(required = false)
+          String title,
+      @Parameter(description = "Movie genre (exact match)") @RequestParam(required = false)
+          Genre genre,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(
+              description =
+                  "Match title words within a few typos, closest first, and count the matches")
+          @RequestParam(defaultValue = "false")
+          boolean fuzzy) {
+    log.info(
+        "REST request to search movies page: {} with title: {} and genre: {}", page, title, genre);
+    if (fuzzy && (title != null) && !title.isEmpty()) {
+      return ResponseEntity.ok(movieService.fuzzySearchMovies(title, genre, page, size));
+    }
+    return ResponseEntity.ok(
+        movieService.searchMovies(
+            (title == null || title.isEmpty()) ? null : title, genre, page, size));
+  }
+
+  /**
+   * Filter movies on any combination of genres, release dates, durations and directors.
+   *
+   * @return Page of matching movies, in id order
+   */
+  @Operation(
+      summary = "Filter movies",
+      description =
+          "Filter movies by genres, release date range, duration range and directors, all of which must match, one page at a time in id order")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved movies")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping("/filter")
+  public ResponseEntity<PagedResponse<MovieDTO>> filterMovies(
+      @Parameter(description = "Genres, of which a movie has one; repeat for several")
+          @RequestParam(name = "genre", required = false)
+          Set<Genre> genres,
+      @Parameter(description = "Earliest release date, inclusive", example = "1990-01-01")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = ISO.DATE)
+          LocalDate releasedFrom,
+      @Parameter(description = "Latest release date, inclusive", example = "1999-12-31")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = ISO.DATE)
+          LocalDate releasedTo,
+      @Parameter(description = "Shortest duration in minutes, inclusive", example = "90")
+          @RequestParam(required = false)
+          @Min(0)
+          Integer minDuration,
+      @Parameter(description = "Longest duration in minutes, inclusive", example = "150")
+          @RequestParam(required = false)
+          @Min(0)
+          Integer maxDuration,
+      @Parameter(description = "Director IDs, of which one directed a movie; repeat for several")
+          @RequestParam(name = "directorId", required = false)
+          Set<Long> directorIds,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size) {
+    MovieFilter filter =
+        MovieFilter.builder()
+            .genres(genres)
+            .releasedFrom(releasedFrom)
+            .releasedTo(releasedTo)
+            .minDuration(minDuration)
+            .maxDuration(maxDuration)
+            .directorIds(directorIds)
+            .build();
+    log.info("REST request to filter movies page: {} with {}", page, filter);
+    return ResponseEntity.ok(movieService.filterMovies(filter, page, size));
+  }
+
   /**
    * Create a new movie.
    *
@@ -132,6 +440,33 @@ public class MovieController {
     return new ResponseEntity<>(movieService.createMovie(movieDTO), HttpStatus.CREATED);
   }
 
+  /**
+   * Create several movies in one request.
+   *
+   * @param movieDTOs Movie data
+   * @param allowPartial Whether to keep the valid movies when others fail
+   * @return Per-movie outcome
+   */
+  @Operation(
+      summary = "Create movies in batch",
+      description =
+          "Creates several movies in one transaction. Unless allowPartial is set, no movie is"
+              + " created when any of them is invalid")
+  @ApiResponse(responseCode = "201", description = "All movies created")
+  @ApiResponse(responseCode = "207", description = "Some movies created, see the per-item results")
+  @ApiStandardResponses
+  @PostMapping("/batch")
+  public ResponseEntity<BatchResponse<MovieDTO>> createMovies(
+      @Parameter(description = "Movie data", required = true) @Valid @RequestBody
+          List<MovieDTO> movieDTOs,
+      @Parameter(description = "Create the valid movies even if others fail")
+          @RequestParam(defaultValue = "false")
+          boolean allowPartial) {
+    log.info("REST request to create {} movies", movieDTOs.size());
+    BatchResponse<MovieDTO> response = movieService.createMovies(movieDTOs, allowPartial);
+    return new ResponseEntity<>(response, response.status());
+  }
+
   /**
    * Update an existing movie.
    *
@@ -141,44 +476,55 @@ public class MovieController {
    */
   @Operation(summary = "Update movie", description = "Updates an existing movie's information")
   @ApiResponse(responseCode = "200", description = "Movie updated successfully")
+  @ApiResponse(responseCode = "409", description = "Movie changed by a concurrent update")
+  @ApiResponse(responseCode = "412", description = "If-Match lists none of the movie's tags")
   @ApiStandardResponses
   @PutMapping("/{id}")
   public ResponseEntity<MovieDTO> updateMovie(
       @Parameter(description = "Movie ID", required = true) @PathVariable Long id,
       @Parameter(description = "Updated movie data", required = true) @Valid @RequestBody
-          MovieDTO movieDTO) {
+          MovieDTO movieDTO,
+      @Parameter(description = "Entity tag the update is based on; 412 if it is no longer current")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
     log.info("REST request to update movie with ID: {}", id);
-    return ResponseEntity.ok(movieService.updateMovie(id, movieDTO));
+    return ResponseEntity.ok(movieService.updateMovie(id, movieDTO, ifMatch));
   }
 
   /**
    * Delete a movie.
    *
    * @param id Movie ID
-   * @return No content response
+   * @return Number of movies and roles deleted
    */
-  @Operation(summary = "Delete movie", description = "Removes a movie from the database")
-  @ApiResponse(responseCode = "204", description = "Movie deleted successfully")
+  @Operation(
+      summary = "Delete movie",
+      description = "Removes a movie and its roles from the database")
+  @ApiResponse(responseCode = "200", description = "Movie deleted successfully")
   @ApiStandardResponses
   @DeleteMapping("/{id}")
-  public ResponseEntity<Void> deleteMovie(
+  public ResponseEntity<DeletionResult> deleteMovie(
       @Parameter(description = "Movie ID", required = true) @PathVariable Long id) {
     log.info("REST request to delete movie with ID: {}", id);
-    movieService.deleteMovie(id);
-    return ResponseEntity.noContent().build();
+    return ResponseEntity.ok(movieService.deleteMovie(id));
   }
 
   @Operation(
       summary = "Patch movie",
       description = "Partially updates an existing movie's information")
   @ApiResponse(responseCode = "200", description = "Movie patched successfully")
+  @ApiResponse(responseCode = "409", description = "Movie changed by a concurrent update")
+  @ApiResponse(responseCode = "412", description = "If-Match lists none of the movie's tags")
   @ApiStandardResponses
   @PatchMapping("/{id}")
   public ResponseEntity<MovieDTO> patchMovie(
       @Parameter(description = "Movie ID", required = true) @PathVariable Long id,
       @Parameter(description = "Fields to update", required = true) @RequestBody
-          Map<String, Object> updates) {
+          Map<String, Object> updates,
+      @Parameter(description = "Entity tag the update is based on; 412 if it is no longer current")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
     log.info("REST request to patch movie with ID: {}", id);
-    return ResponseEntity.ok(movieService.patchMovie(id, updates));
+    return ResponseEntity.ok(movieService.patchMovie(id, updates, ifMatch));
   }
 }
@@ -0,0 +1,53 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.SimilarMovie;
+import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
+import com.sample.backend.service.RecommendationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/movies")
+@Tag(name = "Recommendations", description = "Similar movie APIs")
+@Validated
+public class RecommendationController {
+
+  private final RecommendationService recommendationService;
+
+  public RecommendationController(RecommendationService recommendationService) {
+    this.recommendationService = recommendationService;
+  }
+
+  @Operation(
+      summary = "Get the movies similar to a movie",
+      description =
+          "Returns the movies sharing the most actors, director and genre with the movie, by"
+              + " weighted Jaccard similarity, most similar first")
+  @ApiResponse(responseCode = "200", description = "Similar movies retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Role.class})
+  @GetMapping("/{id}/similar")
+  public ResponseEntity<List<SimilarMovie>> getSimilarMovies(
+      @Parameter(description = "Movie ID", required = true) @PathVariable Long id,
+      @Parameter(
+              description = "Most movies returned, at most the number kept per movie",
+              example = "10")
+          @RequestParam(defaultValue = "10")
+          @Min(1)
+          int limit) {
+    return ResponseEntity.ok(recommendationService.getSimilarMovies(id, limit));
+  }
+}
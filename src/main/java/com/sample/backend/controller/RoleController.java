@@ -1,8 +1,15 @@
 package com.sample.backend.controller;
 
 import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.PagedResponse;
 import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
 import com.sample.backend.service.RoleService;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,7 +17,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -20,9 +31,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
 @RequestMapping("/api/roles")
@@ -31,26 +44,209 @@ import org.springframework.web.bind.annotation.RestController;
 public class RoleController {
 
   private final RoleService roleService;
+  private final SerializedResponses serializedResponses;
 
-  public RoleController(RoleService roleService) {
+  public RoleController(RoleService roleService, SerializedResponses serializedResponses) {
     this.roleService = roleService;
+    this.serializedResponses = serializedResponses;
   }
 
-  @Operation(summary = "Get all roles", description = "Retrieves a list of all available roles")
+  @Operation(
+      summary = "Get all roles",
+      description =
+          "Retrieves a list of all available roles. Fails with 400 if more than the list limit match; use the page parameter then")
   @ApiResponse(responseCode = "200", description = "Successfully retrieved all roles")
   @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
   @GetMapping
   public ResponseEntity<List<RoleDTO>> getAllRoles() {
     return ResponseEntity.ok(roleService.getAllRoles());
   }
 
+  @Operation(
+      summary = "Get roles by page",
+      description =
+          "Retrieves one page of roles without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = "page")
+  public ResponseEntity<PagedResponse<RoleDTO>> getRoles(
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "characterName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(roleService.getRoles(page, size, sort, direction));
+  }
+
+  @Operation(
+      summary = "Get all roles with selected fields",
+      description =
+          "Retrieves every role with only the fields listed, reading only their columns; fields"
+              + " without a value are left out. Fails with 400 if a field is unknown or more than"
+              + " the list limit match; use the page parameter then")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved all roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = {"fields", "!page", "!cursor", "!ids", "!movieIds", "!actorIds"})
+  public ResponseEntity<List<Map<String, Object>>> getAllRolesFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,characterName")
+          @RequestParam
+          String fields) {
+    return ResponseEntity.ok(roleService.getAllRoles(fields));
+  }
+
+  @Operation(
+      summary = "Get roles by page with selected fields",
+      description =
+          "Retrieves one page of roles with only the fields listed, reading only their columns;"
+              + " fields without a value are left out. Fails with 400 if a field is unknown")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = {"fields", "page", "!cursor"})
+  public ResponseEntity<PagedResponse<Map<String, Object>>> getRolesFields(
+      @Parameter(description = "Comma separated fields to return", example = "id,characterName")
+          @RequestParam
+          String fields,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field", example = "characterName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(roleService.getRoles(fields, page, size, sort, direction));
+  }
+
+  /** Rejects a request paging by both page number and cursor, which no single mapping serves. */
+  @Hidden
+  @GetMapping(params = {"page", "cursor"})
+  public ResponseEntity<Void> rejectPageWithCursor() {
+    throw new BadRequestException("Page by either page or cursor, not both");
+  }
+
+  @Operation(
+      summary = "Get roles by cursor",
+      description =
+          "Retrieves one page of roles by keyset pagination. Pass an empty cursor for the first"
+              + " page, then the next or prev cursor of the response. Unlike page numbers, deep"
+              + " pages are as fast as the first one")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = "cursor")
+  public ResponseEntity<PagedResponse<RoleDTO>> scrollRoles(
+      @Parameter(description = "Cursor from a previous page; empty for the first page")
+          @RequestParam
+          String cursor,
+      @Parameter(description = "Page size", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size,
+      @Parameter(description = "Sort field of the first page", example = "characterName")
+          @RequestParam(defaultValue = "id")
+          String sort,
+      @Parameter(description = "Sort direction of the first page (asc or desc)", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction) {
+    return ResponseEntity.ok(roleService.scrollRoles(cursor, size, sort, direction));
+  }
+
+  /** Rejects selecting fields of rows looked up by ids, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"ids", "fields", "!page", "!cursor"})
+  public ResponseEntity<Void> rejectIdsWithFields() {
+    throw new BadRequestException("Select fields of a page or of all rows, not of rows by ids");
+  }
+
+  @Operation(
+      summary = "Get roles by IDs",
+      description =
+          "Retrieves the roles with the listed IDs in their order, leaving out those not found."
+              + " Cached roles are served without a query and the others are read together."
+              + " Fails with 400 if more IDs are listed than the maximum page size")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = {"ids", "!page", "!cursor", "!fields"})
+  public ResponseEntity<List<RoleDTO>> getRolesByIds(
+      @Parameter(description = "Comma separated role IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    return ResponseEntity.ok(roleService.getRolesByIds(ids));
+  }
+
+  /** Rejects selecting fields of rows looked up by movieIds, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"movieIds", "fields", "!ids", "!page", "!cursor"})
+  public ResponseEntity<Void> rejectMovieIdsWithFields() {
+    throw new BadRequestException(
+        "Select fields of a page or of all rows, not of rows by movieIds");
+  }
+
+  @Operation(
+      summary = "Get roles by movies",
+      description =
+          "Retrieves the roles in the listed movies with one query, grouped by movie in the order"
+              + " listed. Fails with 400 if more movies are listed than the maximum page size or"
+              + " more than the list limit of roles match")
+  @ApiResponse(responseCode = "200", description = "Roles retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = {"movieIds", "!ids", "!page", "!cursor", "!fields"})
+  public ResponseEntity<List<RoleDTO>> getRolesByMovies(
+      @Parameter(description = "Comma separated movie IDs", example = "1,2") @RequestParam
+          List<Long> movieIds) {
+    return ResponseEntity.ok(roleService.getRolesByMovieIds(movieIds));
+  }
+
+  /** Rejects selecting fields of rows looked up by actorIds, which always returns whole DTOs. */
+  @Hidden
+  @GetMapping(params = {"actorIds", "fields", "!ids", "!movieIds", "!page", "!cursor"})
+  public ResponseEntity<Void> rejectActorIdsWithFields() {
+    throw new BadRequestException(
+        "Select fields of a page or of all rows, not of rows by actorIds");
+  }
+
+  @Operation(
+      summary = "Get roles by actors",
+      description =
+          "Retrieves the roles played by the listed actors with one query, grouped by actor in"
+              + " the order listed. Fails with 400 if more actors are listed than the maximum page"
+              + " size or more than the list limit of roles match")
+  @ApiResponse(responseCode = "200", description = "Roles retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(params = {"actorIds", "!ids", "!movieIds", "!page", "!cursor", "!fields"})
+  public ResponseEntity<List<RoleDTO>> getRolesByActors(
+      @Parameter(description = "Comma separated actor IDs", example = "1,2") @RequestParam
+          List<Long> actorIds) {
+    return ResponseEntity.ok(roleService.getRolesByActorIds(actorIds));
+  }
+
   @Operation(summary = "Get role by ID", description = "Retrieves a specific role by its ID")
   @ApiResponse(responseCode = "200", description = "Role found")
+  @ApiResponse(responseCode = "304", description = "Role unchanged since the If-None-Match tag")
   @ApiStandardResponses
   @GetMapping("/{id}")
   public ResponseEntity<RoleDTO> getRoleById(
-      @Parameter(description = "Role ID", required = true) @PathVariable Long id) {
-    return ResponseEntity.ok(roleService.getRoleById(id));
+      @Parameter(description = "Role ID", required = true) @PathVariable Long id,
+      ServletWebRequest request)
+      throws IOException {
+    return serializedResponses.role(id, request, roleService::getVersionedRole);
   }
 
   @Operation(
@@ -58,26 +254,67 @@ public class RoleController {
       description = "Retrieves all roles for a specific movie")
   @ApiResponse(responseCode = "200", description = "Roles retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
   @GetMapping("/movie/{movieId}")
   public ResponseEntity<List<RoleDTO>> getRolesByMovie(
       @Parameter(description = "Movie ID", required = true) @PathVariable Long movieId) {
     return ResponseEntity.ok(roleService.getRolesByMovieId(movieId));
   }
 
+  @Operation(
+      summary = "Get roles by movie by page",
+      description =
+          "Retrieves one page of the roles in a movie without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(value = "/movie/{movieId}", params = "page")
+  public ResponseEntity<PagedResponse<RoleDTO>> getRolesByMovie(
+      @Parameter(description = "Movie ID", required = true) @PathVariable Long movieId,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size) {
+    return ResponseEntity.ok(roleService.getRolesByMovieId(movieId, page, size));
+  }
+
   @Operation(
       summary = "Get roles by actor",
       description = "Retrieves all roles played by a specific actor")
   @ApiResponse(responseCode = "200", description = "Roles retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
   @GetMapping("/actor/{actorId}")
   public ResponseEntity<List<RoleDTO>> getRolesByActor(
       @Parameter(description = "Actor ID", required = true) @PathVariable Long actorId) {
     return ResponseEntity.ok(roleService.getRolesByActorId(actorId));
   }
 
+  @Operation(
+      summary = "Get roles by actor by page",
+      description =
+          "Retrieves one page of the roles played by an actor without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(value = "/actor/{actorId}", params = "page")
+  public ResponseEntity<PagedResponse<RoleDTO>> getRolesByActor(
+      @Parameter(description = "Actor ID", required = true) @PathVariable Long actorId,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size) {
+    return ResponseEntity.ok(roleService.getRolesByActorId(actorId, page, size));
+  }
+
   @Operation(summary = "Search roles", description = "Search roles by character name")
   @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
   @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
   @GetMapping("/search")
   public ResponseEntity<List<RoleDTO>> searchRoles(
       @Parameter(description = "Character name (partial match)") @RequestParam
@@ -85,6 +322,25 @@ public class RoleController {
     return ResponseEntity.ok(roleService.searchRolesByCharacterName(characterName));
   }
 
+  @Operation(
+      summary = "Search roles by page",
+      description =
+          "Search roles by character name, one page at a time without counting them, so totalElements and totalPages are -1")
+  @ApiResponse(responseCode = "200", description = "Successfully retrieved roles")
+  @ApiStandardResponses
+  @CollectionVersion({Role.class, Movie.class, Actor.class})
+  @GetMapping(value = "/search", params = "page")
+  public ResponseEntity<PagedResponse<RoleDTO>> searchRoles(
+      @Parameter(description = "Character name (partial match)") @RequestParam String characterName,
+      @Parameter(description = "Page number (0-based)", example = "0") @RequestParam @Min(0)
+          int page,
+      @Parameter(description = "Page size, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int size) {
+    return ResponseEntity.ok(roleService.searchRolesByCharacterName(characterName, page, size));
+  }
+
   @Operation(summary = "Create role", description = "Creates a new role entry")
   @ApiResponse(
       responseCode = "201",
@@ -97,15 +353,39 @@ public class RoleController {
     return new ResponseEntity<>(roleService.createRole(roleDTO), HttpStatus.CREATED);
   }
 
+  @Operation(
+      summary = "Create roles in batch",
+      description =
+          "Creates several roles in one transaction. Unless allowPartial is set, no role is"
+              + " created when any of them is invalid")
+  @ApiResponse(responseCode = "201", description = "All roles created")
+  @ApiResponse(responseCode = "207", description = "Some roles created, see the per-item results")
+  @ApiStandardResponses
+  @PostMapping("/batch")
+  public ResponseEntity<BatchResponse<RoleDTO>> createRoles(
+      @Parameter(description = "Role data", required = true) @Valid @RequestBody
+          List<RoleDTO> roleDTOs,
+      @Parameter(description = "Create the valid roles even if others fail")
+          @RequestParam(defaultValue = "false")
+          boolean allowPartial) {
+    BatchResponse<RoleDTO> response = roleService.createRoles(roleDTOs, allowPartial);
+    return new ResponseEntity<>(response, response.status());
+  }
+
   @Operation(summary = "Update role", description = "Updates an existing role's information")
   @ApiResponse(responseCode = "200", description = "Role updated successfully")
+  @ApiResponse(responseCode = "409", description = "Role changed by a concurrent update")
+  @ApiResponse(responseCode = "412", description = "If-Match lists none of the role's tags")
   @ApiStandardResponses
   @PutMapping("/{id}")
   public ResponseEntity<RoleDTO> updateRole(
       @Parameter(description = "Role ID", required = true) @PathVariable Long id,
       @Parameter(description = "Updated role data", required = true) @Valid @RequestBody
-          RoleDTO roleDTO) {
-    return ResponseEntity.ok(roleService.updateRole(id, roleDTO));
+          RoleDTO roleDTO,
+      @Parameter(description = "Entity tag the update is based on; 412 if it is no longer current")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
+    return ResponseEntity.ok(roleService.updateRole(id, roleDTO, ifMatch));
   }
 
   @Operation(summary = "Delete role", description = "Removes a role from the database")
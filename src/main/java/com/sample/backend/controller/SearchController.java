@@ -0,0 +1,127 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.Facets;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.ReindexResult;
+import com.sample.backend.dto.SearchHit;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import com.sample.backend.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Search", description = "Ranked full-text search APIs")
+@Validated
+public class SearchController {
+
+  private final SearchService searchService;
+
+  public SearchController(SearchService searchService) {
+    this.searchService = searchService;
+  }
+
+  @Operation(
+      summary = "Search the catalogue",
+      description =
+          "Finds movies, actors, directors and roles whose title, name or character name contains"
+              + " the words of the query, ignoring case, accents and plural endings, best BM25"
+              + " match first")
+  @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
+  @ApiStandardResponses
+  @GetMapping
+  public ResponseEntity<List<SearchHit>> search(
+      @Parameter(description = "Words to search for", example = "dark knight") @RequestParam
+          String q,
+      @Parameter(description = "Kinds of rows to search; all of them when omitted")
+          @RequestParam(required = false)
+          List<Type> type,
+      @Parameter(description = "Number of results, at most the server maximum", example = "20")
+          @RequestParam(defaultValue = "20")
+          @Min(1)
+          int limit) {
+    return ResponseEntity.ok(searchService.search(q, type, limit));
+  }
+
+  @Operation(
+      summary = "Count movies, actors and directors by facet",
+      description =
+          "Counts the movies matching a filter per genre, release decade and director, and the"
+              + " actors and directors per nationality, answered from the in-memory indexes in"
+              + " one request")
+  @ApiResponse(responseCode = "200", description = "Facet counts retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class, Actor.class})
+  @GetMapping("/facets")
+  public ResponseEntity<Facets> facets(
+      @Parameter(description = "Genres, of which a movie has one; repeat for several")
+          @RequestParam(name = "genre", required = false)
+          Set<Genre> genres,
+      @Parameter(description = "Earliest release date, inclusive", example = "1990-01-01")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = ISO.DATE)
+          LocalDate releasedFrom,
+      @Parameter(description = "Latest release date, inclusive", example = "1999-12-31")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = ISO.DATE)
+          LocalDate releasedTo,
+      @Parameter(description = "Shortest duration in minutes, inclusive", example = "90")
+          @RequestParam(required = false)
+          @Min(0)
+          Integer minDuration,
+      @Parameter(description = "Longest duration in minutes, inclusive", example = "150")
+          @RequestParam(required = false)
+          @Min(0)
+          Integer maxDuration,
+      @Parameter(description = "Director IDs, of which one directed a movie; repeat for several")
+          @RequestParam(name = "directorId", required = false)
+          Set<Long> directorIds,
+      @Parameter(description = "Most directors listed, at most the server maximum", example = "10")
+          @RequestParam(defaultValue = "10")
+          @Min(1)
+          int directors) {
+    MovieFilter filter =
+        MovieFilter.builder()
+            .genres(genres)
+            .releasedFrom(releasedFrom)
+            .releasedTo(releasedTo)
+            .minDuration(minDuration)
+            .maxDuration(maxDuration)
+            .directorIds(directorIds)
+            .build();
+    return ResponseEntity.ok(searchService.facets(filter, directors));
+  }
+
+  @Operation(
+      summary = "Rebuild the search indexes",
+      description =
+          "Reads every movie, actor, director and role from the database into new search indexes,"
+              + " one table per thread, and swaps them in. Searches keep using the current"
+              + " indexes meanwhile")
+  @ApiResponse(responseCode = "200", description = "Search indexes rebuilt")
+  @ApiStandardResponses
+  @PostMapping("/reindex")
+  public ResponseEntity<ReindexResult> reindex() {
+    return ResponseEntity.ok(searchService.reindex());
+  }
+}
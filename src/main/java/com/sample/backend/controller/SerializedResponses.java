@@ -0,0 +1,118 @@
+package com.sample.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.service.DtoCaches;
+import com.sample.backend.service.OffHeapJsonStore;
+import com.sample.backend.service.Versioned;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Function;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Answers lookups by id from the serialized JSON in an {@link OffHeapJsonStore}. A hit is copied
+ * into a buffer of the request thread and written to the servlet output stream, skipping the DTO
+ * cache and Jackson; a miss is serialized once, kept, and written the same way.
+ */
+@Component
+public class SerializedResponses {
+
+  private final DtoCaches dtoCaches;
+  private final ObjectMapper objectMapper;
+
+  /** A reusable holder of one entry per thread, sized for the largest slot seen. */
+  private final ThreadLocal<OffHeapJsonStore.Hit> hits = new ThreadLocal<>();
+
+  public SerializedResponses(DtoCaches dtoCaches, ObjectMapper objectMapper) {
+    this.dtoCaches = dtoCaches;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Answers a conditional lookup of the movie with {@code id}.
+   *
+   * @param load reads the movie and its stamp, through the DTO cache
+   * @return the response when the movie is left to the message converters, or null when the
+   *     response was written here, in full or as 304 Not Modified
+   */
+  public ResponseEntity<MovieDTO> movie(
+      Long id, ServletWebRequest request, Function<Long, Versioned<MovieDTO>> load)
+      throws IOException {
+    return respond(id, request, dtoCaches.movieJson(), load);
+  }
+
+  /** Answers a conditional lookup of the actor with {@code id}, as {@link #movie} does. */
+  public ResponseEntity<ActorDTO> actor(
+      Long id, ServletWebRequest request, Function<Long, Versioned<ActorDTO>> load)
+      throws IOException {
+    return respond(id, request, dtoCaches.actorJson(), load);
+  }
+
+  /** Answers a conditional lookup of the role with {@code id}, as {@link #movie} does. */
+  public ResponseEntity<RoleDTO> role(
+      Long id, ServletWebRequest request, Function<Long, Versioned<RoleDTO>> load)
+      throws IOException {
+    return respond(id, request, dtoCaches.roleJson(), load);
+  }
+
+  /**
+   * @param store the serialized DTOs, or null to always {@code load} and let the message converters
+   *     write the DTO
+   */
+  private <D> ResponseEntity<D> respond(
+      Long id,
+      ServletWebRequest request,
+      OffHeapJsonStore<D> store,
+      Function<Long, Versioned<D>> load)
+      throws IOException {
+    if (store == null) {
+      Versioned<D> versioned = load.apply(id);
+      VersionStamp stamp = versioned.stamp();
+      if (request.checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli())) {
+        return null;
+      }
+      return ResponseEntity.ok(versioned.dto());
+    }
+    OffHeapJsonStore.Hit hit = hit(store.slotBytes());
+    if (store.read(id, hit)) {
+      if (!request.checkNotModified(hit.etag(), hit.lastModified())) {
+        write(request, hit.buffer(), hit.jsonOffset(), hit.jsonLength());
+      }
+      return null;
+    }
+    long generation = store.generation();
+    Versioned<D> versioned = load.apply(id);
+    VersionStamp stamp = versioned.stamp();
+    byte[] json = objectMapper.writeValueAsBytes(versioned.dto());
+    long lastModified = stamp.lastModified().toEpochMilli();
+    store.put(id, versioned.dto(), stamp.etag(), lastModified, json, generation);
+    if (!request.checkNotModified(stamp.etag(), lastModified)) {
+      write(request, json, 0, json.length);
+    }
+    return null;
+  }
+
+  private OffHeapJsonStore.Hit hit(int slotBytes) {
+    OffHeapJsonStore.Hit hit = hits.get();
+    if (hit == null || hit.buffer().length < slotBytes) {
+      hit = new OffHeapJsonStore.Hit(slotBytes);
+      hits.set(hit);
+    }
+    return hit;
+  }
+
+  private static void write(ServletWebRequest request, byte[] json, int offset, int length)
+      throws IOException {
+    HttpServletResponse response = request.getResponse();
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(length);
+    response.getOutputStream().write(json, offset, length);
+  }
+}
@@ -0,0 +1,77 @@
+package com.sample.backend.controller;
+
+import com.sample.backend.config.ApiStandardResponses;
+import com.sample.backend.dto.DirectorOutput;
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.GenreRuntime;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import com.sample.backend.service.StatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@Tag(name = "Statistics", description = "Movie statistics APIs")
+public class StatisticsController {
+
+  private final StatisticsService statisticsService;
+
+  public StatisticsController(StatisticsService statisticsService) {
+    this.statisticsService = statisticsService;
+  }
+
+  @Operation(
+      summary = "Get the runtime per genre",
+      description =
+          "Returns the average, shortest, longest and percentile durations of the movies of each"
+              + " genre, in genre order")
+  @ApiResponse(responseCode = "200", description = "Runtimes retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion(Movie.class)
+  @GetMapping("/runtime")
+  public ResponseEntity<List<GenreRuntime>> runtimeByGenre(
+      @Parameter(description = "Percentages to report, between 0 and 100", example = "50,90,99")
+          @RequestParam(name = "percentile", defaultValue = "50,90,99")
+          List<Integer> percentiles) {
+    return ResponseEntity.ok(statisticsService.runtimeByGenre(percentiles));
+  }
+
+  @Operation(
+      summary = "Get the releases per year",
+      description = "Returns the number of movies released in each year, oldest first")
+  @ApiResponse(responseCode = "200", description = "Releases retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion(Movie.class)
+  @GetMapping("/releases")
+  public ResponseEntity<List<FacetCount>> releasesByYear(
+      @Parameter(description = "Genre counted; every movie when omitted")
+          @RequestParam(required = false)
+          Genre genre) {
+    return ResponseEntity.ok(statisticsService.releasesByYear(genre));
+  }
+
+  @Operation(
+      summary = "Get a director's output",
+      description =
+          "Returns the number of movies of a director, their average duration and the movies"
+              + " released per year")
+  @ApiResponse(responseCode = "200", description = "Director output retrieved successfully")
+  @ApiStandardResponses
+  @CollectionVersion({Movie.class, Director.class})
+  @GetMapping("/directors/{id}")
+  public ResponseEntity<DirectorOutput> directorOutput(
+      @Parameter(description = "ID of the director", example = "1") @PathVariable Long id) {
+    return ResponseEntity.ok(statisticsService.directorOutput(id));
+  }
+}
@@ -0,0 +1,26 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Shortest chain of co-stars linking two actors")
+public record ActorPath(
+    @Schema(
+            description = "Whether the actors are linked within the requested degrees",
+            example = "true",
+            requiredMode = RequiredMode.REQUIRED)
+        boolean connected,
+    @Schema(
+            description = "Number of movies on the chain, or -1 when not connected",
+            example = "2",
+            requiredMode = RequiredMode.REQUIRED)
+        int degrees,
+    @Schema(
+            description =
+                "Actors and movies on the chain, alternating from the first actor to the second;"
+                    + " empty when not connected",
+            requiredMode = RequiredMode.REQUIRED)
+        List<PathStep> steps) {}
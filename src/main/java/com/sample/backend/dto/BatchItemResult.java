@@ -0,0 +1,45 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Outcome of one item of a batch request")
+public record BatchItemResult<T>(
+    @Schema(
+            description = "Position of the item in the request (0-based)",
+            example = "0",
+            requiredMode = RequiredMode.REQUIRED)
+        int index,
+    @Schema(description = "What happened to the item", requiredMode = RequiredMode.REQUIRED)
+        Status status,
+    @Schema(description = "The created item, when it was created") T item,
+    @Schema(description = "Why the item was not created", example = "Movie not found with ID: 42")
+        String error) {
+
+  public enum Status {
+    /** The item was created. */
+    CREATED,
+    /** The item itself is invalid. */
+    FAILED,
+    /** The item is valid but was not created because other items failed. */
+    SKIPPED
+  }
+
+  public static <T> BatchItemResult<T> created(int index, T item) {
+    return BatchItemResult.<T>builder().index(index).status(Status.CREATED).item(item).build();
+  }
+
+  public static <T> BatchItemResult<T> failed(int index, String error) {
+    return BatchItemResult.<T>builder().index(index).status(Status.FAILED).error(error).build();
+  }
+
+  public static <T> BatchItemResult<T> skipped(int index) {
+    return BatchItemResult.<T>builder()
+        .index(index)
+        .status(Status.SKIPPED)
+        .error("Not created because other items in the batch failed")
+        .build();
+  }
+}
@@ -0,0 +1,39 @@
+package com.sample.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import lombok.Builder;
+import org.springframework.http.HttpStatus;
+
+@Builder
+@Schema(description = "Outcome of a batch create request")
+public record BatchResponse<T>(
+    @Schema(
+            description = "Per-item outcome, in request order",
+            requiredMode = RequiredMode.REQUIRED)
+        List<BatchItemResult<T>> results,
+    @Schema(
+            description = "Number of items created",
+            example = "2",
+            requiredMode = RequiredMode.REQUIRED)
+        int created,
+    @Schema(
+            description = "Number of invalid items",
+            example = "1",
+            requiredMode = RequiredMode.REQUIRED)
+        int failed) {
+
+  /**
+   * {@code 201 Created} when every item was created, {@code 207 Multi-Status} when only some were,
+   * and {@code 400 Bad Request} when none were because of invalid items.
+   */
+  @JsonIgnore
+  public HttpStatus status() {
+    if (failed == 0) {
+      return HttpStatus.CREATED;
+    }
+    return created > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.BAD_REQUEST;
+  }
+}
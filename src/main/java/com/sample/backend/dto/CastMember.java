@@ -0,0 +1,13 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "A role of a movie with the actor who played it")
+public record CastMember(
+    @Schema(description = "Role's ID", example = "1", requiredMode = RequiredMode.REQUIRED)
+        Long roleId,
+    @Schema(description = "Character name in the movie", example = "Dom Cobb") String characterName,
+    @Schema(description = "The actor, or null when the role has none") ActorDTO actor) {}
@@ -0,0 +1,18 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "An actor who played in a movie with another, and how often")
+public record CoStar(
+    @Schema(description = "Actor's ID", example = "2", requiredMode = RequiredMode.REQUIRED)
+        Long actorId,
+    @Schema(description = "Actor's first name", example = "Christian") String firstName,
+    @Schema(description = "Actor's last name", example = "Bale") String lastName,
+    @Schema(
+            description = "Number of movies both actors played in",
+            example = "1",
+            requiredMode = RequiredMode.REQUIRED)
+        int sharedMovies) {}
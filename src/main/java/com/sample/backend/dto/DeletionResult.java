@@ -0,0 +1,17 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Number of rows removed by a delete, per table")
+public record DeletionResult(
+    @Schema(description = "Directors deleted", example = "1", requiredMode = RequiredMode.REQUIRED)
+        int directors,
+    @Schema(description = "Movies deleted", example = "12", requiredMode = RequiredMode.REQUIRED)
+        int movies,
+    @Schema(description = "Actors deleted", example = "0", requiredMode = RequiredMode.REQUIRED)
+        int actors,
+    @Schema(description = "Roles deleted", example = "240", requiredMode = RequiredMode.REQUIRED)
+        int roles) {}
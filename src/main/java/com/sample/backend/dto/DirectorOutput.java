@@ -0,0 +1,28 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Movies of one director over time")
+public record DirectorOutput(
+    @Schema(description = "Director's ID", example = "1", requiredMode = RequiredMode.REQUIRED)
+        Long directorId,
+    @Schema(description = "Director's full name", example = "Christopher Nolan")
+        String directorName,
+    @Schema(
+            description = "Number of movies directed",
+            example = "2",
+            requiredMode = RequiredMode.REQUIRED)
+        long movies,
+    @Schema(
+            description = "Average duration in minutes of the movies with one, or 0",
+            example = "150.0",
+            requiredMode = RequiredMode.REQUIRED)
+        double averageMinutes,
+    @Schema(
+            description = "Movies released per year, oldest first",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> years) {}
@@ -0,0 +1,20 @@
+package com.sample.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Number of rows with one value of a facet")
+public record FacetCount(
+    @Schema(description = "Facet value", example = "SCI_FI", requiredMode = RequiredMode.REQUIRED)
+        String value,
+    @Schema(
+            description = "Display name of the value, when it is an ID",
+            example = "Christopher Nolan")
+        @JsonInclude(Include.NON_NULL)
+        String label,
+    @Schema(description = "Number of rows", example = "2", requiredMode = RequiredMode.REQUIRED)
+        long count) {}
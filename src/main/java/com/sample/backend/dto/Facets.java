@@ -0,0 +1,36 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+@Schema(
+    description = "Counts of the movies matching a filter by value, and of actors and directors")
+public record Facets(
+    @Schema(
+            description = "Number of movies matching the filter",
+            example = "3",
+            requiredMode = RequiredMode.REQUIRED)
+        long movies,
+    @Schema(
+            description = "Matching movies per genre, most first",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> genres,
+    @Schema(
+            description = "Matching movies per release decade, by its first year, oldest first",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> decades,
+    @Schema(
+            description = "Matching movies per director ID, most first, at most the director limit",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> directors,
+    @Schema(
+            description = "Actors per nationality, most first",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> actorNationalities,
+    @Schema(
+            description = "Directors per nationality, most first",
+            requiredMode = RequiredMode.REQUIRED)
+        List<FacetCount> directorNationalities) {}
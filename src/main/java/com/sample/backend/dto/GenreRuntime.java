@@ -0,0 +1,42 @@
+package com.sample.backend.dto;
+
+import com.sample.backend.model.Genre;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.util.Map;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Runtime of the movies of one genre")
+public record GenreRuntime(
+    @Schema(description = "Genre", example = "SCI_FI", requiredMode = RequiredMode.REQUIRED)
+        Genre genre,
+    @Schema(
+            description = "Number of movies of the genre with a duration",
+            example = "2",
+            requiredMode = RequiredMode.REQUIRED)
+        long movies,
+    @Schema(
+            description = "Average duration in minutes",
+            example = "148.0",
+            requiredMode = RequiredMode.REQUIRED)
+        double averageMinutes,
+    @Schema(
+            description = "Shortest duration in minutes",
+            example = "136",
+            requiredMode = RequiredMode.REQUIRED)
+        int minMinutes,
+    @Schema(
+            description = "Longest duration in minutes",
+            example = "169",
+            requiredMode = RequiredMode.REQUIRED)
+        int maxMinutes,
+    @Schema(
+            description =
+                "Minutes at or below which each requested percentage of the movies run, by"
+                    + " percentage",
+            example = "{\"50\": 148, \"90\": 169}",
+            requiredMode = RequiredMode.REQUIRED)
+        Map<Integer, Integer> percentiles,
+    @Schema(description = "Title of the longest movie", example = "Interstellar")
+        String longestTitle) {}
@@ -0,0 +1,31 @@
+package com.sample.backend.dto;
+
+import com.sample.backend.model.Genre;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * A movie with its director and cast, everything a movie page shows, so it is read in one request
+ * instead of one per related row.
+ */
+@Builder
+@Schema(description = "A movie with its director and full cast")
+public record MovieDetails(
+    @Schema(description = "Movie's ID", example = "1", requiredMode = RequiredMode.REQUIRED)
+        Long id,
+    @Schema(
+            description = "Movie title",
+            example = "Inception",
+            requiredMode = RequiredMode.REQUIRED)
+        String title,
+    @Schema(description = "Movie genre", example = "SCI_FI") Genre genre,
+    @Schema(description = "Release date", example = "2010-07-16") LocalDate releaseDate,
+    @Schema(description = "Duration in minutes", example = "148") Integer durationMinutes,
+    @Schema(description = "The director, or null when the movie has none") DirectorDTO director,
+    @Schema(
+            description = "Roles of the movie with their actors, in role ID order",
+            requiredMode = RequiredMode.REQUIRED)
+        List<CastMember> cast) {}
@@ -0,0 +1,35 @@
+package com.sample.backend.dto;
+
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.Set;
+import lombok.Builder;
+
+/**
+ * Predicates on movies, all of which a match satisfies. A null or empty component does not
+ * constrain; a movie without the value a component constrains does not match it.
+ *
+ * @param genres genres of which the movie has one
+ * @param releasedFrom earliest release date, inclusive
+ * @param releasedTo latest release date, inclusive
+ * @param minDuration shortest duration in minutes, inclusive
+ * @param maxDuration longest duration in minutes, inclusive
+ * @param directorIds directors of which one directed the movie
+ */
+@Builder
+public record MovieFilter(
+    Set<Genre> genres,
+    LocalDate releasedFrom,
+    LocalDate releasedTo,
+    Integer minDuration,
+    Integer maxDuration,
+    Set<Long> directorIds) {
+
+  public boolean hasGenres() {
+    return genres != null && !genres.isEmpty();
+  }
+
+  public boolean hasDirectors() {
+    return directorIds != null && !directorIds.isEmpty();
+  }
+}
@@ -1,29 +1,32 @@
 package com.sample.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
 import java.util.List;
 import lombok.Builder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 @Builder
 @Schema(description = "Paged response wrapper with navigation metadata")
 public record PagedResponse<T>(
     @Schema(description = "Page content", requiredMode = RequiredMode.REQUIRED) List<T> content,
     @Schema(
-            description = "Current page number (0-based)",
+            description = "Current page number (0-based); -1 for cursor pagination",
             example = "0",
             requiredMode = RequiredMode.REQUIRED)
         int page,
     @Schema(description = "Page size", example = "20", requiredMode = RequiredMode.REQUIRED)
         int size,
     @Schema(
-            description = "Total number of elements",
+            description = "Total number of elements; -1 when not counted",
             example = "42",
             requiredMode = RequiredMode.REQUIRED)
         long totalElements,
     @Schema(
-            description = "Total number of pages",
+            description = "Total number of pages; -1 when not counted",
             example = "3",
             requiredMode = RequiredMode.REQUIRED)
         int totalPages,
@@ -36,7 +39,28 @@ public record PagedResponse<T>(
             description = "Whether this is the last page",
             example = "false",
             requiredMode = RequiredMode.REQUIRED)
-        boolean last) {
+        boolean last,
+    @Schema(description = "Cursor of the following page; absent on the last page")
+        @JsonInclude(Include.NON_NULL)
+        String next,
+    @Schema(description = "Cursor of the preceding page; absent on the first page")
+        @JsonInclude(Include.NON_NULL)
+        String prev,
+    @Schema(description = "Whether totalElements is a lower bound rather than the exact count")
+        @JsonInclude(Include.NON_DEFAULT)
+        boolean approximate) {
+
+  /** Creates a response without cursors, as returned for page-number pagination. */
+  public PagedResponse(
+      List<T> content,
+      int page,
+      int size,
+      long totalElements,
+      int totalPages,
+      boolean first,
+      boolean last) {
+    this(content, page, size, totalElements, totalPages, first, last, null, null, false);
+  }
 
   public static <T> PagedResponse<T> from(Page<T> page) {
     return PagedResponse.<T>builder()
@@ -49,4 +73,39 @@ public record PagedResponse<T>(
         .last(page.isLast())
         .build();
   }
+
+  /**
+   * Creates a response from a slice and a total that was not counted with the page, such as a
+   * maintained row count.
+   *
+   * @param approximate whether {@code totalElements} is only a lower bound
+   */
+  public static <T> PagedResponse<T> from(Slice<T> slice, long totalElements, boolean approximate) {
+    return PagedResponse.<T>builder()
+        .content(slice.getContent())
+        .page(slice.getNumber())
+        .size(slice.getSize())
+        .totalElements(totalElements)
+        .totalPages(slice.getSize() == 0 ? 1 : (int) Math.ceilDiv(totalElements, slice.getSize()))
+        .first(slice.isFirst())
+        .last(!slice.hasNext())
+        .approximate(approximate)
+        .build();
+  }
+
+  /**
+   * Creates a response from a slice, which is read without a count query; {@code totalElements} and
+   * {@code totalPages} are -1.
+   */
+  public static <T> PagedResponse<T> from(Slice<T> slice) {
+    return PagedResponse.<T>builder()
+        .content(slice.getContent())
+        .page(slice.getNumber())
+        .size(slice.getSize())
+        .totalElements(-1)
+        .totalPages(-1)
+        .first(slice.isFirst())
+        .last(!slice.hasNext())
+        .build();
+  }
 }
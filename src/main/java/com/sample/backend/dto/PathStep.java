@@ -0,0 +1,18 @@
+package com.sample.backend.dto;
+
+import com.sample.backend.dto.SearchHit.Type;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "An actor or movie on a chain of co-stars")
+public record PathStep(
+    @Schema(description = "ACTOR or MOVIE", example = "MOVIE", requiredMode = RequiredMode.REQUIRED)
+        Type type,
+    @Schema(
+            description = "ID of the actor or movie",
+            example = "1",
+            requiredMode = RequiredMode.REQUIRED)
+        Long id,
+    @Schema(description = "Actor's full name or movie title", example = "Inception") String name) {}
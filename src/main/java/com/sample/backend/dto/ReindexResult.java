@@ -0,0 +1,22 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Number of documents in each search index after a rebuild")
+public record ReindexResult(
+    @Schema(description = "Movies indexed", example = "3", requiredMode = RequiredMode.REQUIRED)
+        int movies,
+    @Schema(description = "Actors indexed", example = "3", requiredMode = RequiredMode.REQUIRED)
+        int actors,
+    @Schema(description = "Directors indexed", example = "2", requiredMode = RequiredMode.REQUIRED)
+        int directors,
+    @Schema(description = "Roles indexed", example = "3", requiredMode = RequiredMode.REQUIRED)
+        int roles,
+    @Schema(
+            description = "Time the rebuild took, in milliseconds",
+            example = "12",
+            requiredMode = RequiredMode.REQUIRED)
+        long elapsedMillis) {}
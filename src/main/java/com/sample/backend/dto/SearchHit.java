@@ -0,0 +1,34 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "One result of a ranked full-text search")
+public record SearchHit(
+    @Schema(description = "Kind of the matching row", requiredMode = RequiredMode.REQUIRED)
+        Type type,
+    @Schema(
+            description = "ID of the matching row",
+            example = "1",
+            requiredMode = RequiredMode.REQUIRED)
+        long id,
+    @Schema(
+            description = "Movie title, person name or character name",
+            example = "The Dark Knight",
+            requiredMode = RequiredMode.REQUIRED)
+        String name,
+    @Schema(
+            description = "BM25 relevance; higher is better, 0 when search is unranked",
+            example = "2.31",
+            requiredMode = RequiredMode.REQUIRED)
+        double score) {
+
+  public enum Type {
+    MOVIE,
+    ACTOR,
+    DIRECTOR,
+    ROLE
+  }
+}
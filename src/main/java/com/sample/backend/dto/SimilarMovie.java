@@ -0,0 +1,34 @@
+package com.sample.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "A movie similar to another, and what the two share")
+public record SimilarMovie(
+    @Schema(description = "Movie's ID", example = "2", requiredMode = RequiredMode.REQUIRED)
+        Long movieId,
+    @Schema(description = "Movie title", example = "The Dark Knight") String title,
+    @Schema(
+            description =
+                "Weighted Jaccard similarity between 0 and 1: the weight of the actors, director"
+                    + " and genre both movies share over the weight of those either has",
+            example = "0.6",
+            requiredMode = RequiredMode.REQUIRED)
+        double score,
+    @Schema(
+            description = "Number of actors who played in both movies",
+            example = "1",
+            requiredMode = RequiredMode.REQUIRED)
+        int sharedActors,
+    @Schema(
+            description = "Whether both movies have the same director",
+            example = "true",
+            requiredMode = RequiredMode.REQUIRED)
+        boolean sameDirector,
+    @Schema(
+            description = "Whether both movies have the same genre",
+            example = "false",
+            requiredMode = RequiredMode.REQUIRED)
+        boolean sameGenre) {}
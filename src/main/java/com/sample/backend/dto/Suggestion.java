@@ -0,0 +1,22 @@
+package com.sample.backend.dto;
+
+import com.sample.backend.dto.SearchHit.Type;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "A movie title or person's name completing a prefix")
+public record Suggestion(
+    @Schema(description = "Kind of the suggested row", requiredMode = RequiredMode.REQUIRED)
+        Type type,
+    @Schema(
+            description = "ID of the suggested row",
+            example = "2",
+            requiredMode = RequiredMode.REQUIRED)
+        long id,
+    @Schema(
+            description = "Movie title or person name",
+            example = "The Dark Knight",
+            requiredMode = RequiredMode.REQUIRED)
+        String name) {}
@@ -0,0 +1,12 @@
+package com.sample.backend.exception;
+
+import java.io.Serial;
+
+public class BadRequestException extends RuntimeException {
+
+  @Serial private static final long serialVersionUID = -3905284197130472156L;
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+}
@@ -2,6 +2,7 @@ package com.sample.backend.exception;
 
 import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -32,6 +33,60 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
   }
 
+  /** Handles BadRequestException. Returns a 400 Bad Request response. */
+  @ExceptionHandler(BadRequestException.class)
+  public static ResponseEntity<ErrorResponse> handleBadRequestException(
+      BadRequestException ex, WebRequest request) {
+    log.warn("Bad request: {}", ex.getMessage());
+    ErrorResponse errorResponse =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error("Bad Request")
+            .message(ex.getMessage())
+            .path(request.getDescription(false))
+            .build();
+    return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Handles PreconditionFailedException, thrown when an If-Match header lists none of the entity's
+   * current tags. Returns a 412 Precondition Failed response.
+   */
+  @ExceptionHandler(PreconditionFailedException.class)
+  public static ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+      PreconditionFailedException ex, WebRequest request) {
+    log.warn("Precondition failed: {}", ex.getMessage());
+    ErrorResponse errorResponse =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.PRECONDITION_FAILED.value())
+            .error("Precondition Failed")
+            .message(ex.getMessage())
+            .path(request.getDescription(false))
+            .build();
+    return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+  }
+
+  /**
+   * Handles OptimisticLockingFailureException, thrown when another transaction updated the entity
+   * after this one read it. Returns a 409 Conflict response.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public static ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException ex, WebRequest request) {
+    log.warn("Concurrent update: {}", ex.getMessage());
+    ErrorResponse errorResponse =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.CONFLICT.value())
+            .error("Conflict")
+            .message("The entity was changed by another request; read it again and retry")
+            .path(request.getDescription(false))
+            .build();
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
   /** Handles all other exceptions. Returns a 500 Internal Server Error response. */
   @ExceptionHandler(Exception.class)
   public static ResponseEntity<ErrorResponse> handleGlobalException(
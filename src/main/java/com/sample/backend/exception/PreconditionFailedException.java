@@ -0,0 +1,12 @@
+package com.sample.backend.exception;
+
+import java.io.Serial;
+
+public class PreconditionFailedException extends RuntimeException {
+
+  @Serial private static final long serialVersionUID = 4412208263745069512L;
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+}
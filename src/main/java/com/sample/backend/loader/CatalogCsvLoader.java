@@ -0,0 +1,440 @@
+package com.sample.backend.loader;
+
+import com.sample.backend.config.IdGenerationProperties;
+import com.sample.backend.model.CatalogIdGenerator;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.IdStrategy;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.service.DtoCaches;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.hibernate.Cache;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams the catalogue CSV files into the database. Rows are read one at a time with commons-csv,
+ * written through JDBC batches and committed in chunks, so memory use does not depend on the file
+ * size. Foreign keys in the files refer to the ids used inside the files; they are translated to
+ * the generated database ids through primitive id maps, each released once the last file referring
+ * to its rows has been imported: the directors' after the movies, the actors' and movies' after the
+ * roles. Database ids are reserved from the table's sequence in the same blocks Hibernate uses, or
+ * read back from each batch when {@code catalog.id.strategy} is {@code identity}.
+ */
+@Component
+@Slf4j
+public class CatalogCsvLoader {
+
+  private static final InsertTarget DIRECTOR =
+      new InsertTarget("director", "first_name", "last_name", "birth_date", "nationality");
+  private static final InsertTarget ACTOR =
+      new InsertTarget("actor", "first_name", "last_name", "birth_date", "nationality");
+  private static final InsertTarget MOVIE =
+      new InsertTarget(
+          "movie", "title", "genre", "release_date", "duration_minutes", "director_id");
+  private static final InsertTarget ROLE =
+      new InsertTarget("role", "character_name", "movie_id", "actor_id");
+
+  static final CSVFormat CSV_FORMAT =
+      CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).setTrim(true).get();
+  private static final long MISSING = Long.MIN_VALUE;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ResourceLoader resourceLoader;
+  private final CatalogLoaderProperties properties;
+  private final IdGenerationProperties idProperties;
+  private final RowCounters rowCounters;
+  private final SearchIndexes searchIndexes;
+  private final EntityManagerFactory entityManagerFactory;
+  private final DtoCaches dtoCaches;
+  private final TableVersions tableVersions;
+
+  public CatalogCsvLoader(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ResourceLoader resourceLoader,
+      CatalogLoaderProperties properties,
+      IdGenerationProperties idProperties,
+      RowCounters rowCounters,
+      SearchIndexes searchIndexes,
+      EntityManagerFactory entityManagerFactory,
+      DtoCaches dtoCaches,
+      TableVersions tableVersions) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.resourceLoader = resourceLoader;
+    this.properties = properties;
+    this.idProperties = idProperties;
+    this.rowCounters = rowCounters;
+    this.searchIndexes = searchIndexes;
+    this.entityManagerFactory = entityManagerFactory;
+    this.dtoCaches = dtoCaches;
+    this.tableVersions = tableVersions;
+  }
+
+  /** Imports the CSV files from the configured location. */
+  public List<TableLoadResult> load() {
+    return load(properties.location());
+  }
+
+  /**
+   * Imports {@code directors.csv}, {@code actors.csv}, {@code movies.csv} and {@code roles.csv}
+   * from the given location, in that order. Missing files are skipped. The import writes through
+   * JDBC, so afterwards the maintained row counts are invalidated, the second-level, query and DTO
+   * caches emptied and the search indexes rebuilt.
+   *
+   * @param location resource location of the directory holding the files, ending with a slash
+   * @return one result per imported file
+   */
+  public List<TableLoadResult> load(String location) {
+    List<TableLoadResult> results = new ArrayList<>();
+    IdMaps ids = new IdMaps();
+    results.add(
+        loadFile(
+            location,
+            CatalogCsvSchema.DIRECTORS.fileName(),
+            DIRECTOR,
+            CatalogCsvLoader::bindPerson,
+            ids.directors));
+    results.add(
+        loadFile(
+            location,
+            CatalogCsvSchema.ACTORS.fileName(),
+            ACTOR,
+            CatalogCsvLoader::bindPerson,
+            ids.actors));
+    results.add(
+        loadFile(
+            location,
+            CatalogCsvSchema.MOVIES.fileName(),
+            MOVIE,
+            (row, statement) -> bindMovie(row, statement, ids.directors),
+            ids.movies));
+    ids.directors = null;
+    results.add(
+        loadFile(
+            location,
+            CatalogCsvSchema.ROLES.fileName(),
+            ROLE,
+            (row, statement) -> bindRole(row, statement, ids.movies, ids.actors),
+            null));
+    ids.actors = null;
+    ids.movies = null;
+    rowCounters.invalidate();
+    entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+    dtoCaches.evictAll();
+    searchIndexes.rebuild();
+    tableVersions.changedAll();
+    return results;
+  }
+
+  private TableLoadResult loadFile(
+      String location, String file, InsertTarget target, RowBinder binder, LongIdMap generatedIds) {
+    Resource resource = resourceLoader.getResource(location + file);
+    if (!resource.exists()) {
+      log.warn("Skipping {}: not found in {}", file, location);
+      return new TableLoadResult(file, 0, 0, 0);
+    }
+    long start = System.nanoTime();
+    FileProgress progress = new FileProgress(properties.batchSize());
+    PooledIds pooledIds =
+        idProperties.strategy() == IdStrategy.POOLED
+            ? new PooledIds(sequence(target.table()), idProperties.allocationSize())
+            : null;
+    String sql = target.insertSql(pooledIds != null);
+    try (Reader reader =
+            new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+        CSVParser parser = CSV_FORMAT.parse(reader)) {
+      Iterator<CSVRecord> rows = parser.iterator();
+      while (rows.hasNext()) {
+        transactionTemplate.executeWithoutResult(
+            status ->
+                jdbcTemplate.execute(
+                    (ConnectionCallback<Void>)
+                        connection -> {
+                          writeChunk(
+                              connection,
+                              rows,
+                              sql,
+                              binder,
+                              generatedIds,
+                              pooledIds,
+                              target.idParameterIndex(),
+                              progress);
+                          return null;
+                        }));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read " + location + file, e);
+    }
+    TableLoadResult result =
+        new TableLoadResult(
+            file, progress.rows, progress.rejected, (System.nanoTime() - start) / 1_000_000);
+    log.info(
+        "Loaded {} rows from {} in {} ms ({} rows/s, {} rejected)",
+        result.rows(),
+        file,
+        result.elapsedMillis(),
+        result.rowsPerSecond(),
+        result.rejected());
+    return result;
+  }
+
+  /**
+   * Returns the next value of the sequence Hibernate reserves the ids of {@code table} from, read
+   * with the SQL of the configured dialect.
+   */
+  private LongSupplier sequence(String table) {
+    Dialect dialect =
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    String sql =
+        dialect
+            .getSequenceSupport()
+            .getSequenceNextValString(CatalogIdGenerator.sequenceName(table));
+    return () -> jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  /**
+   * Writes up to one chunk of rows inside the current transaction. With {@code pooledIds} the ids
+   * are assigned before the insert; otherwise they are read back from the batch when {@code
+   * generatedIds} needs them.
+   */
+  private void writeChunk(
+      Connection connection,
+      Iterator<CSVRecord> rows,
+      String sql,
+      RowBinder binder,
+      LongIdMap generatedIds,
+      PooledIds pooledIds,
+      int idParameterIndex,
+      FileProgress progress)
+      throws SQLException {
+    LongIdMap keysToRead = pooledIds == null ? generatedIds : null;
+    try (PreparedStatement statement =
+        keysToRead == null
+            ? connection.prepareStatement(sql)
+            : connection.prepareStatement(sql, new String[] {"id"})) {
+      int pending = 0;
+      for (int read = 0; read < properties.chunkSize() && rows.hasNext(); read++) {
+        CSVRecord row = rows.next();
+        long csvId;
+        try {
+          csvId = Long.parseLong(row.get("id"));
+          if (!binder.bind(row, statement)) {
+            progress.rejected++;
+            continue;
+          }
+        } catch (IllegalArgumentException | DateTimeException e) {
+          log.debug("Rejected record {}: {}", row.getRecordNumber(), e.getMessage());
+          progress.rejected++;
+          continue;
+        }
+        if (pooledIds != null) {
+          long id = pooledIds.next();
+          statement.setLong(idParameterIndex, id);
+          if (generatedIds != null) {
+            generatedIds.put(csvId, id);
+          }
+        }
+        statement.addBatch();
+        progress.pendingIds[pending++] = csvId;
+        if (pending == progress.pendingIds.length) {
+          flush(statement, pending, keysToRead, progress);
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        flush(statement, pending, keysToRead, progress);
+      }
+    }
+  }
+
+  private static void flush(
+      PreparedStatement statement, int pending, LongIdMap generatedIds, FileProgress progress)
+      throws SQLException {
+    statement.executeBatch();
+    progress.rows += pending;
+    if (generatedIds == null) {
+      return;
+    }
+    int index = 0;
+    try (ResultSet keys = statement.getGeneratedKeys()) {
+      while (keys.next()) {
+        generatedIds.put(progress.pendingIds[index++], keys.getLong(1));
+      }
+    }
+    if (index != pending) {
+      throw new IllegalStateException(
+          "Expected " + pending + " generated keys from batch but received " + index);
+    }
+  }
+
+  private static boolean bindPerson(CSVRecord row, PreparedStatement statement)
+      throws SQLException {
+    statement.setString(1, row.get("firstName"));
+    statement.setString(2, row.get("lastName"));
+    statement.setObject(3, parseDate(row.get("birthDate")), Types.DATE);
+    statement.setString(4, row.get("nationality"));
+    return true;
+  }
+
+  private static boolean bindMovie(
+      CSVRecord row, PreparedStatement statement, LongIdMap directorIds) throws SQLException {
+    statement.setString(1, row.get("title"));
+    statement.setString(2, Genre.fromLabel(row.get("genre")).name());
+    statement.setObject(3, parseDate(row.get("releaseDate")), Types.DATE);
+    String duration = row.get("durationMinutes");
+    statement.setObject(4, duration.isEmpty() ? null : Integer.valueOf(duration), Types.INTEGER);
+    return bindReference(row, "directorId", directorIds, statement, 5, true);
+  }
+
+  private static boolean bindRole(
+      CSVRecord row, PreparedStatement statement, LongIdMap movieIds, LongIdMap actorIds)
+      throws SQLException {
+    statement.setString(1, row.get("characterName"));
+    return bindReference(row, "movieId", movieIds, statement, 2, false)
+        && bindReference(row, "actorId", actorIds, statement, 3, false);
+  }
+
+  /**
+   * Binds the database id for a foreign key column. Returns {@code false} when the referenced row
+   * is unknown, or when the column is empty and {@code optional} is not set.
+   */
+  private static boolean bindReference(
+      CSVRecord row,
+      String column,
+      LongIdMap ids,
+      PreparedStatement statement,
+      int parameterIndex,
+      boolean optional)
+      throws SQLException {
+    String value = row.get(column);
+    if (value.isEmpty()) {
+      statement.setNull(parameterIndex, Types.BIGINT);
+      return optional;
+    }
+    long id = ids.get(Long.parseLong(value), MISSING);
+    if (id == MISSING) {
+      log.debug("Rejected record {}: unknown {} {}", row.getRecordNumber(), column, value);
+      return false;
+    }
+    statement.setLong(parameterIndex, id);
+    return true;
+  }
+
+  private static LocalDate parseDate(String value) {
+    return value.isEmpty() ? null : LocalDate.parse(value);
+  }
+
+  /** Table and data columns of an insert; the id, when assigned here, is bound last. */
+  private record InsertTarget(String table, List<String> columns) {
+
+    private InsertTarget(String table, String... columns) {
+      this(table, List.of(columns));
+    }
+
+    String insertSql(boolean explicitId) {
+      List<String> insertColumns = new ArrayList<>(columns);
+      if (explicitId) {
+        insertColumns.add("id");
+      }
+      return "INSERT INTO %s (%s) VALUES (%s)"
+          .formatted(
+              table,
+              String.join(", ", insertColumns),
+              String.join(", ", Collections.nCopies(insertColumns.size(), "?")));
+    }
+
+    int idParameterIndex() {
+      return columns.size() + 1;
+    }
+  }
+
+  /**
+   * Hands out ids from a table's sequence the way Hibernate's pooled-lo optimizer does: each
+   * sequence value is the first of {@code allocationSize} consecutive ids.
+   */
+  private static final class PooledIds {
+
+    private final LongSupplier sequence;
+    private final int allocationSize;
+    private long next;
+    private int remaining;
+
+    private PooledIds(LongSupplier sequence, int allocationSize) {
+      this.sequence = sequence;
+      this.allocationSize = allocationSize;
+    }
+
+    private long next() {
+      if (remaining == 0) {
+        next = sequence.getAsLong();
+        remaining = allocationSize;
+      }
+      remaining--;
+      return next++;
+    }
+  }
+
+  /**
+   * The id maps of one import, each dropped by {@link #load(String)} once no later file refers to
+   * its rows.
+   */
+  private static final class IdMaps {
+
+    private LongIdMap directors = new LongIdMap();
+    private LongIdMap actors = new LongIdMap();
+    private LongIdMap movies = new LongIdMap();
+  }
+
+  @FunctionalInterface
+  private interface RowBinder {
+
+    /** Binds the row to the statement, returning {@code false} if the row must be skipped. */
+    boolean bind(CSVRecord row, PreparedStatement statement) throws SQLException;
+  }
+
+  /** Running totals for one file, carried across chunk transactions. */
+  private static final class FileProgress {
+
+    private final long[] pendingIds;
+    private long rows;
+    private long rejected;
+
+    private FileProgress(int batchSize) {
+      this.pendingIds = new long[batchSize];
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.sample.backend.loader;
+
+import java.util.List;
+
+/** Layout of the catalogue CSV files: file name plus the ordered, typed header columns. */
+public enum CatalogCsvSchema {
+  DIRECTORS(
+      "directors.csv",
+      new Column("id", ColumnType.LONG),
+      new Column("firstName", ColumnType.TEXT),
+      new Column("lastName", ColumnType.TEXT),
+      new Column("birthDate", ColumnType.DATE),
+      new Column("nationality", ColumnType.TEXT)),
+  ACTORS(
+      "actors.csv",
+      new Column("id", ColumnType.LONG),
+      new Column("firstName", ColumnType.TEXT),
+      new Column("lastName", ColumnType.TEXT),
+      new Column("birthDate", ColumnType.DATE),
+      new Column("nationality", ColumnType.TEXT)),
+  MOVIES(
+      "movies.csv",
+      new Column("id", ColumnType.LONG),
+      new Column("title", ColumnType.TEXT),
+      new Column("genre", ColumnType.GENRE),
+      new Column("releaseDate", ColumnType.DATE),
+      new Column("durationMinutes", ColumnType.INT),
+      new Column("directorId", ColumnType.LONG)),
+  ROLES(
+      "roles.csv",
+      new Column("id", ColumnType.LONG),
+      new Column("characterName", ColumnType.TEXT),
+      new Column("movieId", ColumnType.LONG),
+      new Column("actorId", ColumnType.LONG));
+
+  private final String fileName;
+  private final List<Column> columns;
+
+  CatalogCsvSchema(String fileName, Column... columns) {
+    this.fileName = fileName;
+    this.columns = List.of(columns);
+  }
+
+  public String fileName() {
+    return fileName;
+  }
+
+  public List<Column> columns() {
+    return columns;
+  }
+
+  /**
+   * Returns the position of the named column.
+   *
+   * @throws IllegalArgumentException if the schema has no such column
+   */
+  public int columnIndex(String name) {
+    for (int i = 0; i < columns.size(); i++) {
+      if (columns.get(i).name().equals(name)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("No column " + name + " in " + fileName);
+  }
+
+  /** Storage type of a column once parsed into columnar buffers. */
+  public enum ColumnType {
+    /** Signed 64-bit integer, stored in a {@code long[]}. */
+    LONG,
+    /** Signed 32-bit integer, stored in an {@code int[]}. */
+    INT,
+    /** ISO-8601 date, stored as its epoch day in an {@code int[]}. */
+    DATE,
+    /** Genre label such as {@code Sci-Fi}, stored as the constant's ordinal in a {@code byte[]}. */
+    GENRE,
+    /** Free text, stored as an offset and length into the mapped file and decoded on access. */
+    TEXT
+  }
+
+  public record Column(String name, ColumnType type) {}
+}
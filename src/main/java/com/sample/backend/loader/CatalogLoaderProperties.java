@@ -0,0 +1,19 @@
+package com.sample.backend.loader;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the startup catalogue import.
+ *
+ * @param enabled whether the CSV files are imported on startup
+ * @param location resource location of the directory holding the CSV files
+ * @param batchSize number of rows sent to the database per JDBC batch
+ * @param chunkSize number of rows committed per transaction
+ */
+@ConfigurationProperties(prefix = "catalog.loader")
+public record CatalogLoaderProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("classpath:data/") String location,
+    @DefaultValue("1000") int batchSize,
+    @DefaultValue("10000") int chunkSize) {}
@@ -0,0 +1,345 @@
+package com.sample.backend.loader;
+
+import com.sample.backend.loader.CatalogCsvSchema.Column;
+import com.sample.backend.model.Genre;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rows parsed from one newline-aligned slice of a mapped CSV file. Values are kept in one primitive
+ * array per column; text columns only record where the value sits in the mapped slice, so parsing
+ * allocates no per-record or per-field objects.
+ *
+ * <p>The parser follows the dialect the loader reads with commons-csv: comma separated, fields
+ * optionally enclosed in double quotes with {@code ""} as the escaped quote, {@code \n} or {@code
+ * \r\n} record separators, blank lines skipped and values trimmed.
+ */
+final class ColumnarChunk {
+
+  static final long NULL_LONG = Long.MIN_VALUE;
+  static final int NULL_INT = Integer.MIN_VALUE;
+  static final byte NULL_GENRE = -1;
+
+  private static final byte QUOTE = '"';
+  private static final byte COMMA = ',';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte[][] GENRE_NAMES =
+      Arrays.stream(Genre.values())
+          .map(genre -> genre.name().getBytes(StandardCharsets.US_ASCII))
+          .toArray(byte[][]::new);
+
+  private final ByteBuffer data;
+  private final List<Column> columns;
+  private final long[][] longs;
+  private final int[][] ints;
+  private final int[][] lengths;
+  private final byte[][] genres;
+  private int rows;
+
+  private ColumnarChunk(ByteBuffer data, List<Column> columns, int capacity) {
+    this.data = data;
+    this.columns = columns;
+    int count = columns.size();
+    this.longs = new long[count][];
+    this.ints = new int[count][];
+    this.lengths = new int[count][];
+    this.genres = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      switch (columns.get(i).type()) {
+        case LONG -> longs[i] = new long[capacity];
+        case INT, DATE -> ints[i] = new int[capacity];
+        case GENRE -> genres[i] = new byte[capacity];
+        case TEXT -> {
+          ints[i] = new int[capacity];
+          lengths[i] = new int[capacity];
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses every record in {@code data}, which must start at a record boundary and end at one (or
+   * at the end of the file).
+   *
+   * @param fileOffset position of {@code data} in the file, used for error messages
+   */
+  static ColumnarChunk parse(ByteBuffer data, List<Column> columns, long fileOffset) {
+    ColumnarChunk chunk = new ColumnarChunk(data, columns, Math.max(16, data.limit() / 48));
+    chunk.parseRecords(fileOffset);
+    return chunk;
+  }
+
+  int rows() {
+    return rows;
+  }
+
+  long getLong(int column, int row) {
+    return longs[column][row];
+  }
+
+  int getInt(int column, int row) {
+    return ints[column][row];
+  }
+
+  byte getGenreOrdinal(int column, int row) {
+    return genres[column][row];
+  }
+
+  String getText(int column, int row) {
+    int length = lengths[column][row];
+    boolean escaped = length < 0;
+    if (escaped) {
+      length = -length - 1;
+    }
+    byte[] bytes = new byte[length];
+    data.get(ints[column][row], bytes);
+    String text = new String(bytes, StandardCharsets.UTF_8);
+    return escaped ? text.replace("\"\"", "\"") : text;
+  }
+
+  private void parseRecords(long fileOffset) {
+    int limit = data.limit();
+    int pos = 0;
+    while (pos < limit) {
+      byte first = data.get(pos);
+      if (first == LF) {
+        pos++;
+        continue;
+      }
+      if (first == CR && pos + 1 < limit && data.get(pos + 1) == LF) {
+        pos += 2;
+        continue;
+      }
+      ensureCapacity();
+      pos = parseRecord(pos, limit, fileOffset);
+      rows++;
+    }
+  }
+
+  /** Parses one record starting at {@code pos} and returns the position after its separator. */
+  private int parseRecord(int pos, int limit, long fileOffset) {
+    int column = 0;
+    while (true) {
+      if (column == columns.size()) {
+        throw malformed("more than " + columns.size() + " fields", pos, fileOffset);
+      }
+      int start;
+      int end;
+      boolean escaped = false;
+      if (pos < limit && data.get(pos) == QUOTE) {
+        start = ++pos;
+        while (true) {
+          if (pos >= limit) {
+            throw malformed("unterminated quoted field", start, fileOffset);
+          }
+          if (data.get(pos) == QUOTE) {
+            if (pos + 1 < limit && data.get(pos + 1) == QUOTE) {
+              escaped = true;
+              pos += 2;
+              continue;
+            }
+            break;
+          }
+          pos++;
+        }
+        end = pos++;
+        while (pos < limit && !isSeparator(data.get(pos))) {
+          if (!isBlank(data.get(pos))) {
+            throw malformed("unexpected character after quoted field", pos, fileOffset);
+          }
+          pos++;
+        }
+      } else {
+        start = pos;
+        while (pos < limit && !isSeparator(data.get(pos))) {
+          pos++;
+        }
+        end = pos;
+      }
+      while (start < end && isBlank(data.get(start))) {
+        start++;
+      }
+      while (end > start && isBlank(data.get(end - 1))) {
+        end--;
+      }
+      store(column, start, end, escaped, fileOffset);
+      if (pos < limit && data.get(pos) == COMMA) {
+        pos++;
+        column++;
+        continue;
+      }
+      if (column != columns.size() - 1) {
+        throw malformed(
+            "expected " + columns.size() + " fields but found " + (column + 1), pos, fileOffset);
+      }
+      if (pos < limit && data.get(pos) == CR) {
+        pos++;
+      }
+      if (pos < limit && data.get(pos) == LF) {
+        pos++;
+      }
+      return pos;
+    }
+  }
+
+  private void store(int column, int start, int end, boolean escaped, long fileOffset) {
+    switch (columns.get(column).type()) {
+      case LONG ->
+          longs[column][rows] = start == end ? NULL_LONG : parseLong(start, end, fileOffset);
+      case INT -> ints[column][rows] = start == end ? NULL_INT : parseInt(start, end, fileOffset);
+      case DATE -> ints[column][rows] = start == end ? NULL_INT : parseDate(start, end, fileOffset);
+      case GENRE ->
+          genres[column][rows] = start == end ? NULL_GENRE : parseGenre(start, end, fileOffset);
+      case TEXT -> {
+        ints[column][rows] = start;
+        lengths[column][rows] = escaped ? -(end - start) - 1 : end - start;
+      }
+    }
+  }
+
+  private long parseLong(int start, int end, long fileOffset) {
+    boolean negative = data.get(start) == '-';
+    int pos = negative || data.get(start) == '+' ? start + 1 : start;
+    if (pos == end) {
+      throw malformed("invalid number", start, fileOffset);
+    }
+    long value = 0;
+    for (; pos < end; pos++) {
+      int digit = data.get(pos) - '0';
+      if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+        throw malformed("invalid number", start, fileOffset);
+      }
+      // Accumulate negatively so that Long.MIN_VALUE round-trips like Long.parseLong.
+      value = value * 10 - digit;
+    }
+    if (!negative && value == Long.MIN_VALUE) {
+      throw malformed("invalid number", start, fileOffset);
+    }
+    return negative ? value : -value;
+  }
+
+  private int parseInt(int start, int end, long fileOffset) {
+    long value = parseLong(start, end, fileOffset);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw malformed("number out of range", start, fileOffset);
+    }
+    return (int) value;
+  }
+
+  /** Parses {@code yyyy-MM-dd} into an epoch day without creating a {@code LocalDate}. */
+  private int parseDate(int start, int end, long fileOffset) {
+    if (end - start != 10 || data.get(start + 4) != '-' || data.get(start + 7) != '-') {
+      throw malformed("invalid date", start, fileOffset);
+    }
+    int year = digits(start, start + 4, fileOffset);
+    int month = digits(start + 5, start + 7, fileOffset);
+    int day = digits(start + 8, start + 10, fileOffset);
+    if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+      throw malformed("invalid date", start, fileOffset);
+    }
+    return (int) epochDay(year, month, day);
+  }
+
+  private int digits(int start, int end, long fileOffset) {
+    int value = 0;
+    for (int pos = start; pos < end; pos++) {
+      int digit = data.get(pos) - '0';
+      if (digit < 0 || digit > 9) {
+        throw malformed("invalid date", start, fileOffset);
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /** Matches the label the same way as {@link Genre#fromLabel(String)}, byte by byte. */
+  private byte parseGenre(int start, int end, long fileOffset) {
+    int length = end - start;
+    for (int ordinal = 0; ordinal < GENRE_NAMES.length; ordinal++) {
+      byte[] name = GENRE_NAMES[ordinal];
+      if (name.length != length) {
+        continue;
+      }
+      int i = 0;
+      while (i < length && normalizeGenreByte(data.get(start + i)) == name[i]) {
+        i++;
+      }
+      if (i == length) {
+        return (byte) ordinal;
+      }
+    }
+    throw malformed("unknown genre", start, fileOffset);
+  }
+
+  private static byte normalizeGenreByte(byte b) {
+    if (b >= 'a' && b <= 'z') {
+      return (byte) (b - ('a' - 'A'));
+    }
+    return b == '-' || b == ' ' ? (byte) '_' : b;
+  }
+
+  static long epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146_097L + dayOfEra - 719_468;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    return switch (month) {
+      case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+
+  private static boolean isSeparator(byte b) {
+    return b == COMMA || b == LF || b == CR;
+  }
+
+  private static boolean isBlank(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+
+  private void ensureCapacity() {
+    int capacity = capacity();
+    if (rows < capacity) {
+      return;
+    }
+    int grown = capacity + (capacity >> 1) + 16;
+    for (int i = 0; i < columns.size(); i++) {
+      if (longs[i] != null) {
+        longs[i] = Arrays.copyOf(longs[i], grown);
+      }
+      if (ints[i] != null) {
+        ints[i] = Arrays.copyOf(ints[i], grown);
+      }
+      if (lengths[i] != null) {
+        lengths[i] = Arrays.copyOf(lengths[i], grown);
+      }
+      if (genres[i] != null) {
+        genres[i] = Arrays.copyOf(genres[i], grown);
+      }
+    }
+  }
+
+  private int capacity() {
+    if (longs[0] != null) {
+      return longs[0].length;
+    }
+    if (ints[0] != null) {
+      return ints[0].length;
+    }
+    return genres[0].length;
+  }
+
+  private static IllegalStateException malformed(String problem, int position, long fileOffset) {
+    return new IllegalStateException(
+        "Malformed CSV at byte " + (fileOffset + position) + ": " + problem);
+  }
+}
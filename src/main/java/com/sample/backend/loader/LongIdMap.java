@@ -0,0 +1,83 @@
+package com.sample.backend.loader;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from the ids used in the CSV files to the ids generated by the database.
+ * Keeps keys and values in two primitive arrays so that millions of mappings cost 16 bytes each
+ * instead of two boxed {@link Long}s and a hash map node.
+ */
+final class LongIdMap {
+
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] keys;
+  private long[] values;
+  private int size;
+  private int threshold;
+
+  LongIdMap() {
+    allocate(1024);
+  }
+
+  void put(long key, long value) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Unsupported id: " + key);
+    }
+    if (size >= threshold) {
+      rehash();
+    }
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    if (keys[slot] == EMPTY) {
+      size++;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+  }
+
+  /** Returns the value mapped to {@code key}, or {@code missing} when there is none. */
+  long get(long key, long missing) {
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return missing;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,274 @@
+package com.sample.backend.loader;
+
+import com.sample.backend.loader.CatalogCsvSchema.Column;
+import com.sample.backend.loader.CatalogCsvSchema.ColumnType;
+import com.sample.backend.model.Genre;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Parses catalogue CSV files in parallel. The file is memory-mapped slice by slice, so files larger
+ * than 2 GB are supported, and each slice is parsed on a {@link ForkJoinPool} into a {@link
+ * ColumnarChunk}.
+ *
+ * <p>Slices must start at a record boundary, which for RFC 4180 files is a newline outside quotes.
+ * A first parallel pass counts the quote characters in each nominal slice; the running parity of
+ * those counts tells whether a nominal split point lies inside a quoted field, and the split point
+ * is then moved forward to the next newline that is outside quotes. This relies on quotes only
+ * appearing around fields, as RFC 4180 requires; {@link #verifyAgainstCommonsCsv} can be used to
+ * check a file that may not follow it.
+ */
+@Slf4j
+public final class MappedCsvParser {
+
+  public static final long DEFAULT_CHUNK_BYTES = 16L << 20;
+
+  private static final int SCAN_WINDOW_BYTES = 1 << 20;
+  private static final int MAX_REPORTED_MISMATCHES = 100;
+
+  private final ForkJoinPool pool;
+  private final long chunkBytes;
+
+  public MappedCsvParser() {
+    this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+  }
+
+  /**
+   * @param pool pool the slices are parsed on
+   * @param chunkBytes nominal slice size; slices grow up to the end of the record they split
+   */
+  public MappedCsvParser(ForkJoinPool pool, long chunkBytes) {
+    if (chunkBytes <= 0 || chunkBytes > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Chunk size out of range: " + chunkBytes);
+    }
+    this.pool = pool;
+    this.chunkBytes = chunkBytes;
+  }
+
+  /**
+   * Parses {@code file}, whose header must list the columns of {@code schema} in order.
+   *
+   * @throws IllegalStateException if the header or a record is malformed
+   * @throws java.io.UncheckedIOException if mapping a slice of the file fails
+   */
+  public MappedCsvTable parse(Path file, CatalogCsvSchema schema) throws IOException {
+    long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long bodyStart = readHeader(channel, size, schema);
+      long[] boundaries = splitPoints(channel, bodyStart, size);
+      List<ForkJoinTask<ColumnarChunk>> tasks = new ArrayList<>();
+      for (int i = 0; i + 1 < boundaries.length; i++) {
+        long from = boundaries[i];
+        long to = boundaries[i + 1];
+        if (to > from) {
+          tasks.add(
+              pool.submit(
+                  () -> ColumnarChunk.parse(map(channel, from, to), schema.columns(), from)));
+        }
+      }
+      List<ColumnarChunk> chunks = new ArrayList<>(tasks.size());
+      for (ForkJoinTask<ColumnarChunk> task : tasks) {
+        ColumnarChunk chunk = task.join();
+        if (chunk.rows() > 0) {
+          chunks.add(chunk);
+        }
+      }
+      MappedCsvTable table = new MappedCsvTable(schema, chunks);
+      log.debug(
+          "Parsed {} rows from {} in {} chunks in {} ms",
+          table.rowCount(),
+          file,
+          chunks.size(),
+          (System.nanoTime() - start) / 1_000_000);
+      return table;
+    }
+  }
+
+  /**
+   * Parses {@code file} with this parser and with commons-csv, using the loader's CSV format, and
+   * compares every value after conversion to its column type.
+   */
+  public CsvVerification verifyAgainstCommonsCsv(Path file, CatalogCsvSchema schema)
+      throws IOException {
+    MappedCsvTable table = parse(file, schema);
+    List<Column> columns = schema.columns();
+    List<String> samples = new ArrayList<>();
+    long mismatches = 0;
+    long referenceRows = 0;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        CSVParser parser = CatalogCsvLoader.CSV_FORMAT.parse(reader)) {
+      for (CSVRecord record : parser) {
+        long row = referenceRows++;
+        if (row >= table.rowCount()) {
+          continue;
+        }
+        for (int column = 0; column < columns.size(); column++) {
+          Object expected;
+          try {
+            expected = convert(columns.get(column), record.get(column));
+          } catch (RuntimeException e) {
+            expected = "<rejected: " + e.getMessage() + ">";
+          }
+          Object actual = read(table, column, (int) row);
+          if (!Objects.equals(expected, actual)) {
+            mismatches++;
+            if (samples.size() < MAX_REPORTED_MISMATCHES) {
+              samples.add(
+                  "row %d, column %s: commons-csv %s, mapped %s"
+                      .formatted(row, columns.get(column).name(), expected, actual));
+            }
+          }
+        }
+      }
+    }
+    return new CsvVerification(table.rowCount(), referenceRows, mismatches, samples);
+  }
+
+  private static Object convert(Column column, String value) {
+    if (value.isEmpty() && column.type() != ColumnType.TEXT) {
+      return null;
+    }
+    return switch (column.type()) {
+      case LONG -> Long.parseLong(value);
+      case INT -> Integer.parseInt(value);
+      case DATE -> LocalDate.parse(value);
+      case GENRE -> Genre.fromLabel(value);
+      case TEXT -> value;
+    };
+  }
+
+  private static Object read(MappedCsvTable table, int column, int row) {
+    if (table.isNull(column, row)) {
+      return null;
+    }
+    return switch (table.schema().columns().get(column).type()) {
+      case LONG -> table.getLong(column, row);
+      case INT -> table.getInt(column, row);
+      case DATE -> table.getDate(column, row);
+      case GENRE -> table.getGenre(column, row);
+      case TEXT -> table.getText(column, row);
+    };
+  }
+
+  /** Validates the header record and returns the offset of the first data record. */
+  private static long readHeader(FileChannel channel, long size, CatalogCsvSchema schema) {
+    long headerEnd = recordEnd(channel, 0, false, size);
+    if (headerEnd > SCAN_WINDOW_BYTES) {
+      throw new IllegalStateException("Header of " + schema.fileName() + " is too long");
+    }
+    MappedByteBuffer header = map(channel, 0, headerEnd);
+    byte[] bytes = new byte[(int) headerEnd];
+    header.get(0, bytes);
+    String line = new String(bytes, StandardCharsets.UTF_8).strip();
+    List<String> expected = schema.columns().stream().map(Column::name).toList();
+    List<String> actual =
+        Arrays.stream(line.split(",", -1)).map(name -> name.strip().replace("\"", "")).toList();
+    if (!expected.equals(actual)) {
+      throw new IllegalStateException(
+          "Unexpected header in " + schema.fileName() + ": " + actual + ", expected " + expected);
+    }
+    return headerEnd;
+  }
+
+  /** Returns the record-aligned start offsets of the slices, followed by the file size. */
+  private long[] splitPoints(FileChannel channel, long bodyStart, long size) {
+    int segments = (int) Math.max(1, Math.ceilDiv(size - bodyStart, chunkBytes));
+    long[] nominal = new long[segments + 1];
+    for (int i = 0; i < segments; i++) {
+      nominal[i] = bodyStart + i * chunkBytes;
+    }
+    nominal[segments] = size;
+    List<ForkJoinTask<Long>> quoteCounts = new ArrayList<>(segments);
+    for (int i = 0; i < segments; i++) {
+      long from = nominal[i];
+      long to = nominal[i + 1];
+      quoteCounts.add(pool.submit(() -> countQuotes(channel, from, to)));
+    }
+    long[] boundaries = new long[segments + 1];
+    boundaries[0] = bodyStart;
+    boundaries[segments] = size;
+    boolean inQuote = false;
+    for (int i = 1; i < segments; i++) {
+      inQuote ^= (quoteCounts.get(i - 1).join() & 1) == 1;
+      long boundary = recordEnd(channel, nominal[i], inQuote, size);
+      boundaries[i] = Math.max(boundaries[i - 1], boundary);
+    }
+    return boundaries;
+  }
+
+  private static long countQuotes(FileChannel channel, long from, long to) {
+    MappedByteBuffer buffer = map(channel, from, to);
+    long quotes = 0;
+    for (int i = 0, limit = buffer.limit(); i < limit; i++) {
+      if (buffer.get(i) == '"') {
+        quotes++;
+      }
+    }
+    return quotes;
+  }
+
+  /**
+   * Returns the offset just past the first newline at or after {@code from} that is outside quotes,
+   * or {@code size} if there is none.
+   */
+  private static long recordEnd(FileChannel channel, long from, boolean inQuote, long size) {
+    long position = from;
+    while (position < size) {
+      MappedByteBuffer window =
+          map(channel, position, Math.min(size, position + SCAN_WINDOW_BYTES));
+      for (int i = 0, limit = window.limit(); i < limit; i++) {
+        byte b = window.get(i);
+        if (b == '"') {
+          inQuote = !inQuote;
+        } else if (b == '\n' && !inQuote) {
+          return position + i + 1;
+        }
+      }
+      position += window.limit();
+    }
+    return size;
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long from, long to) {
+    try {
+      return channel.map(MapMode.READ_ONLY, from, to - from);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Result of {@link #verifyAgainstCommonsCsv}.
+   *
+   * @param rows rows produced by the mapped parser
+   * @param referenceRows rows produced by commons-csv
+   * @param mismatches number of values that differ
+   * @param samples descriptions of the first differing values
+   */
+  public record CsvVerification(
+      long rows, long referenceRows, long mismatches, List<String> samples) {
+
+    public boolean matches() {
+      return rows == referenceRows && mismatches == 0;
+    }
+  }
+}
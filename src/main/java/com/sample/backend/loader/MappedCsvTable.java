@@ -0,0 +1,99 @@
+package com.sample.backend.loader;
+
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar view of a catalogue CSV file parsed by {@link MappedCsvParser}. Rows are addressed by
+ * their position in the file (0-based, header excluded); columns by their position in the {@link
+ * CatalogCsvSchema}. Numeric and date columns are read as primitives; text is decoded from the
+ * mapped file only when {@link #getText(int, int)} is called.
+ */
+public final class MappedCsvTable {
+
+  private final CatalogCsvSchema schema;
+  private final List<ColumnarChunk> chunks;
+  private final int[] chunkStartRows;
+  private final int rowCount;
+
+  /** Creates a table over chunks in file order; none of the chunks may be empty. */
+  MappedCsvTable(CatalogCsvSchema schema, List<ColumnarChunk> chunks) {
+    this.schema = schema;
+    this.chunks = chunks;
+    this.chunkStartRows = new int[chunks.size()];
+    long rows = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      chunkStartRows[i] = (int) rows;
+      rows += chunks.get(i).rows();
+    }
+    if (rows > Integer.MAX_VALUE) {
+      throw new IllegalStateException(schema.fileName() + " has more rows than can be addressed");
+    }
+    this.rowCount = (int) rows;
+  }
+
+  public CatalogCsvSchema schema() {
+    return schema;
+  }
+
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /** Number of newline-aligned slices the file was split into for parsing. */
+  public int chunkCount() {
+    return chunks.size();
+  }
+
+  public boolean isNull(int column, int row) {
+    int chunk = chunkIndex(row);
+    int local = row - chunkStartRows[chunk];
+    return switch (schema.columns().get(column).type()) {
+      case LONG -> chunks.get(chunk).getLong(column, local) == ColumnarChunk.NULL_LONG;
+      case INT, DATE -> chunks.get(chunk).getInt(column, local) == ColumnarChunk.NULL_INT;
+      case GENRE -> chunks.get(chunk).getGenreOrdinal(column, local) == ColumnarChunk.NULL_GENRE;
+      case TEXT -> false;
+    };
+  }
+
+  /** Reads a {@code LONG} column; empty values read as {@link Long#MIN_VALUE}. */
+  public long getLong(int column, int row) {
+    int chunk = chunkIndex(row);
+    return chunks.get(chunk).getLong(column, row - chunkStartRows[chunk]);
+  }
+
+  /**
+   * Reads an {@code INT} column, or the epoch day of a {@code DATE} column; empty values read as
+   * {@link Integer#MIN_VALUE}.
+   */
+  public int getInt(int column, int row) {
+    int chunk = chunkIndex(row);
+    return chunks.get(chunk).getInt(column, row - chunkStartRows[chunk]);
+  }
+
+  public LocalDate getDate(int column, int row) {
+    int epochDay = getInt(column, row);
+    return epochDay == ColumnarChunk.NULL_INT ? null : LocalDate.ofEpochDay(epochDay);
+  }
+
+  public Genre getGenre(int column, int row) {
+    int chunk = chunkIndex(row);
+    byte ordinal = chunks.get(chunk).getGenreOrdinal(column, row - chunkStartRows[chunk]);
+    return ordinal == ColumnarChunk.NULL_GENRE ? null : Genre.values()[ordinal];
+  }
+
+  public String getText(int column, int row) {
+    int chunk = chunkIndex(row);
+    return chunks.get(chunk).getText(column, row - chunkStartRows[chunk]);
+  }
+
+  private int chunkIndex(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " outside 0.." + (rowCount - 1));
+    }
+    int index = Arrays.binarySearch(chunkStartRows, row);
+    return index >= 0 ? index : -index - 2;
+  }
+}
@@ -0,0 +1,16 @@
+package com.sample.backend.loader;
+
+/**
+ * Outcome of importing a single CSV file.
+ *
+ * @param file name of the imported file
+ * @param rows number of rows written to the database
+ * @param rejected number of rows skipped because they were malformed or referenced unknown ids
+ * @param elapsedMillis wall-clock time spent on the file
+ */
+public record TableLoadResult(String file, long rows, long rejected, long elapsedMillis) {
+
+  public long rowsPerSecond() {
+    return elapsedMillis == 0 ? rows * 1000 : (rows * 1000) / elapsedMillis;
+  }
+}
@@ -1,11 +1,14 @@
 package com.sample.backend.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -14,25 +17,44 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
+@Table(
+    indexes = {
+      @Index(name = "idx_actor_first_name_id", columnList = "first_name, id"),
+      @Index(name = "idx_actor_last_name_id", columnList = "last_name, id"),
+      @Index(name = "idx_actor_birth_date_id", columnList = "birth_date, id")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ACTORS)
 public class Actor {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
-  private Long id;
+  @Id @CatalogId private Long id;
 
   private String firstName;
   private String lastName;
   private LocalDate birthDate;
   private String nationality;
 
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private Long version;
+
+  @UpdateTimestamp
+  @ColumnDefault("CURRENT_TIMESTAMP")
+  private Instant lastModified;
+
   @Builder.Default
   @BatchSize(size = 500)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ACTOR_ROLES)
   @OneToMany(mappedBy = "actor", cascade = CascadeType.ALL, orphanRemoval = true)
   private Set<Role> roles = new HashSet<>();
 }
@@ -0,0 +1,27 @@
+package com.sample.backend.model;
+
+import java.util.List;
+
+/**
+ * Names of the Hibernate second-level cache regions, which are also the keys of the {@code
+ * catalog.cache.regions.*} settings.
+ */
+public final class CacheRegions {
+
+  public static final String DIRECTORS = "directors";
+  public static final String DIRECTOR_MOVIES = "directors.movies";
+  public static final String ACTORS = "actors";
+  public static final String ACTOR_ROLES = "actors.roles";
+  public static final String MOVIES = "movies";
+  public static final String MOVIE_ROLES = "movies.roles";
+  public static final String ROLES = "roles";
+
+  /** Hibernate's region for the results of cacheable queries. */
+  public static final String QUERIES = "default-query-results-region";
+
+  /** Every region sized from the settings. */
+  public static final List<String> ALL =
+      List.of(DIRECTORS, DIRECTOR_MOVIES, ACTORS, ACTOR_ROLES, MOVIES, MOVIE_ROLES, ROLES, QUERIES);
+
+  private CacheRegions() {}
+}
@@ -0,0 +1,17 @@
+package com.sample.backend.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Marks the generated id of a catalogue entity. The {@link IdStrategy} and the number of ids
+ * reserved per sequence call are taken from the {@code catalog.id.*} settings, see {@link
+ * CatalogIdGenerator}.
+ */
+@IdGeneratorType(CatalogIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface CatalogId {}
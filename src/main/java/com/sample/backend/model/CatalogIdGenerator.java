@@ -0,0 +1,134 @@
+package com.sample.backend.model;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.generator.OnExecutionGenerator;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.mapping.SimpleValue;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generator behind {@link CatalogId}. The strategy is read from the Hibernate setting {@value
+ * #STRATEGY_SETTING} and the block size from {@value #ALLOCATION_SIZE_SETTING}; both are filled in
+ * from the {@code catalog.id.*} application properties.
+ *
+ * <p>With {@link IdStrategy#POOLED} it behaves like a {@code @SequenceGenerator} using the
+ * pooled-lo optimizer: each call to the sequence named by {@link #sequenceName(String)} returns the
+ * first id of a block of {@code allocation-size} ids. The catalogue CSV loader reserves its ids the
+ * same way, from the same sequence, so both can share it. With {@link IdStrategy#IDENTITY} it
+ * behaves like {@code GenerationType.IDENTITY}.
+ */
+public class CatalogIdGenerator
+    implements IdentifierGenerator, OnExecutionGenerator, AnnotationBasedGenerator<CatalogId> {
+
+  public static final String STRATEGY_SETTING = "catalog.id.strategy";
+  public static final String ALLOCATION_SIZE_SETTING = "catalog.id.allocation-size";
+  public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+  private final IdentityGenerator identity = new IdentityGenerator();
+  private final SequenceStyleGenerator sequence = new SequenceStyleGenerator();
+  private IdStrategy strategy = IdStrategy.POOLED;
+  private int allocationSize = DEFAULT_ALLOCATION_SIZE;
+  private String table;
+
+  /** Returns the name of the sequence the ids of {@code table} are reserved from. */
+  public static String sequenceName(String table) {
+    return table + "_seq";
+  }
+
+  @Override
+  public void initialize(CatalogId annotation, Member member, GeneratorCreationContext context) {
+    table = context.getPersistentClass().getTable().getName();
+    ConfigurationService settings =
+        context.getServiceRegistry().requireService(ConfigurationService.class);
+    strategy =
+        IdStrategy.valueOf(
+            settings
+                .getSetting(STRATEGY_SETTING, StandardConverters.STRING, IdStrategy.POOLED.name())
+                .toUpperCase(Locale.ROOT));
+    allocationSize =
+        settings.getSetting(
+            ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+    if (allocationSize < 1) {
+      throw new IllegalArgumentException(
+          ALLOCATION_SIZE_SETTING + " must be positive but was " + allocationSize);
+    }
+    if (strategy == IdStrategy.IDENTITY) {
+      // Hibernate only turns the column into an identity column for its own IdentityGenerator.
+      ((SimpleValue) context.getProperty().getValue()).getColumns().getFirst().setIdentity(true);
+    }
+  }
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+    if (strategy == IdStrategy.POOLED) {
+      parameters.setProperty(SequenceStyleGenerator.SEQUENCE_PARAM, sequenceName(table));
+      parameters.setProperty(
+          SequenceStyleGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+      parameters.setProperty(
+          SequenceStyleGenerator.OPT_PARAM,
+          StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+      sequence.configure(type, parameters, serviceRegistry);
+    }
+  }
+
+  @Override
+  public void registerExportables(Database database) {
+    if (strategy == IdStrategy.POOLED) {
+      sequence.registerExportables(database);
+    }
+  }
+
+  @Override
+  public void initialize(SqlStringGenerationContext context) {
+    if (strategy == IdStrategy.POOLED) {
+      sequence.initialize(context);
+    }
+  }
+
+  @Override
+  public boolean generatedOnExecution() {
+    return strategy == IdStrategy.IDENTITY;
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object entity) {
+    return sequence.generate(session, entity);
+  }
+
+  @Override
+  public boolean referenceColumnsInSql(Dialect dialect) {
+    return identity.referenceColumnsInSql(dialect);
+  }
+
+  @Override
+  public boolean writePropertyValue() {
+    return false;
+  }
+
+  @Override
+  public String[] getReferencedColumnValues(Dialect dialect) {
+    return identity.getReferencedColumnValues(dialect);
+  }
+}
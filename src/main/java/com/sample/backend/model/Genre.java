@@ -1,5 +1,7 @@
 package com.sample.backend.model;
 
+import java.util.Locale;
+
 public enum Genre {
   ACTION,
   ADVENTURE,
@@ -24,5 +26,15 @@ public enum Genre {
   SUPERHERO,
   THRILLER,
   WAR,
-  WESTERN
+  WESTERN;
+
+  /**
+   * Resolves a genre from its constant name or from a display label such as {@code "Sci-Fi"} or
+   * {@code "Film Noir"}.
+   *
+   * @throws IllegalArgumentException if the label does not name a genre
+   */
+  public static Genre fromLabel(String label) {
+    return valueOf(label.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_'));
+  }
 }
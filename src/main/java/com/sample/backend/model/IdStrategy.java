@@ -0,0 +1,17 @@
+package com.sample.backend.model;
+
+/** How {@link CatalogId} assigns primary keys. */
+public enum IdStrategy {
+
+  /**
+   * The id column is an identity column and the id is read back after every insert. Hibernate
+   * cannot batch inserts with this strategy.
+   */
+  IDENTITY,
+
+  /**
+   * Ids come from a sequence per table ({@code movie_seq}, ...). Each sequence call reserves a
+   * block of ids, so inserts need no extra round trips and can be batched.
+   */
+  POOLED
+}
@@ -1,15 +1,18 @@
 package com.sample.backend.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -19,22 +22,30 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 /**
  * Entity representing a movie. Contains basic movie information and maintains relationships with
  * director and roles.
  */
 @Entity
+@Table(
+    indexes = {
+      @Index(name = "idx_movie_title_id", columnList = "title, id"),
+      @Index(name = "idx_movie_release_date_id", columnList = "release_date, id")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.MOVIES)
 @Slf4j
 public class Movie {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
-  private Long id;
+  @Id @CatalogId private Long id;
 
   private String title;
 
@@ -44,12 +55,22 @@ public class Movie {
   private LocalDate releaseDate;
   private Integer durationMinutes;
 
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private Long version;
+
+  @UpdateTimestamp
+  @ColumnDefault("CURRENT_TIMESTAMP")
+  private Instant lastModified;
+
   @ManyToOne
   @JoinColumn(name = "director_id")
   private Director director;
 
   @Builder.Default
   @BatchSize(size = 500)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.MOVIE_ROLES)
   @OneToMany(mappedBy = "movie", cascade = CascadeType.ALL, orphanRemoval = true)
   private Set<Role> roles = new HashSet<>();
 }
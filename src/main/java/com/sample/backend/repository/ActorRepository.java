@@ -1,14 +1,87 @@
 package com.sample.backend.repository;
 
+import com.sample.backend.dto.ActorDTO;
 import com.sample.backend.model.Actor;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ActorRepository extends JpaRepository<Actor, Long> {
 
-  Page<Actor> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-      String firstName, String lastName, Pageable pageable);
+  /** Selects {@link ActorDTO}s without hydrating entities into the persistence context. */
+  String SELECT_DTO =
+      "select new com.sample.backend.dto.ActorDTO(a.id, a.firstName, a.lastName, a.birthDate,"
+          + " a.nationality) from Actor a";
+
+  Keyset<ActorDTO> KEYSET =
+      Keyset.of(ActorDTO.class, SELECT_DTO, "a.id", ActorDTO::id)
+          .key("firstName", "a.firstName", ActorDTO::firstName, Function.identity())
+          .key("lastName", "a.lastName", ActorDTO::lastName, Function.identity())
+          .key("birthDate", "a.birthDate", ActorDTO::birthDate, LocalDate::parse);
+
+  /** The fields of {@link ActorDTO}, all columns of the actor itself. */
+  Fieldset FIELDS =
+      Fieldset.of("Actor a")
+          .field("id", "a.id")
+          .field("firstName", "a.firstName")
+          .field("lastName", "a.lastName")
+          .field("birthDate", "a.birthDate")
+          .field("nationality", "a.nationality");
+
+  String NAME_MATCHES =
+      " where lower(a.firstName) like lower(concat('%', :name, '%'))"
+          + " or lower(a.lastName) like lower(concat('%', :name, '%'))";
+
+  @Query(SELECT_DTO)
+  Slice<ActorDTO> findAllDTOs(Pageable pageable);
+
+  @Query(SELECT_DTO + " where a.id = :id")
+  Optional<ActorDTO> findDTOById(@Param("id") Long id);
+
+  @Query(
+      "select new com.sample.backend.repository.VersionStamp(a.version, a.lastModified)"
+          + " from Actor a where a.id = :id")
+  Optional<VersionStamp> findVersionById(@Param("id") Long id);
+
+  @Query(
+      "select new com.sample.backend.repository.RowVersion(a.id, a.version, a.lastModified)"
+          + " from Actor a where a.id in :ids")
+  List<RowVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(SELECT_DTO + " where a.id in :ids order by a.id")
+  List<ActorDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+      value = SELECT_DTO + NAME_MATCHES,
+      countQuery = "select count(a) from Actor a" + NAME_MATCHES)
+  Page<ActorDTO> findDTOsByName(@Param("name") String name, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(SELECT_DTO + NAME_MATCHES)
+  Slice<ActorDTO> findDTOSliceByName(@Param("name") String name, Pageable pageable);
+
+  /** Reads the ids of matching actors; with a page request this counts them up to a limit. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("select a.id from Actor a" + NAME_MATCHES)
+  Slice<Long> findIdsByName(@Param("name") String name, Pageable pageable);
+
+  /** Deletes an actor without loading it; their roles must be deleted first. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Actor a where a.id = :id")
+  int bulkDeleteById(@Param("id") Long id);
 }
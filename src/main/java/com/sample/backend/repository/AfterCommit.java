@@ -0,0 +1,28 @@
+package com.sample.backend.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers in-memory bookkeeping until the database transaction that caused it has committed. */
+public final class AfterCommit {
+
+  private AfterCommit() {}
+
+  /**
+   * Runs {@code action} once the current transaction commits, or right away when no transaction is
+   * active. Nothing runs if the transaction rolls back.
+   */
+  public static void run(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,34 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.CastMember;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A role joined with its actor, with the version of both, as read for the cast of a {@link
+ * com.sample.backend.dto.MovieDetails}. The actor's columns are null when the role has none.
+ */
+public record CastRow(
+    Long roleId,
+    String characterName,
+    Long roleVersion,
+    Instant roleLastModified,
+    Long actorId,
+    String actorFirstName,
+    String actorLastName,
+    LocalDate actorBirthDate,
+    String actorNationality,
+    Long actorVersion,
+    Instant actorLastModified) {
+
+  public CastMember toCastMember() {
+    return new CastMember(
+        roleId,
+        characterName,
+        actorId == null
+            ? null
+            : new ActorDTO(
+                actorId, actorFirstName, actorLastName, actorBirthDate, actorNationality));
+  }
+}
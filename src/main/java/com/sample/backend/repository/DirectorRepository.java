@@ -1,13 +1,74 @@
 package com.sample.backend.repository;
 
+import com.sample.backend.dto.DirectorDTO;
 import com.sample.backend.model.Director;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface DirectorRepository extends JpaRepository<Director, Long> {
 
-  List<Director> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-      String firstName, String lastName);
+  /** Selects {@link DirectorDTO}s without hydrating entities into the persistence context. */
+  String SELECT_DTO =
+      "select new com.sample.backend.dto.DirectorDTO(d.id, d.firstName, d.lastName, d.birthDate,"
+          + " d.nationality) from Director d";
+
+  Keyset<DirectorDTO> KEYSET =
+      Keyset.of(DirectorDTO.class, SELECT_DTO, "d.id", DirectorDTO::id)
+          .key("firstName", "d.firstName", DirectorDTO::firstName, Function.identity())
+          .key("lastName", "d.lastName", DirectorDTO::lastName, Function.identity())
+          .key("birthDate", "d.birthDate", DirectorDTO::birthDate, LocalDate::parse);
+
+  /** The fields of {@link DirectorDTO}, all columns of the director itself. */
+  Fieldset FIELDS =
+      Fieldset.of("Director d")
+          .field("id", "d.id")
+          .field("firstName", "d.firstName")
+          .field("lastName", "d.lastName")
+          .field("birthDate", "d.birthDate")
+          .field("nationality", "d.nationality");
+
+  @Query(SELECT_DTO)
+  Slice<DirectorDTO> findAllDTOs(Pageable pageable);
+
+  @Query(SELECT_DTO + " where d.id = :id")
+  Optional<DirectorDTO> findDTOById(@Param("id") Long id);
+
+  @Query(
+      "select new com.sample.backend.repository.VersionStamp(d.version, d.lastModified)"
+          + " from Director d where d.id = :id")
+  Optional<VersionStamp> findVersionById(@Param("id") Long id);
+
+  @Query(
+      "select new com.sample.backend.repository.RowVersion(d.id, d.version, d.lastModified)"
+          + " from Director d where d.id in :ids")
+  List<RowVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(SELECT_DTO + " where d.id in :ids order by d.id")
+  List<DirectorDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+      SELECT_DTO
+          + " where lower(d.firstName) like lower(concat('%', :name, '%'))"
+          + " or lower(d.lastName) like lower(concat('%', :name, '%'))")
+  Slice<DirectorDTO> findDTOsByName(@Param("name") String name, Pageable pageable);
+
+  /** Deletes a director without loading it; their movies must be deleted first. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Director d where d.id = :id")
+  int bulkDeleteById(@Param("id") Long id);
 }
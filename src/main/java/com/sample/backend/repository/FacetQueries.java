@@ -0,0 +1,169 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.model.Genre;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Grouping queries counting rows by value, the database side of the facet counts, and the query
+ * listing the movies they count. They serve while the search indexes are not ready; each count runs
+ * a {@code GROUP BY} over the rows it counts. Only the predicates of the filter that are set are
+ * added to the queries.
+ */
+@Component
+public class FacetQueries {
+
+  private static final String FROM = " from Movie m left join m.director d";
+
+  private final EntityManager entityManager;
+
+  public FacetQueries(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Returns a slice of the movies matching {@code filter} in id order, reading one row more than
+   * the page to know whether another follows; no count query is issued.
+   */
+  public Slice<MovieDTO> findMovies(MovieFilter filter, Pageable pageable) {
+    List<MovieDTO> rows =
+        query(MovieRepository.SELECT_DTO, filter, " order by m.id", MovieDTO.class)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+    boolean more = rows.size() > pageable.getPageSize();
+    return new SliceImpl<>(more ? rows.subList(0, pageable.getPageSize()) : rows, pageable, more);
+  }
+
+  /** Returns the number of movies matching {@code filter}. */
+  public long countMovies(MovieFilter filter) {
+    return query("select count(m)" + FROM, filter, "", Long.class).getSingleResult();
+  }
+
+  /** Returns the number of movies matching {@code filter} per genre, most first. */
+  public Map<Genre, Long> countMoviesByGenre(MovieFilter filter) {
+    Map<Genre, Long> counts = new LinkedHashMap<>();
+    for (Object[] row :
+        query(
+                "select m.genre, count(m)" + FROM,
+                filter,
+                " and m.genre is not null group by m.genre order by count(m) desc, m.genre",
+                Object[].class)
+            .getResultList()) {
+      counts.put((Genre) row[0], (Long) row[1]);
+    }
+    return counts;
+  }
+
+  /** Returns the number of movies matching {@code filter} per release year. */
+  public Map<Integer, Long> countMoviesByYear(MovieFilter filter) {
+    Map<Integer, Long> counts = new HashMap<>();
+    for (Object[] row :
+        query(
+                "select extract(year from m.releaseDate), count(m)" + FROM,
+                filter,
+                " and m.releaseDate is not null group by extract(year from m.releaseDate)",
+                Object[].class)
+            .getResultList()) {
+      counts.put(((Number) row[0]).intValue(), (Long) row[1]);
+    }
+    return counts;
+  }
+
+  /**
+   * Returns the number of movies matching {@code filter} per director, most first, for at most
+   * {@code limit} directors, labelled with their names.
+   */
+  public List<FacetCount> countMoviesByDirector(MovieFilter filter, int limit) {
+    return query(
+            "select new com.sample.backend.dto.FacetCount(cast(d.id as String),"
+                + " concat(d.firstName, ' ', d.lastName), count(m))"
+                + FROM,
+            filter,
+            " and d.id is not null group by d.id, d.firstName, d.lastName"
+                + " order by count(m) desc, d.id",
+            FacetCount.class)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Returns the number of rows of {@code entity}, which must have a {@code nationality}, per
+   * nationality, most first.
+   */
+  public Map<String, Long> countByNationality(Class<?> entity) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (Object[] row :
+        entityManager
+            .createQuery(
+                "select e.nationality, count(e) from "
+                    + entity.getSimpleName()
+                    + " e where e.nationality is not null group by e.nationality"
+                    + " order by count(e) desc, e.nationality",
+                Object[].class)
+            .getResultList()) {
+      counts.put((String) row[0], (Long) row[1]);
+    }
+    return counts;
+  }
+
+  /**
+   * Creates the query {@code selectFrom}, which selects from the movies as {@code m} with the
+   * director joined as {@code d}, restricted to the movies matching {@code filter} and followed by
+   * {@code rest}, which starts with {@code and} if it adds predicates.
+   */
+  private <T> TypedQuery<T> query(
+      String selectFrom, MovieFilter filter, String rest, Class<T> type) {
+    StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue(" where 1 = 1");
+    if (filter.hasGenres()) {
+      where.add("m.genre in :genres");
+    }
+    if (filter.releasedFrom() != null) {
+      where.add("m.releaseDate >= :releasedFrom");
+    }
+    if (filter.releasedTo() != null) {
+      where.add("m.releaseDate <= :releasedTo");
+    }
+    if (filter.minDuration() != null) {
+      where.add("m.durationMinutes >= :minDuration");
+    }
+    if (filter.maxDuration() != null) {
+      where.add("m.durationMinutes <= :maxDuration");
+    }
+    if (filter.hasDirectors()) {
+      where.add("d.id in :directorIds");
+    }
+    TypedQuery<T> query = entityManager.createQuery(selectFrom + where + rest, type);
+    if (filter.hasGenres()) {
+      query.setParameter("genres", filter.genres());
+    }
+    if (filter.releasedFrom() != null) {
+      query.setParameter("releasedFrom", filter.releasedFrom());
+    }
+    if (filter.releasedTo() != null) {
+      query.setParameter("releasedTo", filter.releasedTo());
+    }
+    if (filter.minDuration() != null) {
+      query.setParameter("minDuration", filter.minDuration());
+    }
+    if (filter.maxDuration() != null) {
+      query.setParameter("maxDuration", filter.maxDuration());
+    }
+    if (filter.hasDirectors()) {
+      query.setParameter("directorIds", filter.directorIds());
+    }
+    return query;
+  }
+}
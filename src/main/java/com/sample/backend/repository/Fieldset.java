@@ -0,0 +1,127 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.exception.BadRequestException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the fields of a DTO that {@link FieldsetQueries} can select on their own: the JPQL path
+ * of each, and the join it needs, if any. A request for some of the fields selects only their
+ * columns and joins only what they need, so a list of ids and titles never touches the director.
+ *
+ * <p>The projection of each distinct set of fields is compiled once and kept. As the fields are put
+ * in declaration order first, every request for the same set yields the same JPQL, whose parsed
+ * form Hibernate keeps in turn. There are at most two to the power of the number of fields sets.
+ */
+public final class Fieldset {
+
+  private final String from;
+  private final Map<String, Field> fields = new LinkedHashMap<>();
+  private final Map<List<String>, Projection> projections = new ConcurrentHashMap<>();
+
+  private Fieldset(String from) {
+    this.from = from;
+  }
+
+  /**
+   * @param from JPQL entity and alias the paths start from, e.g. {@code Movie m}
+   */
+  public static Fieldset of(String from) {
+    return new Fieldset(from);
+  }
+
+  /**
+   * Adds a field read from a column of the entity, including a foreign key such as a director id.
+   */
+  public Fieldset field(String name, String path) {
+    return field(name, path, null);
+  }
+
+  /**
+   * Adds a field read through a join, which is only added to the queries selecting the field.
+   *
+   * @param join JPQL join clause, e.g. {@code left join m.director d}; fields sharing a join alias
+   *     must declare the same join clause, as it is added once per query
+   */
+  public Fieldset field(String name, String path, String join) {
+    fields.put(name, new Field(name, path, join));
+    return this;
+  }
+
+  /**
+   * Returns the projection selecting {@code requested}, a comma separated list of field names.
+   *
+   * @throws BadRequestException if a field is unknown or none is given
+   */
+  Projection compile(String requested) {
+    Set<String> names = new LinkedHashSet<>();
+    for (String name : requested.split(",")) {
+      String trimmed = name.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      if (!fields.containsKey(trimmed)) {
+        throw new BadRequestException(
+            "Unknown field '" + trimmed + "'; supported fields are " + fields.keySet());
+      }
+      names.add(trimmed);
+    }
+    if (names.isEmpty()) {
+      throw new BadRequestException("Request at least one of the fields " + fields.keySet());
+    }
+    List<String> ordered = new ArrayList<>(names.size());
+    for (String name : fields.keySet()) {
+      if (names.contains(name)) {
+        ordered.add(name);
+      }
+    }
+    return projections.computeIfAbsent(List.copyOf(ordered), this::projection);
+  }
+
+  /**
+   * Returns the path to sort by {@code property}, which must be a field read without a join.
+   *
+   * @throws BadRequestException otherwise
+   */
+  String sortPath(String property) {
+    Field field = fields.get(property);
+    if (field == null || field.join() != null) {
+      List<String> sortable =
+          fields.values().stream().filter(f -> f.join() == null).map(Field::name).toList();
+      throw new BadRequestException(
+          "Cannot sort by '" + property + "'; supported sort fields are " + sortable);
+    }
+    return field.path();
+  }
+
+  private Projection projection(List<String> names) {
+    StringJoiner select = new StringJoiner(", ", "select ", " from " + from);
+    Set<String> joins = new LinkedHashSet<>();
+    for (String name : names) {
+      Field field = fields.get(name);
+      select.add(field.path());
+      if (field.join() != null) {
+        joins.add(field.join());
+      }
+    }
+    StringBuilder jpql = new StringBuilder(select.toString());
+    joins.forEach(join -> jpql.append(' ').append(join));
+    return new Projection(names, jpql.toString());
+  }
+
+  record Field(String name, String path, String join) {}
+
+  /**
+   * A compiled set of fields.
+   *
+   * @param names the fields, in declaration order, which is the order of the selected columns
+   * @param select JPQL selecting their columns, with their joins but without {@code order by}
+   */
+  record Projection(List<String> names, String select) {}
+}
@@ -0,0 +1,69 @@
+package com.sample.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the requested fields of a {@link Fieldset} only, as maps from field name to value. Null
+ * values are left out of the maps, so each row holds no more than what was asked for and has.
+ */
+@Component
+public class FieldsetQueries {
+
+  private final EntityManager entityManager;
+
+  public FieldsetQueries(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Returns a slice of rows with the {@code fields} of {@code fieldset}, reading one row more than
+   * the page to know whether another follows; no count query is issued.
+   *
+   * @param fields comma separated field names
+   * @param pageable page and sort, whose properties must be fields read without a join
+   * @throws com.sample.backend.exception.BadRequestException if a field or sort property is not
+   *     supported
+   */
+  public Slice<Map<String, Object>> find(Fieldset fieldset, String fields, Pageable pageable) {
+    Fieldset.Projection projection = fieldset.compile(fields);
+    StringBuilder jpql = new StringBuilder(projection.select());
+    if (pageable.getSort().isSorted()) {
+      StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+      for (Sort.Order order : pageable.getSort()) {
+        orderBy.add(
+            fieldset.sortPath(order.getProperty()) + (order.isAscending() ? " asc" : " desc"));
+      }
+      jpql.append(orderBy);
+    }
+    Query query = entityManager.createQuery(jpql.toString());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1);
+    }
+    List<?> rows = query.getResultList();
+    boolean more = pageable.isPaged() && rows.size() > pageable.getPageSize();
+    List<Map<String, Object>> content = new ArrayList<>(rows.size());
+    for (Object row : more ? rows.subList(0, pageable.getPageSize()) : rows) {
+      // A single selected column comes back as the value itself rather than an array.
+      Object[] values = row instanceof Object[] array ? array : new Object[] {row};
+      Map<String, Object> fieldValues = LinkedHashMap.newLinkedHashMap(values.length);
+      for (int i = 0; i < values.length; i++) {
+        if (values[i] != null) {
+          fieldValues.put(projection.names().get(i), values[i]);
+        }
+      }
+      content.add(fieldValues);
+    }
+    return new SliceImpl<>(content, pageable, more);
+  }
+}
@@ -0,0 +1,77 @@
+package com.sample.backend.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Describes how {@link KeysetPager} pages a DTO query: the JPQL select without a {@code where}
+ * clause, and the properties it may be sorted by. Every sort is made unique by the id, so the id
+ * path and accessor are always required.
+ *
+ * @param <D> DTO type selected by the query
+ */
+public final class Keyset<D> {
+
+  private final Class<D> type;
+  private final String select;
+  private final Key<D> id;
+  private final Function<D, Long> idOf;
+  private final Map<String, Key<D>> keys = new LinkedHashMap<>();
+
+  private Keyset(Class<D> type, String select, String idPath, Function<D, Long> id) {
+    this.type = type;
+    this.select = select;
+    this.id = new Key<>("id", idPath, id, Long::valueOf);
+    this.idOf = id;
+    keys.put("id", this.id);
+  }
+
+  /**
+   * @param select JPQL selecting {@code type}, optionally with joins but without a {@code where}
+   * @param idPath JPQL path of the id, e.g. {@code a.id}
+   */
+  public static <D> Keyset<D> of(
+      Class<D> type, String select, String idPath, Function<D, Long> id) {
+    return new Keyset<>(type, select, idPath, id);
+  }
+
+  /**
+   * Allows sorting by {@code property}. The column behind {@code path} should be indexed together
+   * with the id, otherwise every page still scans the table.
+   *
+   * @param parse reads the value back from the string stored in a cursor
+   */
+  public Keyset<D> key(
+      String property, String path, Function<D, ?> value, Function<String, ?> parse) {
+    keys.put(property, new Key<>(property, path, value, parse));
+    return this;
+  }
+
+  Class<D> type() {
+    return type;
+  }
+
+  String select() {
+    return select;
+  }
+
+  Key<D> id() {
+    return id;
+  }
+
+  long idOf(D row) {
+    return idOf.apply(row);
+  }
+
+  Key<D> key(String property) {
+    return keys.get(property);
+  }
+
+  Set<String> properties() {
+    return keys.keySet();
+  }
+
+  record Key<D>(String property, String path, Function<D, ?> value, Function<String, ?> parse) {}
+}
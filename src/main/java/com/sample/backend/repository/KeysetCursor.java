@@ -0,0 +1,82 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.exception.BadRequestException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Position of a page in a keyset-paged listing, exchanged with clients as an opaque URL-safe token.
+ * A cursor without a position starts at the beginning of the listing.
+ *
+ * @param sort property the listing is sorted by
+ * @param descending whether the listing is sorted in descending order
+ * @param backward whether the page holds the rows before the position rather than after it
+ * @param key sort value of the row at the position, as a string; {@code null} if that value is null
+ * @param id id of the row at the position, or {@code null} for the start of the listing
+ */
+record KeysetCursor(String sort, boolean descending, boolean backward, String key, Long id) {
+
+  private static final byte VERSION = 1;
+
+  static KeysetCursor start(String sort, boolean descending) {
+    return new KeysetCursor(sort, descending, false, null, null);
+  }
+
+  boolean hasPosition() {
+    return id != null;
+  }
+
+  KeysetCursor after(String key, long id) {
+    return new KeysetCursor(sort, descending, false, key, id);
+  }
+
+  KeysetCursor before(String key, long id) {
+    return new KeysetCursor(sort, descending, true, key, id);
+  }
+
+  String encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeUTF(sort);
+      out.writeBoolean(descending);
+      out.writeBoolean(backward);
+      out.writeBoolean(key != null);
+      if (key != null) {
+        out.writeUTF(key);
+      }
+      out.writeLong(id);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+  }
+
+  /**
+   * @throws BadRequestException if {@code token} was not produced by {@link #encode()}
+   */
+  static KeysetCursor decode(String token) {
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+      if (in.readByte() != VERSION) {
+        throw new BadRequestException("Unsupported cursor: " + token);
+      }
+      String sort = in.readUTF();
+      boolean descending = in.readBoolean();
+      boolean backward = in.readBoolean();
+      String key = in.readBoolean() ? in.readUTF() : null;
+      long id = in.readLong();
+      if (in.available() > 0) {
+        throw new BadRequestException("Invalid cursor: " + token);
+      }
+      return new KeysetCursor(sort, descending, backward, key, id);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor: " + token);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.repository.Keyset.Key;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Pages DTO queries by keyset instead of by offset. Each page seeks past the sort value and id of
+ * the last row of the previous page, so the database can start reading from an index rather than
+ * skipping every earlier row, and no {@code COUNT(*)} is issued. Pages therefore cost the same at
+ * any depth, at the price of not knowing the total.
+ *
+ * <p>Null sort values order before all others, in both directions of the sort.
+ */
+@Repository
+public class KeysetPager {
+
+  private final EntityManager entityManager;
+
+  public KeysetPager(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Returns the page at {@code cursor}, or the first page when {@code cursor} is blank.
+   *
+   * @param sort property to sort by when starting; a cursor keeps the sort it was created with
+   * @param direction {@code asc} or {@code desc} when starting
+   * @throws BadRequestException if the cursor is invalid or the sort property is not supported
+   */
+  public <D> PagedResponse<D> page(
+      Keyset<D> keyset, String cursor, int size, String sort, String direction) {
+    KeysetCursor position =
+        cursor == null || cursor.isBlank()
+            ? KeysetCursor.start(
+                sort, Direction.fromOptionalString(direction).orElse(Direction.ASC).isDescending())
+            : KeysetCursor.decode(cursor);
+    Key<D> key = keyset.key(position.sort());
+    if (key == null) {
+      throw new BadRequestException(
+          "Cannot page by cursor sorted by '"
+              + position.sort()
+              + "'; supported sort fields are "
+              + keyset.properties());
+    }
+    Object keyValue;
+    try {
+      keyValue = position.key() == null ? null : key.parse().apply(position.key());
+    } catch (RuntimeException e) {
+      // The key comes from the client like the rest of the cursor.
+      throw new BadRequestException("Invalid cursor: " + cursor);
+    }
+    // Rows "after" the position in ascending order, or "before" it in descending order, are the
+    // ones greater than the position.
+    boolean ascending = position.descending() == position.backward();
+    List<D> rows = new ArrayList<>(size + 1);
+    for (String condition : seekConditions(keyset, key, position, ascending)) {
+      rows.addAll(
+          query(keyset, key, position, keyValue, ascending, condition, size + 1 - rows.size()));
+      if (rows.size() > size) {
+        break;
+      }
+    }
+    boolean more = rows.size() > size;
+    List<D> content = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+    if (position.backward()) {
+      Collections.reverse(content);
+    }
+
+    String next = null;
+    String prev = null;
+    if (!content.isEmpty()) {
+      D first = content.getFirst();
+      D last = content.getLast();
+      if (position.backward() ? position.hasPosition() : more) {
+        next = position.after(keyOf(key, last), keyset.idOf(last)).encode();
+      }
+      if (position.backward() ? more : position.hasPosition()) {
+        prev = position.before(keyOf(key, first), keyset.idOf(first)).encode();
+      }
+    }
+    return PagedResponse.<D>builder()
+        .content(content)
+        .page(-1)
+        .size(size)
+        .totalElements(-1)
+        .totalPages(-1)
+        .first(prev == null)
+        .last(next == null)
+        .next(next)
+        .prev(prev)
+        .build();
+  }
+
+  /**
+   * Returns the conditions selecting the rows past {@code position}, in the order they are to be
+   * read. Each condition bounds the sort column from one side, so the database can start reading at
+   * the position in the index. Null sort values cannot be part of such a range, so they are read by
+   * a separate condition: before all others when ascending, after all others when descending.
+   */
+  private static <D> List<String> seekConditions(
+      Keyset<D> keyset, Key<D> key, KeysetCursor position, boolean ascending) {
+    String p = key.path();
+    String id = keyset.id().path();
+    if (!position.hasPosition()) {
+      return Collections.singletonList(null);
+    }
+    if (key == keyset.id()) {
+      return List.of(id + (ascending ? " > :id" : " < :id"));
+    }
+    if (position.key() == null) {
+      return ascending
+          ? List.of(p + " is null and " + id + " > :id", p + " is not null")
+          : List.of(p + " is null and " + id + " < :id");
+    }
+    String seek =
+        ascending
+            ? "%1$s >= :key and (%1$s > :key or (%1$s = :key and %2$s > :id))"
+            : "%1$s <= :key and (%1$s < :key or (%1$s = :key and %2$s < :id))";
+    return ascending
+        ? List.of(seek.formatted(p, id))
+        : List.of(seek.formatted(p, id), p + " is null");
+  }
+
+  private <D> List<D> query(
+      Keyset<D> keyset,
+      Key<D> key,
+      KeysetCursor position,
+      Object keyValue,
+      boolean ascending,
+      String condition,
+      int limit) {
+    StringBuilder jpql = new StringBuilder(keyset.select());
+    if (condition != null) {
+      jpql.append(" where ").append(condition);
+    }
+    jpql.append(" order by ");
+    if (key != keyset.id()) {
+      jpql.append(key.path()).append(ascending ? " asc nulls first, " : " desc nulls last, ");
+    }
+    jpql.append(keyset.id().path()).append(ascending ? " asc" : " desc");
+
+    TypedQuery<D> query = entityManager.createQuery(jpql.toString(), keyset.type());
+    if (condition != null && condition.contains(":id")) {
+      query.setParameter("id", position.id());
+    }
+    if (condition != null && condition.contains(":key")) {
+      query.setParameter("key", keyValue);
+    }
+    return query.setMaxResults(limit).getResultList();
+  }
+
+  private static <D> String keyOf(Key<D> key, D row) {
+    return Objects.toString(key.value().apply(row), null);
+  }
+}
@@ -0,0 +1,39 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.model.Genre;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A movie joined with its director, with the version of both, as read for a {@link
+ * com.sample.backend.dto.MovieDetails}. The director's columns are null when the movie has none.
+ */
+public record MovieDetailsRow(
+    Long id,
+    String title,
+    Genre genre,
+    LocalDate releaseDate,
+    Integer durationMinutes,
+    Long version,
+    Instant lastModified,
+    Long directorId,
+    String directorFirstName,
+    String directorLastName,
+    LocalDate directorBirthDate,
+    String directorNationality,
+    Long directorVersion,
+    Instant directorLastModified) {
+
+  /** Returns the director, or null when the movie has none. */
+  public DirectorDTO director() {
+    return directorId == null
+        ? null
+        : new DirectorDTO(
+            directorId,
+            directorFirstName,
+            directorLastName,
+            directorBirthDate,
+            directorNationality);
+  }
+}
@@ -1,11 +1,24 @@
 package com.sample.backend.repository;
 
+import com.sample.backend.dto.MovieDTO;
 import com.sample.backend.model.Genre;
 import com.sample.backend.model.Movie;
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,19 +28,107 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
+  /**
+   * Selects {@link MovieDTO}s with the director's name computed in SQL, so reads do not hydrate
+   * entities into the persistence context.
+   */
+  String SELECT_DTO =
+      "select new com.sample.backend.dto.MovieDTO(m.id, m.title, m.genre, m.releaseDate,"
+          + " m.durationMinutes, d.id,"
+          + " case when d.id is not null then concat(d.firstName, ' ', d.lastName) end)"
+          + " from Movie m left join m.director d";
+
+  Keyset<MovieDTO> KEYSET =
+      Keyset.of(MovieDTO.class, SELECT_DTO, "m.id", MovieDTO::id)
+          .key("title", "m.title", MovieDTO::title, Function.identity())
+          .key("releaseDate", "m.releaseDate", MovieDTO::releaseDate, LocalDate::parse);
+
+  /** The fields of {@link MovieDTO}; only the director's name needs the director joined. */
+  Fieldset FIELDS =
+      Fieldset.of("Movie m")
+          .field("id", "m.id")
+          .field("title", "m.title")
+          .field("genre", "m.genre")
+          .field("releaseDate", "m.releaseDate")
+          .field("durationMinutes", "m.durationMinutes")
+          .field("directorId", "m.director.id")
+          .field(
+              "directorName",
+              "case when d.id is not null then concat(d.firstName, ' ', d.lastName) end",
+              "left join m.director d");
+
   @Override
   @EntityGraph(attributePaths = {"director"})
   @Nonnull
   List<Movie> findAll();
 
-  @EntityGraph(attributePaths = {"director"})
-  List<Movie> findByTitleContainingIgnoreCaseAndGenre(String title, Genre genre);
+  @Query(SELECT_DTO)
+  Slice<MovieDTO> findAllDTOs(Pageable pageable);
 
-  /** Finds movies by partial title match (case insensitive). */
-  @EntityGraph(attributePaths = {"director"})
-  List<Movie> findByTitleContainingIgnoreCase(String title);
+  @Query(SELECT_DTO + " where m.id = :id")
+  Optional<MovieDTO> findDTOById(@Param("id") Long id);
 
-  /** Finds movies by exact genre match. */
-  @EntityGraph(attributePaths = {"director"})
-  List<Movie> findByGenre(Genre genre);
+  /**
+   * Reads the version stamp of a movie and its director, whose name the movie's DTO shows, without
+   * loading either.
+   */
+  @Query(
+      "select new com.sample.backend.repository.VersionStamp(m.version, m.lastModified,"
+          + " d.version, d.lastModified) from Movie m left join m.director d where m.id = :id")
+  Optional<VersionStamp> findVersionById(@Param("id") Long id);
+
+  /** Reads the version stamps of several movies, as {@link #findVersionById} does for one. */
+  @Query(
+      "select new com.sample.backend.repository.RowVersion(m.id, m.version, m.lastModified,"
+          + " d.version, d.lastModified) from Movie m left join m.director d where m.id in :ids")
+  List<RowVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Reads a movie with its director and the version of both in one query, for a {@link
+   * com.sample.backend.dto.MovieDetails}.
+   */
+  @Query(
+      "select new com.sample.backend.repository.MovieDetailsRow(m.id, m.title, m.genre,"
+          + " m.releaseDate, m.durationMinutes, m.version, m.lastModified, d.id, d.firstName,"
+          + " d.lastName, d.birthDate, d.nationality, d.version, d.lastModified)"
+          + " from Movie m left join m.director d where m.id = :id")
+  Optional<MovieDetailsRow> findDetailsById(@Param("id") Long id);
+
+  @Query(SELECT_DTO + " where m.id in :ids order by m.id")
+  List<MovieDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(SELECT_DTO + " where lower(m.title) like lower(concat('%', :title, '%'))")
+  Slice<MovieDTO> findDTOsByTitle(@Param("title") String title, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(SELECT_DTO + " where m.genre = :genre")
+  Slice<MovieDTO> findDTOsByGenre(@Param("genre") Genre genre, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query(
+      SELECT_DTO
+          + " where lower(m.title) like lower(concat('%', :title, '%')) and m.genre = :genre")
+  Slice<MovieDTO> findDTOsByTitleAndGenre(
+      @Param("title") String title, @Param("genre") Genre genre, Pageable pageable);
+
+  @Query("select m.genre from Movie m where m.id = :id")
+  Optional<Genre> findGenreById(@Param("id") Long id);
+
+  /** Returns the genre of each movie of a director, one element per movie. */
+  @Query("select m.genre from Movie m where m.director.id = :directorId")
+  List<Genre> findGenresByDirectorId(@Param("directorId") Long directorId);
+
+  @Query("select m.id from Movie m where m.director.id = :directorId")
+  List<Long> findIdsByDirectorId(@Param("directorId") Long directorId);
+
+  /** Deletes the movies of a director without loading them; their roles must be deleted first. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Movie m where m.director.id = :directorId")
+  int bulkDeleteByDirectorId(@Param("directorId") Long directorId);
+
+  /** Deletes a movie without loading it; its roles must be deleted first. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Movie m where m.id = :id")
+  int bulkDeleteById(@Param("id") Long id);
 }
@@ -1,26 +1,133 @@
 package com.sample.backend.repository;
 
+import com.sample.backend.dto.RoleDTO;
 import com.sample.backend.model.Role;
 import jakarta.annotation.Nonnull;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
+  /**
+   * Selects {@link RoleDTO}s with the movie title and actor name computed in SQL, so reads do not
+   * hydrate the role, movie, actor and director entities.
+   */
+  String SELECT_DTO =
+      "select new com.sample.backend.dto.RoleDTO(r.id, r.characterName, m.id, m.title, a.id,"
+          + " case when a.id is not null then concat(a.firstName, ' ', a.lastName) end)"
+          + " from Role r left join r.movie m left join r.actor a";
+
+  Keyset<RoleDTO> KEYSET =
+      Keyset.of(RoleDTO.class, SELECT_DTO, "r.id", RoleDTO::id)
+          .key("characterName", "r.characterName", RoleDTO::characterName, Function.identity());
+
+  /** The fields of {@link RoleDTO}; only the movie title and actor name need their rows joined. */
+  Fieldset FIELDS =
+      Fieldset.of("Role r")
+          .field("id", "r.id")
+          .field("characterName", "r.characterName")
+          .field("movieId", "r.movie.id")
+          .field("movieTitle", "m.title", "left join r.movie m")
+          .field("actorId", "r.actor.id")
+          .field(
+              "actorName",
+              "case when a.id is not null then concat(a.firstName, ' ', a.lastName) end",
+              "left join r.actor a");
+
   @Override
   @EntityGraph(attributePaths = {"movie", "actor"})
   @Nonnull
   List<Role> findAll();
 
-  @EntityGraph(attributePaths = {"movie", "actor"})
-  List<Role> findByMovieId(Long movieId);
+  @Query(SELECT_DTO)
+  Slice<RoleDTO> findAllDTOs(Pageable pageable);
 
-  @EntityGraph(attributePaths = {"movie", "actor"})
-  List<Role> findByActorId(Long actorId);
+  @Query(SELECT_DTO + " where r.id = :id")
+  Optional<RoleDTO> findDTOById(@Param("id") Long id);
 
-  @EntityGraph(attributePaths = {"movie", "actor"})
-  List<Role> findByCharacterNameContainingIgnoreCase(String characterName);
+  /**
+   * Reads the version stamp of a role, its movie and its actor, whose title and name the role's DTO
+   * shows, without loading them.
+   */
+  @Query(
+      "select new com.sample.backend.repository.VersionStamp(r.version, r.lastModified,"
+          + " m.version, m.lastModified, a.version, a.lastModified)"
+          + " from Role r left join r.movie m left join r.actor a where r.id = :id")
+  Optional<VersionStamp> findVersionById(@Param("id") Long id);
+
+  /** Reads the version stamps of several roles, as {@link #findVersionById} does for one. */
+  @Query(
+      "select new com.sample.backend.repository.RowVersion(r.id, r.version, r.lastModified,"
+          + " m.version, m.lastModified, a.version, a.lastModified)"
+          + " from Role r left join r.movie m left join r.actor a where r.id in :ids")
+  List<RowVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(SELECT_DTO + " where r.id in :ids order by r.id")
+  List<RoleDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(SELECT_DTO + " where m.id = :movieId")
+  Slice<RoleDTO> findDTOsByMovieId(@Param("movieId") Long movieId, Pageable pageable);
+
+  @Query(SELECT_DTO + " where m.id in :movieIds")
+  Slice<RoleDTO> findDTOsByMovieIdIn(
+      @Param("movieIds") Collection<Long> movieIds, Pageable pageable);
+
+  /**
+   * Reads the roles of a movie with their actors and the version of both in one query, whatever the
+   * size of the cast, for a {@link com.sample.backend.dto.MovieDetails}.
+   */
+  @Query(
+      "select new com.sample.backend.repository.CastRow(r.id, r.characterName, r.version,"
+          + " r.lastModified, a.id, a.firstName, a.lastName, a.birthDate, a.nationality, a.version,"
+          + " a.lastModified) from Role r left join r.actor a where r.movie.id = :movieId"
+          + " order by r.id")
+  List<CastRow> findCastByMovieId(@Param("movieId") Long movieId);
+
+  @Query(SELECT_DTO + " where a.id = :actorId")
+  Slice<RoleDTO> findDTOsByActorId(@Param("actorId") Long actorId, Pageable pageable);
+
+  @Query(SELECT_DTO + " where a.id in :actorIds")
+  Slice<RoleDTO> findDTOsByActorIdIn(
+      @Param("actorIds") Collection<Long> actorIds, Pageable pageable);
+
+  @Query(SELECT_DTO + " where lower(r.characterName) like lower(concat('%', :characterName, '%'))")
+  Slice<RoleDTO> findDTOsByCharacterName(
+      @Param("characterName") String characterName, Pageable pageable);
+
+  @Query("select r.id from Role r where r.movie.director.id = :directorId")
+  List<Long> findIdsByDirectorId(@Param("directorId") Long directorId);
+
+  @Query("select r.id from Role r where r.movie.id = :movieId")
+  List<Long> findIdsByMovieId(@Param("movieId") Long movieId);
+
+  @Query("select r.id from Role r where r.actor.id = :actorId")
+  List<Long> findIdsByActorId(@Param("actorId") Long actorId);
+
+  /** Deletes the roles in the movies of a director without loading them. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "delete from Role r where r.movie.id in"
+          + " (select m.id from Movie m where m.director.id = :directorId)")
+  int bulkDeleteByDirectorId(@Param("directorId") Long directorId);
+
+  /** Deletes the roles of a movie without loading them. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Role r where r.movie.id = :movieId")
+  int bulkDeleteByMovieId(@Param("movieId") Long movieId);
+
+  /** Deletes the roles of an actor without loading them. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Role r where r.actor.id = :actorId")
+  int bulkDeleteByActorId(@Param("actorId") Long actorId);
 }
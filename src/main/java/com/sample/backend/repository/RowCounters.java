@@ -0,0 +1,124 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.model.Genre;
+import jakarta.persistence.EntityManager;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Row counts kept in memory, so paged responses can report their totals without a {@code COUNT(*)}
+ * per request. Each count is read from the database the first time it is needed and is then
+ * adjusted by the services as they insert and delete rows. Adjustments made inside a transaction
+ * are applied once it commits, so rolled back writes leave the counts alone.
+ *
+ * <p>The services adjust the counts rather than entity listeners, because bulk deletes and the CSV
+ * import write without loading entities. Writes that bypass the services must call {@link
+ * #invalidate()}. A write that commits while a count is being read for the first time may be
+ * counted twice; invalidating also clears such drift.
+ */
+@Component
+public class RowCounters {
+
+  private final EntityManager entityManager;
+  private final ConcurrentMap<Class<?>, AtomicLong> rows = new ConcurrentHashMap<>();
+  private volatile Map<Genre, AtomicLong> moviesByGenre;
+
+  public RowCounters(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /** Returns the number of rows of {@code entity}. */
+  public long count(Class<?> entity) {
+    return rows.computeIfAbsent(entity, this::countRows).get();
+  }
+
+  /** Returns the number of movies of {@code genre}. */
+  public long countMovies(Genre genre) {
+    return moviesByGenre().get(genre).get();
+  }
+
+  /**
+   * Adds {@code delta} rows to the count of {@code entity} once the current transaction commits.
+   */
+  public void add(Class<?> entity, long delta) {
+    if (delta != 0) {
+      AfterCommit.run(
+          () -> {
+            AtomicLong count = rows.get(entity);
+            if (count != null) {
+              count.addAndGet(delta);
+            }
+          });
+    }
+  }
+
+  /**
+   * Adds {@code delta} movies to the count of {@code genre} once the current transaction commits.
+   * Movies without a genre are not counted per genre.
+   */
+  public void addMovies(Genre genre, long delta) {
+    if (genre != null && delta != 0) {
+      AfterCommit.run(
+          () -> {
+            Map<Genre, AtomicLong> counts = moviesByGenre;
+            if (counts != null) {
+              counts.get(genre).addAndGet(delta);
+            }
+          });
+    }
+  }
+
+  /** Moves a movie from the count of {@code from} to the count of {@code to}. */
+  public void movieGenreChanged(Genre from, Genre to) {
+    if (from != to) {
+      addMovies(from, -1);
+      addMovies(to, 1);
+    }
+  }
+
+  /** Drops all counts once the current transaction commits, so they are read again. */
+  public void invalidate() {
+    AfterCommit.run(
+        () -> {
+          rows.clear();
+          moviesByGenre = null;
+        });
+  }
+
+  private AtomicLong countRows(Class<?> entity) {
+    return new AtomicLong(
+        entityManager
+            .createQuery("select count(e) from " + entity.getSimpleName() + " e", Long.class)
+            .getSingleResult());
+  }
+
+  private Map<Genre, AtomicLong> moviesByGenre() {
+    Map<Genre, AtomicLong> counts = moviesByGenre;
+    if (counts == null) {
+      synchronized (this) {
+        counts = moviesByGenre;
+        if (counts == null) {
+          counts = new EnumMap<>(Genre.class);
+          for (Genre genre : Genre.values()) {
+            counts.put(genre, new AtomicLong());
+          }
+          for (Object[] row :
+              entityManager
+                  .createQuery(
+                      "select m.genre, count(m) from Movie m where m.genre is not null"
+                          + " group by m.genre",
+                      Object[].class)
+                  .getResultList()) {
+            counts.get((Genre) row[0]).set((Long) row[1]);
+          }
+          moviesByGenre = counts;
+        }
+      }
+    }
+    return counts;
+  }
+}
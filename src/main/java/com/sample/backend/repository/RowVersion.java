@@ -0,0 +1,38 @@
+package com.sample.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * The {@link VersionStamp} of a row with its id, as read for several rows in one query. The
+ * constructors take the same columns as those of {@link VersionStamp}, after the id.
+ */
+public record RowVersion(Long id, VersionStamp stamp) {
+
+  public RowVersion(Long id, Long version, Instant lastModified) {
+    this(id, new VersionStamp(version, lastModified));
+  }
+
+  public RowVersion(
+      Long id, Long version, Instant lastModified, Long otherVersion, Instant otherLastModified) {
+    this(id, new VersionStamp(version, lastModified, otherVersion, otherLastModified));
+  }
+
+  public RowVersion(
+      Long id,
+      Long version,
+      Instant lastModified,
+      Long firstVersion,
+      Instant firstLastModified,
+      Long secondVersion,
+      Instant secondLastModified) {
+    this(
+        id,
+        new VersionStamp(
+            version,
+            lastModified,
+            firstVersion,
+            firstLastModified,
+            secondVersion,
+            secondLastModified));
+  }
+}
@@ -0,0 +1,75 @@
+package com.sample.backend.repository;
+
+import java.time.Instant;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versions of whole tables, kept in memory, so list endpoints can answer conditional requests
+ * without querying. Each table's version counts the writes reported to it since startup, and the
+ * entity tag of a list joins the versions of the tables it shows with a tag of this run, so tags
+ * handed out before a restart never match.
+ *
+ * <p>As with {@link RowCounters}, the services report their writes, which apply once the
+ * transaction commits, and writes that bypass the services must call {@link #changedAll()}. A list
+ * read while a write commits may carry the tag from before the write; the next conditional request
+ * then sees a new tag and reads the list again.
+ */
+@Component
+public class TableVersions {
+
+  private final String run = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final ConcurrentMap<Class<?>, Version> versions = new ConcurrentHashMap<>();
+
+  /** Version of every table at once, advanced by {@link #changedAll()}. */
+  private volatile Version all = new Version(0, Instant.now());
+
+  /** Returns the stamp of a list showing rows of {@code entities}. */
+  public VersionStamp stamp(Class<?>... entities) {
+    Version base = all;
+    StringJoiner etag = new StringJoiner(".", "\"" + run + "-" + base.count() + "-", "\"");
+    long total = base.count();
+    Instant lastModified = base.lastModified();
+    for (Class<?> entity : entities) {
+      Version version = versions.get(entity);
+      if (version == null) {
+        etag.add("0");
+        continue;
+      }
+      etag.add(Long.toString(version.count()));
+      total += version.count();
+      if (version.lastModified().isAfter(lastModified)) {
+        lastModified = version.lastModified();
+      }
+    }
+    return new VersionStamp(total, etag.toString(), lastModified);
+  }
+
+  /** Advances the versions of {@code entities} once the current transaction commits. */
+  public void changed(Class<?>... entities) {
+    AfterCommit.run(
+        () -> {
+          Instant now = Instant.now();
+          for (Class<?> entity : entities) {
+            versions.merge(
+                entity,
+                new Version(1, now),
+                (previous, write) -> new Version(previous.count() + 1, now));
+          }
+        });
+  }
+
+  /** Advances the version of every table once the current transaction commits. */
+  public void changedAll() {
+    AfterCommit.run(
+        () -> {
+          synchronized (this) {
+            all = new Version(all.count() + 1, Instant.now());
+          }
+        });
+  }
+
+  private record Version(long count, Instant lastModified) {}
+}
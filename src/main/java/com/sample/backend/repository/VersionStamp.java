@@ -0,0 +1,96 @@
+package com.sample.backend.repository;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.StringJoiner;
+
+/**
+ * The version of a representation, as a strong ETag and a last modification time. A row's stamp
+ * joins its own {@code @Version} with those of the rows whose columns its DTO shows, such as a
+ * movie's director, so renaming the director changes the movie's ETag too. Versions only grow, so a
+ * stamp never repeats.
+ *
+ * @param version the version of the row itself, which its updates check
+ * @param etag the quoted entity tag
+ * @param lastModified the latest modification of the rows the stamp covers
+ */
+public record VersionStamp(long version, String etag, Instant lastModified) {
+
+  public VersionStamp(Long version, Instant lastModified) {
+    this(version, etag(version), lastModified);
+  }
+
+  /** Stamp of a row showing columns of one other row, which may be missing. */
+  public VersionStamp(
+      Long version, Instant lastModified, Long otherVersion, Instant otherLastModified) {
+    this(version, etag(version, otherVersion), latest(lastModified, otherLastModified));
+  }
+
+  /** Stamp of a row showing columns of two other rows, which may be missing. */
+  public VersionStamp(
+      Long version,
+      Instant lastModified,
+      Long firstVersion,
+      Instant firstLastModified,
+      Long secondVersion,
+      Instant secondLastModified) {
+    this(
+        version,
+        etag(version, firstVersion, secondVersion),
+        latest(latest(lastModified, firstLastModified), secondLastModified));
+  }
+
+  /**
+   * Stamp of a representation joining a varying number of rows, such as a movie with its cast. The
+   * tag is a digest of the id and version of every row, so adding, removing or updating any of them
+   * changes it, and its length does not grow with the rows.
+   *
+   * @param rows the id and version of each row, in a stable order; -1 stands for a missing value
+   */
+  public static VersionStamp digest(long version, Instant lastModified, long... rows) {
+    ByteBuffer bytes = ByteBuffer.allocate(rows.length * Long.BYTES);
+    for (long row : rows) {
+      bytes.putLong(row);
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes.array());
+      return new VersionStamp(
+          version, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"", lastModified);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Whether the {@code If-Match} header value {@code ifMatch}, a comma separated list of entity
+   * tags or {@code *}, lists this stamp's tag. Weak tags never match, as the comparison is strong.
+   */
+  public boolean matches(String ifMatch) {
+    for (String tag : ifMatch.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.equals("*") || trimmed.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String etag(Long... versions) {
+    StringJoiner etag = new StringJoiner(".", "\"", "\"");
+    for (Long version : versions) {
+      etag.add(version == null ? "-" : version.toString());
+    }
+    return etag.toString();
+  }
+
+  /** Returns the later of two modification times, either of which may be missing. */
+  public static Instant latest(Instant left, Instant right) {
+    if (left == null || (right != null && right.isAfter(left))) {
+      return right;
+    }
+    return left;
+  }
+}
@@ -0,0 +1,235 @@
+package com.sample.backend.search;
+
+import com.sample.backend.dto.SearchHit.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Completes prefixes of movie titles and people's names to the best ranked of them, the ones with
+ * the highest weight first. The completions are held in an immutable {@link PrefixTrie}; changes
+ * made since it was built are kept aside and merged into each answer. Once enough changes pile up,
+ * a new trie including them is built in the background and swapped in.
+ *
+ * <p>The trie and the changes are replaced together, so queries never lock and always see one or
+ * the other. Writes are serialized.
+ */
+@Slf4j
+public final class AutocompleteIndex {
+
+  /** Orders completions by weight, then by the length and text of their text. */
+  static final Comparator<Completion> BEST_FIRST =
+      (left, right) -> {
+        int order = Long.compare(right.weight(), left.weight());
+        if (order == 0) {
+          order = Integer.compare(left.text().length(), right.text().length());
+        }
+        if (order == 0) {
+          order = left.text().compareTo(right.text());
+        }
+        if (order == 0) {
+          order = left.type().compareTo(right.type());
+        }
+        return order != 0 ? order : Long.compare(left.id(), right.id());
+      };
+
+  private static final int DEFAULT_MERGE_THRESHOLD = 1024;
+
+  private final int top;
+  private final int mergeThreshold;
+  private final Executor executor;
+  private volatile State state;
+  private boolean merging;
+
+  /**
+   * Creates an empty index.
+   *
+   * @param top number of completions kept per prefix, which is the most a query returns
+   */
+  public AutocompleteIndex(int top) {
+    this(top, DEFAULT_MERGE_THRESHOLD, ForkJoinPool.commonPool());
+  }
+
+  AutocompleteIndex(int top, int mergeThreshold, Executor executor) {
+    this.top = top;
+    this.mergeThreshold = mergeThreshold;
+    this.executor = executor;
+    this.state = new State(PrefixTrie.build(List.of(), top), Map.of());
+  }
+
+  /**
+   * A movie title or person's name, with the weight it ranks by.
+   *
+   * @param weight how often the row is referenced, such as the number of roles of a movie
+   */
+  public record Completion(Type type, long id, String text, long weight) {}
+
+  /** Replaces the content of the index with {@code completions}. */
+  public synchronized void load(Collection<Completion> completions) {
+    state = new State(PrefixTrie.build(completions, top), Map.of());
+  }
+
+  /**
+   * Adds a completion, or replaces the text of an indexed one. A replaced completion keeps its
+   * weight; a new one starts at 0 until the index is loaded again.
+   */
+  public synchronized void put(Type type, long id, String text) {
+    State current = state;
+    Change previous = current.changes().get(new RowKey(type, id));
+    long weight;
+    if (previous != null) {
+      weight = previous.completion() == null ? 0 : previous.completion().weight();
+    } else {
+      int rank = current.trie().rank(type, id);
+      weight = rank < 0 ? 0 : current.trie().completion(rank).weight();
+    }
+    Completion completion = new Completion(type, id, text == null ? "" : text, weight);
+    change(new RowKey(type, id), new Change(completion, TextAnalyzer.fold(completion.text())));
+  }
+
+  /** Removes a completion; does nothing if it is not indexed. */
+  public synchronized void remove(Type type, long id) {
+    RowKey key = new RowKey(type, id);
+    State current = state;
+    if (current.changes().containsKey(key) || current.trie().rank(type, id) >= 0) {
+      change(key, new Change(null, null));
+    }
+  }
+
+  /**
+   * Returns the best completions of {@code prefix}, which is matched against the start of each word
+   * ignoring case and accents.
+   *
+   * @param limit number of completions, reduced to the number kept per prefix
+   */
+  public List<Completion> complete(String prefix, int limit) {
+    State current = state;
+    String folded = TextAnalyzer.fold(prefix);
+    int wanted = Math.min(limit, top);
+    List<Completion> found = new ArrayList<>(wanted);
+    if (wanted <= 0) {
+      return found;
+    }
+    PrefixTrie trie = current.trie();
+    Map<RowKey, Change> changes = current.changes();
+    int node = trie.find(folded);
+    if (node >= 0) {
+      boolean[] skipped = {false};
+      trie.forEachTop(
+          node,
+          rank -> {
+            Completion completion = trie.completion(rank);
+            if (changes.containsKey(new RowKey(completion.type(), completion.id()))) {
+              skipped[0] = true;
+            } else {
+              found.add(completion);
+            }
+            return found.size() < wanted;
+          });
+      // Changed completions left out of a full list may hide ones stored further down.
+      if (skipped[0] && found.size() < wanted && trie.topCount(node) == top) {
+        found.clear();
+        trie.forEachRank(
+            node,
+            rank -> {
+              Completion completion = trie.completion(rank);
+              if (!changes.containsKey(new RowKey(completion.type(), completion.id()))) {
+                found.add(completion);
+              }
+              return found.size() < wanted;
+            });
+      }
+    }
+    for (Change change : changes.values()) {
+      if (change.completion() != null && change.matches(folded)) {
+        found.add(change.completion());
+      }
+    }
+    found.sort(BEST_FIRST);
+    return found.size() > wanted ? new ArrayList<>(found.subList(0, wanted)) : found;
+  }
+
+  /** Number of completions. */
+  public int size() {
+    State current = state;
+    int size = current.trie().size();
+    for (Map.Entry<RowKey, Change> change : current.changes().entrySet()) {
+      boolean stored = current.trie().rank(change.getKey().type(), change.getKey().id()) >= 0;
+      if (stored && change.getValue().completion() == null) {
+        size--;
+      } else if (!stored && change.getValue().completion() != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /** Approximate heap size of the index in bytes. */
+  public long memoryBytes() {
+    return state.trie().memoryBytes();
+  }
+
+  private void change(RowKey key, Change change) {
+    State current = state;
+    Map<RowKey, Change> changes = new HashMap<>(current.changes());
+    changes.put(key, change);
+    State changed = new State(current.trie(), Collections.unmodifiableMap(changes));
+    state = changed;
+    if (changes.size() >= mergeThreshold && !merging) {
+      merging = true;
+      executor.execute(() -> merge(changed));
+    }
+  }
+
+  /** Builds a trie including the changes of {@code from} and swaps it in. */
+  private void merge(State from) {
+    try {
+      List<Completion> completions = new ArrayList<>(from.trie().size() + from.changes().size());
+      for (int rank = 0; rank < from.trie().size(); rank++) {
+        Completion completion = from.trie().completion(rank);
+        if (!from.changes().containsKey(new RowKey(completion.type(), completion.id()))) {
+          completions.add(completion);
+        }
+      }
+      for (Change change : from.changes().values()) {
+        if (change.completion() != null) {
+          completions.add(change.completion());
+        }
+      }
+      PrefixTrie merged = PrefixTrie.build(completions, top);
+      synchronized (this) {
+        // Keep the changes made while merging; the index may also have been loaded meanwhile.
+        if (state.trie() == from.trie()) {
+          Map<RowKey, Change> remaining = new HashMap<>(state.changes());
+          from.changes().forEach(remaining::remove);
+          state = new State(merged, Collections.unmodifiableMap(remaining));
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Failed to merge the autocomplete changes", e);
+    } finally {
+      synchronized (this) {
+        merging = false;
+      }
+    }
+  }
+
+  private record RowKey(Type type, long id) {}
+
+  /** A completion added or replaced since the trie was built, or a removal when it is null. */
+  private record Change(Completion completion, String folded) {
+
+    boolean matches(String prefix) {
+      return folded.startsWith(prefix) || folded.contains(" " + prefix);
+    }
+  }
+
+  private record State(PrefixTrie trie, Map<RowKey, Change> changes) {}
+}
@@ -0,0 +1,239 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Burkhard-Keller tree of words under the Levenshtein distance. Each child hangs off its parent at
+ * its distance from the parent, so by the triangle inequality a search within distance {@code k} of
+ * a query at distance {@code d} from a node only descends into the children at distances {@code d -
+ * k} to {@code d + k}. The nodes are kept in parallel arrays, each node's children in a linked
+ * list, and the words are packed one after the other in a single array of characters.
+ *
+ * <p>Words can only be added; the owner skips the words it no longer uses. Not thread-safe; guarded
+ * by {@link FuzzyIndex}.
+ */
+final class BkTree {
+
+  /** Receives a word within the searched distance. */
+  @FunctionalInterface
+  interface Visitor {
+    void accept(String word, int distance);
+  }
+
+  private char[] chars = new char[2048];
+
+  /** Offset of each node's word in {@link #chars}, plus one past the last word. */
+  private int[] wordStarts = new int[257];
+
+  private int[] distances = new int[256];
+
+  /** Index plus one of each node's first child and next sibling, or 0 if it has none. */
+  private int[] firstChildren = new int[256];
+
+  private int[] nextSiblings = new int[256];
+
+  private int size;
+
+  /** Adds {@code word}; does nothing if the tree holds it. */
+  void add(String word) {
+    if (size == 0) {
+      append(word, 0);
+      return;
+    }
+    Distance distance = new Distance(word);
+    int node = 0;
+    while (true) {
+      int d = distance.to(chars, wordStarts[node], wordStarts[node + 1]);
+      if (d == 0) {
+        return;
+      }
+      int child = firstChildren[node] - 1;
+      while (child >= 0 && distances[child] != d) {
+        child = nextSiblings[child] - 1;
+      }
+      if (child < 0) {
+        int added = append(word, d);
+        nextSiblings[added] = firstChildren[node];
+        firstChildren[node] = added + 1;
+        return;
+      }
+      node = child;
+    }
+  }
+
+  /** Passes every word within {@code maxDistance} of {@code query} to {@code visitor}. */
+  void search(String query, int maxDistance, Visitor visitor) {
+    if (size == 0) {
+      return;
+    }
+    Distance distance = new Distance(query);
+    int[] stack = new int[16];
+    int top = 0;
+    stack[top++] = 0;
+    while (top > 0) {
+      int node = stack[--top];
+      int start = wordStarts[node];
+      int end = wordStarts[node + 1];
+      int d = distance.to(chars, start, end);
+      if (d <= maxDistance) {
+        visitor.accept(new String(chars, start, end - start), d);
+      }
+      for (int child = firstChildren[node] - 1; child >= 0; child = nextSiblings[child] - 1) {
+        if (Math.abs(distances[child] - d) <= maxDistance) {
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+          }
+          stack[top++] = child;
+        }
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  long memoryBytes() {
+    return (long) chars.length * Character.BYTES + (long) distances.length * 4 * Integer.BYTES;
+  }
+
+  /** Levenshtein distance: the fewest inserted, deleted or replaced characters. */
+  static int distance(String left, String right) {
+    return new Distance(left).to(right);
+  }
+
+  /** Stores a node without children and returns its index. */
+  private int append(String word, int distance) {
+    if (size == distances.length) {
+      int capacity = size * 2;
+      wordStarts = Arrays.copyOf(wordStarts, capacity + 1);
+      distances = Arrays.copyOf(distances, capacity);
+      firstChildren = Arrays.copyOf(firstChildren, capacity);
+      nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    }
+    int start = wordStarts[size];
+    if (start + word.length() > chars.length) {
+      chars = Arrays.copyOf(chars, Math.max(start + word.length(), chars.length * 2));
+    }
+    word.getChars(0, word.length(), chars, start);
+    wordStarts[size + 1] = start + word.length();
+    distances[size] = distance;
+    firstChildren[size] = 0;
+    nextSiblings[size] = 0;
+    return size++;
+  }
+
+  /**
+   * Levenshtein distances from one word, computed with Myers' bit-parallel algorithm: the column of
+   * the edit distance table for each character of the other word is kept as two bit vectors of
+   * vertical increments and decrements, so a word of up to 64 characters is compared in a few
+   * operations per character of the other. Longer words fall back to the table, row by row.
+   */
+  static final class Distance {
+
+    private final String word;
+
+    /** Bit {@code i} of the mask of a character is set where the word has it at index {@code i}. */
+    private final long[] asciiMasks;
+
+    private char[] otherChars = new char[0];
+    private long[] otherMasks = new long[0];
+
+    Distance(String word) {
+      this.word = word;
+      this.asciiMasks = word.length() <= Long.SIZE ? new long[128] : null;
+      if (asciiMasks != null) {
+        for (int i = 0; i < word.length(); i++) {
+          char c = word.charAt(i);
+          if (c < 128) {
+            asciiMasks[c] |= 1L << i;
+          } else {
+            addOther(c, 1L << i);
+          }
+        }
+      }
+    }
+
+    int to(String other) {
+      return to(other.toCharArray(), 0, other.length());
+    }
+
+    /** Distance to the word held in {@code text} from {@code start} to {@code end}. */
+    int to(char[] text, int start, int end) {
+      int length = word.length();
+      if (length == 0) {
+        return end - start;
+      }
+      if (asciiMasks == null) {
+        return table(word, text, start, end);
+      }
+      long positive = length == Long.SIZE ? -1L : (1L << length) - 1;
+      long negative = 0;
+      long last = 1L << (length - 1);
+      int score = length;
+      for (int j = start; j < end; j++) {
+        long equal = mask(text[j]);
+        long vertical = equal | negative;
+        long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+        long horizontalUp = negative | ~(horizontal | positive);
+        long horizontalDown = positive & horizontal;
+        if ((horizontalUp & last) != 0) {
+          score++;
+        } else if ((horizontalDown & last) != 0) {
+          score--;
+        }
+        horizontalUp = (horizontalUp << 1) | 1;
+        horizontalDown <<= 1;
+        positive = horizontalDown | ~(vertical | horizontalUp);
+        negative = horizontalUp & vertical;
+      }
+      return score;
+    }
+
+    private long mask(char c) {
+      if (c < 128) {
+        return asciiMasks[c];
+      }
+      for (int i = 0; i < otherChars.length; i++) {
+        if (otherChars[i] == c) {
+          return otherMasks[i];
+        }
+      }
+      return 0;
+    }
+
+    private void addOther(char c, long bit) {
+      for (int i = 0; i < otherChars.length; i++) {
+        if (otherChars[i] == c) {
+          otherMasks[i] |= bit;
+          return;
+        }
+      }
+      otherChars = Arrays.copyOf(otherChars, otherChars.length + 1);
+      otherMasks = Arrays.copyOf(otherMasks, otherMasks.length + 1);
+      otherChars[otherChars.length - 1] = c;
+      otherMasks[otherMasks.length - 1] = bit;
+    }
+
+    private static int table(String left, char[] text, int start, int end) {
+      int length = end - start;
+      int[] previous = new int[length + 1];
+      int[] current = new int[length + 1];
+      for (int j = 0; j <= length; j++) {
+        previous[j] = j;
+      }
+      for (int i = 1; i <= left.length(); i++) {
+        current[0] = i;
+        char c = left.charAt(i - 1);
+        for (int j = 1; j <= length; j++) {
+          int replace = previous[j - 1] + (c == text[start + j - 1] ? 0 : 1);
+          current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+        }
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+      }
+      return previous[length];
+    }
+  }
+}
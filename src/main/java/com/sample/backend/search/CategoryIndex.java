@@ -0,0 +1,95 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of one categorical value per document, such as a person's nationality. Each value
+ * maps to an {@link IdBitmap} of its documents, so counting the documents of every value reads one
+ * cardinality per value rather than grouping the rows. Values are compared as given; documents
+ * without a value are not counted. Reads run concurrently; writes take an exclusive lock.
+ */
+public final class CategoryIndex {
+
+  private static final long MAP_ENTRY_BYTES = 64;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, IdBitmap> documents = new HashMap<>();
+
+  /** Value of each document, to find its bitmap when the value changes. */
+  private final Map<Long, String> values = new HashMap<>();
+
+  /** Sets the value of a document; a null value removes it. */
+  public void put(long id, String value) {
+    lock.writeLock().lock();
+    try {
+      String previous = value == null ? values.remove(id) : values.put(id, value);
+      if (value != null && value.equals(previous)) {
+        return;
+      }
+      if (previous != null) {
+        IdBitmap bitmap = documents.get(previous);
+        if (bitmap.remove(id) && bitmap.isEmpty()) {
+          documents.remove(previous);
+        }
+      }
+      if (value != null) {
+        documents.computeIfAbsent(value, key -> new IdBitmap()).add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a document; does nothing if it is not indexed. */
+  public void remove(long id) {
+    put(id, null);
+  }
+
+  /** Returns the number of documents of each value, most first, then by value. */
+  public Map<String, Long> counts() {
+    lock.readLock().lock();
+    List<Map.Entry<String, Long>> counts = new ArrayList<>(documents.size());
+    try {
+      documents.forEach((value, bitmap) -> counts.add(Map.entry(value, bitmap.cardinality())));
+    } finally {
+      lock.readLock().unlock();
+    }
+    counts.sort(
+        Map.Entry.<String, Long>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey()));
+    Map<String, Long> sorted = new LinkedHashMap<>();
+    counts.forEach(count -> sorted.put(count.getKey(), count.getValue()));
+    return sorted;
+  }
+
+  /** Number of documents with a value. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return values.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Approximate heap size of the bitmaps and values. */
+  public long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      long bytes = values.size() * MAP_ENTRY_BYTES;
+      for (IdBitmap bitmap : documents.values()) {
+        bytes += MAP_ENTRY_BYTES + bitmap.memoryBytes();
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,469 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Bipartite graph of actors and the movies they play in, one edge per role, for co-star and
+ * degrees-of-separation queries. Queries traverse an immutable snapshot in compressed sparse row
+ * form: actors and movies are numbered densely, actors first, and the neighbours of vertex {@code
+ * v} are {@code adjacency[offsets[v]]} to {@code adjacency[offsets[v + 1] - 1]}, sorted and without
+ * duplicates. A traversal then reads two {@code int} arrays instead of querying the roles hop by
+ * hop.
+ *
+ * <p>Writes update a table of roles and mark the snapshot stale; the first query after them builds
+ * a new one in one pass over the roles. A burst of writes thus costs one build. Queries read the
+ * snapshot without locking; writes and builds are serialized.
+ */
+public final class CoStarGraph {
+
+  /** A co-star of an actor and the number of movies they share. */
+  public record CoStar(long actorId, int sharedMovies) {}
+
+  private static final long FREE = Long.MIN_VALUE;
+  private static final int MISSING = -1;
+  private static final int INITIAL_ROLES = 1024;
+  private static final long[] NO_PATH = new long[0];
+
+  private final int parallelThreshold;
+
+  private final LongIntMap slots = new LongIntMap();
+  private long[] actors = new long[INITIAL_ROLES];
+  private long[] movies = new long[INITIAL_ROLES];
+  private int slotCount;
+  private int[] freeSlots = new int[0];
+  private int freeCount;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  private volatile boolean stale;
+
+  /**
+   * @param parallelThreshold fewest edges leaving a search frontier for which the frontier is
+   *     expanded on every processor
+   */
+  public CoStarGraph(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /** Adds a role, or moves an indexed one; a role without an actor or a movie is removed. */
+  public synchronized void put(long roleId, Long actorId, Long movieId) {
+    if (actorId == null || movieId == null) {
+      remove(roleId);
+      return;
+    }
+    int slot = slots.get(roleId, MISSING);
+    if (slot == MISSING) {
+      slot = allocateSlot();
+      slots.put(roleId, slot);
+    } else if (actors[slot] == actorId && movies[slot] == movieId) {
+      return;
+    }
+    actors[slot] = actorId;
+    movies[slot] = movieId;
+    stale = true;
+  }
+
+  /** Removes a role; does nothing if it is not indexed. */
+  public synchronized void remove(long roleId) {
+    int slot = slots.remove(roleId, MISSING);
+    if (slot == MISSING) {
+      return;
+    }
+    actors[slot] = FREE;
+    movies[slot] = FREE;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+    }
+    freeSlots[freeCount++] = slot;
+    stale = true;
+  }
+
+  /**
+   * Returns the actors sharing a movie with {@code actorId}, those sharing the most first, then by
+   * id.
+   *
+   * @param limit most co-stars returned
+   */
+  public List<CoStar> coStars(long actorId, int limit) {
+    Snapshot graph = snapshot();
+    int actor = graph.actorIndex().get(actorId, MISSING);
+    if (actor == MISSING || limit <= 0) {
+      return List.of();
+    }
+    int[] offsets = graph.offsets();
+    int[] adjacency = graph.adjacency();
+    int reached = 0;
+    for (int i = offsets[actor]; i < offsets[actor + 1]; i++) {
+      int movie = adjacency[i];
+      reached += offsets[movie + 1] - offsets[movie];
+    }
+    // Each co-star appears once per shared movie; sorting the appearances counts them.
+    int[] found = new int[reached];
+    int count = 0;
+    for (int i = offsets[actor]; i < offsets[actor + 1]; i++) {
+      int movie = adjacency[i];
+      for (int j = offsets[movie]; j < offsets[movie + 1]; j++) {
+        if (adjacency[j] != actor) {
+          found[count++] = adjacency[j];
+        }
+      }
+    }
+    Arrays.sort(found, 0, count);
+    List<CoStar> coStars = new ArrayList<>();
+    for (int start = 0; start < count; ) {
+      int end = start;
+      while (end < count && found[end] == found[start]) {
+        end++;
+      }
+      coStars.add(new CoStar(graph.ids()[found[start]], end - start));
+      start = end;
+    }
+    coStars.sort(
+        (left, right) ->
+            left.sharedMovies() != right.sharedMovies()
+                ? Integer.compare(right.sharedMovies(), left.sharedMovies())
+                : Long.compare(left.actorId(), right.actorId()));
+    return coStars.size() > limit ? new ArrayList<>(coStars.subList(0, limit)) : coStars;
+  }
+
+  /**
+   * Returns a shortest chain of co-stars from one actor to another, found by a breadth-first search
+   * from both ends that always expands the side with fewer edges to follow.
+   *
+   * @param maxDegrees most movies on the chain
+   * @return the ids of the actors and movies on the chain, alternating and starting with {@code
+   *     fromActorId}, or an empty array when the actors are not linked within {@code maxDegrees}
+   */
+  public long[] path(long fromActorId, long toActorId, int maxDegrees) {
+    Snapshot graph = snapshot();
+    int from = graph.actorIndex().get(fromActorId, MISSING);
+    int to = graph.actorIndex().get(toActorId, MISSING);
+    if (from == MISSING || to == MISSING) {
+      return NO_PATH;
+    }
+    if (from == to) {
+      return new long[] {fromActorId};
+    }
+    int vertices = graph.ids().length;
+    int[] forward = new int[vertices];
+    int[] backward = new int[vertices];
+    Arrays.fill(forward, MISSING);
+    Arrays.fill(backward, MISSING);
+    forward[from] = 0;
+    backward[to] = 0;
+    int[] forwardFrontier = {from};
+    int[] backwardFrontier = {to};
+    int forwardDepth = 0;
+    int backwardDepth = 0;
+    while (forwardFrontier.length > 0
+        && backwardFrontier.length > 0
+        && forwardDepth + backwardDepth < 2 * maxDegrees) {
+      boolean fromStart = edges(graph, forwardFrontier) <= edges(graph, backwardFrontier);
+      int[] distances = fromStart ? forward : backward;
+      int[] others = fromStart ? backward : forward;
+      int depth = (fromStart ? forwardDepth : backwardDepth) + 1;
+      int[] next = expand(graph, fromStart ? forwardFrontier : backwardFrontier, distances, depth);
+      int meeting = MISSING;
+      for (int vertex : next) {
+        if (others[vertex] != MISSING && (meeting == MISSING || others[vertex] < others[meeting])) {
+          meeting = vertex;
+        }
+      }
+      if (fromStart) {
+        forwardFrontier = next;
+        forwardDepth = depth;
+      } else {
+        backwardFrontier = next;
+        backwardDepth = depth;
+      }
+      if (meeting != MISSING) {
+        return ids(graph, trace(graph, meeting, forward, backward));
+      }
+    }
+    return NO_PATH;
+  }
+
+  /** Returns the ids of the actors who played in a movie, in the order they were numbered. */
+  public long[] actorsOf(long movieId) {
+    Snapshot graph = snapshot();
+    int movie = graph.movieIndex().get(movieId, MISSING);
+    return ids(graph, movie == MISSING ? MISSING : graph.actorCount() + movie);
+  }
+
+  /** Returns the ids of the movies an actor played in, in the order they were numbered. */
+  public long[] moviesOf(long actorId) {
+    Snapshot graph = snapshot();
+    return ids(graph, graph.actorIndex().get(actorId, MISSING));
+  }
+
+  /** Returns the movie of a role, or null if the role is not indexed. */
+  public synchronized Long movieOf(long roleId) {
+    int slot = slots.get(roleId, MISSING);
+    return slot == MISSING ? null : movies[slot];
+  }
+
+  /** Number of roles in the graph. */
+  public synchronized int size() {
+    return slots.size();
+  }
+
+  /** Approximate heap size of the roles and the current snapshot. */
+  public synchronized long memoryBytes() {
+    return slots.memoryBytes()
+        + actors.length * (long) Long.BYTES * 2
+        + freeSlots.length * (long) Integer.BYTES
+        + snapshot.memoryBytes();
+  }
+
+  /** Returns a snapshot including every write so far, building it if writes made it stale. */
+  private Snapshot snapshot() {
+    if (!stale) {
+      return snapshot;
+    }
+    synchronized (this) {
+      if (stale) {
+        snapshot = build();
+        stale = false;
+      }
+      return snapshot;
+    }
+  }
+
+  /** Numbers the actors and movies of the roles and lays their edges out in CSR form. */
+  private Snapshot build() {
+    LongIntMap actorIndex = new LongIntMap();
+    LongIntMap movieIndex = new LongIntMap();
+    long[] actorIds = new long[16];
+    long[] movieIds = new long[16];
+    for (int slot = 0; slot < slotCount; slot++) {
+      if (actors[slot] == FREE) {
+        continue;
+      }
+      if (actorIndex.get(actors[slot], MISSING) == MISSING) {
+        if (actorIndex.size() == actorIds.length) {
+          actorIds = Arrays.copyOf(actorIds, actorIds.length * 2);
+        }
+        actorIds[actorIndex.size()] = actors[slot];
+        actorIndex.put(actors[slot], actorIndex.size());
+      }
+      if (movieIndex.get(movies[slot], MISSING) == MISSING) {
+        if (movieIndex.size() == movieIds.length) {
+          movieIds = Arrays.copyOf(movieIds, movieIds.length * 2);
+        }
+        movieIds[movieIndex.size()] = movies[slot];
+        movieIndex.put(movies[slot], movieIndex.size());
+      }
+    }
+    int actorCount = actorIndex.size();
+    int vertices = actorCount + movieIndex.size();
+    long[] ids = new long[vertices];
+    System.arraycopy(actorIds, 0, ids, 0, actorCount);
+    System.arraycopy(movieIds, 0, ids, actorCount, movieIndex.size());
+    int[] offsets = new int[vertices + 1];
+    for (int slot = 0; slot < slotCount; slot++) {
+      if (actors[slot] != FREE) {
+        offsets[actorIndex.get(actors[slot], MISSING) + 1]++;
+        offsets[actorCount + movieIndex.get(movies[slot], MISSING) + 1]++;
+      }
+    }
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      offsets[vertex + 1] += offsets[vertex];
+    }
+    int[] adjacency = new int[offsets[vertices]];
+    int[] next = Arrays.copyOf(offsets, vertices);
+    for (int slot = 0; slot < slotCount; slot++) {
+      if (actors[slot] != FREE) {
+        int actor = actorIndex.get(actors[slot], MISSING);
+        int movie = actorCount + movieIndex.get(movies[slot], MISSING);
+        adjacency[next[actor]++] = movie;
+        adjacency[next[movie]++] = actor;
+      }
+    }
+    // An actor with several roles in one movie is linked to it once.
+    int kept = 0;
+    for (int vertex = 0; vertex < vertices; vertex++) {
+      int start = offsets[vertex];
+      int end = offsets[vertex + 1];
+      Arrays.sort(adjacency, start, end);
+      offsets[vertex] = kept;
+      for (int i = start; i < end; i++) {
+        if (i == start || adjacency[i] != adjacency[i - 1]) {
+          adjacency[kept++] = adjacency[i];
+        }
+      }
+    }
+    offsets[vertices] = kept;
+    return new Snapshot(
+        ids,
+        actorCount,
+        actorIndex,
+        movieIndex,
+        offsets,
+        kept == adjacency.length ? adjacency : Arrays.copyOf(adjacency, kept));
+  }
+
+  /** Number of edges leaving the vertices of {@code frontier}. */
+  private static long edges(Snapshot graph, int[] frontier) {
+    long edges = 0;
+    for (int vertex : frontier) {
+      edges += graph.offsets()[vertex + 1] - graph.offsets()[vertex];
+    }
+    return edges;
+  }
+
+  /**
+   * Visits the unvisited neighbours of {@code frontier} at {@code depth} and returns them. Above
+   * the parallel threshold each processor collects the candidates of a slice of the frontier,
+   * reading {@code distances} only, and the candidates are then marked in slice order, so the
+   * result is the same as on one thread.
+   */
+  private int[] expand(Snapshot graph, int[] frontier, int[] distances, int depth) {
+    int[] offsets = graph.offsets();
+    int[] adjacency = graph.adjacency();
+    int chunks =
+        edges(graph, frontier) < parallelThreshold
+            ? 1
+            : Math.min(frontier.length, Runtime.getRuntime().availableProcessors());
+    int[][] candidates;
+    if (chunks <= 1) {
+      candidates =
+          new int[][] {unvisited(offsets, adjacency, frontier, 0, frontier.length, distances)};
+    } else {
+      int chunkSize = Math.ceilDiv(frontier.length, chunks);
+      candidates =
+          IntStream.range(0, chunks)
+              .parallel()
+              .mapToObj(
+                  chunk ->
+                      unvisited(
+                          offsets,
+                          adjacency,
+                          frontier,
+                          Math.min(frontier.length, chunk * chunkSize),
+                          Math.min(frontier.length, (chunk + 1) * chunkSize),
+                          distances))
+              .toArray(int[][]::new);
+    }
+    int total = 0;
+    for (int[] chunk : candidates) {
+      total += chunk.length;
+    }
+    int[] next = new int[total];
+    int count = 0;
+    for (int[] chunk : candidates) {
+      for (int vertex : chunk) {
+        if (distances[vertex] == MISSING) {
+          distances[vertex] = depth;
+          next[count++] = vertex;
+        }
+      }
+    }
+    return count == next.length ? next : Arrays.copyOf(next, count);
+  }
+
+  /** Collects the unvisited neighbours of {@code frontier[from]} to {@code frontier[to - 1]}. */
+  private static int[] unvisited(
+      int[] offsets, int[] adjacency, int[] frontier, int from, int to, int[] distances) {
+    int[] found = new int[16];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      int vertex = frontier[i];
+      for (int j = offsets[vertex]; j < offsets[vertex + 1]; j++) {
+        if (distances[adjacency[j]] == MISSING) {
+          if (count == found.length) {
+            found = Arrays.copyOf(found, count * 2);
+          }
+          found[count++] = adjacency[j];
+        }
+      }
+    }
+    return Arrays.copyOf(found, count);
+  }
+
+  /**
+   * Returns the vertices from the start to the end through {@code meeting}, stepping each time to
+   * the lowest-numbered neighbour one step closer to the end being walked towards.
+   */
+  private static int[] trace(Snapshot graph, int meeting, int[] forward, int[] backward) {
+    int[] path = new int[forward[meeting] + backward[meeting] + 1];
+    path[forward[meeting]] = meeting;
+    for (int vertex = meeting, i = forward[meeting] - 1; i >= 0; i--) {
+      vertex = closer(graph, vertex, forward);
+      path[i] = vertex;
+    }
+    for (int vertex = meeting, i = forward[meeting] + 1; i < path.length; i++) {
+      vertex = closer(graph, vertex, backward);
+      path[i] = vertex;
+    }
+    return path;
+  }
+
+  private static int closer(Snapshot graph, int vertex, int[] distances) {
+    for (int i = graph.offsets()[vertex]; i < graph.offsets()[vertex + 1]; i++) {
+      int neighbour = graph.adjacency()[i];
+      if (distances[neighbour] == distances[vertex] - 1) {
+        return neighbour;
+      }
+    }
+    throw new IllegalStateException("No neighbour of vertex " + vertex + " is closer");
+  }
+
+  /** Returns the ids of the neighbours of {@code vertex}, or none if it is {@link #MISSING}. */
+  private static long[] ids(Snapshot graph, int vertex) {
+    if (vertex == MISSING) {
+      return new long[0];
+    }
+    return ids(
+        graph,
+        Arrays.copyOfRange(
+            graph.adjacency(), graph.offsets()[vertex], graph.offsets()[vertex + 1]));
+  }
+
+  private static long[] ids(Snapshot graph, int[] vertices) {
+    long[] ids = new long[vertices.length];
+    for (int i = 0; i < vertices.length; i++) {
+      ids[i] = graph.ids()[vertices[i]];
+    }
+    return ids;
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (slotCount == actors.length) {
+      actors = Arrays.copyOf(actors, slotCount * 2);
+      movies = Arrays.copyOf(movies, slotCount * 2);
+    }
+    return slotCount++;
+  }
+
+  /**
+   * The graph in CSR form.
+   *
+   * @param ids id of each vertex, the actors' first and then the movies'
+   * @param actorIndex vertex of each actor id
+   * @param movieIndex vertex of each movie id, less {@code actorCount}
+   */
+  private record Snapshot(
+      long[] ids,
+      int actorCount,
+      LongIntMap actorIndex,
+      LongIntMap movieIndex,
+      int[] offsets,
+      int[] adjacency) {
+
+    static final Snapshot EMPTY =
+        new Snapshot(new long[0], 0, new LongIntMap(), new LongIntMap(), new int[1], new int[0]);
+
+    long memoryBytes() {
+      return actorIndex.memoryBytes()
+          + movieIndex.memoryBytes()
+          + ids.length * (long) Long.BYTES
+          + offsets.length * (long) Integer.BYTES
+          + adjacency.length * (long) Integer.BYTES;
+    }
+  }
+}
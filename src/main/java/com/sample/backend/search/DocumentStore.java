@@ -0,0 +1,152 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from document id to its normalized text and tag. Keys, texts and tags are
+ * kept in parallel arrays so that millions of documents do not each cost a boxed key and a hash map
+ * node. Removal shifts the following entries of the probe sequence back, so no tombstones are left
+ * behind. Not thread-safe; guarded by {@link TrigramIndex}.
+ */
+final class DocumentStore {
+
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private long[] keys;
+  private String[] texts;
+  private int[] tags;
+  private int size;
+  private int threshold;
+  private long textBytes;
+
+  DocumentStore() {
+    allocate(1024);
+  }
+
+  /** Stores the document and returns the text it replaces, or {@code null} if it is new. */
+  String put(long id, String text, int tag) {
+    if (id == EMPTY) {
+      throw new IllegalArgumentException("Unsupported id: " + id);
+    }
+    if (size >= threshold) {
+      rehash();
+    }
+    int slot = find(id);
+    String previous = texts[slot];
+    if (keys[slot] == EMPTY) {
+      keys[slot] = id;
+      size++;
+    } else {
+      textBytes -= stringBytes(previous);
+    }
+    texts[slot] = text;
+    tags[slot] = tag;
+    textBytes += stringBytes(text);
+    return previous;
+  }
+
+  /** Removes the document and returns its text, or {@code null} if there was none. */
+  String remove(long id) {
+    int slot = find(id);
+    if (keys[slot] == EMPTY) {
+      return null;
+    }
+    String previous = texts[slot];
+    textBytes -= stringBytes(previous);
+    size--;
+    int mask = keys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = mix(keys[next]) & mask;
+      // Move the entry back into the hole unless its home slot lies cyclically in (hole, next].
+      if (hole <= next ? (home <= hole || home > next) : (home <= hole && home > next)) {
+        keys[hole] = keys[next];
+        texts[hole] = texts[next];
+        tags[hole] = tags[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = EMPTY;
+    texts[hole] = null;
+    return previous;
+  }
+
+  /** Returns the slot of {@code id}, or -1 if it is not stored. */
+  int slot(long id) {
+    int slot = find(id);
+    return keys[slot] == EMPTY ? -1 : slot;
+  }
+
+  String text(int slot) {
+    return texts[slot];
+  }
+
+  int tag(int slot) {
+    return tags[slot];
+  }
+
+  int size() {
+    return size;
+  }
+
+  long memoryBytes() {
+    return (long) keys.length * (Long.BYTES + Integer.BYTES + Integer.BYTES) + textBytes;
+  }
+
+  private int find(long id) {
+    int mask = keys.length - 1;
+    int slot = mix(id) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    String[] oldTexts = texts;
+    int[] oldTags = tags;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        texts[slot] = oldTexts[i];
+        tags[slot] = oldTags[i];
+        size++;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    texts = new String[capacity];
+    tags = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Approximates the heap size of a string: the object with compressed references plus its backing
+   * array, which holds one byte per character unless a character is beyond Latin-1.
+   */
+  private static long stringBytes(String text) {
+    int perChar = 1;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) > 0xFF) {
+        perChar = 2;
+        break;
+      }
+    }
+    return 24 + ((16L + (long) text.length() * perChar + 7) & ~7L);
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
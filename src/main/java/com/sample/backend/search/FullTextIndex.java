@@ -0,0 +1,348 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index ranking documents by BM25. Text is split into terms by {@link
+ * TextAnalyzer}; each term maps to the documents containing it and how often.
+ *
+ * <p>Documents get increasing internal numbers as they are added, so every posting list is sorted
+ * by document number and a query walks its lists side by side. Queries keep the best results in a
+ * bounded heap and skip the lists of terms that, by their best possible contribution, can no longer
+ * lift a document into it (MaxScore).
+ *
+ * <p>Replacing or removing a document leaves its postings behind, and, as in Lucene, they still
+ * count toward the document frequencies of their terms until the index is compacted. Compaction
+ * runs once more than half of the postings are dead. Reads run concurrently; writes take an
+ * exclusive lock.
+ */
+public final class FullTextIndex {
+
+  /** A document id with its score for a query. */
+  public record ScoredId(long id, double score) {}
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final int MISSING = -1;
+  private static final Comparator<ScoredId> WORST_FIRST =
+      Comparator.comparingDouble(ScoredId::score)
+          .thenComparing(Comparator.comparingLong(ScoredId::id).reversed());
+
+  private final String name;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final LongIntMap documents = new LongIntMap();
+  private long[] ids = new long[1024];
+
+  /** Number of terms of each document, or -1 once it is removed. */
+  private int[] lengths = new int[1024];
+
+  /** Number of distinct terms, and so of postings, of each document. */
+  private int[] distinctTerms = new int[1024];
+
+  private int allocated;
+  private int live;
+  private long totalLength;
+  private long postingCount;
+  private long deadPostings;
+
+  public FullTextIndex(String name) {
+    this.name = name;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /** Adds a document, or replaces the text of an indexed one. */
+  public void put(long id, String text) {
+    List<String> terms = TextAnalyzer.terms(text);
+    Map<String, Integer> frequencies = new HashMap<>();
+    terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+    lock.writeLock().lock();
+    try {
+      removeDocument(id);
+      if (!terms.isEmpty()) {
+        int document = allocate(id, terms.size(), frequencies.size());
+        frequencies.forEach(
+            (term, frequency) ->
+                postings
+                    .computeIfAbsent(term, key -> new Postings())
+                    .add(document, frequency, terms.size()));
+        postingCount += frequencies.size();
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a document; does nothing if it is not indexed. */
+  public void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(id);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the {@code limit} documents scoring highest for {@code query}, best first; documents
+   * with equal scores are ordered by id. A document matches if it contains any query term.
+   */
+  public List<ScoredId> search(String query, int limit) {
+    List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.terms(query)));
+    lock.readLock().lock();
+    try {
+      if (live == 0 || limit <= 0) {
+        return List.of();
+      }
+      double averageLength = (double) totalLength / live;
+      List<QueryTerm> lists = new ArrayList<>();
+      for (String term : terms) {
+        Postings list = postings.get(term);
+        if (list != null) {
+          double weight = idf(list.size);
+          double bound = weight * termScore(list.maxFrequency, list.minLength, averageLength);
+          lists.add(new QueryTerm(list, weight, bound));
+        }
+      }
+      return topDocuments(lists, limit, averageLength);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of indexed documents. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return live;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of distinct terms. */
+  public int terms() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Approximate heap size of the index in bytes. */
+  public long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      long bytes =
+          documents.memoryBytes()
+              + (long) ids.length * (Long.BYTES + Integer.BYTES + Integer.BYTES);
+      for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+        bytes += 96 + 2L * entry.getKey().length() + entry.getValue().memoryBytes();
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Walks the lists side by side. The lists are ordered by their bound, the most a term can add to
+   * a score; once the heap is full, the lists whose bounds add up to no more than the worst score
+   * in it are non-essential: they only score the documents found through the others, and are
+   * searched for them instead of walked.
+   */
+  private List<ScoredId> topDocuments(List<QueryTerm> terms, int limit, double averageLength) {
+    terms.sort(Comparator.comparingDouble(QueryTerm::bound));
+    int count = terms.size();
+    Postings[] lists = new Postings[count];
+    double[] weights = new double[count];
+    int[] positions = new int[count];
+    double[] bounds = new double[count];
+    double sum = 0;
+    for (int i = 0; i < count; i++) {
+      lists[i] = terms.get(i).postings();
+      weights[i] = terms.get(i).weight();
+      sum += terms.get(i).bound();
+      bounds[i] = sum;
+    }
+    PriorityQueue<ScoredId> heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, WORST_FIRST);
+    double threshold = -1;
+    int essential = 0;
+    while (essential < count) {
+      int document = Integer.MAX_VALUE;
+      for (int i = essential; i < count; i++) {
+        Postings list = lists[i];
+        if (positions[i] < list.size) {
+          document = Math.min(document, list.documents[positions[i]]);
+        }
+      }
+      if (document == Integer.MAX_VALUE) {
+        break;
+      }
+      double score = 0;
+      for (int i = essential; i < count; i++) {
+        Postings list = lists[i];
+        if (positions[i] < list.size && list.documents[positions[i]] == document) {
+          score +=
+              weights[i]
+                  * termScore(list.frequencies[positions[i]], lengths[document], averageLength);
+          positions[i]++;
+        }
+      }
+      for (int i = essential - 1; i >= 0 && score + bounds[i] > threshold; i--) {
+        Postings list = lists[i];
+        int at = Arrays.binarySearch(list.documents, positions[i], list.size, document);
+        positions[i] = at >= 0 ? at + 1 : -at - 1;
+        if (at >= 0) {
+          score += weights[i] * termScore(list.frequencies[at], lengths[document], averageLength);
+        }
+      }
+      if (lengths[document] < 0 || (heap.size() == limit && score <= threshold)) {
+        continue;
+      }
+      heap.add(new ScoredId(ids[document], score));
+      if (heap.size() > limit) {
+        heap.poll();
+      }
+      if (heap.size() == limit) {
+        threshold = heap.peek().score();
+        while (essential < count && bounds[essential] <= threshold) {
+          essential++;
+        }
+      }
+    }
+    List<ScoredId> top = new ArrayList<>(heap);
+    top.sort(WORST_FIRST.reversed());
+    return top;
+  }
+
+  /**
+   * The BM25 term frequency component. It grows with the frequency and shrinks with the document
+   * length, so the highest frequency and the shortest document of a list bound it.
+   */
+  private static double termScore(int frequency, int length, double averageLength) {
+    double norm = K1 * (1 - B + B * length / averageLength);
+    return frequency * (K1 + 1) / (frequency + norm);
+  }
+
+  private double idf(int documentFrequency) {
+    return Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+  }
+
+  private int allocate(long id, int length, int terms) {
+    if (allocated == ids.length) {
+      int capacity = ids.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      distinctTerms = Arrays.copyOf(distinctTerms, capacity);
+    }
+    int document = allocated++;
+    ids[document] = id;
+    lengths[document] = length;
+    distinctTerms[document] = terms;
+    documents.put(id, document);
+    live++;
+    totalLength += length;
+    return document;
+  }
+
+  private void removeDocument(long id) {
+    int document = documents.remove(id, MISSING);
+    if (document == MISSING) {
+      return;
+    }
+    live--;
+    totalLength -= lengths[document];
+    lengths[document] = -1;
+    deadPostings += distinctTerms[document];
+  }
+
+  /** Drops dead postings and renumbers the remaining documents, keeping their order. */
+  private void compactIfNeeded() {
+    if (deadPostings <= 1024 || deadPostings * 2 <= postingCount) {
+      return;
+    }
+    int[] renumbered = new int[allocated];
+    int next = 0;
+    for (int document = 0; document < allocated; document++) {
+      if (lengths[document] < 0) {
+        renumbered[document] = MISSING;
+        continue;
+      }
+      renumbered[document] = next;
+      ids[next] = ids[document];
+      lengths[next] = lengths[document];
+      distinctTerms[next] = distinctTerms[document];
+      documents.put(ids[next], next);
+      next++;
+    }
+    allocated = next;
+    postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+    postingCount -= deadPostings;
+    deadPostings = 0;
+  }
+
+  /**
+   * A query term's postings with its inverse document frequency and the most it can add to a score.
+   */
+  private record QueryTerm(Postings postings, double weight, double bound) {}
+
+  /** Documents containing a term, in increasing order, with the term's frequency in each. */
+  private static final class Postings {
+
+    private int[] documents = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    /** Bounds over every document added, which stay valid as documents are removed. */
+    private int maxFrequency;
+
+    private int minLength = Integer.MAX_VALUE;
+
+    void add(int document, int frequency, int length) {
+      maxFrequency = Math.max(maxFrequency, frequency);
+      minLength = Math.min(minLength, length);
+      if (size == documents.length) {
+        documents = Arrays.copyOf(documents, size * 2);
+        frequencies = Arrays.copyOf(frequencies, size * 2);
+      }
+      documents[size] = document;
+      frequencies[size] = frequency;
+      size++;
+    }
+
+    /** Maps the documents to their new numbers, dropping removed ones; returns the new size. */
+    int renumber(int[] renumbered) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int document = renumbered[documents[i]];
+        if (document != MISSING) {
+          documents[kept] = document;
+          frequencies[kept] = frequencies[i];
+          kept++;
+        }
+      }
+      size = kept;
+      return size;
+    }
+
+    long memoryBytes() {
+      return 32 + (long) documents.length * (Integer.BYTES + Integer.BYTES);
+    }
+  }
+}
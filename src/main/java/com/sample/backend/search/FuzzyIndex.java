@@ -0,0 +1,318 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+/**
+ * In-memory index for typo-tolerant search. The words of every document, folded like the {@link
+ * TextAnalyzer} folds them but not stemmed, form a dictionary kept in a {@link BkTree}, and each
+ * word maps to the {@link PostingList} of the documents containing it.
+ *
+ * <p>Each query word matches the dictionary words within an edit distance that grows with its
+ * length: none up to two characters, one up to five and two beyond. An index of names also matches
+ * the words that sound the same by their Double Metaphone keys, however far apart they are spelled.
+ * A document matches when each query word matches one of its words, and documents are ranked by the
+ * sum of the smallest distances, then by id.
+ *
+ * <p>Each document may carry a tag, such as a genre ordinal, that queries can filter on. Reads run
+ * concurrently; writes take an exclusive lock.
+ */
+public final class FuzzyIndex {
+
+  /** Ids of the matching documents, best first, and the number of matches. */
+  public record Matches(long[] ids, long total) {}
+
+  private static final long MAP_ENTRY_BYTES = 64;
+  private static final int SMALL_LIST = 32;
+  private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+  private final String name;
+  private final boolean phonetic;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, PostingList> postings = new HashMap<>();
+  private final BkTree dictionary = new BkTree();
+  private final Map<String, Set<String>> sounds = new HashMap<>();
+  private final DocumentStore documents = new DocumentStore();
+
+  /**
+   * @param phonetic also match words by their Double Metaphone keys, which suits person names
+   */
+  public FuzzyIndex(String name, boolean phonetic) {
+    this.name = name;
+    this.phonetic = phonetic;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /** Adds a document, or replaces the text and tag of an indexed one. */
+  public void put(long id, String text, int tag) {
+    String folded = TextAnalyzer.fold(text);
+    lock.writeLock().lock();
+    try {
+      String previous = documents.put(id, folded, tag);
+      Set<String> added = wordsOf(folded);
+      Set<String> removed = previous == null ? Set.of() : wordsOf(previous);
+      for (String word : added) {
+        if (!removed.contains(word)) {
+          postings.computeIfAbsent(word, this::newWord).add(id);
+        }
+      }
+      for (String word : removed) {
+        if (!added.contains(word)) {
+          markStale(word);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a document; does nothing if it is not indexed. */
+  public void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      String previous = documents.remove(id);
+      if (previous != null) {
+        wordsOf(previous).forEach(this::markStale);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the documents matching every word of {@code query}, closest first.
+   *
+   * @param tag only match documents with this tag, or {@link TrigramIndex#ANY_TAG}
+   * @param offset number of matches to skip
+   * @param limit maximum number of ids to return
+   */
+  public Matches find(String query, int tag, long offset, int limit) {
+    Set<String> terms = wordsOf(TextAnalyzer.fold(query));
+    if (terms.isEmpty()) {
+      return new Matches(new long[0], 0);
+    }
+    lock.readLock().lock();
+    try {
+      // The closest distance of every dictionary word each term matches.
+      List<Map<String, Integer>> matches = new ArrayList<>(terms.size());
+      int driver = 0;
+      long driverSize = Long.MAX_VALUE;
+      for (String word : terms) {
+        Map<String, Integer> similar = similar(word);
+        matches.add(similar);
+        long size = 0;
+        for (String match : similar.keySet()) {
+          size += postings.get(match).size();
+        }
+        if (size == 0) {
+          return new Matches(new long[0], 0);
+        }
+        if (size < driverSize) {
+          driver = matches.size() - 1;
+          driverSize = size;
+        }
+      }
+      // The candidates are the documents of the words the driving term matches, at the distance
+      // of the closest of them. Unless some of those entries are stale, only the other terms are
+      // checked against the text.
+      long[] candidates = new long[(int) Math.min(driverSize, Integer.MAX_VALUE - 8)];
+      LongIntMap closest = new LongIntMap();
+      boolean stale = false;
+      int[] count = {0};
+      for (Map.Entry<String, Integer> match : matches.get(driver).entrySet()) {
+        int matchDistance = match.getValue();
+        PostingList list = postings.get(match.getKey());
+        stale |= list.hasStale();
+        list.forEach(
+            id -> {
+              int known = closest.get(id, Integer.MAX_VALUE);
+              if (known == Integer.MAX_VALUE) {
+                candidates[count[0]++] = id;
+              }
+              if (matchDistance < known) {
+                closest.put(id, matchDistance);
+              }
+              return count[0] < candidates.length;
+            });
+      }
+      if (!stale) {
+        matches.remove(driver);
+      }
+      Arrays.sort(candidates, 0, count[0]);
+      // The total distance in the high half and the position among the candidates in the low half.
+      long[] ranked = new long[count[0]];
+      int found = 0;
+      for (int i = 0; i < count[0]; i++) {
+        int slot = documents.slot(candidates[i]);
+        if (slot < 0 || (tag != TrigramIndex.ANY_TAG && documents.tag(slot) != tag)) {
+          continue;
+        }
+        int distance = matches.isEmpty() ? 0 : distance(documents.text(slot), matches);
+        if (distance >= 0) {
+          distance += stale ? 0 : closest.get(candidates[i], 0);
+          ranked[found++] = ((long) distance << 32) | i;
+        }
+      }
+      Arrays.sort(ranked, 0, found);
+      int from = (int) Math.min(offset, found);
+      int to = (int) Math.min(found, from + (long) limit);
+      long[] ids = new long[to - from];
+      for (int i = from; i < to; i++) {
+        ids[i - from] = candidates[(int) ranked[i]];
+      }
+      return new Matches(ids, found);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of indexed documents. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of distinct words in use. */
+  public int words() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Approximate heap size of the index in bytes. */
+  public long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      long bytes = documents.memoryBytes() + dictionary.memoryBytes();
+      for (PostingList list : postings.values()) {
+        bytes += MAP_ENTRY_BYTES + list.memoryBytes();
+      }
+      for (Set<String> words : sounds.values()) {
+        bytes += MAP_ENTRY_BYTES * (1 + words.size());
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Most edits a query word of {@code length} characters may be away from a word it matches. */
+  static int maxDistance(int length) {
+    return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+  }
+
+  /** Returns the words in use that {@code term} matches, with their distance from it. */
+  private Map<String, Integer> similar(String term) {
+    Map<String, Integer> similar = new HashMap<>();
+    dictionary.search(
+        term,
+        maxDistance(term.length()),
+        (word, distance) -> {
+          if (postings.containsKey(word)) {
+            similar.put(word, distance);
+          }
+        });
+    if (phonetic) {
+      BkTree.Distance distance = new BkTree.Distance(term);
+      for (String key : keys(term)) {
+        for (String word : sounds.getOrDefault(key, Set.of())) {
+          if (postings.containsKey(word) && !similar.containsKey(word)) {
+            similar.put(word, distance.to(word));
+          }
+        }
+      }
+    }
+    return similar;
+  }
+
+  /**
+   * Returns the sum over the query terms of the closest distance to a word of {@code text}, or -1
+   * if some term matches none of them.
+   */
+  private static int distance(String text, List<Map<String, Integer>> matches) {
+    String[] words = text.split(" ");
+    int total = 0;
+    for (Map<String, Integer> match : matches) {
+      int closest = Integer.MAX_VALUE;
+      for (String word : words) {
+        Integer distance = match.get(word);
+        if (distance != null && distance < closest) {
+          closest = distance;
+        }
+      }
+      if (closest == Integer.MAX_VALUE) {
+        return -1;
+      }
+      total += closest;
+    }
+    return total;
+  }
+
+  private PostingList newWord(String word) {
+    dictionary.add(word);
+    if (phonetic) {
+      for (String key : keys(word)) {
+        sounds.computeIfAbsent(key, k -> new HashSet<>()).add(word);
+      }
+    }
+    return new PostingList();
+  }
+
+  private void markStale(String word) {
+    PostingList list = postings.get(word);
+    if (list == null) {
+      return;
+    }
+    list.markStale();
+    // Most words occur in few documents; dropping those right away keeps the word count exact.
+    if (list.size() <= SMALL_LIST || list.needsCompaction()) {
+      list.retain(
+          id -> {
+            int slot = documents.slot(id);
+            return slot >= 0 && wordsOf(documents.text(slot)).contains(word);
+          });
+      if (list.size() == 0) {
+        postings.remove(word);
+      }
+    }
+  }
+
+  /** Returns the primary and alternate Double Metaphone keys of {@code word}. */
+  private static Set<String> keys(String word) {
+    Set<String> keys = new HashSet<>(2);
+    for (String key :
+        new String[] {METAPHONE.doubleMetaphone(word), METAPHONE.doubleMetaphone(word, true)}) {
+      if (key != null && !key.isEmpty()) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  private static Set<String> wordsOf(String folded) {
+    Set<String> words = new LinkedHashSet<>();
+    if (!folded.isEmpty()) {
+      words.addAll(Arrays.asList(folded.split(" ")));
+    }
+    return words;
+  }
+}
@@ -0,0 +1,498 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Compressed set of non-negative document ids, split like a roaring bitmap: the high 48 bits of an
+ * id select a container of up to 65536 ids, held as a sorted array of their low 16 bits while it
+ * has at most {@value #ARRAY_MAX} of them and as a 65536-bit bitmap beyond. Sparse sets, such as
+ * the movies of one director, then take two bytes per id, and dense ones, such as a genre, one bit
+ * per possible id. Intersections and unions work container by container and return new sets that
+ * share nothing with their operands.
+ *
+ * <p>Not thread-safe; guarded by its owner.
+ */
+final class IdBitmap {
+
+  /** Largest container kept as an array; beyond it a bitmap is smaller. */
+  private static final int ARRAY_MAX = 4096;
+
+  private static final int WORDS = 1024;
+  private static final int OVERHEAD_BYTES = 48;
+
+  private long[] keys = new long[0];
+  private Container[] containers = new Container[0];
+  private int size;
+
+  /** Adds {@code id}, returning whether it was absent. */
+  boolean add(long id) {
+    checkId(id);
+    long key = id >>> 16;
+    char low = (char) id;
+    int index = Arrays.binarySearch(keys, 0, size, key);
+    if (index < 0) {
+      index = -index - 1;
+      insertContainer(index, key, new ArrayContainer());
+    }
+    Container container = containers[index];
+    int before = container.cardinality();
+    containers[index] = container.add(low);
+    return containers[index].cardinality() > before;
+  }
+
+  /** Removes {@code id}, returning whether it was present. */
+  boolean remove(long id) {
+    if (id < 0) {
+      return false;
+    }
+    int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+    if (index < 0) {
+      return false;
+    }
+    Container container = containers[index];
+    int before = container.cardinality();
+    Container after = container.remove((char) id);
+    if (after.cardinality() == 0) {
+      removeContainer(index);
+    } else {
+      containers[index] = after;
+    }
+    return after.cardinality() < before;
+  }
+
+  boolean contains(long id) {
+    if (id < 0) {
+      return false;
+    }
+    int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+    return index >= 0 && containers[index].contains((char) id);
+  }
+
+  /** Number of ids in the set. */
+  long cardinality() {
+    long cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Returns the ids in both sets. */
+  IdBitmap and(IdBitmap other) {
+    IdBitmap result = new IdBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        Container both = containers[i].and(other.containers[j]);
+        if (both.cardinality() > 0) {
+          result.appendContainer(keys[i], both);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /** Returns the ids in either set. */
+  IdBitmap or(IdBitmap other) {
+    IdBitmap result = new IdBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+        result.appendContainer(keys[i], containers[i].copy());
+        i++;
+      } else if (i == size || keys[i] > other.keys[j]) {
+        result.appendContainer(other.keys[j], other.containers[j].copy());
+        j++;
+      } else {
+        result.appendContainer(keys[i], containers[i].or(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /** Returns a copy sharing nothing with this set. */
+  IdBitmap copy() {
+    IdBitmap result = new IdBitmap();
+    for (int i = 0; i < size; i++) {
+      result.appendContainer(keys[i], containers[i].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Passes the ids to {@code action} in increasing order, while it returns true.
+   *
+   * @return whether every id was passed
+   */
+  boolean forEach(LongPredicate action) {
+    for (int i = 0; i < size; i++) {
+      if (!containers[i].forEach(keys[i] << 16, action)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the ids from the {@code offset}th on, in increasing order, at most {@code limit} of
+   * them. Whole containers before the offset are skipped by their cardinality.
+   */
+  long[] page(long offset, int limit) {
+    long[] page = new long[(int) Math.max(0, Math.min(limit, cardinality() - offset))];
+    long skipped = 0;
+    int found = 0;
+    for (int i = 0; i < size && found < page.length; i++) {
+      int cardinality = containers[i].cardinality();
+      if (skipped + cardinality <= offset) {
+        skipped += cardinality;
+        continue;
+      }
+      long[] toSkip = {offset - skipped};
+      int[] filled = {found};
+      containers[i].forEach(
+          keys[i] << 16,
+          id -> {
+            if (toSkip[0] > 0) {
+              toSkip[0]--;
+              return true;
+            }
+            page[filled[0]++] = id;
+            return filled[0] < page.length;
+          });
+      skipped = offset;
+      found = filled[0];
+    }
+    return page;
+  }
+
+  /** Approximate heap size of the set. */
+  long memoryBytes() {
+    long bytes = OVERHEAD_BYTES + keys.length * 8L + containers.length * 4L;
+    for (int i = 0; i < size; i++) {
+      bytes += containers[i].memoryBytes();
+    }
+    return bytes;
+  }
+
+  private void insertContainer(int index, long key, Container container) {
+    if (size == keys.length) {
+      int capacity = Math.max(4, size * 2);
+      keys = Arrays.copyOf(keys, capacity);
+      containers = Arrays.copyOf(containers, capacity);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private void appendContainer(long key, Container container) {
+    insertContainer(size, key, container);
+  }
+
+  private void removeContainer(int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+    containers[--size] = null;
+  }
+
+  private static void checkId(long id) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Unsupported id: " + id);
+    }
+  }
+
+  /** The low 16 bits of the ids sharing their high bits. */
+  private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+    /** Adds {@code low}, returning this container or the one replacing it. */
+    abstract Container add(char low);
+
+    /** Removes {@code low}, returning this container or the one replacing it. */
+    abstract Container remove(char low);
+
+    abstract boolean contains(char low);
+
+    abstract int cardinality();
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container copy();
+
+    abstract boolean forEach(long high, LongPredicate action);
+
+    abstract long memoryBytes();
+  }
+
+  private static final class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char low) {
+      int index = Arrays.binarySearch(values, 0, cardinality, low);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == ARRAY_MAX) {
+        return toBitmap().add(low);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = low;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char low) {
+      int index = Arrays.binarySearch(values, 0, cardinality, low);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    boolean contains(char low) {
+      return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    Container and(Container other) {
+      char[] both = new char[Math.min(cardinality, other.cardinality())];
+      int count = 0;
+      if (other instanceof ArrayContainer array) {
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < array.cardinality) {
+          if (values[i] < array.values[j]) {
+            i++;
+          } else if (values[i] > array.values[j]) {
+            j++;
+          } else {
+            both[count++] = values[i];
+            i++;
+            j++;
+          }
+        }
+      } else {
+        for (int i = 0; i < cardinality; i++) {
+          if (other.contains(values[i])) {
+            both[count++] = values[i];
+          }
+        }
+      }
+      return new ArrayContainer(both, count);
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof BitmapContainer bitmap) {
+        return bitmap.or(this);
+      }
+      ArrayContainer array = (ArrayContainer) other;
+      char[] either = new char[cardinality + array.cardinality];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < cardinality || j < array.cardinality) {
+        if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+          either[count++] = values[i++];
+        } else if (i == cardinality || values[i] > array.values[j]) {
+          either[count++] = array.values[j++];
+        } else {
+          either[count++] = values[i++];
+          j++;
+        }
+      }
+      ArrayContainer union = new ArrayContainer(either, count);
+      return count > ARRAY_MAX ? union.toBitmap() : union;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+    }
+
+    @Override
+    boolean forEach(long high, LongPredicate action) {
+      for (int i = 0; i < cardinality; i++) {
+        if (!action.test(high | values[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    long memoryBytes() {
+      return 32 + values.length * 2L;
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer(new long[WORDS], 0);
+      for (int i = 0; i < cardinality; i++) {
+        bitmap.set(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static final class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char low) {
+      set(low);
+      return this;
+    }
+
+    @Override
+    Container remove(char low) {
+      long bit = 1L << low;
+      if ((words[low >>> 6] & bit) != 0) {
+        words[low >>> 6] &= ~bit;
+        cardinality--;
+        if (cardinality <= ARRAY_MAX / 2) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    boolean contains(char low) {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer array) {
+        return array.and(this);
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      long[] both = new long[WORDS];
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        both[i] = words[i] & otherWords[i];
+        count += Long.bitCount(both[i]);
+      }
+      BitmapContainer intersection = new BitmapContainer(both, count);
+      return count <= ARRAY_MAX ? intersection.toArray() : intersection;
+    }
+
+    @Override
+    Container or(Container other) {
+      BitmapContainer union = (BitmapContainer) copy();
+      if (other instanceof ArrayContainer array) {
+        for (int i = 0; i < array.cardinality; i++) {
+          union.set(array.values[i]);
+        }
+        return union;
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        union.words[i] |= otherWords[i];
+        count += Long.bitCount(union.words[i]);
+      }
+      union.cardinality = count;
+      return union;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    boolean forEach(long high, LongPredicate action) {
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          if (!action.test(high | (i * 64L + Long.numberOfTrailingZeros(word)))) {
+            return false;
+          }
+          word &= word - 1;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    long memoryBytes() {
+      return 32 + WORDS * 8L;
+    }
+
+    void set(char low) {
+      long bit = 1L << low;
+      if ((words[low >>> 6] & bit) == 0) {
+        words[low >>> 6] |= bit;
+        cardinality++;
+      }
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[cardinality];
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a {@code long} key to an {@code int} value, kept in two primitive arrays
+ * so that millions of entries do not each cost boxed keys and a hash map node. Removal shifts the
+ * following entries of the probe sequence back instead of leaving tombstones.
+ */
+final class LongIntMap {
+
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+  private int threshold;
+
+  LongIntMap() {
+    allocate(1024);
+  }
+
+  void put(long key, int value) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Unsupported id: " + key);
+    }
+    if (size >= threshold) {
+      rehash();
+    }
+    int slot = find(key);
+    if (keys[slot] == EMPTY) {
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] = value;
+  }
+
+  /** Returns the value mapped to {@code key}, or {@code missing} when there is none. */
+  int get(long key, int missing) {
+    int slot = find(key);
+    return keys[slot] == EMPTY ? missing : values[slot];
+  }
+
+  /** Removes {@code key} and returns its value, or {@code missing} when there was none. */
+  int remove(long key, int missing) {
+    int slot = find(key);
+    if (keys[slot] == EMPTY) {
+      return missing;
+    }
+    int previous = values[slot];
+    size--;
+    int mask = keys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = mix(keys[next]) & mask;
+      // Move the entry back into the hole unless its home slot lies cyclically in (hole, next].
+      if (hole <= next ? (home <= hole || home > next) : (home <= hole && home > next)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = EMPTY;
+    return previous;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long memoryBytes() {
+    return (long) keys.length * (Long.BYTES + Integer.BYTES);
+  }
+
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
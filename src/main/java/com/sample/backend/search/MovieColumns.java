@@ -0,0 +1,212 @@
+package com.sample.backend.search;
+
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-optimized columnar projection of the movies: one primitive array per attribute, indexed by a
+ * row that an open-addressing map assigns to each movie id. Genres are stored as ordinals, release
+ * dates as epoch days, and titles as codes into a dictionary holding each distinct title once.
+ * Aggregations then run as loops over flat arrays that the JIT can vectorize, without an object per
+ * movie. Rows freed by removals are reused; until then a free row has {@link #FREE} as its id and
+ * no values, so loops over {@code [0, rowCount())} need no other check.
+ *
+ * <p>Not thread-safe; guarded by its owner.
+ */
+final class MovieColumns {
+
+  static final int MISSING = -1;
+  static final long FREE = Long.MIN_VALUE;
+  static final byte NO_GENRE = -1;
+  static final int NO_VALUE = Integer.MIN_VALUE;
+  static final long NO_DIRECTOR = Long.MIN_VALUE;
+
+  private static final int INITIAL_ROWS = 1024;
+  private static final long MAP_ENTRY_BYTES = 64;
+
+  private final LongIntMap rows = new LongIntMap();
+  private long[] ids = new long[INITIAL_ROWS];
+  private byte[] genres = new byte[INITIAL_ROWS];
+  private int[] releaseDays = new int[INITIAL_ROWS];
+  private int[] durations = new int[INITIAL_ROWS];
+  private long[] directors = new long[INITIAL_ROWS];
+  private int[] titles = new int[INITIAL_ROWS];
+  private int[] freeRows = new int[0];
+  private int freeCount;
+  private int rowCount;
+
+  /** Distinct titles by code, with the number of rows holding each; free codes hold null. */
+  private String[] dictionary = new String[INITIAL_ROWS];
+
+  private int[] references = new int[INITIAL_ROWS];
+  private final Map<String, Integer> codes = new HashMap<>();
+  private int[] freeCodes = new int[0];
+  private int freeCodeCount;
+  private int codeCount;
+
+  /** Returns the row of movie {@code id}, or {@link #MISSING}. */
+  int row(long id) {
+    return rows.get(id, MISSING);
+  }
+
+  /**
+   * Stores the values of a movie, in its current row or a new one. Null values are stored as the
+   * {@code NO_*} constants, and a null title as no dictionary entry.
+   *
+   * @return the row of the movie
+   */
+  int put(
+      long id,
+      String title,
+      Genre genre,
+      LocalDate releaseDate,
+      Integer durationMinutes,
+      Long directorId) {
+    int row = rows.get(id, MISSING);
+    if (row == MISSING) {
+      row = allocateRow();
+      rows.put(id, row);
+      ids[row] = id;
+    } else {
+      release(titles[row]);
+    }
+    genres[row] = genre == null ? NO_GENRE : (byte) genre.ordinal();
+    releaseDays[row] = releaseDate == null ? NO_VALUE : (int) releaseDate.toEpochDay();
+    durations[row] = durationMinutes == null ? NO_VALUE : durationMinutes;
+    directors[row] = directorId == null ? NO_DIRECTOR : directorId;
+    titles[row] = encode(title);
+    return row;
+  }
+
+  /**
+   * Frees the row of movie {@code id}, clearing its values so loops over the columns skip it.
+   *
+   * @return the freed row, or {@link #MISSING} if the movie was not stored
+   */
+  int remove(long id) {
+    int row = rows.remove(id, MISSING);
+    if (row == MISSING) {
+      return MISSING;
+    }
+    release(titles[row]);
+    titles[row] = MISSING;
+    ids[row] = FREE;
+    genres[row] = NO_GENRE;
+    releaseDays[row] = NO_VALUE;
+    durations[row] = NO_VALUE;
+    directors[row] = NO_DIRECTOR;
+    if (freeCount == freeRows.length) {
+      freeRows = Arrays.copyOf(freeRows, Math.max(16, freeCount * 2));
+    }
+    freeRows[freeCount++] = row;
+    return row;
+  }
+
+  /** Number of movies stored. */
+  int size() {
+    return rows.size();
+  }
+
+  /** Rows in use or free, the bound of a loop over the columns. */
+  int rowCount() {
+    return rowCount;
+  }
+
+  long[] ids() {
+    return ids;
+  }
+
+  /** Genre ordinals, or {@link #NO_GENRE}. */
+  byte[] genres() {
+    return genres;
+  }
+
+  /** Release dates as epoch days, or {@link #NO_VALUE}. */
+  int[] releaseDays() {
+    return releaseDays;
+  }
+
+  /** Durations in minutes, or {@link #NO_VALUE}. */
+  int[] durations() {
+    return durations;
+  }
+
+  /** Director ids, or {@link #NO_DIRECTOR}. */
+  long[] directors() {
+    return directors;
+  }
+
+  /** Returns the title of the movie in {@code row}, or null. */
+  String title(int row) {
+    return titles[row] == MISSING ? null : dictionary[titles[row]];
+  }
+
+  /** Number of distinct titles in the dictionary. */
+  int distinctTitles() {
+    return codes.size();
+  }
+
+  /** Approximate heap size of the columns and the dictionary, excluding the titles' characters. */
+  long memoryBytes() {
+    return rows.memoryBytes()
+        + ids.length * (Long.BYTES + 1L + Integer.BYTES * 3L + Long.BYTES)
+        + freeRows.length * (long) Integer.BYTES
+        + dictionary.length * (long) (Integer.BYTES + Integer.BYTES)
+        + codes.size() * MAP_ENTRY_BYTES
+        + freeCodes.length * (long) Integer.BYTES;
+  }
+
+  private int encode(String title) {
+    if (title == null) {
+      return MISSING;
+    }
+    Integer code = codes.get(title);
+    if (code == null) {
+      if (freeCodeCount > 0) {
+        code = freeCodes[--freeCodeCount];
+      } else {
+        if (codeCount == dictionary.length) {
+          dictionary = Arrays.copyOf(dictionary, codeCount * 2);
+          references = Arrays.copyOf(references, codeCount * 2);
+        }
+        code = codeCount++;
+      }
+      dictionary[code] = title;
+      codes.put(title, code);
+    }
+    references[code]++;
+    return code;
+  }
+
+  /** Drops a row's reference to a title, freeing its code when no row holds it. */
+  private void release(int code) {
+    if (code == MISSING || --references[code] > 0) {
+      return;
+    }
+    codes.remove(dictionary[code]);
+    dictionary[code] = null;
+    if (freeCodeCount == freeCodes.length) {
+      freeCodes = Arrays.copyOf(freeCodes, Math.max(16, freeCodeCount * 2));
+    }
+    freeCodes[freeCodeCount++] = code;
+  }
+
+  private int allocateRow() {
+    if (freeCount > 0) {
+      return freeRows[--freeCount];
+    }
+    if (rowCount == ids.length) {
+      int capacity = rowCount * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      genres = Arrays.copyOf(genres, capacity);
+      releaseDays = Arrays.copyOf(releaseDays, capacity);
+      durations = Arrays.copyOf(durations, capacity);
+      directors = Arrays.copyOf(directors, capacity);
+      titles = Arrays.copyOf(titles, capacity);
+    }
+    return rowCount++;
+  }
+}
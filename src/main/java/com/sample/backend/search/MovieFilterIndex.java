@@ -0,0 +1,440 @@
+package com.sample.backend.search;
+
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index answering {@link MovieFilter}s without the database. Each genre and each director
+ * maps to an {@link IdBitmap} of its movies, and the release dates and durations are range indexes:
+ * a bitmap per release year and per minute of duration, kept in sorted maps so a range is the union
+ * of a sub-map. The years at either end of a date range are checked against each movie's exact
+ * release date, kept with its other values in {@link MovieColumns}, where a change also finds the
+ * bitmaps holding the movie's old values.
+ *
+ * <p>A filter unions the bitmaps within each predicate, then intersects the predicates from the
+ * smallest, so the result comes in id order with its exact size and only the requested page of ids
+ * is returned. The same columns answer the {@link MovieStatistics}. Reads run concurrently; writes
+ * take an exclusive lock.
+ */
+public final class MovieFilterIndex {
+
+  /** Ids of one page of the matching movies, in id order, and the number of matches. */
+  public record Matches(long[] ids, long total) {}
+
+  /** The genre and director of a movie, either of which may be null. */
+  public record Attributes(Genre genre, Long directorId) {}
+
+  /**
+   * Counts of the matching movies by value.
+   *
+   * @param total number of matches
+   * @param genres matches per genre, by ordinal
+   * @param decades matches per first year of a decade, in increasing order, without empty decades
+   * @param directorIds directors with the most matches, most first, then by id
+   * @param directorCounts matches of each of {@code directorIds}
+   */
+  public record Facets(
+      long total,
+      long[] genres,
+      NavigableMap<Integer, Long> decades,
+      long[] directorIds,
+      long[] directorCounts) {}
+
+  private static final int MISSING = MovieColumns.MISSING;
+  private static final int NO_VALUE = MovieColumns.NO_VALUE;
+  private static final long NO_DIRECTOR = MovieColumns.NO_DIRECTOR;
+  private static final long MAP_ENTRY_BYTES = 64;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final IdBitmap all = new IdBitmap();
+  private final Map<Genre, IdBitmap> genres = new EnumMap<>(Genre.class);
+  private final NavigableMap<Integer, IdBitmap> releaseYears = new TreeMap<>();
+  private final NavigableMap<Integer, IdBitmap> durations = new TreeMap<>();
+  private final Map<Long, IdBitmap> directors = new HashMap<>();
+
+  private final MovieColumns columns = new MovieColumns();
+  private final int parallelThreshold;
+
+  /**
+   * @param parallelThreshold fewest movies for which the statistics are computed on every processor
+   */
+  public MovieFilterIndex(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /** Adds a movie, or replaces the values of an indexed one. Null values match no predicate. */
+  public void put(
+      long id,
+      String title,
+      Genre genre,
+      LocalDate releaseDate,
+      Integer durationMinutes,
+      Long directorId) {
+    lock.writeLock().lock();
+    try {
+      int row = columns.row(id);
+      if (row == MISSING) {
+        all.add(id);
+      } else {
+        unindex(id, row);
+      }
+      columns.put(id, title, genre, releaseDate, durationMinutes, directorId);
+      if (genre != null) {
+        genres.computeIfAbsent(genre, key -> new IdBitmap()).add(id);
+      }
+      if (releaseDate != null) {
+        releaseYears.computeIfAbsent(releaseDate.getYear(), key -> new IdBitmap()).add(id);
+      }
+      if (durationMinutes != null) {
+        durations.computeIfAbsent(durationMinutes, key -> new IdBitmap()).add(id);
+      }
+      if (directorId != null) {
+        directors.computeIfAbsent(directorId, key -> new IdBitmap()).add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a movie; does nothing if it is not indexed. */
+  public void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      int row = columns.row(id);
+      if (row == MISSING) {
+        return;
+      }
+      unindex(id, row);
+      columns.remove(id);
+      all.remove(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of the movies matching {@code filter} from the {@code offset}th on, at most
+   * {@code limit} of them, with the number of matches.
+   */
+  public Matches find(MovieFilter filter, long offset, int limit) {
+    lock.readLock().lock();
+    try {
+      IdBitmap matches = match(filter);
+      return new Matches(matches.page(offset, limit), matches.cardinality());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the movies matching {@code filter} per genre, release decade and director. Without
+   * predicates the counts are the sizes of the bitmaps; otherwise one pass over the matches reads
+   * their values from the columns, so the cost is bounded by the number of matches and does not
+   * grow with the number of directors or years.
+   *
+   * @param directorLimit most directors returned
+   */
+  public Facets facets(MovieFilter filter, int directorLimit) {
+    lock.readLock().lock();
+    try {
+      IdBitmap matches = match(filter);
+      long[] genreCounts = new long[Genre.values().length];
+      NavigableMap<Integer, Long> decades = new TreeMap<>();
+      long[] directorCounts;
+      long[] directorIds;
+      if (matches == all) {
+        genres.forEach((genre, bitmap) -> genreCounts[genre.ordinal()] = bitmap.cardinality());
+        releaseYears.forEach(
+            (year, bitmap) -> decades.merge(decade(year), bitmap.cardinality(), Long::sum));
+        directorIds = new long[directors.size()];
+        directorCounts = new long[directors.size()];
+        int i = 0;
+        for (Map.Entry<Long, IdBitmap> director : directors.entrySet()) {
+          directorIds[i] = director.getKey();
+          directorCounts[i++] = director.getValue().cardinality();
+        }
+      } else {
+        long[] matchedDirectors = new long[(int) matches.cardinality()];
+        int[] directed = {0};
+        int[] years = new int[matchedDirectors.length];
+        int[] dated = {0};
+        byte[] genreColumn = columns.genres();
+        int[] releaseDayColumn = columns.releaseDays();
+        long[] directorColumn = columns.directors();
+        matches.forEach(
+            id -> {
+              int row = columns.row(id);
+              if (genreColumn[row] != MovieColumns.NO_GENRE) {
+                genreCounts[genreColumn[row]]++;
+              }
+              if (releaseDayColumn[row] != NO_VALUE) {
+                years[dated[0]++] = LocalDate.ofEpochDay(releaseDayColumn[row]).getYear();
+              }
+              if (directorColumn[row] != NO_DIRECTOR) {
+                matchedDirectors[directed[0]++] = directorColumn[row];
+              }
+              return true;
+            });
+        for (int i = 0; i < dated[0]; i++) {
+          decades.merge(decade(years[i]), 1L, Long::sum);
+        }
+        Arrays.sort(matchedDirectors, 0, directed[0]);
+        int distinct = 0;
+        for (int i = 0; i < directed[0]; i++) {
+          if (i == 0 || matchedDirectors[i] != matchedDirectors[i - 1]) {
+            distinct++;
+          }
+        }
+        directorIds = new long[distinct];
+        directorCounts = new long[distinct];
+        for (int i = 0, d = -1; i < directed[0]; i++) {
+          if (i == 0 || matchedDirectors[i] != matchedDirectors[i - 1]) {
+            directorIds[++d] = matchedDirectors[i];
+          }
+          directorCounts[d]++;
+        }
+      }
+      long[][] top = top(directorIds, directorCounts, directorLimit);
+      return new Facets(matches.cardinality(), genreCounts, decades, top[0], top[1]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the runtime of each genre with a movie of known duration, in genre order.
+   *
+   * @param percentiles percentages between 0 and 100 to report
+   */
+  public List<MovieStatistics.GenreRuntime> runtimeByGenre(int[] percentiles) {
+    lock.readLock().lock();
+    try {
+      return MovieStatistics.runtimeByGenre(columns, percentiles, parallelThreshold);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of movies released in each year, oldest first.
+   *
+   * @param genre the genre counted, or null for every movie
+   */
+  public NavigableMap<Integer, Long> releasesByYear(Genre genre) {
+    lock.readLock().lock();
+    try {
+      return MovieStatistics.releasesByYear(columns, genre, parallelThreshold);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the movies of a director per release year, read through the director's bitmap. */
+  public MovieStatistics.DirectorOutput directorOutput(long directorId) {
+    lock.readLock().lock();
+    try {
+      return MovieStatistics.directorOutput(columns, directorId, directors.get(directorId));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the genre and director of a movie, or null if it is not indexed. */
+  public Attributes attributes(long id) {
+    lock.readLock().lock();
+    try {
+      int row = columns.row(id);
+      if (row == MISSING) {
+        return null;
+      }
+      byte genre = columns.genres()[row];
+      long directorId = columns.directors()[row];
+      return new Attributes(
+          genre == MovieColumns.NO_GENRE ? null : Genre.values()[genre],
+          directorId == MovieColumns.NO_DIRECTOR ? null : directorId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the ids of the movies of a director, in ascending order. */
+  public long[] directedBy(long directorId) {
+    lock.readLock().lock();
+    try {
+      IdBitmap movies = directors.get(directorId);
+      return movies == null ? new long[0] : movies.page(0, Integer.MAX_VALUE);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the ids of all movies, in ascending order. */
+  public long[] ids() {
+    lock.readLock().lock();
+    try {
+      return all.page(0, Integer.MAX_VALUE);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of movies indexed. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return columns.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Approximate heap size of the bitmaps and columns. */
+  public long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      long bytes = all.memoryBytes() + columns.memoryBytes();
+      for (Map<?, IdBitmap> bitmaps : List.of(genres, releaseYears, durations, directors)) {
+        for (IdBitmap bitmap : bitmaps.values()) {
+          bytes += MAP_ENTRY_BYTES + bitmap.memoryBytes();
+        }
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the movies matching {@code filter}. The result may be one of the index's own bitmaps,
+   * so it must be read under the lock and not changed.
+   */
+  private IdBitmap match(MovieFilter filter) {
+    List<IdBitmap> predicates = new ArrayList<>(4);
+    if (filter.hasGenres()) {
+      predicates.add(union(filter.genres().stream().map(genres::get).toList()));
+    }
+    if (filter.hasDirectors()) {
+      predicates.add(union(filter.directorIds().stream().map(directors::get).toList()));
+    }
+    if (filter.minDuration() != null || filter.maxDuration() != null) {
+      int min = filter.minDuration() == null ? Integer.MIN_VALUE : filter.minDuration();
+      int max = filter.maxDuration() == null ? Integer.MAX_VALUE : filter.maxDuration();
+      predicates.add(
+          min > max ? new IdBitmap() : union(durations.subMap(min, true, max, true).values()));
+    }
+    if (filter.releasedFrom() != null || filter.releasedTo() != null) {
+      predicates.add(released(filter.releasedFrom(), filter.releasedTo()));
+    }
+    if (predicates.isEmpty()) {
+      return all;
+    }
+    predicates.sort(Comparator.comparingLong(IdBitmap::cardinality));
+    IdBitmap result = predicates.get(0);
+    for (int i = 1; i < predicates.size() && !result.isEmpty(); i++) {
+      result = result.and(predicates.get(i));
+    }
+    return result;
+  }
+
+  /** Returns the first year of the decade of {@code year}. */
+  private static int decade(int year) {
+    return Math.floorDiv(year, 10) * 10;
+  }
+
+  /** Returns the {@code limit} ids with the highest counts, highest first, then by id. */
+  private static long[][] top(long[] ids, long[] counts, int limit) {
+    Integer[] order = new Integer[ids.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+        order, Comparator.comparingLong((Integer i) -> -counts[i]).thenComparingLong(i -> ids[i]));
+    int size = Math.min(Math.max(0, limit), order.length);
+    long[][] top = new long[2][size];
+    for (int i = 0; i < size; i++) {
+      top[0][i] = ids[order[i]];
+      top[1][i] = counts[order[i]];
+    }
+    return top;
+  }
+
+  /** Returns the movies released between the dates, inclusive; a null date is unbounded. */
+  private IdBitmap released(LocalDate from, LocalDate to) {
+    long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+    long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+    if (fromDay > toDay) {
+      return new IdBitmap();
+    }
+    int fromYear = from == null ? Integer.MIN_VALUE : from.getYear();
+    int toYear = to == null ? Integer.MAX_VALUE : to.getYear();
+    List<IdBitmap> years = new ArrayList<>();
+    for (Map.Entry<Integer, IdBitmap> year :
+        releaseYears.subMap(fromYear, true, toYear, true).entrySet()) {
+      boolean whole =
+          (from == null || year.getKey() > fromYear || from.getDayOfYear() == 1)
+              && (to == null || year.getKey() < toYear || to.getDayOfYear() == to.lengthOfYear());
+      years.add(whole ? year.getValue() : releasedWithin(year.getValue(), fromDay, toDay));
+    }
+    return union(years);
+  }
+
+  /** Returns the movies of {@code year} released between the epoch days, inclusive. */
+  private IdBitmap releasedWithin(IdBitmap year, long fromDay, long toDay) {
+    IdBitmap within = new IdBitmap();
+    year.forEach(
+        id -> {
+          int day = columns.releaseDays()[columns.row(id)];
+          if (day >= fromDay && day <= toDay) {
+            within.add(id);
+          }
+          return true;
+        });
+    return within;
+  }
+
+  /** Returns the union of {@code bitmaps}, which may hold nulls for values without movies. */
+  private static IdBitmap union(Iterable<IdBitmap> bitmaps) {
+    IdBitmap result = null;
+    for (IdBitmap bitmap : bitmaps) {
+      if (bitmap != null) {
+        result = result == null ? bitmap : result.or(bitmap);
+      }
+    }
+    return result == null ? new IdBitmap() : result;
+  }
+
+  /** Removes a movie from the bitmaps of the values in its row. */
+  private void unindex(long id, int row) {
+    if (columns.genres()[row] != MovieColumns.NO_GENRE) {
+      removeFrom(genres, Genre.values()[columns.genres()[row]], id);
+    }
+    if (columns.releaseDays()[row] != NO_VALUE) {
+      removeFrom(releaseYears, LocalDate.ofEpochDay(columns.releaseDays()[row]).getYear(), id);
+    }
+    if (columns.durations()[row] != NO_VALUE) {
+      removeFrom(durations, columns.durations()[row], id);
+    }
+    if (columns.directors()[row] != NO_DIRECTOR) {
+      removeFrom(directors, columns.directors()[row], id);
+    }
+  }
+
+  private static <K> void removeFrom(Map<K, IdBitmap> bitmaps, K key, long id) {
+    IdBitmap bitmap = bitmaps.get(key);
+    if (bitmap != null && bitmap.remove(id) && bitmap.isEmpty()) {
+      bitmaps.remove(key);
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package com.sample.backend.search;
+
+import com.sample.backend.model.Genre;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Aggregations over {@link MovieColumns}, written as loops over the primitive columns that the JIT
+ * can unroll and vectorize. Above a threshold of rows a loop is split into one chunk per processor,
+ * each accumulating into its own arrays on the common fork-join pool, and the chunks are then
+ * merged; below it one thread reads the rows, as splitting would cost more than it saves.
+ *
+ * <p>Percentiles come from a histogram of minutes per genre rather than sorting the durations, so
+ * they cost one pass whatever the number of movies. Durations below zero count as zero, and those
+ * above {@value #MAX_MINUTES} minutes as {@value #MAX_MINUTES}.
+ */
+public final class MovieStatistics {
+
+  /**
+   * Runtime of the movies of one genre.
+   *
+   * @param percentiles minutes at or below which each requested percentage of the movies run, by
+   *     percentage
+   * @param longestTitle title of the longest movie, the one with the lowest id on a tie
+   */
+  public record GenreRuntime(
+      Genre genre,
+      long movies,
+      double averageMinutes,
+      int minMinutes,
+      int maxMinutes,
+      Map<Integer, Integer> percentiles,
+      String longestTitle) {}
+
+  /**
+   * Movies of one director per release year.
+   *
+   * @param years movies released in each year, oldest first; movies without a date are not counted
+   * @param averageMinutes average runtime of the movies with a duration, or 0 without any
+   */
+  public record DirectorOutput(
+      long directorId, long movies, NavigableMap<Integer, Long> years, double averageMinutes) {}
+
+  static final int MAX_MINUTES = 1440;
+
+  private MovieStatistics() {}
+
+  /**
+   * Returns the runtime of each genre with a movie of known duration, in genre order.
+   *
+   * @param percentiles percentages between 0 and 100 to report
+   * @param parallelThreshold fewest rows split across processors
+   */
+  static List<GenreRuntime> runtimeByGenre(
+      MovieColumns columns, int[] percentiles, int parallelThreshold) {
+    byte[] genres = columns.genres();
+    int[] durations = columns.durations();
+    long[] ids = columns.ids();
+    int genreCount = Genre.values().length;
+    RuntimeTotals totals =
+        aggregate(
+            columns.rowCount(),
+            parallelThreshold,
+            () -> new RuntimeTotals(genreCount),
+            (acc, from, to) -> {
+              for (int row = from; row < to; row++) {
+                int genre = genres[row];
+                int minutes = durations[row];
+                if (genre == MovieColumns.NO_GENRE || minutes == MovieColumns.NO_VALUE) {
+                  continue;
+                }
+                int bucket = Math.min(Math.max(minutes, 0), MAX_MINUTES);
+                acc.histogram[genre * (MAX_MINUTES + 1) + bucket]++;
+                acc.sums[genre] += minutes;
+                if (acc.longest[genre] == MovieColumns.MISSING
+                    || minutes > durations[acc.longest[genre]]
+                    || (minutes == durations[acc.longest[genre]]
+                        && ids[row] < ids[acc.longest[genre]])) {
+                  acc.longest[genre] = row;
+                }
+              }
+            },
+            (left, right) -> left.merge(right, durations, ids));
+    List<GenreRuntime> runtimes = new ArrayList<>();
+    for (Genre genre : Genre.values()) {
+      int offset = genre.ordinal() * (MAX_MINUTES + 1);
+      long movies = 0;
+      for (int minutes = 0; minutes <= MAX_MINUTES; minutes++) {
+        movies += totals.histogram[offset + minutes];
+      }
+      if (movies == 0) {
+        continue;
+      }
+      Map<Integer, Integer> reported = new TreeMap<>();
+      for (int percentage : percentiles) {
+        reported.put(percentage, percentile(totals.histogram, offset, movies, percentage));
+      }
+      runtimes.add(
+          new GenreRuntime(
+              genre,
+              movies,
+              (double) totals.sums[genre.ordinal()] / movies,
+              percentile(totals.histogram, offset, movies, 0),
+              percentile(totals.histogram, offset, movies, 100),
+              reported,
+              columns.title(totals.longest[genre.ordinal()])));
+    }
+    return runtimes;
+  }
+
+  /**
+   * Returns the number of movies released in each year, oldest first.
+   *
+   * @param genre the genre counted, or null for every movie
+   * @param parallelThreshold fewest rows split across processors
+   */
+  static NavigableMap<Integer, Long> releasesByYear(
+      MovieColumns columns, Genre genre, int parallelThreshold) {
+    int[] releaseDays = columns.releaseDays();
+    byte[] genres = columns.genres();
+    int rowCount = columns.rowCount();
+    int[] range =
+        aggregate(
+            rowCount,
+            parallelThreshold,
+            () -> new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE},
+            (acc, from, to) -> {
+              for (int row = from; row < to; row++) {
+                int day = releaseDays[row];
+                if (day != MovieColumns.NO_VALUE) {
+                  acc[0] = Math.min(acc[0], day);
+                  acc[1] = Math.max(acc[1], day);
+                }
+              }
+            },
+            (left, right) -> new int[] {Math.min(left[0], right[0]), Math.max(left[1], right[1])});
+    NavigableMap<Integer, Long> years = new TreeMap<>();
+    if (range[0] > range[1]) {
+      return years;
+    }
+    int firstYear = year(range[0]);
+    int yearCount = year(range[1]) - firstYear + 1;
+    int wanted = genre == null ? MovieColumns.NO_GENRE : genre.ordinal();
+    long[] counts =
+        aggregate(
+            rowCount,
+            parallelThreshold,
+            () -> new long[yearCount],
+            (acc, from, to) -> {
+              for (int row = from; row < to; row++) {
+                int day = releaseDays[row];
+                if (day != MovieColumns.NO_VALUE
+                    && (wanted == MovieColumns.NO_GENRE || genres[row] == wanted)) {
+                  acc[year(day) - firstYear]++;
+                }
+              }
+            },
+            MovieStatistics::sum);
+    for (int i = 0; i < yearCount; i++) {
+      if (counts[i] > 0) {
+        years.put(firstYear + i, counts[i]);
+      }
+    }
+    return years;
+  }
+
+  /** Returns the output of a director from the ids of their movies. */
+  static DirectorOutput directorOutput(MovieColumns columns, long directorId, IdBitmap movies) {
+    int[] releaseDays = columns.releaseDays();
+    int[] durations = columns.durations();
+    NavigableMap<Integer, Long> years = new TreeMap<>();
+    long[] runtime = new long[2];
+    if (movies != null) {
+      movies.forEach(
+          id -> {
+            int row = columns.row(id);
+            if (releaseDays[row] != MovieColumns.NO_VALUE) {
+              years.merge(year(releaseDays[row]), 1L, Long::sum);
+            }
+            if (durations[row] != MovieColumns.NO_VALUE) {
+              runtime[0] += durations[row];
+              runtime[1]++;
+            }
+            return true;
+          });
+    }
+    return new DirectorOutput(
+        directorId,
+        movies == null ? 0 : movies.cardinality(),
+        years,
+        runtime[1] == 0 ? 0 : (double) runtime[0] / runtime[1]);
+  }
+
+  /**
+   * Returns the year of an epoch day, by integer arithmetic alone so that loops calling it stay
+   * free of allocations (the civil-from-days algorithm of Howard Hinnant).
+   */
+  static int year(int epochDay) {
+    long shifted = epochDay + 719_468L;
+    long era = Math.floorDiv(shifted, 146_097L);
+    long dayOfEra = shifted - era * 146_097L;
+    long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long shiftedMonth = (5 * dayOfYear + 2) / 153;
+    return (int) (yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0));
+  }
+
+  /** Returns the smallest minutes at or below which {@code percentage} of the movies run. */
+  private static int percentile(int[] histogram, int offset, long movies, int percentage) {
+    long rank = Math.max(1, (long) Math.ceil(movies * percentage / 100.0));
+    long seen = 0;
+    for (int minutes = 0; minutes <= MAX_MINUTES; minutes++) {
+      seen += histogram[offset + minutes];
+      if (seen >= rank) {
+        return minutes;
+      }
+    }
+    return MAX_MINUTES;
+  }
+
+  private static long[] sum(long[] left, long[] right) {
+    for (int i = 0; i < left.length; i++) {
+      left[i] += right[i];
+    }
+    return left;
+  }
+
+  /** Accumulates rows {@code [from, to)} into an accumulator. */
+  @FunctionalInterface
+  private interface Accumulator<A> {
+    void accumulate(A accumulator, int from, int to);
+  }
+
+  /**
+   * Runs {@code accumulator} over rows {@code [0, rows)}, in one chunk per processor when there are
+   * at least {@code parallelThreshold} rows, and merges the chunks' results.
+   */
+  private static <A> A aggregate(
+      int rows,
+      int parallelThreshold,
+      Supplier<A> create,
+      Accumulator<A> accumulator,
+      BinaryOperator<A> merge) {
+    int chunks = rows < parallelThreshold ? 1 : Runtime.getRuntime().availableProcessors();
+    if (chunks <= 1) {
+      A result = create.get();
+      accumulator.accumulate(result, 0, rows);
+      return result;
+    }
+    int chunkRows = Math.ceilDiv(rows, chunks);
+    return IntStream.range(0, chunks)
+        .parallel()
+        .mapToObj(
+            chunk -> {
+              A result = create.get();
+              accumulator.accumulate(
+                  result, chunk * chunkRows, Math.min(rows, (chunk + 1) * chunkRows));
+              return result;
+            })
+        .reduce(merge)
+        .orElseGet(create);
+  }
+
+  /** Histogram of minutes, total minutes and row of the longest movie, per genre ordinal. */
+  private static final class RuntimeTotals {
+
+    final int[] histogram;
+    final long[] sums;
+    final int[] longest;
+
+    RuntimeTotals(int genres) {
+      histogram = new int[genres * (MAX_MINUTES + 1)];
+      sums = new long[genres];
+      longest = new int[genres];
+      Arrays.fill(longest, MovieColumns.MISSING);
+    }
+
+    RuntimeTotals merge(RuntimeTotals other, int[] durations, long[] ids) {
+      for (int i = 0; i < histogram.length; i++) {
+        histogram[i] += other.histogram[i];
+      }
+      sum(sums, other.sums);
+      for (int genre = 0; genre < longest.length; genre++) {
+        int theirs = other.longest[genre];
+        int ours = longest[genre];
+        if (theirs != MovieColumns.MISSING
+            && (ours == MovieColumns.MISSING
+                || durations[theirs] > durations[ours]
+                || (durations[theirs] == durations[ours] && ids[theirs] < ids[ours]))) {
+          longest[genre] = theirs;
+        }
+      }
+      return this;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Sorted list of document ids, stored as the variable-length encoded gaps between consecutive ids.
+ * Ids mostly arrive in increasing order, because the database assigns them from a sequence, and are
+ * then appended in place; an id that arrives out of order is inserted by re-encoding the list.
+ * Every {@value #BLOCK} entries a skip pointer records where the entry starts, so a {@link Cursor}
+ * can jump ahead without decoding the gaps in between.
+ *
+ * <p>Removed documents stay in the list until enough of them pile up: the owner counts them as
+ * stale and calls {@link #retain} to drop them. Not thread-safe; guarded by {@link TrigramIndex}.
+ */
+final class PostingList {
+
+  /** Returned by a {@link Cursor} past the last entry. */
+  static final long END = Long.MAX_VALUE;
+
+  private static final int BLOCK = 64;
+  private static final int OVERHEAD_BYTES = 80;
+
+  private byte[] bytes = new byte[8];
+  private int length;
+  private int count;
+  private long last;
+  private int stale;
+
+  /** Byte offset of every {@value #BLOCK}th entry. */
+  private int[] skipOffsets = new int[1];
+
+  /** Id of the entry before every {@value #BLOCK}th entry, or 0 before the first one. */
+  private long[] skipPrevious = new long[1];
+
+  /** Adds {@code id}; if the list already holds it as a stale entry, the entry is live again. */
+  void add(long id) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Unsupported id: " + id);
+    }
+    if (count == 0 || id > last) {
+      append(id);
+    } else if (id == last || !insert(id)) {
+      stale = Math.max(0, stale - 1);
+    }
+  }
+
+  /** Records that one entry no longer matches its document. */
+  void markStale() {
+    stale++;
+  }
+
+  /** Whether some entries may no longer match their document. */
+  boolean hasStale() {
+    return stale > 0;
+  }
+
+  /** Whether stale entries make up a large enough part of the list to be worth dropping. */
+  boolean needsCompaction() {
+    return stale > 32 && stale * 2 > count;
+  }
+
+  /** Keeps the ids accepted by {@code keep}, in one pass over the list. */
+  void retain(LongPredicate keep) {
+    byte[] source = bytes;
+    int sourceLength = length;
+    clear(Math.max(8, sourceLength));
+    long previous = 0;
+    long value = 0;
+    int shift = 0;
+    for (int pos = 0; pos < sourceLength; pos++) {
+      byte b = source[pos];
+      value |= (long) (b & 0x7F) << shift;
+      if (b < 0) {
+        shift += 7;
+        continue;
+      }
+      long id = previous + value;
+      previous = id;
+      value = 0;
+      shift = 0;
+      if (keep.test(id)) {
+        append(id);
+      }
+    }
+    if (length < bytes.length / 2) {
+      bytes = Arrays.copyOf(bytes, Math.max(8, length));
+    }
+  }
+
+  /**
+   * Passes the ids to {@code visitor} in increasing order, stopping when it returns {@code false}.
+   */
+  void forEach(LongPredicate visitor) {
+    Cursor cursor = cursor();
+    for (long id = cursor.next(); id != END; id = cursor.next()) {
+      if (!visitor.test(id)) {
+        return;
+      }
+    }
+  }
+
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  /** Number of entries, stale ones included. */
+  int size() {
+    return count;
+  }
+
+  long memoryBytes() {
+    return OVERHEAD_BYTES + bytes.length + skipOffsets.length * (long) (Integer.BYTES + Long.BYTES);
+  }
+
+  /** Reads the ids in increasing order; the list must not change while a cursor is in use. */
+  final class Cursor {
+
+    private int position;
+    private int index;
+    private long current;
+
+    /** Returns the next id, or {@link #END}. */
+    long next() {
+      if (index == count) {
+        current = END;
+        return END;
+      }
+      long gap = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        gap |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      index++;
+      current += gap;
+      return current;
+    }
+
+    /** Returns the first id not smaller than {@code target}, or {@link #END}. */
+    long advance(long target) {
+      if (index > 0 && current >= target) {
+        return current;
+      }
+      // The last block that starts after an id smaller than the target.
+      int low = index / BLOCK + 1;
+      int high = (count - 1) / BLOCK;
+      int block = -1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        if (skipPrevious[middle] < target) {
+          block = middle;
+          low = middle + 1;
+        } else {
+          high = middle - 1;
+        }
+      }
+      if (block > 0) {
+        position = skipOffsets[block];
+        index = block * BLOCK;
+        current = skipPrevious[block];
+      }
+      long id = next();
+      while (id < target) {
+        id = next();
+      }
+      return id;
+    }
+  }
+
+  /** Inserts an id smaller than the last one; returns {@code false} if it is already present. */
+  private boolean insert(long id) {
+    long[] ids = new long[count + 1];
+    int[] size = {0};
+    forEach(
+        existing -> {
+          ids[size[0]++] = existing;
+          return true;
+        });
+    int at = Arrays.binarySearch(ids, 0, count, id);
+    if (at >= 0) {
+      return false;
+    }
+    at = -at - 1;
+    System.arraycopy(ids, at, ids, at + 1, count - at);
+    ids[at] = id;
+    int entries = count + 1;
+    int staleEntries = stale;
+    clear(bytes.length);
+    for (int i = 0; i < entries; i++) {
+      append(ids[i]);
+    }
+    stale = staleEntries;
+    return true;
+  }
+
+  private void clear(int capacity) {
+    bytes = new byte[capacity];
+    length = 0;
+    count = 0;
+    last = 0;
+    stale = 0;
+  }
+
+  /** Appends an id greater than the last one. */
+  private void append(long id) {
+    if (count % BLOCK == 0) {
+      int block = count / BLOCK;
+      if (block == skipOffsets.length) {
+        skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+        skipPrevious = Arrays.copyOf(skipPrevious, block * 2);
+      }
+      skipOffsets[block] = length;
+      skipPrevious[block] = last;
+    }
+    if (length + 10 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(length + 10, bytes.length + (bytes.length >> 1)));
+    }
+    long gap = id - last;
+    while ((gap & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+      gap >>>= 7;
+    }
+    bytes[length++] = (byte) gap;
+    last = id;
+    count++;
+  }
+}
@@ -0,0 +1,356 @@
+package com.sample.backend.search;
+
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.search.AutocompleteIndex.Completion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable radix trie from the folded words of the completions to the completions, kept in flat
+ * arrays. Completions are numbered by rank, best first, so ordering them is comparing two ints.
+ * Each completion is reachable from the start of its text and from the start of each of its next
+ * words, so {@code kni} completes to {@code The Dark Knight}.
+ *
+ * <p>The nodes are numbered breadth first, which puts the children of a node next to each other,
+ * sorted by their first character, and lets the label, the terminal ranks and the children of every
+ * node be found from its own offset and the next node's. Every node also stores the best ranks
+ * below it, up to the number of completions a query returns, so answering a prefix reads one short
+ * list once the node is found.
+ */
+final class PrefixTrie {
+
+  private static final Type[] TYPES = Type.values();
+  private static final int MAX_KEYS_PER_COMPLETION = 8;
+
+  private final Completion[] completions;
+  private final LongIntMap[] ranksById;
+  private final char[] labels;
+
+  /** Offset of each node's label in {@link #labels}, plus one past the last label. */
+  private final int[] labelStarts;
+
+  /** Offset of each node's first child in the node numbering, plus the node count. */
+  private final int[] firstChildren;
+
+  /** Offset in {@link #ranks} of the completions whose key ends at each node. */
+  private final int[] terminalStarts;
+
+  private final int[] topStarts;
+  private final byte[] topCounts;
+  private final int[] ranks;
+
+  private PrefixTrie(
+      Completion[] completions,
+      LongIntMap[] ranksById,
+      char[] labels,
+      int[] labelStarts,
+      int[] firstChildren,
+      int[] terminalStarts,
+      int[] topStarts,
+      byte[] topCounts,
+      int[] ranks) {
+    this.completions = completions;
+    this.ranksById = ranksById;
+    this.labels = labels;
+    this.labelStarts = labelStarts;
+    this.firstChildren = firstChildren;
+    this.terminalStarts = terminalStarts;
+    this.topStarts = topStarts;
+    this.topCounts = topCounts;
+    this.ranks = ranks;
+  }
+
+  /**
+   * Builds a trie of {@code completions}.
+   *
+   * @param top number of best ranks kept per node, at most {@value Byte#MAX_VALUE}
+   */
+  static PrefixTrie build(Collection<Completion> completions, int top) {
+    if (top < 1 || top > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Unsupported number of completions per prefix: " + top);
+    }
+    Completion[] ranked = completions.toArray(Completion[]::new);
+    Arrays.sort(ranked, AutocompleteIndex.BEST_FIRST);
+    LongIntMap[] ranksById = new LongIntMap[TYPES.length];
+    for (int i = 0; i < TYPES.length; i++) {
+      ranksById[i] = new LongIntMap();
+    }
+    List<Key> keyList = new ArrayList<>(ranked.length * 2);
+    for (int rank = 0; rank < ranked.length; rank++) {
+      ranksById[ranked[rank].type().ordinal()].put(ranked[rank].id(), rank);
+      String folded = TextAnalyzer.fold(ranked[rank].text());
+      keyList.add(new Key(folded, rank));
+      int keys = 1;
+      for (int space = folded.indexOf(' ');
+          space >= 0 && keys < MAX_KEYS_PER_COMPLETION;
+          space = folded.indexOf(' ', space + 1), keys++) {
+        keyList.add(new Key(folded.substring(space + 1), rank));
+      }
+    }
+    Key[] keys = keyList.toArray(Key[]::new);
+    Arrays.sort(keys);
+
+    // Lay the nodes out breadth first: a node's key range is split into its children when the
+    // node is reached, and the children are numbered after every node numbered so far.
+    IntBuffer rangeStarts = new IntBuffer();
+    IntBuffer rangeEnds = new IntBuffer();
+    IntBuffer depths = new IntBuffer();
+    IntBuffer labelStarts = new IntBuffer();
+    IntBuffer firstChildren = new IntBuffer();
+    IntBuffer terminalStarts = new IntBuffer();
+    IntBuffer ranks = new IntBuffer();
+    StringBuilder labels = new StringBuilder();
+    rangeStarts.add(0);
+    rangeEnds.add(keys.length);
+    depths.add(0);
+    for (int node = 0; node < rangeStarts.size(); node++) {
+      int start = rangeStarts.get(node);
+      int end = rangeEnds.get(node);
+      int depth = depths.get(node);
+      int labelEnd = depth;
+      labelStarts.add(labels.length());
+      if (start < end) {
+        // The keys are sorted, so the first and last share the prefix common to all of them.
+        String first = keys[start].text();
+        String last = keys[end - 1].text();
+        int common = Math.min(first.length(), last.length());
+        while (labelEnd < common && first.charAt(labelEnd) == last.charAt(labelEnd)) {
+          labelEnd++;
+        }
+        labels.append(first, depth, labelEnd);
+      }
+      terminalStarts.add(ranks.size());
+      int key = start;
+      for (; key < end && keys[key].text().length() == labelEnd; key++) {
+        ranks.add(keys[key].rank());
+      }
+      firstChildren.add(rangeStarts.size());
+      while (key < end) {
+        char c = keys[key].text().charAt(labelEnd);
+        int next = key + 1;
+        while (next < end && keys[next].text().charAt(labelEnd) == c) {
+          next++;
+        }
+        rangeStarts.add(key);
+        rangeEnds.add(next);
+        depths.add(labelEnd);
+        key = next;
+      }
+    }
+    int nodes = rangeStarts.size();
+    labelStarts.add(labels.length());
+    firstChildren.add(nodes);
+    terminalStarts.add(ranks.size());
+
+    // Children are numbered after their parent, so in reverse order their best ranks are known
+    // before the parent's.
+    int[] topStarts = new int[nodes];
+    byte[] topCounts = new byte[nodes];
+    int[] candidates = new int[top * 4];
+    for (int node = nodes - 1; node >= 0; node--) {
+      int terminalStart = terminalStarts.get(node);
+      int terminalCount = terminalStarts.get(node + 1) - terminalStart;
+      int childStart = firstChildren.get(node);
+      int childEnd = firstChildren.get(node + 1);
+      if (childStart == childEnd && terminalCount <= top) {
+        topStarts[node] = terminalStart;
+        topCounts[node] = (byte) terminalCount;
+        continue;
+      }
+      int count = 0;
+      int needed = Math.min(terminalCount, top) + (childEnd - childStart) * top;
+      if (candidates.length < needed) {
+        candidates = new int[Math.max(needed, candidates.length * 2)];
+      }
+      for (int i = 0; i < terminalCount && i < top; i++) {
+        candidates[count++] = ranks.get(terminalStart + i);
+      }
+      for (int child = childStart; child < childEnd; child++) {
+        for (int i = 0; i < topCounts[child]; i++) {
+          candidates[count++] = ranks.get(topStarts[child] + i);
+        }
+      }
+      Arrays.sort(candidates, 0, count);
+      topStarts[node] = ranks.size();
+      int kept = 0;
+      for (int i = 0; i < count && kept < top; i++) {
+        if (i == 0 || candidates[i] != candidates[i - 1]) {
+          ranks.add(candidates[i]);
+          kept++;
+        }
+      }
+      topCounts[node] = (byte) kept;
+    }
+    return new PrefixTrie(
+        ranked,
+        ranksById,
+        labels.toString().toCharArray(),
+        labelStarts.toArray(),
+        firstChildren.toArray(),
+        terminalStarts.toArray(),
+        topStarts,
+        topCounts,
+        ranks.toArray());
+  }
+
+  /** Returns the node below which every key starts with the folded {@code prefix}, or -1. */
+  int find(String prefix) {
+    int node = 0;
+    int at = 0;
+    while (true) {
+      for (int i = labelStarts[node]; i < labelStarts[node + 1]; i++, at++) {
+        if (at == prefix.length()) {
+          return node;
+        }
+        if (labels[i] != prefix.charAt(at)) {
+          return -1;
+        }
+      }
+      if (at == prefix.length()) {
+        return node;
+      }
+      node = child(node, prefix.charAt(at));
+      if (node < 0) {
+        return -1;
+      }
+    }
+  }
+
+  /** Number of best ranks stored for {@code node}, which is all of them if below the maximum. */
+  int topCount(int node) {
+    return topCounts[node];
+  }
+
+  /** Passes the best ranks below {@code node} to {@code visitor}, best first, while it accepts. */
+  void forEachTop(int node, IntPredicate visitor) {
+    for (int i = topStarts[node]; i < topStarts[node] + topCounts[node]; i++) {
+      if (!visitor.test(ranks[i])) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Passes every rank below {@code node} to {@code visitor}, best first, while it accepts. Nodes
+   * are opened in the order of their best rank, so only the nodes holding the ranks visited and
+   * their siblings are read.
+   */
+  void forEachRank(int node, IntPredicate visitor) {
+    // A rank in the high half and node + 1 in the low half, or 0 for a rank to visit.
+    PriorityQueue<Long> queue = new PriorityQueue<>();
+    offer(queue, node);
+    int last = -1;
+    while (!queue.isEmpty()) {
+      long item = queue.poll();
+      int rank = (int) (item >>> 32);
+      int opened = (int) item - 1;
+      if (opened < 0) {
+        if (rank != last) {
+          last = rank;
+          if (!visitor.test(rank)) {
+            return;
+          }
+        }
+        continue;
+      }
+      for (int i = terminalStarts[opened]; i < terminalStarts[opened + 1]; i++) {
+        queue.add((long) ranks[i] << 32);
+      }
+      for (int child = firstChildren[opened]; child < firstChildren[opened + 1]; child++) {
+        offer(queue, child);
+      }
+    }
+  }
+
+  Completion completion(int rank) {
+    return completions[rank];
+  }
+
+  /** Returns the rank of a completion, or -1 if it is not in the trie. */
+  int rank(Type type, long id) {
+    return ranksById[type.ordinal()].get(id, -1);
+  }
+
+  /** Number of completions. */
+  int size() {
+    return completions.length;
+  }
+
+  /** Approximate heap size of the trie and its completions in bytes. */
+  long memoryBytes() {
+    long bytes =
+        (long) labels.length * Character.BYTES
+            + (long) ranks.length * Integer.BYTES
+            + (long) topCounts.length * (4 * Integer.BYTES + 1);
+    for (LongIntMap map : ranksById) {
+      bytes += map.memoryBytes();
+    }
+    for (Completion completion : completions) {
+      // The record, its reference and the text, which is mostly Latin-1.
+      bytes += 40 + 40 + completion.text().length();
+    }
+    return bytes;
+  }
+
+  private int child(int node, char c) {
+    int low = firstChildren[node];
+    int high = firstChildren[node + 1] - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      char first = labels[labelStarts[middle]];
+      if (first < c) {
+        low = middle + 1;
+      } else if (first > c) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private void offer(PriorityQueue<Long> queue, int node) {
+    if (topCounts[node] > 0) {
+      queue.add(((long) ranks[topStarts[node]] << 32) | (node + 1));
+    }
+  }
+
+  private record Key(String text, int rank) implements Comparable<Key> {
+
+    @Override
+    public int compareTo(Key other) {
+      int order = text.compareTo(other.text);
+      return order != 0 ? order : Integer.compare(rank, other.rank);
+    }
+  }
+
+  /** Growable array of ints, to lay out the trie without boxing. */
+  private static final class IntBuffer {
+
+    private int[] values = new int[1024];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int get(int index) {
+      return values[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -0,0 +1,649 @@
+package com.sample.backend.search;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.ReindexResult;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.AfterCommit;
+import com.sample.backend.search.AutocompleteIndex.Completion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The indexes behind the search endpoints, two per kind of row: a {@link TrigramIndex} for the
+ * substring searches and a {@link FullTextIndex} for ranked search. They cover movie titles, with
+ * the genre as the trigram tag, actor and director names, and role character names. Movie titles
+ * and people's names also have a {@link FuzzyIndex} for typo-tolerant search, and go into one
+ * {@link AutocompleteIndex}, weighted by their number of roles, or of movies for directors. A
+ * {@link MovieFilterIndex} answers movie filters on genre, release date, duration and director, and
+ * counts their matches by value; a {@link CategoryIndex} per kind of person counts them by
+ * nationality. A {@link CoStarGraph} links actors to their movies through the roles, and {@link
+ * SimilarMovies} ranks the movies alike from both.
+ *
+ * <p>The indexes are built from the database once the application is ready, and again by {@link
+ * #rebuild()} after writes that bypass the services, such as the CSV import. A rebuild reads the
+ * tables in parallel into new indexes while searches keep using the current ones, then swaps them
+ * in. The services report their writes through the {@code index*} and {@code remove*} methods,
+ * which apply once the transaction commits; writes reported during a rebuild are replayed onto the
+ * new indexes before the swap.
+ *
+ * <p>Until the indexes are built, or when {@code catalog.search.enabled} is false, {@link
+ * #isReady()} is false and the services search the database instead. The size of each index is
+ * published as the {@code catalog.search.index.*}, {@code catalog.search.fulltext.*}, {@code
+ * catalog.search.fuzzy.*}, {@code catalog.search.autocomplete.*}, {@code catalog.search.filter.*},
+ * {@code catalog.search.nationality.*}, {@code catalog.search.costars.*} and {@code
+ * catalog.search.similar.*} metrics.
+ */
+@Component
+@Slf4j
+public class SearchIndexes implements MeterBinder {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SearchProperties properties;
+  private final Object rebuildLock = new Object();
+  private volatile Indexes current;
+
+  /** Changes reported while a rebuild reads the database; null when no rebuild runs. */
+  private List<Consumer<Indexes>> pending;
+
+  public SearchIndexes(JdbcTemplate jdbcTemplate, SearchProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = properties;
+  }
+
+  /** Whether searches can be answered from the indexes. */
+  public boolean isReady() {
+    return properties.enabled() && current != null;
+  }
+
+  public TrigramIndex movies() {
+    return current.trigrams().get(Type.MOVIE);
+  }
+
+  public TrigramIndex actors() {
+    return current.trigrams().get(Type.ACTOR);
+  }
+
+  public TrigramIndex directors() {
+    return current.trigrams().get(Type.DIRECTOR);
+  }
+
+  public TrigramIndex roles() {
+    return current.trigrams().get(Type.ROLE);
+  }
+
+  /** Returns the ranked index of {@code type}. */
+  public FullTextIndex fullText(Type type) {
+    return current.fullText().get(type);
+  }
+
+  /** Returns the typo-tolerant index of {@code type}, which must not be {@link Type#ROLE}. */
+  public FuzzyIndex fuzzy(Type type) {
+    return current.fuzzy().get(type);
+  }
+
+  /** Returns the index completing prefixes of movie titles and people's names. */
+  public AutocompleteIndex autocomplete() {
+    return current.autocomplete();
+  }
+
+  /**
+   * Returns the index of people of {@code type} by nationality, which must be {@link Type#ACTOR} or
+   * {@link Type#DIRECTOR}.
+   */
+  public CategoryIndex nationalities(Type type) {
+    return current.nationalities().get(type);
+  }
+
+  /** Returns the index of movies by genre, release date, duration and director. */
+  public MovieFilterIndex movieFilter() {
+    return current.movieFilter();
+  }
+
+  /** Returns the graph of actors and movies linked by roles. */
+  public CoStarGraph coStars() {
+    return current.coStars();
+  }
+
+  /** Returns the precomputed similar movies of each movie. */
+  public SimilarMovies similarMovies() {
+    return current.similarMovies();
+  }
+
+  /** Returns the tag under which movies of {@code genre} are indexed. */
+  public static int tag(Genre genre) {
+    return genre == null ? TrigramIndex.ANY_TAG : genre.ordinal();
+  }
+
+  /**
+   * Returns one page of the documents of {@code index} containing {@code query}, in id order.
+   *
+   * @param load reads the rows with the given ids, ordered by id
+   */
+  public <D> Slice<D> search(
+      TrigramIndex index,
+      String query,
+      int tag,
+      Pageable pageable,
+      Function<Collection<Long>, List<D>> load) {
+    if (query == null) {
+      return new SliceImpl<>(List.of(), pageable, false);
+    }
+    long[] ids = index.find(query, tag, pageable.getOffset(), pageable.getPageSize() + 1);
+    boolean hasNext = ids.length > pageable.getPageSize();
+    List<Long> page = new ArrayList<>(Math.min(ids.length, pageable.getPageSize()));
+    for (int i = 0; i < ids.length && i < pageable.getPageSize(); i++) {
+      page.add(ids[i]);
+    }
+    return new SliceImpl<>(page.isEmpty() ? List.of() : load.apply(page), pageable, hasNext);
+  }
+
+  /**
+   * Returns one page of the documents of {@code index} matching {@code query} despite typos,
+   * closest first, with the number of matches.
+   *
+   * @param load reads the rows with the given ids, in any order
+   * @param id returns the id of a row
+   */
+  public <D> Page<D> fuzzySearch(
+      FuzzyIndex index,
+      String query,
+      int tag,
+      Pageable pageable,
+      Function<Collection<Long>, List<D>> load,
+      Function<D, Long> id) {
+    if (query == null) {
+      return new PageImpl<>(List.of(), pageable, 0);
+    }
+    FuzzyIndex.Matches matches =
+        index.find(query, tag, pageable.getOffset(), pageable.getPageSize());
+    if (matches.ids().length == 0) {
+      return new PageImpl<>(List.of(), pageable, matches.total());
+    }
+    List<Long> ids = LongStream.of(matches.ids()).boxed().toList();
+    Map<Long, D> rows = new HashMap<>();
+    load.apply(ids).forEach(row -> rows.put(id.apply(row), row));
+    List<D> page = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+    return new PageImpl<>(page, pageable, matches.total());
+  }
+
+  /** Counts the documents of {@code index} containing {@code query}, stopping at {@code limit}. */
+  public long count(TrigramIndex index, String query, int tag, long limit) {
+    return query == null ? 0 : index.count(query, tag, limit);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (current == null) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Builds the indexes from the database and swaps them in.
+   *
+   * @return the number of documents indexed, or {@code null} when search is disabled
+   */
+  public ReindexResult rebuild() {
+    if (!properties.enabled()) {
+      return null;
+    }
+    synchronized (rebuildLock) {
+      long start = System.nanoTime();
+      synchronized (this) {
+        pending = new ArrayList<>();
+      }
+      Indexes built;
+      try {
+        built = build();
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          pending = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        pending.forEach(change -> change.accept(built));
+        pending = null;
+        current = built;
+      }
+      built.similarMovies().rebuild();
+      ReindexResult result =
+          ReindexResult.builder()
+              .movies(built.trigrams().get(Type.MOVIE).size())
+              .actors(built.trigrams().get(Type.ACTOR).size())
+              .directors(built.trigrams().get(Type.DIRECTOR).size())
+              .roles(built.trigrams().get(Type.ROLE).size())
+              .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+              .build();
+      log.info("Built search indexes: {}", result);
+      return result;
+    }
+  }
+
+  public void indexMovie(MovieDTO movie) {
+    apply(
+        indexes -> {
+          indexes.put(Type.MOVIE, movie.id(), movie.title(), tag(movie.genre()));
+          indexes
+              .movieFilter()
+              .put(
+                  movie.id(),
+                  movie.title(),
+                  movie.genre(),
+                  movie.releaseDate(),
+                  movie.durationMinutes(),
+                  movie.directorId());
+          indexes.similarMovies().changed(List.of(movie.id()));
+        });
+  }
+
+  public void indexActor(ActorDTO actor) {
+    apply(
+        indexes -> {
+          indexes.put(Type.ACTOR, actor.id(), person(actor.firstName(), actor.lastName()), 0);
+          indexes.nationalities().get(Type.ACTOR).put(actor.id(), actor.nationality());
+        });
+  }
+
+  public void indexDirector(DirectorDTO director) {
+    apply(
+        indexes -> {
+          indexes.put(
+              Type.DIRECTOR, director.id(), person(director.firstName(), director.lastName()), 0);
+          indexes.nationalities().get(Type.DIRECTOR).put(director.id(), director.nationality());
+        });
+  }
+
+  public void indexRole(RoleDTO role) {
+    apply(
+        indexes -> {
+          indexes.put(Type.ROLE, role.id(), role.characterName(), 0);
+          List<Long> movies = new ArrayList<>(2);
+          Long previous = indexes.coStars().movieOf(role.id());
+          if (previous != null) {
+            movies.add(previous);
+          }
+          if (role.movieId() != null) {
+            movies.add(role.movieId());
+          }
+          indexes.coStars().put(role.id(), role.actorId(), role.movieId());
+          indexes.similarMovies().changed(movies);
+        });
+  }
+
+  public void removeMovies(Collection<Long> ids) {
+    apply(indexes -> indexes.remove(Type.MOVIE, ids));
+  }
+
+  public void removeActors(Collection<Long> ids) {
+    apply(indexes -> indexes.remove(Type.ACTOR, ids));
+  }
+
+  public void removeDirectors(Collection<Long> ids) {
+    apply(indexes -> indexes.remove(Type.DIRECTOR, ids));
+  }
+
+  public void removeRoles(Collection<Long> ids) {
+    apply(indexes -> indexes.remove(Type.ROLE, ids));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    gauge("catalog.search.autocomplete.memory", indexes -> indexes.autocomplete().memoryBytes())
+        .baseUnit(BaseUnits.BYTES)
+        .description("Approximate heap size of the autocomplete index")
+        .register(registry);
+    gauge("catalog.search.autocomplete.completions", indexes -> indexes.autocomplete().size())
+        .description("Number of titles and names in the autocomplete index")
+        .register(registry);
+    gauge("catalog.search.filter.memory", indexes -> indexes.movieFilter().memoryBytes())
+        .baseUnit(BaseUnits.BYTES)
+        .description("Approximate heap size of the movie filter index")
+        .register(registry);
+    gauge("catalog.search.filter.movies", indexes -> indexes.movieFilter().size())
+        .description("Number of movies in the movie filter index")
+        .register(registry);
+    gauge("catalog.search.costars.memory", indexes -> indexes.coStars().memoryBytes())
+        .baseUnit(BaseUnits.BYTES)
+        .description("Approximate heap size of the co-star graph")
+        .register(registry);
+    gauge("catalog.search.costars.roles", indexes -> indexes.coStars().size())
+        .description("Number of roles in the co-star graph")
+        .register(registry);
+    gauge("catalog.search.similar.memory", indexes -> indexes.similarMovies().memoryBytes())
+        .baseUnit(BaseUnits.BYTES)
+        .description("Approximate heap size of the similar movie lists")
+        .register(registry);
+    gauge("catalog.search.similar.movies", indexes -> indexes.similarMovies().size())
+        .description("Number of movies with a similar movie list")
+        .register(registry);
+    for (Type type : Type.values()) {
+      String name = indexName(type);
+      gauge(
+              "catalog.search.index.memory",
+              name,
+              indexes -> indexes.trigrams().get(type).memoryBytes())
+          .baseUnit(BaseUnits.BYTES)
+          .description("Approximate heap size of the search index")
+          .register(registry);
+      gauge("catalog.search.index.documents", name, indexes -> indexes.trigrams().get(type).size())
+          .description("Number of documents in the search index")
+          .register(registry);
+      gauge(
+              "catalog.search.index.trigrams",
+              name,
+              indexes -> indexes.trigrams().get(type).trigrams())
+          .description("Number of distinct trigrams in the search index")
+          .register(registry);
+      gauge(
+              "catalog.search.fulltext.memory",
+              name,
+              indexes -> indexes.fullText().get(type).memoryBytes())
+          .baseUnit(BaseUnits.BYTES)
+          .description("Approximate heap size of the full-text index")
+          .register(registry);
+      gauge("catalog.search.fulltext.terms", name, indexes -> indexes.fullText().get(type).terms())
+          .description("Number of distinct terms in the full-text index")
+          .register(registry);
+      if (type == Type.ACTOR || type == Type.DIRECTOR) {
+        gauge(
+                "catalog.search.nationality.memory",
+                name,
+                indexes -> indexes.nationalities().get(type).memoryBytes())
+            .baseUnit(BaseUnits.BYTES)
+            .description("Approximate heap size of the nationality index")
+            .register(registry);
+      }
+      if (type != Type.ROLE) {
+        gauge(
+                "catalog.search.fuzzy.memory",
+                name,
+                indexes -> indexes.fuzzy().get(type).memoryBytes())
+            .baseUnit(BaseUnits.BYTES)
+            .description("Approximate heap size of the typo-tolerant index")
+            .register(registry);
+        gauge("catalog.search.fuzzy.words", name, indexes -> indexes.fuzzy().get(type).words())
+            .description("Number of distinct words in the typo-tolerant index")
+            .register(registry);
+      }
+    }
+  }
+
+  private Gauge.Builder<SearchIndexes> gauge(
+      String metric, String name, ToDoubleFunction<Indexes> value) {
+    return gauge(metric, value).tag("index", name);
+  }
+
+  private Gauge.Builder<SearchIndexes> gauge(String metric, ToDoubleFunction<Indexes> value) {
+    return Gauge.builder(
+        metric,
+        this,
+        searchIndexes -> {
+          Indexes indexes = searchIndexes.current;
+          return indexes == null ? Double.NaN : value.applyAsDouble(indexes);
+        });
+  }
+
+  /** Applies a change reported by a service once its transaction commits. */
+  private void apply(Consumer<Indexes> change) {
+    if (!properties.enabled()) {
+      return;
+    }
+    AfterCommit.run(
+        () -> {
+          synchronized (this) {
+            if (pending != null) {
+              pending.add(change);
+            }
+            Indexes indexes = current;
+            if (indexes != null) {
+              change.accept(indexes);
+            }
+          }
+        });
+  }
+
+  /** Reads the four tables into new indexes, each table on its own thread. */
+  private Indexes build() {
+    Indexes indexes =
+        Indexes.create(
+            properties.autocompleteSize(),
+            properties.statisticsParallelThreshold(),
+            properties.pathParallelThreshold(),
+            properties.similarMovies());
+    Map<Type, List<Completion>> completions = new EnumMap<>(Type.class);
+    for (Type type : List.of(Type.MOVIE, Type.ACTOR, Type.DIRECTOR)) {
+      completions.put(type, new ArrayList<>());
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.max(1, properties.reindexThreads()));
+    try {
+      CompletableFuture.allOf(
+              CompletableFuture.runAsync(
+                  () ->
+                      jdbcTemplate.query(
+                          "SELECT m.id, m.title, m.genre, COALESCE(r.roles, 0), m.release_date,"
+                              + " m.duration_minutes, m.director_id FROM movie m LEFT JOIN (SELECT movie_id, COUNT(*) AS roles FROM role"
+                              + " GROUP BY movie_id) r ON r.movie_id = m.id ORDER BY m.id",
+                          rs -> {
+                            long id = rs.getLong(1);
+                            String title = rs.getString(2);
+                            String name = rs.getString(3);
+                            Genre genre = name == null ? null : Genre.valueOf(name);
+                            indexes.putSearchable(Type.MOVIE, id, title, tag(genre));
+                            indexes
+                                .movieFilter()
+                                .put(
+                                    id,
+                                    title,
+                                    genre,
+                                    rs.getObject(5, LocalDate.class),
+                                    rs.getObject(6, Integer.class),
+                                    rs.getObject(7, Long.class));
+                            completions
+                                .get(Type.MOVIE)
+                                .add(completion(Type.MOVIE, id, title, rs.getLong(4)));
+                          }),
+                  executor),
+              CompletableFuture.runAsync(
+                  () ->
+                      loadPeople(
+                          indexes,
+                          completions.get(Type.ACTOR),
+                          Type.ACTOR,
+                          "SELECT a.id, a.first_name, a.last_name, COALESCE(r.roles, 0),"
+                              + " a.nationality FROM actor a"
+                              + " LEFT JOIN (SELECT actor_id, COUNT(*) AS roles FROM role"
+                              + " GROUP BY actor_id) r ON r.actor_id = a.id ORDER BY a.id"),
+                  executor),
+              CompletableFuture.runAsync(
+                  () ->
+                      loadPeople(
+                          indexes,
+                          completions.get(Type.DIRECTOR),
+                          Type.DIRECTOR,
+                          "SELECT d.id, d.first_name, d.last_name, COALESCE(m.movies, 0),"
+                              + " d.nationality FROM director d LEFT JOIN (SELECT director_id,"
+                              + " COUNT(*) AS movies FROM movie GROUP BY director_id) m"
+                              + " ON m.director_id = d.id ORDER BY d.id"),
+                  executor),
+              CompletableFuture.runAsync(
+                  () ->
+                      jdbcTemplate.query(
+                          "SELECT id, character_name, actor_id, movie_id FROM role ORDER BY id",
+                          rs -> {
+                            long id = rs.getLong(1);
+                            indexes.putSearchable(Type.ROLE, id, rs.getString(2), 0);
+                            indexes
+                                .coStars()
+                                .put(id, rs.getObject(3, Long.class), rs.getObject(4, Long.class));
+                          }),
+                  executor))
+          .join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    } finally {
+      executor.shutdown();
+    }
+    indexes.autocomplete().load(completions.values().stream().flatMap(List::stream).toList());
+    return indexes;
+  }
+
+  /**
+   * Reads the id, first name, last name, weight and nationality of each person selected by {@code
+   * sql}.
+   */
+  private void loadPeople(Indexes indexes, List<Completion> completions, Type type, String sql) {
+    jdbcTemplate.query(
+        sql,
+        rs -> {
+          long id = rs.getLong(1);
+          String name = person(rs.getString(2), rs.getString(3));
+          indexes.putSearchable(type, id, name, 0);
+          indexes.nationalities().get(type).put(id, rs.getString(5));
+          completions.add(completion(type, id, name, rs.getLong(4)));
+        });
+  }
+
+  /**
+   * Joins the names with a line break, which no query contains, so a substring match lies within
+   * one name as it does for the {@code LIKE} queries.
+   */
+  private static String person(String firstName, String lastName) {
+    return (firstName == null ? "" : firstName) + "\n" + (lastName == null ? "" : lastName);
+  }
+
+  /** Returns the completion of a title or name, shown with its line breaks as spaces. */
+  private static Completion completion(Type type, long id, String text, long weight) {
+    return new Completion(type, id, displayed(text), weight);
+  }
+
+  private static String displayed(String text) {
+    return text == null ? "" : text.replace('\n', ' ').strip();
+  }
+
+  private static String indexName(Type type) {
+    return type.name().toLowerCase(Locale.ROOT) + "s";
+  }
+
+  private record Indexes(
+      Map<Type, TrigramIndex> trigrams,
+      Map<Type, FullTextIndex> fullText,
+      Map<Type, FuzzyIndex> fuzzy,
+      AutocompleteIndex autocomplete,
+      MovieFilterIndex movieFilter,
+      Map<Type, CategoryIndex> nationalities,
+      CoStarGraph coStars,
+      SimilarMovies similarMovies) {
+
+    static Indexes create(
+        int autocompleteSize,
+        int statisticsParallelThreshold,
+        int pathParallelThreshold,
+        int similarMovies) {
+      Map<Type, TrigramIndex> trigrams = new EnumMap<>(Type.class);
+      Map<Type, FullTextIndex> fullText = new EnumMap<>(Type.class);
+      Map<Type, FuzzyIndex> fuzzy = new EnumMap<>(Type.class);
+      for (Type type : Type.values()) {
+        trigrams.put(type, new TrigramIndex(indexName(type)));
+        fullText.put(type, new FullTextIndex(indexName(type)));
+        if (type != Type.ROLE) {
+          fuzzy.put(type, new FuzzyIndex(indexName(type), type != Type.MOVIE));
+        }
+      }
+      MovieFilterIndex movieFilter = new MovieFilterIndex(statisticsParallelThreshold);
+      CoStarGraph coStars = new CoStarGraph(pathParallelThreshold);
+      return new Indexes(
+          trigrams,
+          fullText,
+          fuzzy,
+          new AutocompleteIndex(autocompleteSize),
+          movieFilter,
+          new EnumMap<>(
+              Map.of(Type.ACTOR, new CategoryIndex(), Type.DIRECTOR, new CategoryIndex())),
+          coStars,
+          new SimilarMovies(coStars, movieFilter, similarMovies));
+    }
+
+    /** Indexes a row for the searches, leaving the autocomplete index alone. */
+    void putSearchable(Type type, long id, String text, int tag) {
+      trigrams.get(type).put(id, text, tag);
+      fullText.get(type).put(id, text);
+      if (type != Type.ROLE) {
+        fuzzy.get(type).put(id, text, tag);
+      }
+    }
+
+    void put(Type type, long id, String text, int tag) {
+      putSearchable(type, id, text, tag);
+      if (type != Type.ROLE) {
+        autocomplete.put(type, id, displayed(text));
+      }
+    }
+
+    void remove(Type type, Collection<Long> ids) {
+      List<Long> changedMovies = new ArrayList<>();
+      for (long id : ids) {
+        trigrams.get(type).remove(id);
+        fullText.get(type).remove(id);
+        if (type != Type.ROLE) {
+          fuzzy.get(type).remove(id);
+          autocomplete.remove(type, id);
+        }
+        if (type == Type.MOVIE) {
+          movieFilter.remove(id);
+          changedMovies.add(id);
+        }
+        if (type == Type.ROLE) {
+          Long movieId = coStars.movieOf(id);
+          if (movieId != null) {
+            changedMovies.add(movieId);
+          }
+          coStars.remove(id);
+        }
+        if (nationalities.containsKey(type)) {
+          nationalities.get(type).remove(id);
+        }
+      }
+      if (!changedMovies.isEmpty()) {
+        similarMovies.changed(changedMovies);
+      }
+    }
+  }
+}
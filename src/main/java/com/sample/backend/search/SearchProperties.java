@@ -0,0 +1,28 @@
+package com.sample.backend.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the in-memory search indexes.
+ *
+ * @param enabled whether the search endpoints are answered from the indexes; when disabled they are
+ *     not built and searches run as {@code LIKE} queries against the database
+ * @param reindexThreads number of tables read at the same time when the indexes are rebuilt
+ * @param autocompleteSize number of completions kept per prefix, which is the most {@code
+ *     /api/autocomplete} returns; at most 127
+ * @param statisticsParallelThreshold fewest movies for which the movie statistics are computed on
+ *     every processor rather than one
+ * @param pathParallelThreshold fewest edges leaving a frontier of a co-star path search for which
+ *     the frontier is expanded on every processor
+ * @param similarMovies number of similar movies kept per movie, the most {@code
+ *     /api/movies/{id}/similar} returns
+ */
+@ConfigurationProperties(prefix = "catalog.search")
+public record SearchProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("4") int reindexThreads,
+    @DefaultValue("10") int autocompleteSize,
+    @DefaultValue("100000") int statisticsParallelThreshold,
+    @DefaultValue("65536") int pathParallelThreshold,
+    @DefaultValue("20") int similarMovies) {}
@@ -0,0 +1,265 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The movies most similar to each movie, precomputed from the actors of a {@link CoStarGraph} and
+ * the genres and directors of a {@link MovieFilterIndex}. Similarity is a weighted Jaccard index
+ * over each movie's features: its actors, weighing {@value #ACTOR_WEIGHT} each, its director,
+ * {@value #DIRECTOR_WEIGHT}, and its genre, {@value #GENRE_WEIGHT}. It is the weight of the
+ * features two movies share over the weight of those either has. Only movies sharing an actor or
+ * the director are candidates, so the work per movie is bounded by its neighbourhood rather than
+ * the size of its genre.
+ *
+ * <p>The lists are computed in the background, in parallel across the movies. Once all are built, a
+ * change to a movie or its roles only recomputes the movies around it: those sharing an actor or
+ * the director with it now, and those whose list holds it, which covers the ones it shared features
+ * with before. While a refresh is pending, the list asked for is computed on the spot, so answers
+ * always reflect the committed writes.
+ */
+@Slf4j
+public final class SimilarMovies {
+
+  /** A similar movie, with its score between 0 and 1 and what it shares with the movie. */
+  public record Similar(
+      long movieId, double score, int sharedActors, boolean sameDirector, boolean sameGenre) {}
+
+  static final int ACTOR_WEIGHT = 1;
+  static final int DIRECTOR_WEIGHT = 2;
+  static final int GENRE_WEIGHT = 1;
+
+  /** Approximate bytes per kept entry: a record and its slot in a list. */
+  private static final long ENTRY_BYTES = 48;
+
+  private final CoStarGraph graph;
+  private final MovieFilterIndex movies;
+  private final int top;
+  private final Executor executor;
+  private final ConcurrentHashMap<Long, List<Similar>> lists = new ConcurrentHashMap<>();
+  private final Set<Long> changed = new HashSet<>();
+  private boolean rebuildPending;
+  private boolean refreshing;
+
+  /**
+   * @param top number of similar movies kept per movie, which is the most a query returns
+   */
+  public SimilarMovies(CoStarGraph graph, MovieFilterIndex movies, int top) {
+    this(graph, movies, top, ForkJoinPool.commonPool());
+  }
+
+  SimilarMovies(CoStarGraph graph, MovieFilterIndex movies, int top, Executor executor) {
+    this.graph = graph;
+    this.movies = movies;
+    this.top = top;
+    this.executor = executor;
+  }
+
+  /** Recomputes the list of every movie in the background. */
+  public synchronized void rebuild() {
+    rebuildPending = true;
+    schedule();
+  }
+
+  /** Recomputes the lists around the given movies in the background, after they changed. */
+  public synchronized void changed(Collection<Long> movieIds) {
+    changed.addAll(movieIds);
+    schedule();
+  }
+
+  /**
+   * Returns the movies most similar to a movie, most similar first, then by id.
+   *
+   * @param limit most movies returned, reduced to the number kept per movie
+   */
+  public List<Similar> similar(long movieId, int limit) {
+    List<Similar> similar = isCurrent() ? lists.get(movieId) : null;
+    if (similar == null) {
+      similar = compute(movieId);
+    }
+    return similar.size() > limit ? similar.subList(0, Math.max(0, limit)) : similar;
+  }
+
+  /** Whether every list reflects the writes reported so far. */
+  public synchronized boolean isCurrent() {
+    return !refreshing && changed.isEmpty() && !rebuildPending;
+  }
+
+  /** Number of lists kept. */
+  public int size() {
+    return lists.size();
+  }
+
+  /** Approximate heap size of the lists. */
+  public long memoryBytes() {
+    long entries = 0;
+    for (List<Similar> similar : lists.values()) {
+      entries += similar.size() + 1;
+    }
+    return entries * ENTRY_BYTES;
+  }
+
+  private void schedule() {
+    if (!refreshing) {
+      refreshing = true;
+      executor.execute(this::refresh);
+    }
+  }
+
+  /** Recomputes the lists until no change is left. */
+  private void refresh() {
+    boolean all = false;
+    List<Long> changedIds = List.of();
+    try {
+      while (true) {
+        synchronized (this) {
+          if (!rebuildPending && changed.isEmpty()) {
+            refreshing = false;
+            return;
+          }
+          all = rebuildPending;
+          changedIds = new ArrayList<>(changed);
+          rebuildPending = false;
+          changed.clear();
+        }
+        if (all) {
+          Arrays.stream(movies.ids()).parallel().forEach(id -> lists.put(id, compute(id)));
+          lists.keySet().removeIf(id -> movies.attributes(id) == null);
+        } else {
+          Arrays.stream(affected(changedIds))
+              .parallel()
+              .forEach(
+                  id -> {
+                    if (movies.attributes(id) == null) {
+                      lists.remove(id);
+                    } else {
+                      lists.put(id, compute(id));
+                    }
+                  });
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Failed to refresh the similar movies", e);
+      synchronized (this) {
+        // Put the work taken back, so the lists stay stale until a later write refreshes them.
+        rebuildPending |= all;
+        changed.addAll(changedIds);
+        refreshing = false;
+      }
+    }
+  }
+
+  /**
+   * Returns the changed movies, the movies sharing an actor or the director with them, and the
+   * movies whose list holds one of them.
+   */
+  private long[] affected(List<Long> changedIds) {
+    Set<Long> affected = ConcurrentHashMap.newKeySet();
+    affected.addAll(changedIds);
+    for (long movieId : changedIds) {
+      for (long actorId : graph.actorsOf(movieId)) {
+        for (long other : graph.moviesOf(actorId)) {
+          affected.add(other);
+        }
+      }
+      MovieFilterIndex.Attributes attributes = movies.attributes(movieId);
+      if (attributes != null && attributes.directorId() != null) {
+        for (long other : movies.directedBy(attributes.directorId())) {
+          affected.add(other);
+        }
+      }
+    }
+    Set<Long> changedSet = new HashSet<>(changedIds);
+    lists.forEach(
+        1024,
+        (movieId, similar) -> {
+          for (Similar movie : similar) {
+            if (changedSet.contains(movie.movieId())) {
+              affected.add(movieId);
+              return;
+            }
+          }
+        });
+    return affected.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /** Computes the list of a movie, empty if it is not indexed. */
+  private List<Similar> compute(long movieId) {
+    MovieFilterIndex.Attributes attributes = movies.attributes(movieId);
+    if (attributes == null) {
+      return List.of();
+    }
+    long[] actors = graph.actorsOf(movieId);
+    long[] directed =
+        attributes.directorId() == null ? new long[0] : movies.directedBy(attributes.directorId());
+    // Each candidate appears once per shared actor, plus once if it has the same director.
+    int reached = directed.length;
+    long[][] actorMovies = new long[actors.length][];
+    for (int i = 0; i < actors.length; i++) {
+      actorMovies[i] = graph.moviesOf(actors[i]);
+      reached += actorMovies[i].length;
+    }
+    long[] candidates = new long[reached];
+    int count = 0;
+    for (long[] played : actorMovies) {
+      for (long other : played) {
+        if (other != movieId) {
+          candidates[count++] = other;
+        }
+      }
+    }
+    for (long other : directed) {
+      if (other != movieId) {
+        candidates[count++] = other;
+      }
+    }
+    Arrays.sort(candidates, 0, count);
+    int weight = weight(actors.length, attributes);
+    List<Similar> similar = new ArrayList<>();
+    for (int start = 0; start < count; ) {
+      int end = start;
+      while (end < count && candidates[end] == candidates[start]) {
+        end++;
+      }
+      long other = candidates[start];
+      MovieFilterIndex.Attributes otherAttributes = movies.attributes(other);
+      if (otherAttributes != null) {
+        boolean sameDirector =
+            attributes.directorId() != null
+                && attributes.directorId().equals(otherAttributes.directorId());
+        boolean sameGenre =
+            attributes.genre() != null && attributes.genre() == otherAttributes.genre();
+        int sharedActors = end - start - (sameDirector ? 1 : 0);
+        int shared =
+            sharedActors * ACTOR_WEIGHT
+                + (sameDirector ? DIRECTOR_WEIGHT : 0)
+                + (sameGenre ? GENRE_WEIGHT : 0);
+        int union = weight + weight(graph.actorsOf(other).length, otherAttributes) - shared;
+        similar.add(
+            new Similar(other, (double) shared / union, sharedActors, sameDirector, sameGenre));
+      }
+      start = end;
+    }
+    similar.sort(
+        (left, right) ->
+            left.score() != right.score()
+                ? Double.compare(right.score(), left.score())
+                : Long.compare(left.movieId(), right.movieId()));
+    return List.copyOf(similar.size() > top ? similar.subList(0, top) : similar);
+  }
+
+  /** Total weight of the features of a movie with {@code actors} actors. */
+  private static int weight(int actors, MovieFilterIndex.Attributes attributes) {
+    return actors * ACTOR_WEIGHT
+        + (attributes.directorId() == null ? 0 : DIRECTOR_WEIGHT)
+        + (attributes.genre() == null ? 0 : GENRE_WEIGHT);
+  }
+}
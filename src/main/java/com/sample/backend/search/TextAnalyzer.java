@@ -0,0 +1,103 @@
+package com.sample.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns text into the terms of a {@link FullTextIndex}: accents are removed, letters are lower
+ * cased, apostrophes are dropped so that {@code Ocean's} reads as {@code oceans}, the text is split
+ * at every other character that is not a letter or digit, and plural endings are stemmed. The same
+ * folding, without the stemming, gives the keys of a {@link PrefixTrie}.
+ */
+final class TextAnalyzer {
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern APOSTROPHES = Pattern.compile("['’]");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+  private TextAnalyzer() {}
+
+  /** Returns the terms of {@code text} in order, repeats included. */
+  static List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    String folded = fold(text);
+    if (folded.isEmpty()) {
+      return terms;
+    }
+    for (String token : folded.split(" ")) {
+      terms.add(stem(token));
+    }
+    return terms;
+  }
+
+  /**
+   * Returns the words of {@code text} without accents, in lower case and separated by single
+   * spaces.
+   */
+  static String fold(String text) {
+    if (text == null) {
+      return "";
+    }
+    String ascii = foldAscii(text);
+    if (ascii != null) {
+      return ascii;
+    }
+    String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    folded = APOSTROPHES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("");
+    return SEPARATORS.matcher(folded).replaceAll(" ").strip();
+  }
+
+  /** Folds text made only of ASCII characters without regular expressions, or returns null. */
+  private static String foldAscii(String text) {
+    StringBuilder folded = new StringBuilder(text.length());
+    boolean separated = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= 0x80) {
+        return null;
+      }
+      if (c >= 'A' && c <= 'Z') {
+        c = (char) (c + ('a' - 'A'));
+      } else if (c == '\'') {
+        continue;
+      } else if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+        separated = true;
+        continue;
+      }
+      if (separated && !folded.isEmpty()) {
+        folded.append(' ');
+      }
+      separated = false;
+      folded.append(c);
+    }
+    return folded.toString();
+  }
+
+  /**
+   * Removes plural endings with the rules of Harman's S-stemmer: {@code -ies} becomes {@code -y},
+   * {@code -es} becomes {@code -e} and a final {@code -s} is dropped, except after the endings that
+   * usually belong to the singular ({@code -aies}, {@code -ees}, {@code -us}, {@code -ss}, ...).
+   */
+  static String stem(String term) {
+    int length = term.length();
+    if (length < 3 || term.charAt(length - 1) != 's') {
+      return term;
+    }
+    if (term.endsWith("ies") && !term.endsWith("eies") && !term.endsWith("aies")) {
+      return term.substring(0, length - 3) + "y";
+    }
+    if (term.endsWith("es")
+        && !term.endsWith("aes")
+        && !term.endsWith("ees")
+        && !term.endsWith("oes")) {
+      return term.substring(0, length - 1);
+    }
+    if (!term.endsWith("us") && !term.endsWith("ss")) {
+      return term.substring(0, length - 1);
+    }
+    return term;
+  }
+}
@@ -0,0 +1,271 @@
+package com.sample.backend.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory index for case-insensitive substring search. Every three consecutive characters of a
+ * document's lower-cased text form a trigram, and each trigram maps to the {@link PostingList} of
+ * the documents containing it.
+ *
+ * <p>A query of three or more characters is answered by intersecting the posting lists of its
+ * trigrams, starting from the shortest and skipping ahead in the others. Every id in the
+ * intersection is checked against the stored text, which removes the false positives a trigram
+ * match allows. Shorter queries check every document. Either way the candidates come in increasing
+ * id order, so a page of matches stops reading once it is full.
+ *
+ * <p>Each document may carry a tag, such as a genre ordinal, that queries can filter on. Reads run
+ * concurrently; writes take an exclusive lock.
+ */
+public final class TrigramIndex {
+
+  /** Tag of a document without one, and the query tag matching every document. */
+  public static final int ANY_TAG = -1;
+
+  private static final long MAP_ENTRY_BYTES = 64;
+
+  private final String name;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, PostingList> postings = new HashMap<>();
+  private final PostingList all = new PostingList();
+  private final DocumentStore documents = new DocumentStore();
+
+  public TrigramIndex(String name) {
+    this.name = name;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /** Adds a document, or replaces the text and tag of an indexed one. */
+  public void put(long id, String text, int tag) {
+    String normalized = normalize(text);
+    lock.writeLock().lock();
+    try {
+      String previous = documents.put(id, normalized, tag);
+      if (previous == null) {
+        all.add(id);
+      }
+      long[] added = trigrams(normalized);
+      long[] removed = previous == null ? new long[0] : trigrams(previous);
+      for (long trigram : added) {
+        if (Arrays.binarySearch(removed, trigram) < 0) {
+          postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+        }
+      }
+      for (long trigram : removed) {
+        if (Arrays.binarySearch(added, trigram) < 0) {
+          markStale(trigram);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a document; does nothing if it is not indexed. */
+  public void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      String previous = documents.remove(id);
+      if (previous == null) {
+        return;
+      }
+      all.markStale();
+      if (all.needsCompaction()) {
+        all.retain(candidate -> documents.slot(candidate) >= 0);
+      }
+      for (long trigram : trigrams(previous)) {
+        markStale(trigram);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of the documents containing {@code query}, in increasing order.
+   *
+   * @param tag only match documents with this tag, or {@link #ANY_TAG}
+   * @param offset number of matches to skip
+   * @param limit maximum number of ids to return
+   */
+  public long[] find(String query, int tag, long offset, int limit) {
+    long[][] ids = {new long[Math.min(limit, 64)]};
+    int[] found = {0};
+    long[] skipped = {0};
+    if (limit > 0) {
+      scan(
+          query,
+          tag,
+          id -> {
+            if (skipped[0] < offset) {
+              skipped[0]++;
+              return true;
+            }
+            if (found[0] == ids[0].length) {
+              ids[0] = Arrays.copyOf(ids[0], Math.min(limit, ids[0].length * 2));
+            }
+            ids[0][found[0]++] = id;
+            return found[0] < limit;
+          });
+    }
+    return Arrays.copyOf(ids[0], found[0]);
+  }
+
+  /** Counts the documents containing {@code query}, stopping at {@code limit}. */
+  public long count(String query, int tag, long limit) {
+    long[] count = {0};
+    if (limit > 0) {
+      scan(query, tag, id -> ++count[0] < limit);
+    }
+    return count[0];
+  }
+
+  /** Number of indexed documents. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of distinct trigrams. */
+  public int trigrams() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Approximate heap size of the index in bytes. */
+  public long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      long bytes = documents.memoryBytes() + all.memoryBytes();
+      for (PostingList list : postings.values()) {
+        bytes += MAP_ENTRY_BYTES + list.memoryBytes();
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Passes the matching ids to {@code visitor} in increasing order until it returns false. */
+  private void scan(String query, int tag, LongPredicate visitor) {
+    String normalized = normalize(query);
+    LongPredicate matches =
+        id -> {
+          int slot = documents.slot(id);
+          return slot >= 0
+              && (tag == ANY_TAG || documents.tag(slot) == tag)
+              && documents.text(slot).contains(normalized);
+        };
+    lock.readLock().lock();
+    try {
+      long[] trigrams = trigrams(normalized);
+      if (trigrams.length == 0) {
+        all.forEach(id -> !matches.test(id) || visitor.test(id));
+        return;
+      }
+      PostingList.Cursor[] cursors = new PostingList.Cursor[trigrams.length];
+      PostingList[] lists = new PostingList[trigrams.length];
+      for (int i = 0; i < trigrams.length; i++) {
+        lists[i] = postings.get(trigrams[i]);
+        if (lists[i] == null) {
+          return;
+        }
+      }
+      Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+      for (int i = 0; i < lists.length; i++) {
+        cursors[i] = lists[i].cursor();
+      }
+      // Leapfrog over the lists, shortest first, to the ids present in all of them.
+      long candidate = cursors[0].next();
+      while (candidate != PostingList.END) {
+        long next = candidate;
+        for (int i = 1; i < cursors.length && next == candidate; i++) {
+          next = cursors[i].advance(candidate);
+        }
+        if (next == candidate) {
+          if (matches.test(candidate) && !visitor.test(candidate)) {
+            return;
+          }
+          candidate = cursors[0].next();
+        } else {
+          candidate = cursors[0].advance(next);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void markStale(long trigram) {
+    PostingList list = postings.get(trigram);
+    if (list == null) {
+      return;
+    }
+    list.markStale();
+    if (list.needsCompaction()) {
+      list.retain(
+          id -> {
+            int slot = documents.slot(id);
+            return slot >= 0 && containsTrigram(documents.text(slot), trigram);
+          });
+      if (list.size() == 0) {
+        postings.remove(trigram);
+      }
+    }
+  }
+
+  private static String normalize(String text) {
+    return text == null ? "" : text.toLowerCase(Locale.ROOT);
+  }
+
+  private static long trigram(String text, int at) {
+    return ((long) text.charAt(at) << 32)
+        | ((long) text.charAt(at + 1) << 16)
+        | text.charAt(at + 2);
+  }
+
+  private static boolean containsTrigram(String text, long trigram) {
+    for (int i = 0; i + 3 <= text.length(); i++) {
+      if (trigram(text, i) == trigram) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the distinct trigrams of {@code text}, sorted. */
+  private static long[] trigrams(String text) {
+    if (text.length() < 3) {
+      return new long[0];
+    }
+    long[] trigrams = new long[text.length() - 2];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] = trigram(text, i);
+    }
+    Arrays.sort(trigrams);
+    int distinct = 0;
+    for (int i = 0; i < trigrams.length; i++) {
+      if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+        trigrams[distinct++] = trigrams[i];
+      }
+    }
+    return distinct == trigrams.length ? trigrams : Arrays.copyOf(trigrams, distinct);
+  }
+}
@@ -1,15 +1,28 @@
 package com.sample.backend.service;
 
 import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.mapper.ActorMapper;
 import com.sample.backend.model.Actor;
+import com.sample.backend.model.Role;
 import com.sample.backend.repository.ActorRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import com.sample.backend.repository.FieldsetQueries;
+import com.sample.backend.repository.KeysetPager;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.TrigramIndex;
+import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,59 +30,272 @@ import org.springframework.transaction.annotation.Transactional;
 public class ActorService extends BaseService<Actor, Long> {
 
   private final ActorRepository actorRepository;
+  private final RoleRepository roleRepository;
+  private final KeysetPager keysetPager;
+  private final FieldsetQueries fieldsetQueries;
+  private final PageLimits pageLimits;
+  private final RowCounters rowCounters;
+  private final SearchIndexes searchIndexes;
+  private final DtoCaches dtoCaches;
+  private final TableVersions tableVersions;
 
-  public ActorService(ActorRepository actorRepository) {
+  public ActorService(
+      ActorRepository actorRepository,
+      RoleRepository roleRepository,
+      KeysetPager keysetPager,
+      FieldsetQueries fieldsetQueries,
+      PageLimits pageLimits,
+      RowCounters rowCounters,
+      SearchIndexes searchIndexes,
+      DtoCaches dtoCaches,
+      TableVersions tableVersions) {
     super(actorRepository);
     this.actorRepository = actorRepository;
+    this.roleRepository = roleRepository;
+    this.keysetPager = keysetPager;
+    this.fieldsetQueries = fieldsetQueries;
+    this.pageLimits = pageLimits;
+    this.rowCounters = rowCounters;
+    this.searchIndexes = searchIndexes;
+    this.dtoCaches = dtoCaches;
+    this.tableVersions = tableVersions;
   }
 
+  /** Returns one page of actors, with the total taken from the maintained row count. */
   public PagedResponse<ActorDTO> getAllActors(int page, int size, String sort, String direction) {
-    Direction sortDirection = Direction.fromOptionalString(direction).orElse(Direction.ASC);
-    Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
-    Page<ActorDTO> actorPage = actorRepository.findAll(pageable).map(ActorMapper::toDTO);
-    return PagedResponse.from(actorPage);
+    return PagedResponse.from(
+        actorRepository.findAllDTOs(pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Actor.class),
+        false);
   }
 
+  /**
+   * Returns one page of actors with only the requested fields, selecting only their columns, as
+   * maps from field to value without the null values.
+   *
+   * @param fields comma separated fields of {@link ActorDTO}
+   */
+  public PagedResponse<Map<String, Object>> getAllActors(
+      String fields, int page, int size, String sort, String direction) {
+    return PagedResponse.from(
+        fieldsetQueries.find(
+            ActorRepository.FIELDS, fields, pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Actor.class),
+        false);
+  }
+
+  /**
+   * Returns the page of actors at {@code cursor}, or the first page when it is blank.
+   *
+   * @see KeysetPager#page
+   */
+  public PagedResponse<ActorDTO> scrollActors(
+      String cursor, int size, String sort, String direction) {
+    return keysetPager.page(
+        ActorRepository.KEYSET, cursor, pageLimits.pageSize(size), sort, direction);
+  }
+
+  /** Returns the actor with {@code id}, from the DTO cache when it holds it. */
   public ActorDTO getActorById(Long id) {
-    return ActorMapper.toDTO(findById(id));
+    return getVersionedActor(id).dto();
+  }
+
+  /**
+   * Returns the actor with {@code id} and its version stamp, from the DTO cache when it holds it.
+   * The stamp is read first, so it is never newer than the actor.
+   */
+  public Versioned<ActorDTO> getVersionedActor(Long id) {
+    return dtoCaches.actor(
+        id,
+        actorId -> {
+          VersionStamp stamp =
+              actorRepository
+                  .findVersionById(actorId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Actor not found with ID: " + actorId));
+          ActorDTO actor =
+              actorRepository
+                  .findDTOById(actorId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Actor not found with ID: " + actorId));
+          return new Versioned<>(actor, stamp);
+        });
   }
 
-  public PagedResponse<ActorDTO> searchActors(String name, int page, int size) {
-    Pageable pageable = PageRequest.of(page, size);
-    Page<ActorDTO> actorPage =
-        actorRepository
-            .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name, name, pageable)
-            .map(ActorMapper::toDTO);
-    return PagedResponse.from(actorPage);
+  /**
+   * Returns the actors with {@code ids}, in their order and leaving out those not found. The DTO
+   * cache serves those it holds; the others are read together, with one query for their stamps and
+   * one for the actors.
+   *
+   * @throws com.sample.backend.exception.BadRequestException if more ids are given than the maximum
+   *     page size
+   */
+  public List<ActorDTO> getActorsByIds(List<Long> ids) {
+    return dtoCaches
+        .actors(
+            pageLimits.ids("actors", ids),
+            missing ->
+                Versioned.read(
+                    missing,
+                    actorRepository::findVersionsByIdIn,
+                    actorRepository::findDTOsByIdIn,
+                    ActorDTO::id))
+        .stream()
+        .map(Versioned::dto)
+        .toList();
+  }
+
+  /**
+   * Returns one page of the actors matching {@code name}, from the search index when it is ready.
+   *
+   * @param exact count every match; otherwise matches are counted up to the count limit, and a
+   *     total beyond it is reported as an approximate lower bound
+   */
+  public PagedResponse<ActorDTO> searchActors(String name, int page, int size, boolean exact) {
+    Pageable pageable = pageLimits.pageable(page, size);
+    if (searchIndexes.isReady()) {
+      TrigramIndex index = searchIndexes.actors();
+      Slice<ActorDTO> actors =
+          searchIndexes.search(
+              index, name, TrigramIndex.ANY_TAG, pageable, actorRepository::findDTOsByIdIn);
+      if (exact) {
+        return PagedResponse.from(
+            actors, searchIndexes.count(index, name, TrigramIndex.ANY_TAG, Long.MAX_VALUE), false);
+      }
+      int countLimit = pageLimits.countLimit().getPageSize();
+      long counted = searchIndexes.count(index, name, TrigramIndex.ANY_TAG, countLimit + 1L);
+      if (counted <= countLimit) {
+        return PagedResponse.from(actors, counted, false);
+      }
+      return PagedResponse.from(actors, Math.max(seen(pageable, actors), countLimit), true);
+    }
+    if (exact) {
+      return PagedResponse.from(actorRepository.findDTOsByName(name, pageable));
+    }
+    Slice<ActorDTO> actors = actorRepository.findDTOSliceByName(name, pageable);
+    Slice<Long> ids = actorRepository.findIdsByName(name, pageLimits.countLimit());
+    if (!ids.hasNext()) {
+      return PagedResponse.from(actors, ids.getNumberOfElements(), false);
+    }
+    return PagedResponse.from(
+        actors, Math.max(seen(pageable, actors), ids.getNumberOfElements()), true);
+  }
+
+  /**
+   * Returns one page of the actors whose name matches {@code name} despite typos, closest first,
+   * with the number of matches. Each word matches names within a few edits of it or that sound the
+   * same. Until the search indexes are ready, this is the exact substring search.
+   */
+  public PagedResponse<ActorDTO> fuzzySearchActors(String name, int page, int size) {
+    if (!searchIndexes.isReady()) {
+      return searchActors(name, page, size, true);
+    }
+    return PagedResponse.from(
+        searchIndexes.fuzzySearch(
+            searchIndexes.fuzzy(Type.ACTOR),
+            name,
+            TrigramIndex.ANY_TAG,
+            pageLimits.pageable(page, size),
+            actorRepository::findDTOsByIdIn,
+            ActorDTO::id));
+  }
+
+  /** Number of matches up to the end of {@code actors}, counting one more if it has a next page. */
+  private static long seen(Pageable pageable, Slice<ActorDTO> actors) {
+    return pageable.getOffset() + actors.getNumberOfElements() + (actors.hasNext() ? 1 : 0);
   }
 
   @Transactional
   public ActorDTO createActor(ActorDTO actorDTO) {
     Actor actor = ActorMapper.toEntity(actorDTO);
     Actor savedActor = actorRepository.save(actor);
-    return ActorMapper.toDTO(savedActor);
+    rowCounters.add(Actor.class, 1);
+    ActorDTO created = ActorMapper.toDTO(savedActor);
+    searchIndexes.indexActor(created);
+    tableVersions.changed(Actor.class);
+    return created;
+  }
+
+  /**
+   * Creates actors in one transaction, inserted in JDBC batches.
+   *
+   * @param allowPartial create the valid actors even if others are invalid
+   */
+  @Transactional
+  public BatchResponse<ActorDTO> createActors(List<ActorDTO> actorDTOs, boolean allowPartial) {
+    List<BatchItem<Actor>> items =
+        actorDTOs.stream()
+            .map(
+                actorDTO ->
+                    actorDTO == null
+                        ? BatchItem.<Actor>rejected("Actor must not be null")
+                        : BatchItem.accepted(ActorMapper.toEntity(actorDTO)))
+            .toList();
+    BatchResponse<ActorDTO> response = saveBatch(items, allowPartial, ActorMapper::toDTO);
+    rowCounters.add(Actor.class, response.created());
+    response.results().stream()
+        .filter(result -> result.status() == Status.CREATED)
+        .forEach(result -> searchIndexes.indexActor(result.item()));
+    tableVersions.changed(Actor.class);
+    return response;
   }
 
   @Transactional
   public ActorDTO updateActor(Long id, ActorDTO actorDTO) {
+    return updateActor(id, actorDTO, null);
+  }
+
+  /**
+   * Updates the actor with {@code id} if it still has the entity tag the client read, or
+   * unconditionally when {@code ifMatch} is null.
+   *
+   * @throws com.sample.backend.exception.PreconditionFailedException if the entity tag does not
+   *     match
+   */
+  @Transactional
+  public ActorDTO updateActor(Long id, ActorDTO actorDTO, String ifMatch) {
     if ((actorDTO.firstName() != null)
         && (actorDTO.lastName() != null)
         && (actorDTO.birthDate() != null)
         && (actorDTO.nationality() != null)) {
-      findById(id);
+      Actor existing = findById(id);
+      checkIfMatch(ifMatch, existing.getVersion(), () -> actorRepository.findVersionById(id));
       Actor actor = ActorMapper.toEntity(actorDTO);
       actor.setId(id);
+      actor.setVersion(existing.getVersion());
       Actor updatedActor = actorRepository.save(actor);
-      return ActorMapper.toDTO(updatedActor);
+      ActorDTO updated = ActorMapper.toDTO(updatedActor);
+      searchIndexes.indexActor(updated);
+      dtoCaches.evictActors(List.of(id));
+      tableVersions.changed(Actor.class);
+      return updated;
     }
     Actor actor = findById(id);
+    checkIfMatch(ifMatch, actor.getVersion(), () -> actorRepository.findVersionById(id));
     ActorMapper.updateActorFromDTO(actor, actorDTO);
     Actor updatedActor = actorRepository.save(actor);
-    return ActorMapper.toDTO(updatedActor);
+    ActorDTO updated = ActorMapper.toDTO(updatedActor);
+    searchIndexes.indexActor(updated);
+    dtoCaches.evictActors(List.of(id));
+    tableVersions.changed(Actor.class);
+    return updated;
   }
 
+  /** Deletes an actor and their roles with one bulk delete per table. */
   @Transactional
-  public void deleteActor(Long id) {
-    deleteById(id);
+  public DeletionResult deleteActor(Long id) {
+    List<Long> roleIds = roleRepository.findIdsByActorId(id);
+    int roles = roleRepository.bulkDeleteByActorId(id);
+    int actors = actorRepository.bulkDeleteById(id);
+    if (actors == 0) {
+      throw new EntityNotFoundException("Actor not found with ID: " + id);
+    }
+    rowCounters.add(Actor.class, -actors);
+    rowCounters.add(Role.class, -roles);
+    searchIndexes.removeActors(List.of(id));
+    searchIndexes.removeRoles(roleIds);
+    dtoCaches.evictActors(List.of(id));
+    tableVersions.changed(Actor.class, Role.class);
+    return DeletionResult.builder().actors(actors).roles(roles).build();
   }
 }
@@ -1,7 +1,19 @@
 package com.sample.backend.service;
 
+import com.sample.backend.dto.BatchItemResult;
+import com.sample.backend.dto.BatchResponse;
 import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.exception.PreconditionFailedException;
+import com.sample.backend.repository.VersionStamp;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public abstract class BaseService<T, ID> {
@@ -32,4 +44,77 @@ public abstract class BaseService<T, ID> {
     }
     repository.deleteById(id);
   }
+
+  /**
+   * Checks the {@code If-Match} header of a conditional update against the current stamp of the
+   * row, which the update loaded at {@code version}. The update then only succeeds while the row
+   * keeps that version, so a write committed in between fails it rather than being overwritten.
+   *
+   * @param ifMatch the header value, or null when the update is unconditional
+   * @throws PreconditionFailedException if {@code ifMatch} does not list the current entity tag
+   */
+  protected static void checkIfMatch(
+      String ifMatch, Long version, Supplier<Optional<VersionStamp>> currentStamp) {
+    if (ifMatch == null) {
+      return;
+    }
+    VersionStamp stamp = currentStamp.get().orElse(null);
+    if (stamp == null || !stamp.matches(ifMatch) || !Objects.equals(stamp.version(), version)) {
+      throw new PreconditionFailedException(
+          "If-Match " + ifMatch + " does not match the current entity tag");
+    }
+  }
+
+  /**
+   * Saves the accepted items of a batch create request with a single {@code saveAll}, so the
+   * inserts go out in JDBC batches. Unless {@code allowPartial} is set, nothing is saved when any
+   * item was rejected.
+   */
+  protected <D> BatchResponse<D> saveBatch(
+      List<BatchItem<T>> items, boolean allowPartial, Function<T, D> toDTO) {
+    List<T> accepted = items.stream().filter(BatchItem::isAccepted).map(BatchItem::entity).toList();
+    int failed = items.size() - accepted.size();
+    boolean save = allowPartial || failed == 0;
+    Iterator<T> saved = save ? repository.saveAll(accepted).iterator() : null;
+    List<BatchItemResult<D>> results = new ArrayList<>(items.size());
+    for (int index = 0; index < items.size(); index++) {
+      BatchItem<T> item = items.get(index);
+      if (!item.isAccepted()) {
+        results.add(BatchItemResult.failed(index, item.error()));
+      } else if (save) {
+        results.add(BatchItemResult.created(index, toDTO.apply(saved.next())));
+      } else {
+        results.add(BatchItemResult.skipped(index));
+      }
+    }
+    return BatchResponse.<D>builder()
+        .results(results)
+        .created(save ? accepted.size() : 0)
+        .failed(failed)
+        .build();
+  }
+
+  /**
+   * Loads the entities referenced by a batch with one {@code findAllById}, keyed by id.
+   *
+   * @param reference extracts the referenced id from a request item; may return {@code null}
+   */
+  protected static <E, R> Map<Long, E> findReferenced(
+      JpaRepository<E, Long> referencedRepository,
+      List<R> requestItems,
+      Function<R, Long> reference,
+      Function<E, Long> idOf) {
+    List<Long> ids =
+        requestItems.stream()
+            .filter(Objects::nonNull)
+            .map(reference)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return referencedRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(idOf, Function.identity()));
+  }
 }
@@ -0,0 +1,20 @@
+package com.sample.backend.service;
+
+/**
+ * An item of a batch create request, converted to an entity ready to save or rejected with the
+ * reason.
+ */
+record BatchItem<T>(T entity, String error) {
+
+  static <T> BatchItem<T> accepted(T entity) {
+    return new BatchItem<>(entity, null);
+  }
+
+  static <T> BatchItem<T> rejected(String error) {
+    return new BatchItem<>(null, error);
+  }
+
+  boolean isAccepted() {
+    return error == null;
+  }
+}
@@ -0,0 +1,142 @@
+package com.sample.backend.service;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.ActorPath;
+import com.sample.backend.dto.CoStar;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.PathStep;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.search.CoStarGraph;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.SearchProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Co-stars and degrees of separation between actors, answered from the {@link CoStarGraph} kept by
+ * the search indexes, which follows committed role writes. While the indexes are not ready, a
+ * transient graph is built from one read of the roles. Only the names of the actors and movies
+ * returned are then read from the database.
+ */
+@Service
+public class CoStarService {
+
+  private final SearchIndexes searchIndexes;
+  private final SearchProperties searchProperties;
+  private final ActorRepository actorRepository;
+  private final MovieRepository movieRepository;
+  private final RoleRepository roleRepository;
+  private final PageLimits pageLimits;
+
+  public CoStarService(
+      SearchIndexes searchIndexes,
+      SearchProperties searchProperties,
+      ActorRepository actorRepository,
+      MovieRepository movieRepository,
+      RoleRepository roleRepository,
+      PageLimits pageLimits) {
+    this.searchIndexes = searchIndexes;
+    this.searchProperties = searchProperties;
+    this.actorRepository = actorRepository;
+    this.movieRepository = movieRepository;
+    this.roleRepository = roleRepository;
+    this.pageLimits = pageLimits;
+  }
+
+  /**
+   * Returns the actors who played in a movie with an actor, those sharing the most movies first.
+   *
+   * @param limit most co-stars returned, reduced to the maximum page size
+   * @throws EntityNotFoundException if the actor does not exist
+   */
+  public List<CoStar> getCoStars(Long actorId, int limit) {
+    requireActor(actorId);
+    List<CoStarGraph.CoStar> coStars = graph().coStars(actorId, pageLimits.pageSize(limit));
+    Map<Long, ActorDTO> actors = actors(coStars.stream().map(CoStarGraph.CoStar::actorId).toList());
+    return coStars.stream()
+        .map(
+            coStar -> {
+              ActorDTO actor = actors.get(coStar.actorId());
+              return CoStar.builder()
+                  .actorId(coStar.actorId())
+                  .firstName(actor == null ? null : actor.firstName())
+                  .lastName(actor == null ? null : actor.lastName())
+                  .sharedMovies(coStar.sharedMovies())
+                  .build();
+            })
+        .toList();
+  }
+
+  /**
+   * Returns a shortest chain of co-stars from one actor to another.
+   *
+   * @param maxDegrees most movies on the chain
+   * @throws EntityNotFoundException if either actor does not exist
+   */
+  public ActorPath findPath(Long fromActorId, Long toActorId, int maxDegrees) {
+    requireActor(fromActorId);
+    requireActor(toActorId);
+    long[] path = graph().path(fromActorId, toActorId, maxDegrees);
+    if (path.length == 0) {
+      return ActorPath.builder().connected(false).degrees(-1).steps(List.of()).build();
+    }
+    List<Long> actorIds = new ArrayList<>();
+    List<Long> movieIds = new ArrayList<>();
+    for (int i = 0; i < path.length; i++) {
+      (i % 2 == 0 ? actorIds : movieIds).add(path[i]);
+    }
+    Map<Long, ActorDTO> actors = actors(actorIds);
+    Map<Long, String> titles =
+        movieIds.isEmpty()
+            ? Map.of()
+            : movieRepository.findDTOsByIdIn(movieIds).stream()
+                .collect(Collectors.toMap(MovieDTO::id, MovieDTO::title));
+    List<PathStep> steps = new ArrayList<>(path.length);
+    for (int i = 0; i < path.length; i++) {
+      PathStep.PathStepBuilder step = PathStep.builder().id(path[i]);
+      if (i % 2 == 0) {
+        ActorDTO actor = actors.get(path[i]);
+        step.type(Type.ACTOR)
+            .name(actor == null ? null : actor.firstName() + " " + actor.lastName());
+      } else {
+        step.type(Type.MOVIE).name(titles.get(path[i]));
+      }
+      steps.add(step.build());
+    }
+    return ActorPath.builder().connected(true).degrees(movieIds.size()).steps(steps).build();
+  }
+
+  private void requireActor(Long actorId) {
+    if (actorRepository.findDTOById(actorId).isEmpty()) {
+      throw new EntityNotFoundException("Actor not found with ID: " + actorId);
+    }
+  }
+
+  private Map<Long, ActorDTO> actors(List<Long> ids) {
+    return ids.isEmpty()
+        ? Map.of()
+        : actorRepository.findDTOsByIdIn(ids).stream()
+            .collect(Collectors.toMap(ActorDTO::id, Function.identity()));
+  }
+
+  private CoStarGraph graph() {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.coStars();
+    }
+    CoStarGraph graph = new CoStarGraph(searchProperties.pathParallelThreshold());
+    for (RoleDTO role : roleRepository.findAllDTOs(Pageable.unpaged())) {
+      graph.put(role.id(), role.actorId(), role.movieId());
+    }
+    return graph;
+  }
+}
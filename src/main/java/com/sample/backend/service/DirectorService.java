@@ -1,11 +1,32 @@
 package com.sample.backend.service;
 
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.mapper.DirectorMapper;
 import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
 import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.FieldsetQueries;
+import com.sample.backend.repository.KeysetPager;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.TrigramIndex;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,56 +34,302 @@ import org.springframework.transaction.annotation.Transactional;
 public class DirectorService extends BaseService<Director, Long> {
 
   private final DirectorRepository directorRepository;
+  private final MovieRepository movieRepository;
+  private final RoleRepository roleRepository;
+  private final KeysetPager keysetPager;
+  private final FieldsetQueries fieldsetQueries;
+  private final PageLimits pageLimits;
+  private final RowCounters rowCounters;
+  private final SearchIndexes searchIndexes;
+  private final DtoCaches dtoCaches;
+  private final TableVersions tableVersions;
 
-  public DirectorService(DirectorRepository directorRepository) {
+  public DirectorService(
+      DirectorRepository directorRepository,
+      MovieRepository movieRepository,
+      RoleRepository roleRepository,
+      KeysetPager keysetPager,
+      FieldsetQueries fieldsetQueries,
+      PageLimits pageLimits,
+      RowCounters rowCounters,
+      SearchIndexes searchIndexes,
+      DtoCaches dtoCaches,
+      TableVersions tableVersions) {
     super(directorRepository);
     this.directorRepository = directorRepository;
+    this.movieRepository = movieRepository;
+    this.roleRepository = roleRepository;
+    this.keysetPager = keysetPager;
+    this.fieldsetQueries = fieldsetQueries;
+    this.pageLimits = pageLimits;
+    this.rowCounters = rowCounters;
+    this.searchIndexes = searchIndexes;
+    this.dtoCaches = dtoCaches;
+    this.tableVersions = tableVersions;
   }
 
+  /**
+   * Returns all directors.
+   *
+   * @throws com.sample.backend.exception.BadRequestException if there are more directors than the
+   *     list limit
+   */
   public List<DirectorDTO> getAllDirectors() {
-    return directorRepository.findAll().stream()
-        .map(DirectorMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped("directors", directorRepository::findAllDTOs);
   }
 
+  /** Returns one page of directors, with the total taken from the maintained row count. */
+  public PagedResponse<DirectorDTO> getDirectors(
+      int page, int size, String sort, String direction) {
+    return PagedResponse.from(
+        directorRepository.findAllDTOs(pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Director.class),
+        false);
+  }
+
+  /**
+   * Returns all directors with only the requested fields, selecting only their columns, as maps
+   * from field to value without the null values.
+   *
+   * @param fields comma separated fields of {@link DirectorDTO}
+   */
+  public List<Map<String, Object>> getAllDirectors(String fields) {
+    return pageLimits.capped(
+        "directors", pageable -> fieldsetQueries.find(DirectorRepository.FIELDS, fields, pageable));
+  }
+
+  /**
+   * Returns one page of directors with only the requested fields, as {@link
+   * #getAllDirectors(String)}.
+   */
+  public PagedResponse<Map<String, Object>> getDirectors(
+      String fields, int page, int size, String sort, String direction) {
+    return PagedResponse.from(
+        fieldsetQueries.find(
+            DirectorRepository.FIELDS, fields, pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Director.class),
+        false);
+  }
+
+  /**
+   * Returns the page of directors at {@code cursor}, or the first page when it is blank.
+   *
+   * @see KeysetPager#page
+   */
+  public PagedResponse<DirectorDTO> scrollDirectors(
+      String cursor, int size, String sort, String direction) {
+    return keysetPager.page(
+        DirectorRepository.KEYSET, cursor, pageLimits.pageSize(size), sort, direction);
+  }
+
+  /** Returns the director with {@code id}, from the DTO cache when it holds it. */
   public DirectorDTO getDirectorById(Long id) {
-    return DirectorMapper.toDTO(findById(id));
+    return getVersionedDirector(id).dto();
   }
 
-  public List<DirectorDTO> searchDirectors(String name) {
-    return directorRepository
-        .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name, name)
+  /**
+   * Returns the director with {@code id} and its version stamp, from the DTO cache when it holds
+   * it. The stamp is read first, so it is never newer than the director.
+   */
+  public Versioned<DirectorDTO> getVersionedDirector(Long id) {
+    return dtoCaches.director(
+        id,
+        directorId -> {
+          VersionStamp stamp =
+              directorRepository
+                  .findVersionById(directorId)
+                  .orElseThrow(
+                      () ->
+                          new EntityNotFoundException("Director not found with ID: " + directorId));
+          DirectorDTO director =
+              directorRepository
+                  .findDTOById(directorId)
+                  .orElseThrow(
+                      () ->
+                          new EntityNotFoundException("Director not found with ID: " + directorId));
+          return new Versioned<>(director, stamp);
+        });
+  }
+
+  /**
+   * Returns the directors with {@code ids}, in their order and leaving out those not found, as
+   * {@link ActorService#getActorsByIds} does for actors.
+   */
+  public List<DirectorDTO> getDirectorsByIds(List<Long> ids) {
+    return dtoCaches
+        .directors(
+            pageLimits.ids("directors", ids),
+            missing ->
+                Versioned.read(
+                    missing,
+                    directorRepository::findVersionsByIdIn,
+                    directorRepository::findDTOsByIdIn,
+                    DirectorDTO::id))
         .stream()
-        .map(DirectorMapper::toDTO)
-        .collect(Collectors.toList());
+        .map(Versioned::dto)
+        .toList();
+  }
+
+  public List<DirectorDTO> searchDirectors(String name) {
+    return pageLimits.capped("directors", pageable -> findByName(name, pageable));
+  }
+
+  /** Returns one page of the directors matching {@code name}, ordered by ID. */
+  public PagedResponse<DirectorDTO> searchDirectors(String name, int page, int size) {
+    return PagedResponse.from(findByName(name, pageLimits.pageable(page, size)));
+  }
+
+  /**
+   * Returns the directors whose name matches {@code name} despite typos, closest first. Each word
+   * matches names within a few edits of it or that sound the same. Until the search indexes are
+   * ready, this is the substring search.
+   *
+   * @throws com.sample.backend.exception.BadRequestException if more directors match than the list
+   *     limit
+   */
+  public List<DirectorDTO> fuzzySearchDirectors(String name) {
+    return pageLimits.capped("directors", pageable -> fuzzyFindByName(name, pageable));
+  }
+
+  /**
+   * Returns one page of the directors whose name matches {@code name} despite typos, closest first,
+   * with the number of matches.
+   */
+  public PagedResponse<DirectorDTO> fuzzySearchDirectors(String name, int page, int size) {
+    Slice<DirectorDTO> directors = fuzzyFindByName(name, pageLimits.pageable(page, size));
+    return directors instanceof Page<DirectorDTO> counted
+        ? PagedResponse.from(counted)
+        : PagedResponse.from(directors);
+  }
+
+  private Slice<DirectorDTO> fuzzyFindByName(String name, Pageable pageable) {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.fuzzySearch(
+          searchIndexes.fuzzy(Type.DIRECTOR),
+          name,
+          TrigramIndex.ANY_TAG,
+          pageable,
+          directorRepository::findDTOsByIdIn,
+          DirectorDTO::id);
+    }
+    return findByName(name, pageable);
+  }
+
+  /** Searches the index when it is ready, or the database otherwise. */
+  private Slice<DirectorDTO> findByName(String name, Pageable pageable) {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.search(
+          searchIndexes.directors(),
+          name,
+          TrigramIndex.ANY_TAG,
+          pageable,
+          directorRepository::findDTOsByIdIn);
+    }
+    return directorRepository.findDTOsByName(name, pageable);
   }
 
   @Transactional
   public DirectorDTO createDirector(DirectorDTO directorDTO) {
     Director director = DirectorMapper.toEntity(directorDTO);
     Director savedDirector = directorRepository.save(director);
-    return DirectorMapper.toDTO(savedDirector);
+    rowCounters.add(Director.class, 1);
+    DirectorDTO created = DirectorMapper.toDTO(savedDirector);
+    searchIndexes.indexDirector(created);
+    tableVersions.changed(Director.class);
+    return created;
+  }
+
+  /**
+   * Creates directors in one transaction, inserted in JDBC batches.
+   *
+   * @param allowPartial create the valid directors even if others are invalid
+   */
+  @Transactional
+  public BatchResponse<DirectorDTO> createDirectors(
+      List<DirectorDTO> directorDTOs, boolean allowPartial) {
+    List<BatchItem<Director>> items =
+        directorDTOs.stream()
+            .map(
+                directorDTO ->
+                    directorDTO == null
+                        ? BatchItem.<Director>rejected("Director must not be null")
+                        : BatchItem.accepted(DirectorMapper.toEntity(directorDTO)))
+            .toList();
+    BatchResponse<DirectorDTO> response = saveBatch(items, allowPartial, DirectorMapper::toDTO);
+    rowCounters.add(Director.class, response.created());
+    response.results().stream()
+        .filter(result -> result.status() == Status.CREATED)
+        .forEach(result -> searchIndexes.indexDirector(result.item()));
+    tableVersions.changed(Director.class);
+    return response;
   }
 
   @Transactional
   public DirectorDTO updateDirector(Long id, DirectorDTO directorDTO) {
+    return updateDirector(id, directorDTO, null);
+  }
+
+  /**
+   * Updates the director with {@code id} if it still has the entity tag the client read, or
+   * unconditionally when {@code ifMatch} is null.
+   *
+   * @throws com.sample.backend.exception.PreconditionFailedException if the entity tag does not
+   *     match
+   */
+  @Transactional
+  public DirectorDTO updateDirector(Long id, DirectorDTO directorDTO, String ifMatch) {
     if ((directorDTO.firstName() != null)
         && (directorDTO.lastName() != null)
         && (directorDTO.birthDate() != null)
         && (directorDTO.nationality() != null)) {
-      findById(id);
+      Director existing = findById(id);
+      checkIfMatch(ifMatch, existing.getVersion(), () -> directorRepository.findVersionById(id));
       Director director = DirectorMapper.toEntity(directorDTO);
       director.setId(id);
+      director.setVersion(existing.getVersion());
       Director updatedDirector = directorRepository.save(director);
-      return DirectorMapper.toDTO(updatedDirector);
+      DirectorDTO updated = DirectorMapper.toDTO(updatedDirector);
+      searchIndexes.indexDirector(updated);
+      dtoCaches.evictDirectors(List.of(id));
+      tableVersions.changed(Director.class);
+      return updated;
     }
     Director director = findById(id);
+    checkIfMatch(ifMatch, director.getVersion(), () -> directorRepository.findVersionById(id));
     DirectorMapper.updateDirectorFromDTO(director, directorDTO);
     Director updatedDirector = directorRepository.save(director);
-    return DirectorMapper.toDTO(updatedDirector);
+    DirectorDTO updated = DirectorMapper.toDTO(updatedDirector);
+    searchIndexes.indexDirector(updated);
+    dtoCaches.evictDirectors(List.of(id));
+    tableVersions.changed(Director.class);
+    return updated;
   }
 
-  public void deleteDirector(Long id) {
-    deleteById(id);
+  /**
+   * Deletes a director together with their movies and the roles in those movies, using one bulk
+   * delete per table rather than loading and cascading through every entity.
+   */
+  @Transactional
+  public DeletionResult deleteDirector(Long id) {
+    List<Genre> genres = movieRepository.findGenresByDirectorId(id);
+    List<Long> movieIds = movieRepository.findIdsByDirectorId(id);
+    List<Long> roleIds = roleRepository.findIdsByDirectorId(id);
+    int roles = roleRepository.bulkDeleteByDirectorId(id);
+    int movies = movieRepository.bulkDeleteByDirectorId(id);
+    int directors = directorRepository.bulkDeleteById(id);
+    if (directors == 0) {
+      throw new EntityNotFoundException("Director not found with ID: " + id);
+    }
+    rowCounters.add(Director.class, -directors);
+    rowCounters.add(Movie.class, -movies);
+    rowCounters.add(Role.class, -roles);
+    genres.forEach(genre -> rowCounters.addMovies(genre, -1));
+    searchIndexes.removeDirectors(List.of(id));
+    searchIndexes.removeMovies(movieIds);
+    searchIndexes.removeRoles(roleIds);
+    dtoCaches.evictDirectors(List.of(id));
+    dtoCaches.evictMovies(movieIds);
+    tableVersions.changed(Director.class, Movie.class, Role.class);
+    return DeletionResult.builder().directors(directors).movies(movies).roles(roles).build();
   }
 }
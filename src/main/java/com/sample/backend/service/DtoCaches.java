@@ -0,0 +1,536 @@
+package com.sample.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sample.backend.config.DtoCacheProperties;
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.repository.AfterCommit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches of the DTOs returned by the services' lookups by id, each with the {@link
+ * com.sample.backend.repository.VersionStamp} it was read at. The DTOs are immutable records, so a
+ * hit is returned as it is, without a query, a persistence context or mapping, and a conditional
+ * request is answered from its stamp. Each cache is bounded by entries or by the estimated heap of
+ * its DTOs, and its entries can expire; see {@link DtoCacheProperties}.
+ *
+ * <p>The services report their writes through the {@code evict*} methods, which apply once the
+ * transaction commits. A DTO is evicted with the rows it shows: a movie with its director, whose
+ * name it carries, and a role with its movie and its actor. Each cache indexes its entries by the
+ * rows they show, so such an eviction touches only the dependent entries. Writes that bypass the
+ * services must call {@link #evictAll()}. A lookup that reads the database while an eviction runs
+ * returns what it read but does not keep it, so a DTO read before a commit never outlives the
+ * eviction.
+ *
+ * <p>The JSON of the movies, actors and roles is also kept outside the heap in an {@link
+ * OffHeapJsonStore} each, which the evictions empty alongside the DTOs, so a hot response is
+ * written as it was serialized the first time; see {@link #movieJson()}.
+ *
+ * <p>When {@code catalog.dto-cache.enabled} is false nothing is cached. The hits, misses, evictions
+ * and size of each cache are published as the {@code cache.*} metrics, tagged with its name, and
+ * the off-heap bytes used and allocated by each store as {@code cache.off.heap.used} and {@code
+ * cache.off.heap.allocated}.
+ */
+@Component
+public class DtoCaches implements MeterBinder {
+
+  public static final String MOVIES = "movies";
+  public static final String ACTORS = "actors";
+  public static final String DIRECTORS = "directors";
+  public static final String ROLES = "roles";
+
+  /**
+   * Estimated heap of a cached DTO besides its strings: the record, its boxed numbers and its date,
+   * and its version stamp.
+   */
+  private static final int RECORD_BYTES = 200;
+
+  /** The references of the movies and roles, in the order their caches are given them. */
+  private static final int MOVIE_DIRECTOR = 0;
+
+  private static final int ROLE_MOVIE = 0;
+  private static final int ROLE_ACTOR = 1;
+
+  private final ReadThroughCache<MovieDTO> movies;
+  private final ReadThroughCache<ActorDTO> actors;
+  private final ReadThroughCache<DirectorDTO> directors;
+  private final ReadThroughCache<RoleDTO> roles;
+
+  /** The serialized DTOs, or null when they are not kept. */
+  private final OffHeapJsonStore<MovieDTO> movieJson;
+
+  private final OffHeapJsonStore<ActorDTO> actorJson;
+  private final OffHeapJsonStore<RoleDTO> roleJson;
+
+  public DtoCaches(DtoCacheProperties properties) {
+    this.movies =
+        new ReadThroughCache<>(
+            MOVIES,
+            properties,
+            movie -> weigh(movie.title(), movie.directorName()),
+            List.of(MovieDTO::directorId));
+    this.actors =
+        new ReadThroughCache<>(
+            ACTORS,
+            properties,
+            actor -> weigh(actor.firstName(), actor.lastName(), actor.nationality()),
+            List.of());
+    this.directors =
+        new ReadThroughCache<>(
+            DIRECTORS,
+            properties,
+            director -> weigh(director.firstName(), director.lastName(), director.nationality()),
+            List.of());
+    this.roles =
+        new ReadThroughCache<>(
+            ROLES,
+            properties,
+            role -> weigh(role.characterName(), role.movieTitle(), role.actorName()),
+            List.of(RoleDTO::movieId, RoleDTO::actorId));
+    DtoCacheProperties.OffHeap offHeap = properties.offHeap();
+    if (properties.enabled() && offHeap != null && offHeap.enabled()) {
+      int slots = offHeap.slots();
+      int slotBytes = (int) offHeap.slotSize().toBytes();
+      this.movieJson =
+          new OffHeapJsonStore<>(
+              slots,
+              slotBytes,
+              movie -> reference(movie.directorId()),
+              movie -> OffHeapJsonStore.NO_REFERENCE);
+      this.actorJson =
+          new OffHeapJsonStore<>(
+              slots,
+              slotBytes,
+              actor -> OffHeapJsonStore.NO_REFERENCE,
+              actor -> OffHeapJsonStore.NO_REFERENCE);
+      this.roleJson =
+          new OffHeapJsonStore<>(
+              slots,
+              slotBytes,
+              role -> reference(role.movieId()),
+              role -> reference(role.actorId()));
+    } else {
+      this.movieJson = null;
+      this.actorJson = null;
+      this.roleJson = null;
+    }
+  }
+
+  /** Returns the cached movie with {@code id}, or the one {@code load} reads, which is kept. */
+  public Versioned<MovieDTO> movie(Long id, Function<Long, Versioned<MovieDTO>> load) {
+    return movies.get(id, load);
+  }
+
+  /** Returns the cached actor with {@code id}, or the one {@code load} reads, which is kept. */
+  public Versioned<ActorDTO> actor(Long id, Function<Long, Versioned<ActorDTO>> load) {
+    return actors.get(id, load);
+  }
+
+  /** Returns the cached director with {@code id}, or the one {@code load} reads, which is kept. */
+  public Versioned<DirectorDTO> director(Long id, Function<Long, Versioned<DirectorDTO>> load) {
+    return directors.get(id, load);
+  }
+
+  /** Returns the cached role with {@code id}, or the one {@code load} reads, which is kept. */
+  public Versioned<RoleDTO> role(Long id, Function<Long, Versioned<RoleDTO>> load) {
+    return roles.get(id, load);
+  }
+
+  /**
+   * Returns the movies with {@code ids} in their order, leaving out those that do not exist. The
+   * cache serves those it holds and {@code load} reads the others at once, which are kept.
+   */
+  public List<Versioned<MovieDTO>> movies(
+      List<Long> ids, Function<Set<Long>, Map<Long, Versioned<MovieDTO>>> load) {
+    return movies.getAll(ids, load);
+  }
+
+  /** Returns the actors with {@code ids} in their order, as {@link #movies} does. */
+  public List<Versioned<ActorDTO>> actors(
+      List<Long> ids, Function<Set<Long>, Map<Long, Versioned<ActorDTO>>> load) {
+    return actors.getAll(ids, load);
+  }
+
+  /** Returns the directors with {@code ids} in their order, as {@link #movies} does. */
+  public List<Versioned<DirectorDTO>> directors(
+      List<Long> ids, Function<Set<Long>, Map<Long, Versioned<DirectorDTO>>> load) {
+    return directors.getAll(ids, load);
+  }
+
+  /** Returns the roles with {@code ids} in their order, as {@link #movies} does. */
+  public List<Versioned<RoleDTO>> roles(
+      List<Long> ids, Function<Set<Long>, Map<Long, Versioned<RoleDTO>>> load) {
+    return roles.getAll(ids, load);
+  }
+
+  /** The serialized movies by id, or null when they are not kept. */
+  public OffHeapJsonStore<MovieDTO> movieJson() {
+    return movieJson;
+  }
+
+  /** The serialized actors by id, or null when they are not kept. */
+  public OffHeapJsonStore<ActorDTO> actorJson() {
+    return actorJson;
+  }
+
+  /** The serialized roles by id, or null when they are not kept. */
+  public OffHeapJsonStore<RoleDTO> roleJson() {
+    return roleJson;
+  }
+
+  /**
+   * Evicts the movies with {@code ids}, and the roles in them, once the current transaction
+   * commits.
+   */
+  public void evictMovies(Collection<Long> ids) {
+    Set<Long> evicted = Set.copyOf(ids);
+    AfterCommit.run(
+        () -> {
+          movies.evict(evicted);
+          roles.evictReferencing(ROLE_MOVIE, evicted);
+          if (movieJson != null) {
+            movieJson.evict(evicted);
+            roleJson.evictFirstReferences(evicted);
+          }
+        });
+  }
+
+  /** Evicts the actors with {@code ids}, and their roles, once the current transaction commits. */
+  public void evictActors(Collection<Long> ids) {
+    Set<Long> evicted = Set.copyOf(ids);
+    AfterCommit.run(
+        () -> {
+          actors.evict(evicted);
+          roles.evictReferencing(ROLE_ACTOR, evicted);
+          if (actorJson != null) {
+            actorJson.evict(evicted);
+            roleJson.evictSecondReferences(evicted);
+          }
+        });
+  }
+
+  /**
+   * Evicts the directors with {@code ids}, and their movies, once the current transaction commits.
+   */
+  public void evictDirectors(Collection<Long> ids) {
+    Set<Long> evicted = Set.copyOf(ids);
+    AfterCommit.run(
+        () -> {
+          directors.evict(evicted);
+          movies.evictReferencing(MOVIE_DIRECTOR, evicted);
+          if (movieJson != null) {
+            movieJson.evictFirstReferences(evicted);
+          }
+        });
+  }
+
+  /** Evicts the roles with {@code ids} once the current transaction commits. */
+  public void evictRoles(Collection<Long> ids) {
+    Set<Long> evicted = Set.copyOf(ids);
+    AfterCommit.run(
+        () -> {
+          roles.evict(evicted);
+          if (roleJson != null) {
+            roleJson.evict(evicted);
+          }
+        });
+  }
+
+  /** Empties every cache once the current transaction commits. */
+  public void evictAll() {
+    AfterCommit.run(
+        () -> {
+          movies.evictAll();
+          actors.evictAll();
+          directors.evictAll();
+          roles.evictAll();
+          if (movieJson != null) {
+            movieJson.clear();
+            actorJson.clear();
+            roleJson.clear();
+          }
+        });
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (ReadThroughCache<?> cache : List.of(movies, actors, directors, roles)) {
+      if (cache.cache != null) {
+        CaffeineCacheMetrics.monitor(registry, cache.cache, cache.name);
+      }
+    }
+    if (movieJson != null) {
+      bindTo(registry, MOVIES, movieJson);
+      bindTo(registry, ACTORS, actorJson);
+      bindTo(registry, ROLES, roleJson);
+    }
+  }
+
+  private static void bindTo(MeterRegistry registry, String name, OffHeapJsonStore<?> store) {
+    Gauge.builder("cache.off.heap.used", store, OffHeapJsonStore::usedBytes)
+        .description("Bytes of serialized responses held outside the heap")
+        .tag("cache", name)
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+    Gauge.builder("cache.off.heap.allocated", store, OffHeapJsonStore::allocatedBytes)
+        .description("Bytes of memory allocated outside the heap")
+        .tag("cache", name)
+        .baseUnit(BaseUnits.BYTES)
+        .register(registry);
+    Gauge.builder("cache.off.heap.size", store, OffHeapJsonStore::size)
+        .description("Serialized responses held outside the heap")
+        .tag("cache", name)
+        .register(registry);
+    FunctionCounter.builder("cache.off.heap.gets", store, OffHeapJsonStore::hitCount)
+        .tag("cache", name)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("cache.off.heap.gets", store, OffHeapJsonStore::missCount)
+        .tag("cache", name)
+        .tag("result", "miss")
+        .register(registry);
+  }
+
+  private static long reference(Long id) {
+    return id == null ? OffHeapJsonStore.NO_REFERENCE : id;
+  }
+
+  /** Estimated heap of a DTO holding {@code strings}. */
+  private static int weigh(String... strings) {
+    int bytes = RECORD_BYTES;
+    for (String string : strings) {
+      if (string != null) {
+        bytes += 48 + string.length();
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * A cache of DTOs by id. Every eviction first advances {@link #generation}; a lookup that saw it
+   * change while it read the database evicts what it kept, since it may have read the row as it was
+   * before the write that caused the eviction. A lookup of several ids loads all its misses in one
+   * call.
+   *
+   * <p>Each of the {@link #references} of a DTO, such as a movie's director, is indexed from the
+   * referenced id to the ids of the cached DTOs holding it, so a write to the referenced row evicts
+   * just those. An entry is indexed when it is loaded and unindexed when it leaves the cache, both
+   * while Caffeine holds the entry's lock, so the index never misses a cached entry.
+   */
+  private static final class ReadThroughCache<D> {
+
+    private final String name;
+
+    /** The DTOs by id, or null when caching is disabled. */
+    private final Cache<Long, Versioned<D>> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /** The ids of the other rows each DTO shows, by which its entry is also evicted. */
+    private final List<Function<D, Long>> references;
+
+    /** For each reference, the ids of the cached DTOs by the id they refer to. */
+    private final List<Map<Long, Set<Long>>> referrers;
+
+    ReadThroughCache(
+        String name,
+        DtoCacheProperties properties,
+        ToIntFunction<D> weigher,
+        List<Function<D, Long>> references) {
+      this.name = name;
+      this.references = references;
+      this.referrers = references.stream().map(reference -> index()).toList();
+      this.cache = properties.enabled() ? build(properties.cache(name), weigher) : null;
+    }
+
+    Versioned<D> get(Long id, Function<Long, Versioned<D>> load) {
+      if (cache == null || id == null) {
+        return load.apply(id);
+      }
+      long seen = generation.get();
+      Versioned<D> versioned =
+          cache.get(
+              id,
+              key -> {
+                Versioned<D> loaded = load.apply(key);
+                if (loaded != null) {
+                  index(key, loaded);
+                }
+                return loaded;
+              });
+      if (generation.get() != seen) {
+        invalidate(id);
+      }
+      return versioned;
+    }
+
+    List<Versioned<D>> getAll(List<Long> ids, Function<Set<Long>, Map<Long, Versioned<D>>> load) {
+      Map<Long, Versioned<D>> found;
+      if (cache == null) {
+        found = ids.isEmpty() ? Map.of() : load.apply(new LinkedHashSet<>(ids));
+      } else {
+        long seen = generation.get();
+        found = new HashMap<>(cache.getAllPresent(ids));
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+          load.apply(missing)
+              .forEach(
+                  (id, loaded) ->
+                      found.put(
+                          id,
+                          // Unlike computeIfAbsent, compute does not count a second miss.
+                          cache
+                              .asMap()
+                              .compute(
+                                  id,
+                                  (key, cached) -> {
+                                    if (cached != null) {
+                                      return cached;
+                                    }
+                                    index(key, loaded);
+                                    return loaded;
+                                  })));
+        }
+        if (generation.get() != seen) {
+          found.keySet().forEach(this::invalidate);
+        }
+      }
+      return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    void evict(Collection<Long> ids) {
+      if (cache != null) {
+        generation.incrementAndGet();
+        ids.forEach(this::invalidate);
+      }
+    }
+
+    /** Evicts the DTOs whose reference at index {@code reference} is one of {@code ids}. */
+    void evictReferencing(int reference, Collection<Long> ids) {
+      if (cache == null) {
+        return;
+      }
+      generation.incrementAndGet();
+      Function<D, Long> referenced = references.get(reference);
+      for (Long id : ids) {
+        Set<Long> keys = referrers.get(reference).get(id);
+        if (keys == null) {
+          continue;
+        }
+        for (Long key : List.copyOf(keys)) {
+          cache
+              .asMap()
+              .computeIfPresent(
+                  key,
+                  (cached, versioned) -> {
+                    if (!id.equals(referenced.apply(versioned.dto()))) {
+                      return versioned;
+                    }
+                    unindex(cached, versioned);
+                    return null;
+                  });
+        }
+      }
+    }
+
+    void evictAll() {
+      if (cache != null) {
+        generation.incrementAndGet();
+        List.copyOf(cache.asMap().keySet()).forEach(this::invalidate);
+      }
+    }
+
+    private void invalidate(Long id) {
+      cache
+          .asMap()
+          .computeIfPresent(
+              id,
+              (key, versioned) -> {
+                unindex(key, versioned);
+                return null;
+              });
+    }
+
+    private void index(Long key, Versioned<D> versioned) {
+      for (int i = 0; i < references.size(); i++) {
+        Long id = references.get(i).apply(versioned.dto());
+        if (id != null) {
+          referrers
+              .get(i)
+              .compute(
+                  id,
+                  (referenced, keys) -> {
+                    Set<Long> indexed = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                    indexed.add(key);
+                    return indexed;
+                  });
+        }
+      }
+    }
+
+    private void unindex(Long key, Versioned<D> versioned) {
+      for (int i = 0; i < references.size(); i++) {
+        Long id = references.get(i).apply(versioned.dto());
+        if (id != null) {
+          referrers
+              .get(i)
+              .computeIfPresent(
+                  id,
+                  (referenced, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                  });
+        }
+      }
+    }
+
+    private static Map<Long, Set<Long>> index() {
+      return new ConcurrentHashMap<>();
+    }
+
+    private Cache<Long, Versioned<D>> build(
+        DtoCacheProperties.Cache settings, ToIntFunction<D> weigher) {
+      Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+      if (settings.maxWeight() != null) {
+        builder
+            .maximumWeight(settings.maxWeight().toBytes())
+            .<Long, Versioned<D>>weigher((id, versioned) -> weigher.applyAsInt(versioned.dto()));
+      } else {
+        builder.maximumSize(settings.maxEntries());
+      }
+      if (settings.timeToLive() != null) {
+        builder.expireAfterWrite(settings.timeToLive());
+      }
+      // Runs while the entry is removed for its size or age, so it cannot race a reload of it.
+      return builder
+          .<Long, Versioned<D>>evictionListener(
+              (id, versioned, cause) -> {
+                if (versioned != null) {
+                  unindex(id, versioned);
+                }
+              })
+          .build();
+    }
+  }
+}
@@ -1,19 +1,45 @@
 package com.sample.backend.service;
 
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.CastMember;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieDetails;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.dto.SearchHit.Type;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.mapper.MovieMapper;
 import com.sample.backend.model.Director;
 import com.sample.backend.model.Genre;
 import com.sample.backend.model.Movie;
 import com.sample.backend.model.Movie.MovieBuilder;
+import com.sample.backend.model.Role;
+import com.sample.backend.repository.CastRow;
 import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.FacetQueries;
+import com.sample.backend.repository.FieldsetQueries;
+import com.sample.backend.repository.KeysetPager;
+import com.sample.backend.repository.MovieDetailsRow;
 import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.MovieFilterIndex;
+import com.sample.backend.search.SearchIndexes;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,34 +53,233 @@ public class MovieService extends BaseService<Movie, Long> {
 
   private final MovieRepository movieRepository;
   private final DirectorRepository directorRepository;
+  private final RoleRepository roleRepository;
+  private final KeysetPager keysetPager;
+  private final FieldsetQueries fieldsetQueries;
+  private final FacetQueries facetQueries;
+  private final PageLimits pageLimits;
+  private final RowCounters rowCounters;
+  private final SearchIndexes searchIndexes;
+  private final DtoCaches dtoCaches;
+  private final TableVersions tableVersions;
 
-  public MovieService(MovieRepository movieRepository, DirectorRepository directorRepository) {
+  public MovieService(
+      MovieRepository movieRepository,
+      DirectorRepository directorRepository,
+      RoleRepository roleRepository,
+      KeysetPager keysetPager,
+      FieldsetQueries fieldsetQueries,
+      FacetQueries facetQueries,
+      PageLimits pageLimits,
+      RowCounters rowCounters,
+      SearchIndexes searchIndexes,
+      DtoCaches dtoCaches,
+      TableVersions tableVersions) {
     super(movieRepository);
     this.movieRepository = movieRepository;
     this.directorRepository = directorRepository;
+    this.roleRepository = roleRepository;
+    this.keysetPager = keysetPager;
+    this.fieldsetQueries = fieldsetQueries;
+    this.facetQueries = facetQueries;
+    this.pageLimits = pageLimits;
+    this.rowCounters = rowCounters;
+    this.searchIndexes = searchIndexes;
+    this.dtoCaches = dtoCaches;
+    this.tableVersions = tableVersions;
   }
 
   /**
    * Retrieves all movies.
    *
    * @return List of movie DTOs
+   * @throws com.sample.backend.exception.BadRequestException if there are more movies than the list
+   *     limit
    */
   public List<MovieDTO> getAllMovies() {
     log.debug("Fetching all movies");
-    return movieRepository.findAll().stream().map(MovieMapper::toDTO).collect(Collectors.toList());
+    return pageLimits.capped("movies", movieRepository::findAllDTOs);
   }
 
   /**
-   * Retrieves a movie by its ID.
+   * Retrieves one page of movies, with the total taken from the maintained row count.
+   *
+   * @param page Page number (0-based)
+   * @param size Page size, reduced to the maximum page size
+   * @param sort Sort field
+   * @param direction Sort direction
+   * @return Page of movie DTOs
+   */
+  public PagedResponse<MovieDTO> getMovies(int page, int size, String sort, String direction) {
+    log.debug("Fetching movies page: {}, size: {}", page, size);
+    return PagedResponse.from(
+        movieRepository.findAllDTOs(pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Movie.class),
+        false);
+  }
+
+  /**
+   * Retrieves all movies with only the requested fields, selecting only their columns and joining
+   * the director only for its name.
+   *
+   * @param fields comma separated fields of {@link MovieDTO}
+   * @return One map per movie from field to value, without the null values
+   * @throws com.sample.backend.exception.BadRequestException if a field is unknown or there are
+   *     more movies than the list limit
+   */
+  public List<Map<String, Object>> getAllMovies(String fields) {
+    log.debug("Fetching all movies with fields: {}", fields);
+    return pageLimits.capped(
+        "movies", pageable -> fieldsetQueries.find(MovieRepository.FIELDS, fields, pageable));
+  }
+
+  /**
+   * Retrieves one page of movies with only the requested fields, as {@link #getAllMovies(String)}
+   * does, with the total taken from the maintained row count.
+   */
+  public PagedResponse<Map<String, Object>> getMovies(
+      String fields, int page, int size, String sort, String direction) {
+    log.debug("Fetching movies page: {}, size: {}, fields: {}", page, size, fields);
+    return PagedResponse.from(
+        fieldsetQueries.find(
+            MovieRepository.FIELDS, fields, pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Movie.class),
+        false);
+  }
+
+  /**
+   * Retrieves one page of movies by keyset pagination.
+   *
+   * @param cursor Cursor from a previous page, or blank for the first page
+   * @param size Page size
+   * @param sort Sort field for the first page; later pages keep the sort of their cursor
+   * @param direction Sort direction for the first page
+   * @return Page of movie DTOs with the cursors of the neighbouring pages
+   * @see KeysetPager#page
+   */
+  public PagedResponse<MovieDTO> scrollMovies(
+      String cursor, int size, String sort, String direction) {
+    log.debug("Fetching movies page at cursor: {}", cursor);
+    return keysetPager.page(
+        MovieRepository.KEYSET, cursor, pageLimits.pageSize(size), sort, direction);
+  }
+
+  /**
+   * Retrieves a movie by its ID, from the DTO cache when it holds it.
    *
    * @param id Movie ID
    * @return Movie DTO
    * @throws EntityNotFoundException if movie not found
    */
   public MovieDTO getMovieById(Long id) {
+    return getVersionedMovie(id).dto();
+  }
+
+  /**
+   * Retrieves a movie by its ID with its version stamp, from the DTO cache when it holds it. The
+   * stamp is read before the movie, so it is never newer than the movie it comes with.
+   *
+   * @param id Movie ID
+   * @return Movie DTO and version stamp
+   * @throws EntityNotFoundException if movie not found
+   */
+  public Versioned<MovieDTO> getVersionedMovie(Long id) {
     log.debug("Fetching movie with ID: {}", id);
-    Movie movie = findById(id);
-    return MovieMapper.toDTO(movie);
+    return dtoCaches.movie(
+        id,
+        movieId -> {
+          VersionStamp stamp =
+              movieRepository
+                  .findVersionById(movieId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Movie not found with ID: " + movieId));
+          MovieDTO movie =
+              movieRepository
+                  .findDTOById(movieId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Movie not found with ID: " + movieId));
+          return new Versioned<>(movie, stamp);
+        });
+  }
+
+  /**
+   * Retrieves the movies with the given IDs, in their order and leaving out those not found. The
+   * DTO cache serves those it holds; the others are read together, with one query for their stamps
+   * and one for the movies.
+   *
+   * @param ids Movie IDs
+   * @return Movie DTOs
+   * @throws com.sample.backend.exception.BadRequestException if more IDs are given than the maximum
+   *     page size
+   */
+  public List<MovieDTO> getMoviesByIds(List<Long> ids) {
+    log.debug("Fetching movies with IDs: {}", ids);
+    return dtoCaches
+        .movies(
+            pageLimits.ids("movies", ids),
+            missing ->
+                Versioned.read(
+                    missing,
+                    movieRepository::findVersionsByIdIn,
+                    movieRepository::findDTOsByIdIn,
+                    MovieDTO::id))
+        .stream()
+        .map(Versioned::dto)
+        .toList();
+  }
+
+  /**
+   * Retrieves a movie with its director and cast in two queries, whatever the size of the cast.
+   * Both run in one read-only transaction, so the cast belongs to the movie row that was read. The
+   * stamp is a digest of the id and version of the movie, its director, its roles and their actors,
+   * read by the same queries, so a change to any of them or to the roles of the movie changes it.
+   *
+   * @param id Movie ID
+   * @return Movie details and version stamp
+   * @throws EntityNotFoundException if movie not found
+   */
+  @Transactional(readOnly = true)
+  public Versioned<MovieDetails> getMovieDetails(Long id) {
+    log.debug("Fetching details of movie with ID: {}", id);
+    MovieDetailsRow movie =
+        movieRepository
+            .findDetailsById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Movie not found with ID: " + id));
+    List<CastRow> cast = roleRepository.findCastByMovieId(id);
+    long[] rows = new long[4 + cast.size() * 4];
+    rows[0] = movie.id();
+    rows[1] = orMissing(movie.version());
+    rows[2] = orMissing(movie.directorId());
+    rows[3] = orMissing(movie.directorVersion());
+    Instant lastModified = VersionStamp.latest(movie.lastModified(), movie.directorLastModified());
+    List<CastMember> members = new ArrayList<>(cast.size());
+    for (int i = 0; i < cast.size(); i++) {
+      CastRow role = cast.get(i);
+      rows[4 + i * 4] = role.roleId();
+      rows[5 + i * 4] = orMissing(role.roleVersion());
+      rows[6 + i * 4] = orMissing(role.actorId());
+      rows[7 + i * 4] = orMissing(role.actorVersion());
+      lastModified =
+          VersionStamp.latest(
+              VersionStamp.latest(lastModified, role.roleLastModified()), role.actorLastModified());
+      members.add(role.toCastMember());
+    }
+    MovieDetails details =
+        MovieDetails.builder()
+            .id(movie.id())
+            .title(movie.title())
+            .genre(movie.genre())
+            .releaseDate(movie.releaseDate())
+            .durationMinutes(movie.durationMinutes())
+            .director(movie.director())
+            .cast(members)
+            .build();
+    return new Versioned<>(
+        details, VersionStamp.digest(orMissing(movie.version()), lastModified, rows));
+  }
+
+  private static long orMissing(Long value) {
+    return value == null ? -1 : value;
   }
 
   /**
@@ -65,9 +290,7 @@ public class MovieService extends BaseService<Movie, Long> {
    */
   public List<MovieDTO> getMoviesByTitle(String title) {
     log.debug("Searching movies with title containing: {}", title);
-    return movieRepository.findByTitleContainingIgnoreCase(title).stream()
-        .map(MovieMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped("movies", pageable -> findByTitle(title, null, pageable));
   }
 
   /**
@@ -78,16 +301,128 @@ public class MovieService extends BaseService<Movie, Long> {
    */
   public List<MovieDTO> getMoviesByGenre(Genre genre) {
     log.debug("Searching movies with genre: {}", genre);
-    return movieRepository.findByGenre(genre).stream()
-        .map(MovieMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped(
+        "movies", pageable -> movieRepository.findDTOsByGenre(genre, pageable));
   }
 
   public List<MovieDTO> getMoviesByTitleAndGenre(String title, Genre genre) {
     log.debug("Searching movies with title containing: {} and genre: {}", title, genre);
-    return movieRepository.findByTitleContainingIgnoreCaseAndGenre(title, genre).stream()
-        .map(MovieMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped("movies", pageable -> findByTitle(title, genre, pageable));
+  }
+
+  /**
+   * Searches for movies by title, genre or both, one page at a time. Searches by genre alone and
+   * unfiltered ones report the maintained row count as their total; title searches are not counted.
+   *
+   * @param title Search term, or null
+   * @param genre Genre to search for, or null
+   * @param page Page number (0-based)
+   * @param size Page size, reduced to the maximum page size
+   * @return Page of matching movie DTOs, ordered by ID
+   */
+  public PagedResponse<MovieDTO> searchMovies(String title, Genre genre, int page, int size) {
+    log.debug("Searching movies page: {} with title: {} and genre: {}", page, title, genre);
+    Pageable pageable = pageLimits.pageable(page, size);
+    if (title != null) {
+      return PagedResponse.from(findByTitle(title, genre, pageable));
+    }
+    if (genre != null) {
+      return PagedResponse.from(
+          movieRepository.findDTOsByGenre(genre, pageable), rowCounters.countMovies(genre), false);
+    }
+    return PagedResponse.from(
+        movieRepository.findAllDTOs(pageable), rowCounters.count(Movie.class), false);
+  }
+
+  /**
+   * Filters movies on any combination of genres, release dates, durations and directors, one page
+   * at a time in id order. When the search indexes are ready the matches are found by intersecting
+   * their bitmaps and counted exactly, and only the movies of the page are read from the database;
+   * otherwise the database is queried without counting.
+   *
+   * @param filter Predicates the movies must all satisfy
+   * @param page Page number (0-based)
+   * @param size Page size, reduced to the maximum page size
+   * @return Page of matching movie DTOs
+   */
+  public PagedResponse<MovieDTO> filterMovies(MovieFilter filter, int page, int size) {
+    log.debug("Filtering movies page: {} with {}", page, filter);
+    Pageable pageable = pageLimits.pageable(page, size);
+    if (searchIndexes.isReady()) {
+      MovieFilterIndex.Matches matches =
+          searchIndexes.movieFilter().find(filter, pageable.getOffset(), pageable.getPageSize());
+      List<MovieDTO> movies =
+          matches.ids().length == 0
+              ? List.of()
+              : movieRepository.findDTOsByIdIn(LongStream.of(matches.ids()).boxed().toList());
+      return PagedResponse.from(new PageImpl<>(movies, pageable, matches.total()));
+    }
+    return PagedResponse.from(facetQueries.findMovies(filter, pageable));
+  }
+
+  /**
+   * Searches for movies whose title matches {@code title} despite typos, closest first. Each word
+   * matches title words within a few edits of it. Until the search indexes are ready, this is the
+   * substring search.
+   *
+   * @param title Search term
+   * @param genre Genre to search for, or null
+   * @return List of matching movie DTOs
+   * @throws com.sample.backend.exception.BadRequestException if more movies match than the list
+   *     limit
+   */
+  public List<MovieDTO> fuzzySearchMovies(String title, Genre genre) {
+    log.debug("Fuzzy searching movies with title: {} and genre: {}", title, genre);
+    return pageLimits.capped("movies", pageable -> fuzzyFindByTitle(title, genre, pageable));
+  }
+
+  /**
+   * Searches for movies whose title matches {@code title} despite typos, one page at a time.
+   *
+   * @param title Search term
+   * @param genre Genre to search for, or null
+   * @param page Page number (0-based)
+   * @param size Page size, reduced to the maximum page size
+   * @return Page of matching movie DTOs, closest first, with the number of matches
+   */
+  public PagedResponse<MovieDTO> fuzzySearchMovies(String title, Genre genre, int page, int size) {
+    log.debug("Fuzzy searching movies page: {} with title: {} and genre: {}", page, title, genre);
+    Slice<MovieDTO> movies = fuzzyFindByTitle(title, genre, pageLimits.pageable(page, size));
+    return movies instanceof Page<MovieDTO> counted
+        ? PagedResponse.from(counted)
+        : PagedResponse.from(movies);
+  }
+
+  private Slice<MovieDTO> fuzzyFindByTitle(String title, Genre genre, Pageable pageable) {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.fuzzySearch(
+          searchIndexes.fuzzy(Type.MOVIE),
+          title,
+          SearchIndexes.tag(genre),
+          pageable,
+          movieRepository::findDTOsByIdIn,
+          MovieDTO::id);
+    }
+    return findByTitle(title, genre, pageable);
+  }
+
+  /**
+   * Searches for movies by title and optionally genre, in the search index when it is ready and in
+   * the database otherwise.
+   */
+  private Slice<MovieDTO> findByTitle(String title, Genre genre, Pageable pageable) {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.search(
+          searchIndexes.movies(),
+          title,
+          SearchIndexes.tag(genre),
+          pageable,
+          movieRepository::findDTOsByIdIn);
+    }
+    if (genre != null) {
+      return movieRepository.findDTOsByTitleAndGenre(title, genre, pageable);
+    }
+    return movieRepository.findDTOsByTitle(title, pageable);
   }
 
   /**
@@ -120,8 +455,52 @@ public class MovieService extends BaseService<Movie, Long> {
       movieBuilder.director(director);
     }
     Movie savedMovie = movieRepository.save(movieBuilder.build());
+    rowCounters.add(Movie.class, 1);
+    rowCounters.addMovies(savedMovie.getGenre(), 1);
     log.info("Movie created successfully with ID: {}", savedMovie.getId());
-    return MovieMapper.toDTO(savedMovie);
+    MovieDTO created = MovieMapper.toDTO(savedMovie);
+    searchIndexes.indexMovie(created);
+    tableVersions.changed(Movie.class);
+    return created;
+  }
+
+  /**
+   * Creates movies in one transaction. The referenced directors are loaded with a single query and
+   * the movies are inserted in JDBC batches.
+   *
+   * @param movieDTOs Movie data
+   * @param allowPartial create the valid movies even if others reference unknown directors
+   * @return Per-movie outcome
+   */
+  @Transactional
+  public BatchResponse<MovieDTO> createMovies(List<MovieDTO> movieDTOs, boolean allowPartial) {
+    log.info("Creating batch of {} movies", movieDTOs.size());
+    Map<Long, Director> directors =
+        findReferenced(directorRepository, movieDTOs, MovieDTO::directorId, Director::getId);
+    List<BatchItem<Movie>> items = new ArrayList<>(movieDTOs.size());
+    for (MovieDTO movieDTO : movieDTOs) {
+      if (movieDTO == null) {
+        items.add(BatchItem.rejected("Movie must not be null"));
+      } else if (movieDTO.directorId() != null && !directors.containsKey(movieDTO.directorId())) {
+        items.add(BatchItem.rejected("Director not found with ID: " + movieDTO.directorId()));
+      } else {
+        Movie movie = MovieMapper.toEntity(movieDTO);
+        movie.setDirector(directors.get(movieDTO.directorId()));
+        items.add(BatchItem.accepted(movie));
+      }
+    }
+    BatchResponse<MovieDTO> response = saveBatch(items, allowPartial, MovieMapper::toDTO);
+    rowCounters.add(Movie.class, response.created());
+    response.results().stream()
+        .filter(result -> result.status() == Status.CREATED)
+        .forEach(
+            result -> {
+              rowCounters.addMovies(result.item().genre(), 1);
+              searchIndexes.indexMovie(result.item());
+            });
+    tableVersions.changed(Movie.class);
+    log.info("Movie batch finished: {} created, {} failed", response.created(), response.failed());
+    return response;
   }
 
   /**
@@ -134,16 +513,35 @@ public class MovieService extends BaseService<Movie, Long> {
    */
   @Transactional
   public MovieDTO updateMovie(Long id, MovieDTO movieDTO) {
+    return updateMovie(id, movieDTO, null);
+  }
+
+  /**
+   * Updates an existing movie if it still has the entity tag the client read.
+   *
+   * @param id Movie ID
+   * @param movieDTO Updated movie data
+   * @param ifMatch {@code If-Match} header, or null to update unconditionally
+   * @return Updated movie DTO
+   * @throws EntityNotFoundException if movie or referenced director doesn't exist
+   * @throws com.sample.backend.exception.PreconditionFailedException if the movie's entity tag does
+   *     not match
+   */
+  @Transactional
+  public MovieDTO updateMovie(Long id, MovieDTO movieDTO, String ifMatch) {
     log.info("Updating movie with ID: {}", id);
     if ((movieDTO.title() != null)
         && (movieDTO.genre() != null)
         && (movieDTO.releaseDate() != null)
         && (movieDTO.durationMinutes() != null)) {
       log.debug("Performing full update of movie with ID: {}", id);
-      findById(id);
+      Movie existing = findById(id);
+      checkIfMatch(ifMatch, existing.getVersion(), () -> movieRepository.findVersionById(id));
+      Genre previousGenre = existing.getGenre();
       MovieBuilder movieBuilder =
           Movie.builder()
               .id(id)
+              .version(existing.getVersion())
               .title(movieDTO.title())
               .genre(movieDTO.genre())
               .releaseDate(movieDTO.releaseDate())
@@ -162,11 +560,18 @@ public class MovieService extends BaseService<Movie, Long> {
         movieBuilder.director(director);
       }
       Movie updatedMovie = movieRepository.save(movieBuilder.build());
+      rowCounters.movieGenreChanged(previousGenre, updatedMovie.getGenre());
       log.info("Movie with ID: {} fully updated", id);
-      return MovieMapper.toDTO(updatedMovie);
+      MovieDTO updated = MovieMapper.toDTO(updatedMovie);
+      searchIndexes.indexMovie(updated);
+      dtoCaches.evictMovies(List.of(id));
+      tableVersions.changed(Movie.class);
+      return updated;
     }
     log.debug("Performing partial update of movie with ID: {}", id);
     Movie movie = findById(id);
+    checkIfMatch(ifMatch, movie.getVersion(), () -> movieRepository.findVersionById(id));
+    Genre previousGenre = movie.getGenre();
     MovieMapper.updateMovieFromDTO(movie, movieDTO);
     if (movieDTO.directorId() != null) {
       log.debug("Updating director to ID: {} for movie", movieDTO.directorId());
@@ -182,21 +587,41 @@ public class MovieService extends BaseService<Movie, Long> {
       movie.setDirector(director);
     }
     Movie updatedMovie = movieRepository.save(movie);
+    rowCounters.movieGenreChanged(previousGenre, updatedMovie.getGenre());
     log.info("Movie with ID: {} partially updated", id);
-    return MovieMapper.toDTO(updatedMovie);
+    MovieDTO updated = MovieMapper.toDTO(updatedMovie);
+    searchIndexes.indexMovie(updated);
+    dtoCaches.evictMovies(List.of(id));
+    tableVersions.changed(Movie.class);
+    return updated;
   }
 
   /**
-   * Deletes a movie by ID.
+   * Deletes a movie and its roles with one bulk delete per table.
    *
    * @param id Movie ID
+   * @return Number of rows deleted
    * @throws EntityNotFoundException if movie doesn't exist
    */
   @Transactional
-  public void deleteMovie(Long id) {
+  public DeletionResult deleteMovie(Long id) {
     log.info("Deleting movie with ID: {}", id);
-    deleteById(id);
-    log.info("Movie with ID: {} deleted successfully", id);
+    Genre genre = movieRepository.findGenreById(id).orElse(null);
+    List<Long> roleIds = roleRepository.findIdsByMovieId(id);
+    int roles = roleRepository.bulkDeleteByMovieId(id);
+    int movies = movieRepository.bulkDeleteById(id);
+    if (movies == 0) {
+      throw new EntityNotFoundException("Movie not found with ID: " + id);
+    }
+    rowCounters.add(Movie.class, -movies);
+    rowCounters.add(Role.class, -roles);
+    rowCounters.addMovies(genre, -movies);
+    searchIndexes.removeMovies(List.of(id));
+    searchIndexes.removeRoles(roleIds);
+    dtoCaches.evictMovies(List.of(id));
+    tableVersions.changed(Movie.class, Role.class);
+    log.info("Movie with ID: {} deleted successfully with {} roles", id, roles);
+    return DeletionResult.builder().movies(movies).roles(roles).build();
   }
 
   /**
@@ -209,8 +634,26 @@ public class MovieService extends BaseService<Movie, Long> {
    */
   @Transactional
   public MovieDTO patchMovie(Long id, Map<String, Object> updates) {
+    return patchMovie(id, updates, null);
+  }
+
+  /**
+   * Patches a movie if it still has the entity tag the client read.
+   *
+   * @param id Movie ID
+   * @param updates Map of field names to their new values
+   * @param ifMatch {@code If-Match} header, or null to patch unconditionally
+   * @return Updated movie DTO
+   * @throws EntityNotFoundException if movie doesn't exist
+   * @throws com.sample.backend.exception.PreconditionFailedException if the movie's entity tag does
+   *     not match
+   */
+  @Transactional
+  public MovieDTO patchMovie(Long id, Map<String, Object> updates, String ifMatch) {
     log.info("Patching movie with ID: {}", id);
     Movie movie = findById(id);
+    checkIfMatch(ifMatch, movie.getVersion(), () -> movieRepository.findVersionById(id));
+    Genre previousGenre = movie.getGenre();
     updates.forEach(
         (key, value) -> {
           switch (key) {
@@ -274,7 +717,12 @@ public class MovieService extends BaseService<Movie, Long> {
           }
         });
     Movie updatedMovie = movieRepository.save(movie);
+    rowCounters.movieGenreChanged(previousGenre, updatedMovie.getGenre());
     log.info("Movie with ID: {} patched successfully", id);
-    return MovieMapper.toDTO(updatedMovie);
+    MovieDTO patched = MovieMapper.toDTO(updatedMovie);
+    searchIndexes.indexMovie(patched);
+    dtoCaches.evictMovies(List.of(id));
+    tableVersions.changed(Movie.class);
+    return patched;
   }
 }
@@ -0,0 +1,444 @@
+package com.sample.backend.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Serialized JSON responses by id, kept outside the Java heap in one direct buffer cut into
+ * fixed-size slots. A slot holds the entity tag and the JSON of one response; responses larger than
+ * a slot are not kept. The slots are found through an open-addressing table of primitive arrays, so
+ * the store adds no objects per entry for the collector to trace, and a full store evicts with the
+ * clock algorithm: the hand skips and clears slots read since it last passed them, and takes the
+ * first one that was not.
+ *
+ * <p>Each entry keeps two references to the rows its JSON shows, such as a role's movie and actor,
+ * so evicting those rows evicts it too. The entries referring to a row are chained through
+ * primitive arrays from a table keyed by the row's id, so such an eviction visits only those slots.
+ * Every eviction advances {@link #generation()}; a response read from the database before an
+ * eviction is not kept, as it may show the row as it was before the write that caused it.
+ *
+ * @param <D> the DTO type whose JSON is stored
+ */
+public final class OffHeapJsonStore<D> {
+
+  /** Reference of an entry that shows no other row. */
+  public static final long NO_REFERENCE = Long.MIN_VALUE;
+
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final int FREE = -1;
+
+  private final int slotBytes;
+  private final ToLongFunction<D> firstReference;
+  private final ToLongFunction<D> secondReference;
+  private final StampedLock lock = new StampedLock();
+  private final AtomicLong generation = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /** The slots, allocated by the first {@link #put}, so an unused store takes no memory. */
+  private volatile ByteBuffer arena;
+
+  private final long[] ids;
+  private final long[] firstReferences;
+  private final long[] secondReferences;
+  private final ReferenceIndex firstReferrers;
+  private final ReferenceIndex secondReferrers;
+  private final long[] lastModified;
+  private final short[] etagLengths;
+  private final int[] jsonLengths;
+  private final byte[] referenced;
+
+  private final SlotTable table;
+
+  private final int[] freeSlots;
+  private int freeCount;
+  private int hand;
+  private volatile long usedBytes;
+
+  /**
+   * @param slots most entries kept
+   * @param slotBytes size of a slot, the largest entity tag and JSON kept
+   * @param firstReference the id of the first row a DTO shows, or {@link #NO_REFERENCE}
+   * @param secondReference the id of the second row a DTO shows, or {@link #NO_REFERENCE}
+   */
+  public OffHeapJsonStore(
+      int slots,
+      int slotBytes,
+      ToLongFunction<D> firstReference,
+      ToLongFunction<D> secondReference) {
+    if (slots < 1 || slotBytes < 1 || (long) slots * slotBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Off-heap store of " + slots + " slots of " + slotBytes + " bytes");
+    }
+    this.slotBytes = slotBytes;
+    this.firstReference = firstReference;
+    this.secondReference = secondReference;
+    this.ids = new long[slots];
+    this.firstReferences = new long[slots];
+    this.secondReferences = new long[slots];
+    this.firstReferrers = new ReferenceIndex(slots);
+    this.secondReferrers = new ReferenceIndex(slots);
+    this.lastModified = new long[slots];
+    this.etagLengths = new short[slots];
+    this.jsonLengths = new int[slots];
+    this.referenced = new byte[slots];
+    this.table = new SlotTable(slots);
+    this.freeSlots = new int[slots];
+    for (int slot = 0; slot < slots; slot++) {
+      freeSlots[slot] = slots - 1 - slot;
+    }
+    this.freeCount = slots;
+  }
+
+  /** A reusable holder of one entry, to be read by one thread at a time. */
+  public static final class Hit {
+
+    private final byte[] buffer;
+    private int etagLength;
+    private int jsonLength;
+    private long lastModified;
+
+    public Hit(int slotBytes) {
+      this.buffer = new byte[slotBytes];
+    }
+
+    public String etag() {
+      return new String(buffer, 0, etagLength, StandardCharsets.ISO_8859_1);
+    }
+
+    public long lastModified() {
+      return lastModified;
+    }
+
+    /** The buffer holding the JSON at {@link #jsonOffset()}. */
+    public byte[] buffer() {
+      return buffer;
+    }
+
+    public int jsonOffset() {
+      return etagLength;
+    }
+
+    public int jsonLength() {
+      return jsonLength;
+    }
+  }
+
+  /**
+   * Copies the entry of {@code id} into {@code hit}, whose buffer must hold a slot.
+   *
+   * @return whether the store holds {@code id}
+   */
+  public boolean read(long id, Hit hit) {
+    long stamp = lock.readLock();
+    try {
+      int slot = table.get(id);
+      if (slot == FREE) {
+        misses.increment();
+        return false;
+      }
+      // Racy but harmless: a lost mark only makes the slot an earlier candidate for eviction.
+      referenced[slot] = 1;
+      int length = etagLengths[slot] + jsonLengths[slot];
+      arena.get(slot * slotBytes, hit.buffer, 0, length);
+      hit.etagLength = etagLengths[slot];
+      hit.jsonLength = jsonLengths[slot];
+      hit.lastModified = lastModified[slot];
+      hits.increment();
+      return true;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Keeps the JSON of {@code dto} under {@code id}, unless it is larger than a slot or an eviction
+   * ran since {@code seenGeneration} was read.
+   *
+   * @return whether the entry was kept
+   */
+  public boolean put(long id, D dto, String etag, long modified, byte[] json, long seenGeneration) {
+    byte[] tag = etag.getBytes(StandardCharsets.ISO_8859_1);
+    if (tag.length + json.length > slotBytes || tag.length > Short.MAX_VALUE) {
+      return false;
+    }
+    long stamp = lock.writeLock();
+    try {
+      if (generation.get() != seenGeneration) {
+        return false;
+      }
+      if (arena == null) {
+        arena = ByteBuffer.allocateDirect(ids.length * slotBytes);
+      }
+      int slot = table.get(id);
+      if (slot == FREE) {
+        slot = freeCount > 0 ? freeSlots[--freeCount] : evictOne();
+        ids[slot] = id;
+        table.put(id, slot);
+      } else {
+        usedBytes -= etagLengths[slot] + jsonLengths[slot];
+        unlink(slot);
+      }
+      arena.put(slot * slotBytes, tag);
+      arena.put(slot * slotBytes + tag.length, json);
+      firstReferences[slot] = firstReference.applyAsLong(dto);
+      secondReferences[slot] = secondReference.applyAsLong(dto);
+      firstReferrers.link(slot, firstReferences[slot]);
+      secondReferrers.link(slot, secondReferences[slot]);
+      lastModified[slot] = modified;
+      etagLengths[slot] = (short) tag.length;
+      jsonLengths[slot] = json.length;
+      referenced[slot] = 0;
+      usedBytes += tag.length + json.length;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Evicts the entries of {@code evicted}. */
+  public void evict(Collection<Long> evicted) {
+    long stamp = lock.writeLock();
+    try {
+      generation.incrementAndGet();
+      for (Long id : evicted) {
+        int slot = table.get(id);
+        if (slot != FREE) {
+          release(slot);
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Evicts the entries whose first reference is one of {@code evicted}. */
+  public void evictFirstReferences(Collection<Long> evicted) {
+    evictReferencing(firstReferrers, evicted);
+  }
+
+  /** Evicts the entries whose second reference is one of {@code evicted}. */
+  public void evictSecondReferences(Collection<Long> evicted) {
+    evictReferencing(secondReferrers, evicted);
+  }
+
+  /** Evicts every entry. */
+  public void clear() {
+    long stamp = lock.writeLock();
+    try {
+      generation.incrementAndGet();
+      for (int slot = 0; slot < ids.length; slot++) {
+        if (isUsed(slot)) {
+          release(slot);
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** The count of evictions so far, to be passed to {@link #put} by a caller about to read. */
+  public long generation() {
+    return generation.get();
+  }
+
+  /** Size of a slot, the size of the buffer a {@link Hit} needs. */
+  public int slotBytes() {
+    return slotBytes;
+  }
+
+  /** Bytes of entity tags and JSON held. */
+  public long usedBytes() {
+    return usedBytes;
+  }
+
+  /** Bytes of off-heap memory taken by the slots, zero until the first entry is kept. */
+  public long allocatedBytes() {
+    ByteBuffer allocated = arena;
+    return allocated == null ? 0 : allocated.capacity();
+  }
+
+  public int size() {
+    return ids.length - freeCount;
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  private void evictReferencing(ReferenceIndex referrers, Collection<Long> evicted) {
+    long stamp = lock.writeLock();
+    try {
+      generation.incrementAndGet();
+      for (Long reference : evicted) {
+        // Releasing a slot unlinks it, so the first one left is the next to release.
+        for (int slot = referrers.first(reference);
+            slot != FREE;
+            slot = referrers.first(reference)) {
+          release(slot);
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Frees the first slot the clock hand finds unread since it last passed. */
+  private int evictOne() {
+    while (referenced[hand] != 0) {
+      referenced[hand] = 0;
+      hand = (hand + 1) % ids.length;
+    }
+    int slot = hand;
+    hand = (hand + 1) % ids.length;
+    table.remove(ids[slot]);
+    unlink(slot);
+    usedBytes -= etagLengths[slot] + jsonLengths[slot];
+    return slot;
+  }
+
+  private boolean isUsed(int slot) {
+    return jsonLengths[slot] > 0;
+  }
+
+  private void release(int slot) {
+    table.remove(ids[slot]);
+    unlink(slot);
+    usedBytes -= etagLengths[slot] + jsonLengths[slot];
+    etagLengths[slot] = 0;
+    jsonLengths[slot] = 0;
+    referenced[slot] = 0;
+    freeSlots[freeCount++] = slot;
+  }
+
+  private void unlink(int slot) {
+    firstReferrers.unlink(slot, firstReferences[slot]);
+    secondReferrers.unlink(slot, secondReferences[slot]);
+  }
+
+  /** Open-addressing table from an id to a slot, with linear probing. */
+  private static final class SlotTable {
+
+    private final long[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    private SlotTable(int capacity) {
+      int size = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+      this.keys = new long[size];
+      this.slots = new int[size];
+      this.mask = size - 1;
+      Arrays.fill(keys, EMPTY);
+    }
+
+    /** Returns the slot of {@code key}, or {@link #FREE}. */
+    private int get(long key) {
+      for (int index = hash(key); keys[index] != EMPTY; index = (index + 1) & mask) {
+        if (keys[index] == key) {
+          return slots[index];
+        }
+      }
+      return FREE;
+    }
+
+    /** Maps {@code key} to {@code slot}, replacing its slot if it has one. */
+    private void put(long key, int slot) {
+      int index = hash(key);
+      while (keys[index] != EMPTY && keys[index] != key) {
+        index = (index + 1) & mask;
+      }
+      keys[index] = key;
+      slots[index] = slot;
+    }
+
+    /** Removes {@code key}, shifting back the entries probed past it. */
+    private void remove(long key) {
+      int index = hash(key);
+      while (keys[index] != key) {
+        if (keys[index] == EMPTY) {
+          return;
+        }
+        index = (index + 1) & mask;
+      }
+      int gap = index;
+      for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+        int home = hash(keys[next]);
+        // Move the entry into the gap unless its home lies cyclically in (gap, next].
+        if (((next - home) & mask) >= ((next - gap) & mask)) {
+          keys[gap] = keys[next];
+          slots[gap] = slots[next];
+          gap = next;
+        }
+      }
+      keys[gap] = EMPTY;
+    }
+
+    private int hash(long key) {
+      long mixed = key * 0x9E3779B97F4A7C15L;
+      return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+  }
+
+  /**
+   * The slots referring to each row, as a doubly linked list of slots per referenced id, whose
+   * first slot is found through a {@link SlotTable}.
+   */
+  private static final class ReferenceIndex {
+
+    private final SlotTable heads;
+    private final int[] next;
+    private final int[] previous;
+
+    private ReferenceIndex(int slots) {
+      this.heads = new SlotTable(slots);
+      this.next = new int[slots];
+      this.previous = new int[slots];
+    }
+
+    /** Returns the first slot referring to {@code reference}, or {@link #FREE}. */
+    private int first(long reference) {
+      return reference == NO_REFERENCE ? FREE : heads.get(reference);
+    }
+
+    private void link(int slot, long reference) {
+      if (reference == NO_REFERENCE) {
+        return;
+      }
+      int head = heads.get(reference);
+      next[slot] = head;
+      previous[slot] = FREE;
+      if (head != FREE) {
+        previous[head] = slot;
+      }
+      heads.put(reference, slot);
+    }
+
+    private void unlink(int slot, long reference) {
+      if (reference == NO_REFERENCE) {
+        return;
+      }
+      int before = previous[slot];
+      int after = next[slot];
+      if (after != FREE) {
+        previous[after] = before;
+      }
+      if (before != FREE) {
+        next[before] = after;
+      } else if (after != FREE) {
+        heads.put(reference, after);
+      } else {
+        heads.remove(reference);
+      }
+    }
+  }
+}
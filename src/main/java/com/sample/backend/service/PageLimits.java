@@ -0,0 +1,82 @@
+package com.sample.backend.service;
+
+import com.sample.backend.config.PaginationProperties;
+import com.sample.backend.exception.BadRequestException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Component;
+
+/** Applies {@link PaginationProperties} to the list and search reads of the services. */
+@Component
+public class PageLimits {
+
+  private final PaginationProperties properties;
+
+  public PageLimits(PaginationProperties properties) {
+    this.properties = properties;
+  }
+
+  /** Returns {@code requested}, reduced to the maximum page size. */
+  public int pageSize(int requested) {
+    return Math.min(requested, properties.maxPageSize());
+  }
+
+  /** Returns a page request sorted by {@code sort} and then by id, so pages never overlap. */
+  public Pageable pageable(int page, int size, String sort, String direction) {
+    Direction sortDirection = Direction.fromOptionalString(direction).orElse(Direction.ASC);
+    Sort order = Sort.by(sortDirection, sort);
+    if (!sort.equals("id")) {
+      order = order.and(Sort.by(sortDirection, "id"));
+    }
+    return PageRequest.of(page, pageSize(size), order);
+  }
+
+  /** Returns the request that counts rows for an approximate total, reading their ids only. */
+  public Pageable countLimit() {
+    return PageRequest.of(0, properties.countLimit());
+  }
+
+  /** Returns a page request sorted by id. */
+  public Pageable pageable(int page, int size) {
+    return pageable(page, size, "id", "asc");
+  }
+
+  /**
+   * Returns {@code ids} in their order without duplicates, for a lookup of several rows by id.
+   *
+   * @param rows plural name of the rows, for the error message
+   * @throws BadRequestException if there are more ids than the maximum page size
+   */
+  public List<Long> ids(String rows, List<Long> ids) {
+    List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+    if (distinct.size() > properties.maxPageSize()) {
+      throw new BadRequestException(
+          "At most %d %s may be requested by id at once, not %d"
+              .formatted(properties.maxPageSize(), rows, distinct.size()));
+    }
+    return distinct;
+  }
+
+  /**
+   * Runs an unpaginated list query, reading at most one row more than the list limit.
+   *
+   * @param rows plural name of the rows, for the error message
+   * @param query runs the query for a page request; issues no count query when it returns a slice
+   * @throws BadRequestException if more rows match than the list limit allows
+   */
+  public <D> List<D> capped(String rows, Function<Pageable, Slice<D>> query) {
+    Slice<D> slice = query.apply(PageRequest.of(0, properties.listLimit(), Sort.by("id")));
+    if (slice.hasNext()) {
+      throw new BadRequestException(
+          "More than %d %s match, which is more than one response may return. Request them page by page with page=0&size=%d, or with cursor= where the endpoint supports it"
+              .formatted(properties.listLimit(), rows, properties.maxPageSize()));
+    }
+    return slice.getContent();
+  }
+}
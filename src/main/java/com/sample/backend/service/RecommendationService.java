@@ -0,0 +1,98 @@
+package com.sample.backend.service;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.dto.SimilarMovie;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.search.CoStarGraph;
+import com.sample.backend.search.MovieFilterIndex;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.SearchProperties;
+import com.sample.backend.search.SimilarMovies;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Movies similar to a movie, answered from the {@link SimilarMovies} lists kept by the search
+ * indexes, which follow committed movie and role writes. While the indexes are not ready, the list
+ * is computed from one read of the movies and roles. Only the titles of the movies returned are
+ * then read from the database.
+ */
+@Service
+public class RecommendationService {
+
+  private final SearchIndexes searchIndexes;
+  private final SearchProperties searchProperties;
+  private final MovieRepository movieRepository;
+  private final RoleRepository roleRepository;
+
+  public RecommendationService(
+      SearchIndexes searchIndexes,
+      SearchProperties searchProperties,
+      MovieRepository movieRepository,
+      RoleRepository roleRepository) {
+    this.searchIndexes = searchIndexes;
+    this.searchProperties = searchProperties;
+    this.movieRepository = movieRepository;
+    this.roleRepository = roleRepository;
+  }
+
+  /**
+   * Returns the movies most similar to a movie, most similar first.
+   *
+   * @param limit most movies returned, reduced to the number kept per movie
+   * @throws EntityNotFoundException if the movie does not exist
+   */
+  public List<SimilarMovie> getSimilarMovies(Long movieId, int limit) {
+    if (movieRepository.findDTOById(movieId).isEmpty()) {
+      throw new EntityNotFoundException("Movie not found with ID: " + movieId);
+    }
+    List<SimilarMovies.Similar> similar = similarMovies().similar(movieId, limit);
+    Map<Long, String> titles =
+        similar.isEmpty()
+            ? Map.of()
+            : movieRepository
+                .findDTOsByIdIn(similar.stream().map(SimilarMovies.Similar::movieId).toList())
+                .stream()
+                .collect(Collectors.toMap(MovieDTO::id, MovieDTO::title));
+    return similar.stream()
+        .map(
+            movie ->
+                SimilarMovie.builder()
+                    .movieId(movie.movieId())
+                    .title(titles.get(movie.movieId()))
+                    .score(movie.score())
+                    .sharedActors(movie.sharedActors())
+                    .sameDirector(movie.sameDirector())
+                    .sameGenre(movie.sameGenre())
+                    .build())
+        .toList();
+  }
+
+  private SimilarMovies similarMovies() {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.similarMovies();
+    }
+    MovieFilterIndex movies = new MovieFilterIndex(searchProperties.statisticsParallelThreshold());
+    for (MovieDTO movie : movieRepository.findAllDTOs(Pageable.unpaged())) {
+      movies.put(
+          movie.id(),
+          movie.title(),
+          movie.genre(),
+          movie.releaseDate(),
+          movie.durationMinutes(),
+          movie.directorId());
+    }
+    CoStarGraph graph = new CoStarGraph(searchProperties.pathParallelThreshold());
+    for (RoleDTO role : roleRepository.findAllDTOs(Pageable.unpaged())) {
+      graph.put(role.id(), role.actorId(), role.movieId());
+    }
+    // Nothing is precomputed, so each query computes its list on the spot.
+    return new SimilarMovies(graph, movies, searchProperties.similarMovies());
+  }
+}
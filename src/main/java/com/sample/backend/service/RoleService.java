@@ -1,5 +1,8 @@
 package com.sample.backend.service;
 
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.PagedResponse;
 import com.sample.backend.dto.RoleDTO;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.mapper.RoleMapper;
@@ -7,10 +10,23 @@ import com.sample.backend.model.Actor;
 import com.sample.backend.model.Movie;
 import com.sample.backend.model.Role;
 import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.FieldsetQueries;
+import com.sample.backend.repository.KeysetPager;
 import com.sample.backend.repository.MovieRepository;
 import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.TrigramIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,41 +36,222 @@ public class RoleService extends BaseService<Role, Long> {
   private final RoleRepository roleRepository;
   private final MovieRepository movieRepository;
   private final ActorRepository actorRepository;
+  private final KeysetPager keysetPager;
+  private final FieldsetQueries fieldsetQueries;
+  private final PageLimits pageLimits;
+  private final RowCounters rowCounters;
+  private final SearchIndexes searchIndexes;
+  private final DtoCaches dtoCaches;
+  private final TableVersions tableVersions;
 
   public RoleService(
       RoleRepository roleRepository,
       MovieRepository movieRepository,
-      ActorRepository actorRepository) {
+      ActorRepository actorRepository,
+      KeysetPager keysetPager,
+      FieldsetQueries fieldsetQueries,
+      PageLimits pageLimits,
+      RowCounters rowCounters,
+      SearchIndexes searchIndexes,
+      DtoCaches dtoCaches,
+      TableVersions tableVersions) {
     super(roleRepository);
     this.roleRepository = roleRepository;
     this.movieRepository = movieRepository;
     this.actorRepository = actorRepository;
+    this.keysetPager = keysetPager;
+    this.fieldsetQueries = fieldsetQueries;
+    this.pageLimits = pageLimits;
+    this.rowCounters = rowCounters;
+    this.searchIndexes = searchIndexes;
+    this.dtoCaches = dtoCaches;
+    this.tableVersions = tableVersions;
   }
 
+  /**
+   * Returns all roles.
+   *
+   * @throws com.sample.backend.exception.BadRequestException if there are more roles than the list
+   *     limit
+   */
   public List<RoleDTO> getAllRoles() {
-    return roleRepository.findAll().stream().map(RoleMapper::toDTO).collect(Collectors.toList());
+    return pageLimits.capped("roles", roleRepository::findAllDTOs);
   }
 
+  /** Returns one page of roles, with the total taken from the maintained row count. */
+  public PagedResponse<RoleDTO> getRoles(int page, int size, String sort, String direction) {
+    return PagedResponse.from(
+        roleRepository.findAllDTOs(pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Role.class),
+        false);
+  }
+
+  /**
+   * Returns all roles with only the requested fields, selecting only their columns and joining the
+   * movie or actor only for its title or name, as maps from field to value without the null values.
+   *
+   * @param fields comma separated fields of {@link RoleDTO}
+   */
+  public List<Map<String, Object>> getAllRoles(String fields) {
+    return pageLimits.capped(
+        "roles", pageable -> fieldsetQueries.find(RoleRepository.FIELDS, fields, pageable));
+  }
+
+  /** Returns one page of roles with only the requested fields, as {@link #getAllRoles(String)}. */
+  public PagedResponse<Map<String, Object>> getRoles(
+      String fields, int page, int size, String sort, String direction) {
+    return PagedResponse.from(
+        fieldsetQueries.find(
+            RoleRepository.FIELDS, fields, pageLimits.pageable(page, size, sort, direction)),
+        rowCounters.count(Role.class),
+        false);
+  }
+
+  /**
+   * Returns the page of roles at {@code cursor}, or the first page when it is blank.
+   *
+   * @see KeysetPager#page
+   */
+  public PagedResponse<RoleDTO> scrollRoles(
+      String cursor, int size, String sort, String direction) {
+    return keysetPager.page(
+        RoleRepository.KEYSET, cursor, pageLimits.pageSize(size), sort, direction);
+  }
+
+  /** Returns the role with {@code id}, from the DTO cache when it holds it. */
   public RoleDTO getRoleById(Long id) {
-    return RoleMapper.toDTO(findById(id));
+    return getVersionedRole(id).dto();
+  }
+
+  /**
+   * Returns the role with {@code id} and its version stamp, from the DTO cache when it holds it.
+   * The stamp is read first, so it is never newer than the role.
+   */
+  public Versioned<RoleDTO> getVersionedRole(Long id) {
+    return dtoCaches.role(
+        id,
+        roleId -> {
+          VersionStamp stamp =
+              roleRepository
+                  .findVersionById(roleId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Role not found with ID: " + roleId));
+          RoleDTO role =
+              roleRepository
+                  .findDTOById(roleId)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Role not found with ID: " + roleId));
+          return new Versioned<>(role, stamp);
+        });
+  }
+
+  /**
+   * Returns the roles with {@code ids}, in their order and leaving out those not found, as {@link
+   * ActorService#getActorsByIds} does for actors.
+   */
+  public List<RoleDTO> getRolesByIds(List<Long> ids) {
+    return dtoCaches
+        .roles(
+            pageLimits.ids("roles", ids),
+            missing ->
+                Versioned.read(
+                    missing,
+                    roleRepository::findVersionsByIdIn,
+                    roleRepository::findDTOsByIdIn,
+                    RoleDTO::id))
+        .stream()
+        .map(Versioned::dto)
+        .toList();
   }
 
   public List<RoleDTO> getRolesByMovieId(Long movieId) {
-    return roleRepository.findByMovieId(movieId).stream()
-        .map(RoleMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped(
+        "roles", pageable -> roleRepository.findDTOsByMovieId(movieId, pageable));
+  }
+
+  /**
+   * Returns the roles in the movies with {@code movieIds} with one query, grouped by movie in the
+   * order of {@code movieIds} and ordered by ID within each movie.
+   *
+   * @throws com.sample.backend.exception.BadRequestException if more movie ids are given than the
+   *     maximum page size, or more roles match than the list limit
+   */
+  public List<RoleDTO> getRolesByMovieIds(List<Long> movieIds) {
+    List<Long> ids = pageLimits.ids("movies", movieIds);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return inOrderOf(
+        ids,
+        RoleDTO::movieId,
+        pageLimits.capped("roles", pageable -> roleRepository.findDTOsByMovieIdIn(ids, pageable)));
+  }
+
+  /** Returns one page of the roles in a movie, ordered by ID. */
+  public PagedResponse<RoleDTO> getRolesByMovieId(Long movieId, int page, int size) {
+    return PagedResponse.from(
+        roleRepository.findDTOsByMovieId(movieId, pageLimits.pageable(page, size)));
   }
 
   public List<RoleDTO> getRolesByActorId(Long actorId) {
-    return roleRepository.findByActorId(actorId).stream()
-        .map(RoleMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped(
+        "roles", pageable -> roleRepository.findDTOsByActorId(actorId, pageable));
+  }
+
+  /**
+   * Returns the roles played by the actors with {@code actorIds}, as {@link #getRolesByMovieIds}
+   * does for movies.
+   */
+  public List<RoleDTO> getRolesByActorIds(List<Long> actorIds) {
+    List<Long> ids = pageLimits.ids("actors", actorIds);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return inOrderOf(
+        ids,
+        RoleDTO::actorId,
+        pageLimits.capped("roles", pageable -> roleRepository.findDTOsByActorIdIn(ids, pageable)));
+  }
+
+  /** Returns one page of the roles played by an actor, ordered by ID. */
+  public PagedResponse<RoleDTO> getRolesByActorId(Long actorId, int page, int size) {
+    return PagedResponse.from(
+        roleRepository.findDTOsByActorId(actorId, pageLimits.pageable(page, size)));
   }
 
   public List<RoleDTO> searchRolesByCharacterName(String characterName) {
-    return roleRepository.findByCharacterNameContainingIgnoreCase(characterName).stream()
-        .map(RoleMapper::toDTO)
-        .collect(Collectors.toList());
+    return pageLimits.capped("roles", pageable -> findByCharacterName(characterName, pageable));
+  }
+
+  /** Returns one page of the roles whose character name contains {@code characterName}. */
+  public PagedResponse<RoleDTO> searchRolesByCharacterName(
+      String characterName, int page, int size) {
+    return PagedResponse.from(findByCharacterName(characterName, pageLimits.pageable(page, size)));
+  }
+
+  /** Sorts {@code roles}, ordered by ID, by the position of their {@code key} in {@code ids}. */
+  private static List<RoleDTO> inOrderOf(
+      List<Long> ids, Function<RoleDTO, Long> key, List<RoleDTO> roles) {
+    Map<Long, Integer> positions = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      positions.put(ids.get(i), i);
+    }
+    return roles.stream()
+        .sorted(Comparator.comparing(role -> positions.get(key.apply(role))))
+        .toList();
+  }
+
+  /** Searches the index when it is ready, or the database otherwise. */
+  private Slice<RoleDTO> findByCharacterName(String characterName, Pageable pageable) {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.search(
+          searchIndexes.roles(),
+          characterName,
+          TrigramIndex.ANY_TAG,
+          pageable,
+          roleRepository::findDTOsByIdIn);
+    }
+    return roleRepository.findDTOsByCharacterName(characterName, pageable);
   }
 
   @Transactional
@@ -79,12 +276,68 @@ public class RoleService extends BaseService<Role, Long> {
       role.setActor(actor);
     }
     Role savedRole = roleRepository.save(role);
-    return RoleMapper.toDTO(savedRole);
+    rowCounters.add(Role.class, 1);
+    RoleDTO created = RoleMapper.toDTO(savedRole);
+    searchIndexes.indexRole(created);
+    tableVersions.changed(Role.class);
+    return created;
+  }
+
+  /**
+   * Creates roles in one transaction. The referenced movies and actors are loaded with one query
+   * each, and the roles are inserted in JDBC batches.
+   *
+   * @param allowPartial create the valid roles even if others reference unknown movies or actors
+   */
+  @Transactional
+  public BatchResponse<RoleDTO> createRoles(List<RoleDTO> roleDTOs, boolean allowPartial) {
+    Map<Long, Movie> movies =
+        findReferenced(movieRepository, roleDTOs, RoleDTO::movieId, Movie::getId);
+    Map<Long, Actor> actors =
+        findReferenced(actorRepository, roleDTOs, RoleDTO::actorId, Actor::getId);
+    List<BatchItem<Role>> items = new ArrayList<>(roleDTOs.size());
+    for (RoleDTO roleDTO : roleDTOs) {
+      if (roleDTO == null) {
+        items.add(BatchItem.rejected("Role must not be null"));
+      } else if (roleDTO.movieId() != null && !movies.containsKey(roleDTO.movieId())) {
+        items.add(BatchItem.rejected("Movie not found with ID: " + roleDTO.movieId()));
+      } else if (roleDTO.actorId() != null && !actors.containsKey(roleDTO.actorId())) {
+        items.add(BatchItem.rejected("Actor not found with ID: " + roleDTO.actorId()));
+      } else {
+        items.add(
+            BatchItem.accepted(
+                Role.builder()
+                    .characterName(roleDTO.characterName())
+                    .movie(movies.get(roleDTO.movieId()))
+                    .actor(actors.get(roleDTO.actorId()))
+                    .build()));
+      }
+    }
+    BatchResponse<RoleDTO> response = saveBatch(items, allowPartial, RoleMapper::toDTO);
+    rowCounters.add(Role.class, response.created());
+    response.results().stream()
+        .filter(result -> result.status() == Status.CREATED)
+        .forEach(result -> searchIndexes.indexRole(result.item()));
+    tableVersions.changed(Role.class);
+    return response;
   }
 
   @Transactional
   public RoleDTO updateRole(Long id, RoleDTO roleDTO) {
+    return updateRole(id, roleDTO, null);
+  }
+
+  /**
+   * Updates the role with {@code id} if it still has the entity tag the client read, or
+   * unconditionally when {@code ifMatch} is null.
+   *
+   * @throws com.sample.backend.exception.PreconditionFailedException if the entity tag does not
+   *     match
+   */
+  @Transactional
+  public RoleDTO updateRole(Long id, RoleDTO roleDTO, String ifMatch) {
     Role role = findById(id);
+    checkIfMatch(ifMatch, role.getVersion(), () -> roleRepository.findVersionById(id));
     if (roleDTO.characterName() != null) {
       role.setCharacterName(roleDTO.characterName());
     }
@@ -107,10 +360,19 @@ public class RoleService extends BaseService<Role, Long> {
       role.setActor(actor);
     }
     Role updatedRole = roleRepository.save(role);
-    return RoleMapper.toDTO(updatedRole);
+    RoleDTO updated = RoleMapper.toDTO(updatedRole);
+    searchIndexes.indexRole(updated);
+    dtoCaches.evictRoles(List.of(id));
+    tableVersions.changed(Role.class);
+    return updated;
   }
 
+  @Transactional
   public void deleteRole(Long id) {
     deleteById(id);
+    rowCounters.add(Role.class, -1);
+    searchIndexes.removeRoles(List.of(id));
+    dtoCaches.evictRoles(List.of(id));
+    tableVersions.changed(Role.class);
   }
 }
@@ -0,0 +1,287 @@
+package com.sample.backend.service;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.Facets;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.ReindexResult;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.dto.SearchHit;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.dto.Suggestion;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.FacetQueries;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.search.FullTextIndex.ScoredId;
+import com.sample.backend.search.MovieFilterIndex;
+import com.sample.backend.search.SearchIndexes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+/** Ranked full-text search across movie titles, actor and director names and character names. */
+@Service
+public class SearchService {
+
+  private static final Comparator<Ranked> BEST_FIRST =
+      Comparator.comparingDouble((Ranked ranked) -> ranked.hit().score())
+          .reversed()
+          .thenComparing(ranked -> ranked.type())
+          .thenComparingLong(ranked -> ranked.hit().id());
+
+  private final SearchIndexes searchIndexes;
+  private final MovieRepository movieRepository;
+  private final ActorRepository actorRepository;
+  private final DirectorRepository directorRepository;
+  private final RoleRepository roleRepository;
+  private final PageLimits pageLimits;
+  private final FacetQueries facetQueries;
+
+  public SearchService(
+      SearchIndexes searchIndexes,
+      MovieRepository movieRepository,
+      ActorRepository actorRepository,
+      DirectorRepository directorRepository,
+      RoleRepository roleRepository,
+      PageLimits pageLimits,
+      FacetQueries facetQueries) {
+    this.searchIndexes = searchIndexes;
+    this.movieRepository = movieRepository;
+    this.actorRepository = actorRepository;
+    this.directorRepository = directorRepository;
+    this.roleRepository = roleRepository;
+    this.pageLimits = pageLimits;
+    this.facetQueries = facetQueries;
+  }
+
+  /**
+   * Returns the rows that best match the words of {@code query}, best first. Words are matched
+   * ignoring case, accents and plural endings, and ranked by BM25. When the search indexes are not
+   * ready, the rows containing {@code query} are returned unranked, in ID order per type, with a
+   * score of 0.
+   *
+   * @param types kinds of rows to search; all of them when null or empty
+   * @param limit number of results, reduced to the maximum page size
+   */
+  public List<SearchHit> search(String query, Collection<Type> types, int limit) {
+    Set<Type> searched =
+        types == null || types.isEmpty() ? EnumSet.allOf(Type.class) : EnumSet.copyOf(types);
+    int size = pageLimits.pageSize(limit);
+    if (!searchIndexes.isReady()) {
+      return searchDatabase(query, searched, size);
+    }
+    List<Ranked> ranked = new ArrayList<>();
+    for (Type type : searched) {
+      searchIndexes
+          .fullText(type)
+          .search(query, size)
+          .forEach(hit -> ranked.add(new Ranked(type, hit)));
+    }
+    ranked.sort(BEST_FIRST);
+    List<Ranked> top = ranked.subList(0, Math.min(size, ranked.size()));
+    Map<Type, Map<Long, String>> names = new EnumMap<>(Type.class);
+    for (Type type : searched) {
+      List<Long> ids =
+          top.stream().filter(hit -> hit.type() == type).map(hit -> hit.hit().id()).toList();
+      names.put(type, ids.isEmpty() ? Map.of() : names(type, ids));
+    }
+    return top.stream()
+        .filter(hit -> names.get(hit.type()).containsKey(hit.hit().id()))
+        .map(
+            hit ->
+                SearchHit.builder()
+                    .type(hit.type())
+                    .id(hit.hit().id())
+                    .name(names.get(hit.type()).get(hit.hit().id()))
+                    .score(hit.hit().score())
+                    .build())
+        .toList();
+  }
+
+  /**
+   * Returns the movies, actors and directors whose title or name has a word starting with {@code
+   * prefix}, ignoring case and accents. The ones with the most roles come first, or the most movies
+   * for directors. When the search indexes are not ready, the rows containing {@code prefix} are
+   * returned in ID order per type.
+   *
+   * @param limit number of suggestions, reduced to {@code catalog.search.autocomplete-size}
+   */
+  public List<Suggestion> autocomplete(String prefix, int limit) {
+    if (!searchIndexes.isReady()) {
+      return searchDatabase(
+              prefix, EnumSet.of(Type.MOVIE, Type.ACTOR, Type.DIRECTOR), pageLimits.pageSize(limit))
+          .stream()
+          .map(hit -> Suggestion.builder().type(hit.type()).id(hit.id()).name(hit.name()).build())
+          .toList();
+    }
+    return searchIndexes.autocomplete().complete(prefix, limit).stream()
+        .map(
+            completion ->
+                Suggestion.builder()
+                    .type(completion.type())
+                    .id(completion.id())
+                    .name(completion.text())
+                    .build())
+        .toList();
+  }
+
+  /**
+   * Counts the movies matching {@code filter} per genre, release decade and director, and the
+   * actors and directors per nationality, in one call. When the search indexes are ready the counts
+   * come from their bitmaps and columns, and only the names of the listed directors are read from
+   * the database; otherwise each count is a grouping query.
+   *
+   * @param directorLimit most directors listed, reduced to the maximum page size
+   */
+  public Facets facets(MovieFilter filter, int directorLimit) {
+    int limit = pageLimits.pageSize(directorLimit);
+    if (!searchIndexes.isReady()) {
+      Map<Integer, Long> decades = new TreeMap<>();
+      facetQueries
+          .countMoviesByYear(filter)
+          .forEach((year, count) -> decades.merge(Math.floorDiv(year, 10) * 10, count, Long::sum));
+      return Facets.builder()
+          .movies(facetQueries.countMovies(filter))
+          .genres(counts(facetQueries.countMoviesByGenre(filter)))
+          .decades(counts(decades))
+          .directors(facetQueries.countMoviesByDirector(filter, limit))
+          .actorNationalities(counts(facetQueries.countByNationality(Actor.class)))
+          .directorNationalities(counts(facetQueries.countByNationality(Director.class)))
+          .build();
+    }
+    MovieFilterIndex.Facets movies = searchIndexes.movieFilter().facets(filter, limit);
+    Map<Genre, Long> genres = new LinkedHashMap<>();
+    Arrays.stream(Genre.values())
+        .filter(genre -> movies.genres()[genre.ordinal()] > 0)
+        .sorted(
+            Comparator.comparingLong((Genre genre) -> -movies.genres()[genre.ordinal()])
+                .thenComparing(Genre::name))
+        .forEach(genre -> genres.put(genre, movies.genres()[genre.ordinal()]));
+    List<Long> directorIds = LongStream.of(movies.directorIds()).boxed().toList();
+    Map<Long, String> directorNames =
+        directorIds.isEmpty() ? Map.of() : names(Type.DIRECTOR, directorIds);
+    List<FacetCount> directors = new ArrayList<>(directorIds.size());
+    for (int i = 0; i < directorIds.size(); i++) {
+      directors.add(
+          FacetCount.builder()
+              .value(directorIds.get(i).toString())
+              .label(directorNames.get(directorIds.get(i)))
+              .count(movies.directorCounts()[i])
+              .build());
+    }
+    return Facets.builder()
+        .movies(movies.total())
+        .genres(counts(genres))
+        .decades(counts(movies.decades()))
+        .directors(directors)
+        .actorNationalities(counts(searchIndexes.nationalities(Type.ACTOR).counts()))
+        .directorNationalities(counts(searchIndexes.nationalities(Type.DIRECTOR).counts()))
+        .build();
+  }
+
+  /**
+   * Rebuilds the search indexes from the database.
+   *
+   * @throws BadRequestException if search is disabled
+   */
+  public ReindexResult reindex() {
+    ReindexResult result = searchIndexes.rebuild();
+    if (result == null) {
+      throw new BadRequestException("Search indexes are disabled by catalog.search.enabled");
+    }
+    return result;
+  }
+
+  private Map<Long, String> names(Type type, List<Long> ids) {
+    return switch (type) {
+      case MOVIE -> byId(movieRepository.findDTOsByIdIn(ids), MovieDTO::id, MovieDTO::title);
+      case ACTOR ->
+          byId(
+              actorRepository.findDTOsByIdIn(ids),
+              ActorDTO::id,
+              actor -> actor.firstName() + " " + actor.lastName());
+      case DIRECTOR ->
+          byId(
+              directorRepository.findDTOsByIdIn(ids),
+              DirectorDTO::id,
+              director -> director.firstName() + " " + director.lastName());
+      case ROLE -> byId(roleRepository.findDTOsByIdIn(ids), RoleDTO::id, RoleDTO::characterName);
+    };
+  }
+
+  private List<SearchHit> searchDatabase(String query, Set<Type> types, int size) {
+    Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
+    List<SearchHit> hits = new ArrayList<>();
+    for (Type type : types) {
+      Map<Long, String> names =
+          switch (type) {
+            case MOVIE ->
+                byId(
+                    movieRepository.findDTOsByTitle(query, pageable).getContent(),
+                    MovieDTO::id,
+                    MovieDTO::title);
+            case ACTOR ->
+                byId(
+                    actorRepository.findDTOSliceByName(query, pageable).getContent(),
+                    ActorDTO::id,
+                    actor -> actor.firstName() + " " + actor.lastName());
+            case DIRECTOR ->
+                byId(
+                    directorRepository.findDTOsByName(query, pageable).getContent(),
+                    DirectorDTO::id,
+                    director -> director.firstName() + " " + director.lastName());
+            case ROLE ->
+                byId(
+                    roleRepository.findDTOsByCharacterName(query, pageable).getContent(),
+                    RoleDTO::id,
+                    RoleDTO::characterName);
+          };
+      names.forEach(
+          (id, name) ->
+              hits.add(SearchHit.builder().type(type).id(id).name(name).score(0).build()));
+    }
+    return hits.subList(0, Math.min(size, hits.size()));
+  }
+
+  private static List<FacetCount> counts(Map<?, Long> counts) {
+    return counts.entrySet().stream()
+        .map(
+            count ->
+                FacetCount.builder()
+                    .value(count.getKey().toString())
+                    .count(count.getValue())
+                    .build())
+        .toList();
+  }
+
+  private static <D> Map<Long, String> byId(
+      List<D> rows, Function<D, Long> id, Function<D, String> name) {
+    Map<Long, String> names = new LinkedHashMap<>();
+    rows.forEach(row -> names.put(id.apply(row), name.apply(row)));
+    return names;
+  }
+
+  private record Ranked(Type type, ScoredId hit) {}
+}
@@ -0,0 +1,128 @@
+package com.sample.backend.service;
+
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.DirectorOutput;
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.GenreRuntime;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.search.MovieFilterIndex;
+import com.sample.backend.search.MovieStatistics;
+import com.sample.backend.search.SearchIndexes;
+import com.sample.backend.search.SearchProperties;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Movie statistics computed over the columnar projection of the movies kept by the search indexes,
+ * which is refreshed after each committed write. While the indexes are not ready, a transient
+ * projection is built from one read of the movie DTOs.
+ */
+@Service
+public class StatisticsService {
+
+  private final SearchIndexes searchIndexes;
+  private final SearchProperties searchProperties;
+  private final MovieRepository movieRepository;
+  private final DirectorRepository directorRepository;
+
+  public StatisticsService(
+      SearchIndexes searchIndexes,
+      SearchProperties searchProperties,
+      MovieRepository movieRepository,
+      DirectorRepository directorRepository) {
+    this.searchIndexes = searchIndexes;
+    this.searchProperties = searchProperties;
+    this.movieRepository = movieRepository;
+    this.directorRepository = directorRepository;
+  }
+
+  /**
+   * Returns the runtime of each genre with a movie of known duration, in genre order.
+   *
+   * @param percentiles percentages to report
+   * @throws BadRequestException if a percentage is not between 0 and 100
+   */
+  public List<GenreRuntime> runtimeByGenre(List<Integer> percentiles) {
+    int[] percentages = percentiles.stream().mapToInt(Integer::intValue).toArray();
+    for (int percentage : percentages) {
+      if (percentage < 0 || percentage > 100) {
+        throw new BadRequestException("Percentiles must be between 0 and 100, got: " + percentage);
+      }
+    }
+    return movies().runtimeByGenre(percentages).stream()
+        .map(
+            runtime ->
+                GenreRuntime.builder()
+                    .genre(runtime.genre())
+                    .movies(runtime.movies())
+                    .averageMinutes(runtime.averageMinutes())
+                    .minMinutes(runtime.minMinutes())
+                    .maxMinutes(runtime.maxMinutes())
+                    .percentiles(runtime.percentiles())
+                    .longestTitle(runtime.longestTitle())
+                    .build())
+        .toList();
+  }
+
+  /**
+   * Returns the number of movies released in each year, oldest first.
+   *
+   * @param genre the genre counted, or null for every movie
+   */
+  public List<FacetCount> releasesByYear(Genre genre) {
+    return counts(movies().releasesByYear(genre));
+  }
+
+  /**
+   * Returns the movies of a director per release year.
+   *
+   * @throws EntityNotFoundException if the director does not exist
+   */
+  public DirectorOutput directorOutput(Long directorId) {
+    DirectorDTO director =
+        directorRepository
+            .findDTOById(directorId)
+            .orElseThrow(
+                () -> new EntityNotFoundException("Director not found with ID: " + directorId));
+    MovieStatistics.DirectorOutput output = movies().directorOutput(directorId);
+    return DirectorOutput.builder()
+        .directorId(directorId)
+        .directorName(director.firstName() + " " + director.lastName())
+        .movies(output.movies())
+        .averageMinutes(output.averageMinutes())
+        .years(counts(output.years()))
+        .build();
+  }
+
+  private MovieFilterIndex movies() {
+    if (searchIndexes.isReady()) {
+      return searchIndexes.movieFilter();
+    }
+    MovieFilterIndex movies = new MovieFilterIndex(searchProperties.statisticsParallelThreshold());
+    for (MovieDTO movie : movieRepository.findAllDTOs(Pageable.unpaged())) {
+      movies.put(
+          movie.id(),
+          movie.title(),
+          movie.genre(),
+          movie.releaseDate(),
+          movie.durationMinutes(),
+          movie.directorId());
+    }
+    return movies;
+  }
+
+  private static List<FacetCount> counts(Map<Integer, Long> years) {
+    return years.entrySet().stream()
+        .map(
+            year ->
+                FacetCount.builder().value(year.getKey().toString()).count(year.getValue()).build())
+        .toList();
+  }
+}
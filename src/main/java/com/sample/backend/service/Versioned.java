@@ -0,0 +1,45 @@
+package com.sample.backend.service;
+
+import com.sample.backend.repository.RowVersion;
+import com.sample.backend.repository.VersionStamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A DTO with the version stamp it was read at, so a conditional request is answered from the pair
+ * without reading the row again.
+ */
+public record Versioned<D>(D dto, VersionStamp stamp) {
+
+  /**
+   * Reads the rows with {@code ids} with one query for their stamps and then one for the DTOs of
+   * those found, so no stamp is newer than its DTO. A row missing from either read, such as one
+   * deleted between them, is left out.
+   *
+   * @return the rows found by id
+   */
+  static <D> Map<Long, Versioned<D>> read(
+      Collection<Long> ids,
+      Function<Collection<Long>, List<RowVersion>> stamps,
+      Function<Collection<Long>, List<D>> dtos,
+      Function<D, Long> id) {
+    Map<Long, VersionStamp> stampsById = new HashMap<>();
+    for (RowVersion row : stamps.apply(ids)) {
+      stampsById.put(row.id(), row.stamp());
+    }
+    Map<Long, Versioned<D>> versioned = new HashMap<>();
+    if (stampsById.isEmpty()) {
+      return versioned;
+    }
+    for (D dto : dtos.apply(stampsById.keySet())) {
+      VersionStamp stamp = stampsById.get(id.apply(dto));
+      if (stamp != null) {
+        versioned.put(id.apply(dto), new Versioned<>(dto, stamp));
+      }
+    }
+    return versioned;
+  }
+}
@@ -4,9 +4,9 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -18,24 +18,39 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.BatchItemResult;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
 import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
 import com.sample.backend.service.ActorService;
+import com.sample.backend.service.DtoCaches;
+import com.sample.backend.service.Versioned;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(ActorController.class)
+@Import({TableVersions.class, SerializedResponses.class})
 class ActorControllerTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(3L, Instant.EPOCH);
+
   @Autowired private MockMvc mockMvc;
   @MockitoBean private ActorService actorService;
+  @MockitoBean private DtoCaches dtoCaches;
   private ObjectMapper objectMapper;
   private ActorDTO actorDTO;
 
@@ -74,9 +89,75 @@ class ActorControllerTest {
         .andExpect(jsonPath("$.content[0].nationality", is("American")));
   }
 
+  @Test
+  void getAllActors_WithFields_ShouldReturnOnlyThoseFields() throws Exception {
+    when(actorService.getAllActors("id,lastName", 0, 10, "id", "asc"))
+        .thenReturn(
+            new PagedResponse<>(
+                List.of(Map.of("id", 1L, "lastName", "Pitt")), 0, 10, 1, 1, true, true));
+    mockMvc
+        .perform(get("/api/actors").param("fields", "id,lastName"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].lastName", is("Pitt")))
+        .andExpect(jsonPath("$.content[0].firstName").doesNotExist());
+  }
+
+  @Test
+  void getAllActors_ShouldOmitCursors_WhenPagingByPageNumber() throws Exception {
+    when(actorService.getAllActors(0, 10, "id", "asc"))
+        .thenReturn(new PagedResponse<>(List.of(actorDTO), 0, 10, 1, 1, true, true));
+    mockMvc
+        .perform(get("/api/actors"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.next").doesNotExist())
+        .andExpect(jsonPath("$.prev").doesNotExist());
+  }
+
+  @Test
+  void scrollActors_ShouldReturnCursorPage_WhenCursorGiven() throws Exception {
+    PagedResponse<ActorDTO> pagedResponse =
+        new PagedResponse<>(
+            List.of(actorDTO), -1, 20, -1, -1, false, false, "bmV4dA", "cHJldg", false);
+    when(actorService.scrollActors("abc", 20, "id", "asc")).thenReturn(pagedResponse);
+    mockMvc
+        .perform(get("/api/actors").param("cursor", "abc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id", is(1)))
+        .andExpect(jsonPath("$.next", is("bmV4dA")))
+        .andExpect(jsonPath("$.prev", is("cHJldg")));
+  }
+
+  @Test
+  void scrollActors_ShouldReturnBadRequest_WhenPageIsGivenToo() throws Exception {
+    mockMvc
+        .perform(get("/api/actors").param("page", "0").param("cursor", "x"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Page by either page or cursor, not both")));
+  }
+
+  @Test
+  void scrollActors_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+    when(actorService.scrollActors("bad", 20, "id", "asc"))
+        .thenThrow(new BadRequestException("Invalid cursor: bad"));
+    mockMvc
+        .perform(get("/api/actors").param("cursor", "bad"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Invalid cursor: bad")));
+  }
+
+  @Test
+  void getActorsByIds_ShouldReturnBadRequest_WhenFieldsAreRequested() throws Exception {
+    mockMvc
+        .perform(get("/api/actors").param("ids", "1,2").param("fields", "id"))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath(
+                "$.message", is("Select fields of a page or of all rows, not of rows by ids")));
+  }
+
   @Test
   void getActorById_ShouldReturnActor_WhenActorExists() throws Exception {
-    when(actorService.getActorById(1L)).thenReturn(actorDTO);
+    when(actorService.getVersionedActor(1L)).thenReturn(new Versioned<>(actorDTO, STAMP));
     mockMvc
         .perform(get("/api/actors/1"))
         .andExpect(status().isOk())
@@ -88,16 +169,35 @@ class ActorControllerTest {
 
   @Test
   void getActorById_ShouldReturnNotFound_WhenActorDoesNotExist() throws Exception {
-    when(actorService.getActorById(99L))
+    when(actorService.getVersionedActor(99L))
         .thenThrow(new EntityNotFoundException("Actor not found with ID: 99"));
     mockMvc.perform(get("/api/actors/99")).andExpect(status().isNotFound());
   }
 
+  @Test
+  void searchActors_ShouldMarkApproximateTotal_WhenInexactCountRequested() throws Exception {
+    PagedResponse<ActorDTO> response =
+        PagedResponse.<ActorDTO>builder()
+            .content(List.of(actorDTO))
+            .size(10)
+            .totalElements(10000)
+            .totalPages(1000)
+            .first(true)
+            .approximate(true)
+            .build();
+    when(actorService.searchActors("Pit", 0, 10, false)).thenReturn(response);
+    mockMvc
+        .perform(get("/api/actors/search").param("name", "Pit").param("exact", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalElements", is(10000)))
+        .andExpect(jsonPath("$.approximate", is(true)));
+  }
+
   @Test
   void searchActors_ShouldReturnMatchingActors() throws Exception {
     PagedResponse<ActorDTO> response =
         new PagedResponse<>(List.of(actorDTO), 1, 1, 1, 0, true, false);
-    when(actorService.searchActors(eq("Pit"), anyInt(), anyInt())).thenReturn(response);
+    when(actorService.searchActors(eq("Pit"), anyInt(), anyInt(), eq(true))).thenReturn(response);
     mockMvc
         .perform(get("/api/actors/search?name=Pit"))
         .andExpect(status().isOk())
@@ -105,7 +205,8 @@ class ActorControllerTest {
         .andExpect(jsonPath("$.content[0].id", is(1)))
         .andExpect(jsonPath("$.content[0].firstName", is("Brad")))
         .andExpect(jsonPath("$.content[0].lastName", is("Pitt")))
-        .andExpect(jsonPath("$.totalElements", is(1)));
+        .andExpect(jsonPath("$.totalElements", is(1)))
+        .andExpect(jsonPath("$.approximate").doesNotExist());
   }
 
   @Test
@@ -138,6 +239,69 @@ class ActorControllerTest {
         .andExpect(jsonPath("$.nationality", is("American")));
   }
 
+  @Test
+  void createActors_ShouldReturnCreated_WhenEveryActorIsCreated() throws Exception {
+    BatchResponse<ActorDTO> response =
+        BatchResponse.<ActorDTO>builder()
+            .results(List.of(BatchItemResult.created(0, actorDTO)))
+            .created(1)
+            .build();
+    when(actorService.createActors(anyList(), eq(false))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/actors/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(actorDTO))))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.created", is(1)))
+        .andExpect(jsonPath("$.results[0].item.lastName", is("Pitt")));
+  }
+
+  @Test
+  void createActors_ShouldReturnBadRequest_WhenAnyActorIsInvalid() throws Exception {
+    BatchResponse<ActorDTO> response =
+        BatchResponse.<ActorDTO>builder()
+            .results(
+                List.of(
+                    BatchItemResult.skipped(0),
+                    BatchItemResult.failed(1, "Actor must not be null")))
+            .failed(1)
+            .build();
+    when(actorService.createActors(anyList(), eq(false))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/actors/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + objectMapper.writeValueAsString(actorDTO) + ", null]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.created", is(0)))
+        .andExpect(jsonPath("$.results[0].status", is("SKIPPED")))
+        .andExpect(jsonPath("$.results[1].error", is("Actor must not be null")));
+  }
+
+  @Test
+  void createActors_ShouldReturnMultiStatus_WhenPartialFailureIsAllowed() throws Exception {
+    BatchResponse<ActorDTO> response =
+        BatchResponse.<ActorDTO>builder()
+            .results(
+                List.of(
+                    BatchItemResult.failed(0, "Actor must not be null"),
+                    BatchItemResult.created(1, actorDTO)))
+            .created(1)
+            .failed(1)
+            .build();
+    when(actorService.createActors(anyList(), eq(true))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/actors/batch")
+                .param("allowPartial", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null, " + objectMapper.writeValueAsString(actorDTO) + "]"))
+        .andExpect(status().isMultiStatus())
+        .andExpect(jsonPath("$.results[0].status", is("FAILED")))
+        .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+  }
+
   @Test
   void updateActor_ShouldReturnUpdatedActor_WhenActorExists() throws Exception {
     ActorDTO updateActor =
@@ -155,7 +319,7 @@ class ActorControllerTest {
             .birthDate(LocalDate.of(1963, 12, 18))
             .nationality("American")
             .build();
-    when(actorService.updateActor(eq(1L), any(ActorDTO.class))).thenReturn(updatedActor);
+    when(actorService.updateActor(eq(1L), any(ActorDTO.class), isNull())).thenReturn(updatedActor);
     mockMvc
         .perform(
             put("/api/actors/1")
@@ -176,7 +340,7 @@ class ActorControllerTest {
             .birthDate(LocalDate.of(1963, 12, 18))
             .nationality("American")
             .build();
-    when(actorService.updateActor(eq(99L), any(ActorDTO.class)))
+    when(actorService.updateActor(eq(99L), any(ActorDTO.class), isNull()))
         .thenThrow(new EntityNotFoundException("Actor not found with ID: 99"));
     mockMvc
         .perform(
@@ -187,16 +351,20 @@ class ActorControllerTest {
   }
 
   @Test
-  void deleteActor_ShouldReturnNoContent_WhenActorExists() throws Exception {
-    doNothing().when(actorService).deleteActor(1L);
-    mockMvc.perform(delete("/api/actors/1")).andExpect(status().isNoContent());
+  void deleteActor_ShouldReturnDeletedCounts_WhenActorExists() throws Exception {
+    when(actorService.deleteActor(1L))
+        .thenReturn(DeletionResult.builder().actors(1).roles(3).build());
+    mockMvc
+        .perform(delete("/api/actors/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.actors", is(1)))
+        .andExpect(jsonPath("$.roles", is(3)));
   }
 
   @Test
   void deleteActor_ShouldReturnNotFound_WhenActorDoesNotExist() throws Exception {
-    doThrow(new EntityNotFoundException("Actor not found with ID: 99"))
-        .when(actorService)
-        .deleteActor(99L);
+    when(actorService.deleteActor(99L))
+        .thenThrow(new EntityNotFoundException("Actor not found with ID: 99"));
     mockMvc.perform(delete("/api/actors/99")).andExpect(status().isNotFound());
   }
 }
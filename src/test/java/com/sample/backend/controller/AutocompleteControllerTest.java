@@ -0,0 +1,51 @@
+package com.sample.backend.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.dto.Suggestion;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.service.SearchService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(AutocompleteController.class)
+@Import(TableVersions.class)
+class AutocompleteControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private SearchService searchService;
+
+  @Test
+  void autocomplete_ShouldReturnSuggestions() throws Exception {
+    when(searchService.autocomplete("dark kn", 10))
+        .thenReturn(
+            List.of(Suggestion.builder().type(Type.MOVIE).id(2L).name("The Dark Knight").build()));
+    mockMvc
+        .perform(get("/api/autocomplete").param("q", "dark kn"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].type", is("MOVIE")))
+        .andExpect(jsonPath("$[0].id", is(2)))
+        .andExpect(jsonPath("$[0].name", is("The Dark Knight")));
+  }
+
+  @Test
+  void autocomplete_ShouldPassTheLimit() throws Exception {
+    when(searchService.autocomplete("chr", 3)).thenReturn(List.of());
+    mockMvc
+        .perform(get("/api/autocomplete").param("q", "chr").param("limit", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(0)));
+  }
+}
@@ -0,0 +1,79 @@
+package com.sample.backend.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.dto.ActorPath;
+import com.sample.backend.dto.CoStar;
+import com.sample.backend.dto.PathStep;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.service.CoStarService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(CoStarController.class)
+@Import(TableVersions.class)
+class CoStarControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private CoStarService coStarService;
+
+  @Test
+  void getCoStars_ShouldPassTheLimit() throws Exception {
+    when(coStarService.getCoStars(1L, 5))
+        .thenReturn(
+            List.of(
+                CoStar.builder()
+                    .actorId(2L)
+                    .firstName("Christian")
+                    .lastName("Bale")
+                    .sharedMovies(1)
+                    .build()));
+    mockMvc
+        .perform(get("/api/actors/1/costars").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].lastName", is("Bale")))
+        .andExpect(jsonPath("$[0].sharedMovies", is(1)));
+  }
+
+  @Test
+  void findPath_ShouldReturnTheChain() throws Exception {
+    when(coStarService.findPath(1L, 2L, 6))
+        .thenReturn(
+            ActorPath.builder()
+                .connected(true)
+                .degrees(1)
+                .steps(
+                    List.of(
+                        new PathStep(Type.ACTOR, 1L, "Leonardo DiCaprio"),
+                        new PathStep(Type.MOVIE, 2L, "The Dark Knight"),
+                        new PathStep(Type.ACTOR, 2L, "Christian Bale")))
+                .build());
+    mockMvc
+        .perform(get("/api/actors/1/path/2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.degrees", is(1)))
+        .andExpect(jsonPath("$.steps", hasSize(3)))
+        .andExpect(jsonPath("$.steps[1].type", is("MOVIE")))
+        .andExpect(jsonPath("$.steps[1].name", is("The Dark Knight")));
+  }
+
+  @Test
+  void getCoStars_ShouldReturnNotFound_WhenActorDoesNotExist() throws Exception {
+    when(coStarService.getCoStars(99L, 20))
+        .thenThrow(new EntityNotFoundException("Actor not found with ID: 99"));
+    mockMvc.perform(get("/api/actors/99/costars")).andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,154 @@
+package com.sample.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional-requests-test")
+@AutoConfigureMockMvc
+@DirtiesContext
+class ConditionalRequestsTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Test
+  void getById_WithCurrentTag_ShouldReturnNotModified() throws Exception {
+    String etag = etag("/api/roles/3");
+
+    mockMvc
+        .perform(get("/api/roles/3").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag));
+  }
+
+  @Test
+  void directorUpdate_ShouldChangeTheirMoviesTag() throws Exception {
+    String etag = etag("/api/movies/2");
+
+    mockMvc
+        .perform(
+            put("/api/directors/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nationality\":\"English\"}"))
+        .andExpect(status().isOk());
+
+    String changed =
+        mockMvc
+            .perform(get("/api/movies/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotEquals(etag, changed);
+  }
+
+  @Test
+  void movieDetails_ShouldReturnNotModifiedUntilTheCastChanges() throws Exception {
+    String etag = etag("/api/movies/3/full");
+    mockMvc
+        .perform(get("/api/movies/3/full").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+
+    mockMvc
+        .perform(
+            put("/api/actors/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nationality\":\"US\"}"))
+        .andExpect(status().isOk());
+
+    String changed =
+        mockMvc
+            .perform(get("/api/movies/3/full").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cast[0].actor.nationality").value("US"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotEquals(etag, changed);
+  }
+
+  @Test
+  void list_ShouldReturnNotModifiedUntilATableItShowsChanges() throws Exception {
+    String etag = etag("/api/actors");
+    mockMvc
+        .perform(get("/api/actors").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+    // Directors are not shown in the actor list.
+    mockMvc
+        .perform(
+            post("/api/directors")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"firstName\":\"Greta\",\"lastName\":\"Gerwig\",\"birthDate\":\"1983-08-04\","
+                        + "\"nationality\":\"American\"}"))
+        .andExpect(status().isCreated());
+    mockMvc
+        .perform(get("/api/actors").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+
+    mockMvc
+        .perform(
+            post("/api/actors")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"firstName\":\"Saoirse\",\"lastName\":\"Ronan\",\"birthDate\":\"1994-04-12\","
+                        + "\"nationality\":\"Irish\"}"))
+        .andExpect(status().isCreated());
+
+    mockMvc
+        .perform(get("/api/actors").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void update_WithStaleTag_ShouldFailThePrecondition() throws Exception {
+    String etag = etag("/api/movies/3");
+    mockMvc
+        .perform(
+            patch("/api/movies/3")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"durationMinutes\":155}"))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            patch("/api/movies/3")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"durationMinutes\":160}"))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.error").value("Precondition Failed"));
+    mockMvc
+        .perform(get("/api/movies/3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.durationMinutes").value(155));
+  }
+
+  private String etag(String uri) throws Exception {
+    String etag =
+        mockMvc
+            .perform(get(uri))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotNull(etag);
+    return etag;
+  }
+}
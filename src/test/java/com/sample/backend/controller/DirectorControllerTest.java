@@ -3,9 +3,11 @@ package com.sample.backend.controller;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -16,22 +18,33 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sample.backend.dto.BatchItemResult;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.DirectorDTO;
 import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
 import com.sample.backend.service.DirectorService;
+import com.sample.backend.service.Versioned;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(DirectorController.class)
+@Import(TableVersions.class)
 class DirectorControllerTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(3L, Instant.EPOCH);
+
   @Autowired private MockMvc mockMvc;
   @MockitoBean private DirectorService directorService;
   private ObjectMapper objectMapper;
@@ -64,9 +77,27 @@ class DirectorControllerTest {
         .andExpect(jsonPath("$[0].nationality", is("American")));
   }
 
+  @Test
+  void getDirectors_ShouldReturnBadRequest_WhenBothPageAndCursorGiven() throws Exception {
+    mockMvc
+        .perform(get("/api/directors").param("page", "0").param("cursor", "x"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Page by either page or cursor, not both")));
+  }
+
+  @Test
+  void getDirectorsByIds_ShouldReturnBadRequest_WhenFieldsAreRequested() throws Exception {
+    mockMvc
+        .perform(get("/api/directors").param("ids", "1,2").param("fields", "id"))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath(
+                "$.message", is("Select fields of a page or of all rows, not of rows by ids")));
+  }
+
   @Test
   void getDirectorById_ShouldReturnDirector_WhenDirectorExists() throws Exception {
-    when(directorService.getDirectorById(1L)).thenReturn(directorDTO);
+    when(directorService.getVersionedDirector(1L)).thenReturn(new Versioned<>(directorDTO, STAMP));
     mockMvc
         .perform(get("/api/directors/1"))
         .andExpect(status().isOk())
@@ -78,7 +109,7 @@ class DirectorControllerTest {
 
   @Test
   void getDirectorById_ShouldReturnNotFound_WhenDirectorDoesNotExist() throws Exception {
-    when(directorService.getDirectorById(99L))
+    when(directorService.getVersionedDirector(99L))
         .thenThrow(new EntityNotFoundException("Director not found with ID: 99"));
     mockMvc.perform(get("/api/directors/99")).andExpect(status().isNotFound());
   }
@@ -95,6 +126,17 @@ class DirectorControllerTest {
         .andExpect(jsonPath("$[0].lastName", is("Spielberg")));
   }
 
+  @Test
+  void searchDirectors_ShouldMatchFuzzilyWhenAsked() throws Exception {
+    when(directorService.fuzzySearchDirectors("Spielbrg")).thenReturn(List.of(directorDTO));
+    mockMvc
+        .perform(get("/api/directors/search?name=Spielbrg&fuzzy=true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].lastName", is("Spielberg")));
+    verify(directorService, never()).searchDirectors("Spielbrg");
+  }
+
   @Test
   void createDirector_ShouldReturnCreatedDirector() throws Exception {
     DirectorDTO newDirector =
@@ -125,6 +167,69 @@ class DirectorControllerTest {
         .andExpect(jsonPath("$.nationality", is("American")));
   }
 
+  @Test
+  void createDirectors_ShouldReturnCreated_WhenEveryDirectorIsCreated() throws Exception {
+    BatchResponse<DirectorDTO> response =
+        BatchResponse.<DirectorDTO>builder()
+            .results(List.of(BatchItemResult.created(0, directorDTO)))
+            .created(1)
+            .build();
+    when(directorService.createDirectors(anyList(), eq(false))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/directors/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(directorDTO))))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.created", is(1)))
+        .andExpect(jsonPath("$.results[0].item.lastName", is("Spielberg")));
+  }
+
+  @Test
+  void createDirectors_ShouldReturnBadRequest_WhenAnyDirectorIsInvalid() throws Exception {
+    BatchResponse<DirectorDTO> response =
+        BatchResponse.<DirectorDTO>builder()
+            .results(
+                List.of(
+                    BatchItemResult.skipped(0),
+                    BatchItemResult.failed(1, "Director must not be null")))
+            .failed(1)
+            .build();
+    when(directorService.createDirectors(anyList(), eq(false))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/directors/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + objectMapper.writeValueAsString(directorDTO) + ", null]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.created", is(0)))
+        .andExpect(jsonPath("$.results[0].status", is("SKIPPED")))
+        .andExpect(jsonPath("$.results[1].error", is("Director must not be null")));
+  }
+
+  @Test
+  void createDirectors_ShouldReturnMultiStatus_WhenPartialFailureIsAllowed() throws Exception {
+    BatchResponse<DirectorDTO> response =
+        BatchResponse.<DirectorDTO>builder()
+            .results(
+                List.of(
+                    BatchItemResult.failed(0, "Director must not be null"),
+                    BatchItemResult.created(1, directorDTO)))
+            .created(1)
+            .failed(1)
+            .build();
+    when(directorService.createDirectors(anyList(), eq(true))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/directors/batch")
+                .param("allowPartial", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null, " + objectMapper.writeValueAsString(directorDTO) + "]"))
+        .andExpect(status().isMultiStatus())
+        .andExpect(jsonPath("$.results[0].status", is("FAILED")))
+        .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+  }
+
   @Test
   void updateDirector_ShouldReturnUpdatedDirector_WhenDirectorExists() throws Exception {
     DirectorDTO updateDirector =
@@ -142,7 +247,7 @@ class DirectorControllerTest {
             .birthDate(LocalDate.of(1946, 12, 18))
             .nationality("American")
             .build();
-    when(directorService.updateDirector(eq(1L), any(DirectorDTO.class)))
+    when(directorService.updateDirector(eq(1L), any(DirectorDTO.class), isNull()))
         .thenReturn(updatedDirector);
     mockMvc
         .perform(
@@ -164,7 +269,7 @@ class DirectorControllerTest {
             .birthDate(LocalDate.of(1946, 12, 18))
             .nationality("American")
             .build();
-    when(directorService.updateDirector(eq(99L), any(DirectorDTO.class)))
+    when(directorService.updateDirector(eq(99L), any(DirectorDTO.class), isNull()))
         .thenThrow(new EntityNotFoundException("Director not found with ID: 99"));
     mockMvc
         .perform(
@@ -175,16 +280,21 @@ class DirectorControllerTest {
   }
 
   @Test
-  void deleteDirector_ShouldReturnNoContent_WhenDirectorExists() throws Exception {
-    doNothing().when(directorService).deleteDirector(1L);
-    mockMvc.perform(delete("/api/directors/1")).andExpect(status().isNoContent());
+  void deleteDirector_ShouldReturnDeletedCounts_WhenDirectorExists() throws Exception {
+    when(directorService.deleteDirector(1L))
+        .thenReturn(DeletionResult.builder().directors(1).movies(5).roles(25).build());
+    mockMvc
+        .perform(delete("/api/directors/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.directors", is(1)))
+        .andExpect(jsonPath("$.movies", is(5)))
+        .andExpect(jsonPath("$.roles", is(25)));
   }
 
   @Test
   void deleteDirector_ShouldReturnNotFound_WhenDirectorDoesNotExist() throws Exception {
-    doThrow(new EntityNotFoundException("Director not found with ID: 99"))
-        .when(directorService)
-        .deleteDirector(99L);
+    when(directorService.deleteDirector(99L))
+        .thenThrow(new EntityNotFoundException("Director not found with ID: 99"));
     mockMvc.perform(delete("/api/directors/99")).andExpect(status().isNotFound());
   }
 }
@@ -4,40 +4,59 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sample.backend.dto.CastMember;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieDetails;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.model.Genre;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.service.DtoCaches;
 import com.sample.backend.service.MovieService;
+import com.sample.backend.service.Versioned;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(MovieController.class)
+@Import({TableVersions.class, SerializedResponses.class})
 class MovieControllerTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(3L, Instant.EPOCH);
+
   @Autowired private MockMvc mockMvc;
   @MockitoBean private MovieService movieService;
+  @MockitoBean private DtoCaches dtoCaches;
   private ObjectMapper objectMapper;
   private MovieDTO movieDTO;
 
@@ -70,21 +89,202 @@ class MovieControllerTest {
         .andExpect(jsonPath("$[0].directorName", is("Christopher Nolan")));
   }
 
+  @Test
+  void scrollMovies_ShouldReturnFirstCursorPage_WhenCursorIsEmpty() throws Exception {
+    when(movieService.scrollMovies("", 2, "releaseDate", "desc"))
+        .thenReturn(
+            PagedResponse.<MovieDTO>builder()
+                .content(List.of(movieDTO))
+                .page(-1)
+                .size(2)
+                .totalElements(-1)
+                .totalPages(-1)
+                .first(true)
+                .last(false)
+                .next("bmV4dA")
+                .build());
+    mockMvc
+        .perform(
+            get("/api/movies")
+                .param("cursor", "")
+                .param("size", "2")
+                .param("sort", "releaseDate")
+                .param("direction", "desc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].title", is("Interstellar")))
+        .andExpect(jsonPath("$.next", is("bmV4dA")))
+        .andExpect(jsonPath("$.prev").doesNotExist());
+  }
+
+  @Test
+  void getMovies_ShouldReturnPageWithoutTotals_WhenPageRequested() throws Exception {
+    when(movieService.getMovies(1, 5, "title", "asc"))
+        .thenReturn(new PagedResponse<>(List.of(movieDTO), 1, 5, -1, -1, false, true));
+    mockMvc
+        .perform(get("/api/movies").param("page", "1").param("size", "5").param("sort", "title"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].title", is("Interstellar")))
+        .andExpect(jsonPath("$.page", is(1)))
+        .andExpect(jsonPath("$.totalElements", is(-1)));
+  }
+
+  @Test
+  void getMovies_ShouldReturnBadRequest_WhenBothPageAndCursorGiven() throws Exception {
+    mockMvc
+        .perform(get("/api/movies").param("page", "0").param("cursor", "x"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Page by either page or cursor, not both")));
+    mockMvc
+        .perform(get("/api/movies").param("fields", "id").param("page", "0").param("cursor", ""))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getAllMovies_ShouldReturnBadRequest_WhenMoreMoviesThanTheListLimit() throws Exception {
+    when(movieService.getAllMovies())
+        .thenThrow(new BadRequestException("More than 1000 movies match"));
+    mockMvc
+        .perform(get("/api/movies"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("More than 1000 movies match")));
+  }
+
+  @Test
+  void searchMovies_ShouldReturnPage_WhenPageRequested() throws Exception {
+    when(movieService.searchMovies("Inter", null, 0, 20))
+        .thenReturn(new PagedResponse<>(List.of(movieDTO), 0, 20, -1, -1, true, true));
+    mockMvc
+        .perform(get("/api/movies/search").param("title", "Inter").param("page", "0"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", hasSize(1)))
+        .andExpect(jsonPath("$.last", is(true)));
+  }
+
+  @Test
+  void filterMovies_ShouldPassEveryPredicateToTheService() throws Exception {
+    MovieFilter filter =
+        MovieFilter.builder()
+            .genres(Set.of(Genre.SCI_FI, Genre.ACTION))
+            .releasedFrom(LocalDate.of(2000, 1, 1))
+            .maxDuration(150)
+            .directorIds(Set.of(1L))
+            .build();
+    when(movieService.filterMovies(filter, 0, 20))
+        .thenReturn(new PagedResponse<>(List.of(movieDTO), 0, 20, 1, 1, true, true));
+    mockMvc
+        .perform(
+            get("/api/movies/filter")
+                .param("genre", "SCI_FI", "ACTION")
+                .param("releasedFrom", "2000-01-01")
+                .param("maxDuration", "150")
+                .param("directorId", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", hasSize(1)))
+        .andExpect(jsonPath("$.totalElements", is(1)));
+  }
+
   @Test
   void getMovieById_ShouldReturnMovie_WhenMovieExists() throws Exception {
-    when(movieService.getMovieById(1L)).thenReturn(movieDTO);
+    when(movieService.getVersionedMovie(1L)).thenReturn(new Versioned<>(movieDTO, STAMP));
     mockMvc
         .perform(get("/api/movies/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id", is(1)))
         .andExpect(jsonPath("$.title", is("Interstellar")))
         .andExpect(jsonPath("$.genre", is(Genre.SCI_FI.name())))
-        .andExpect(jsonPath("$.directorName", is("Christopher Nolan")));
+        .andExpect(jsonPath("$.directorName", is("Christopher Nolan")))
+        .andExpect(header().string(HttpHeaders.ETAG, STAMP.etag()));
+  }
+
+  @Test
+  void getMovieById_ShouldReturnNotModified_WhenTagIsCurrent() throws Exception {
+    when(movieService.getVersionedMovie(1L)).thenReturn(new Versioned<>(movieDTO, STAMP));
+    mockMvc
+        .perform(get("/api/movies/1").header(HttpHeaders.IF_NONE_MATCH, STAMP.etag()))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void getAllMovies_WithFields_ShouldReturnOnlyThoseFields() throws Exception {
+    when(movieService.getAllMovies("id,title"))
+        .thenReturn(List.of(Map.of("id", 1L, "title", "Interstellar")));
+    mockMvc
+        .perform(get("/api/movies").param("fields", "id,title"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title", is("Interstellar")))
+        .andExpect(jsonPath("$[0].genre").doesNotExist())
+        .andExpect(jsonPath("$[0].directorName").doesNotExist());
+  }
+
+  @Test
+  void getMoviesByIds_ShouldReturnThemInTheRequestedOrder() throws Exception {
+    MovieDTO other = MovieDTO.builder().id(2L).title("Dunkirk").genre(Genre.WAR).build();
+    when(movieService.getMoviesByIds(List.of(2L, 1L))).thenReturn(List.of(other, movieDTO));
+    mockMvc
+        .perform(get("/api/movies").param("ids", "2,1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].title", is("Dunkirk")))
+        .andExpect(jsonPath("$[1].title", is("Interstellar")));
+  }
+
+  @Test
+  void getMoviesByIds_ShouldReturnBadRequest_WhenFieldsAreRequested() throws Exception {
+    mockMvc
+        .perform(get("/api/movies").param("ids", "1,2").param("fields", "id"))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath(
+                "$.message", is("Select fields of a page or of all rows, not of rows by ids")));
+  }
+
+  @Test
+  void getMovies_WithFields_ShouldPageThoseFields() throws Exception {
+    when(movieService.getMovies("title", 1, 2, "title", "desc"))
+        .thenReturn(
+            new PagedResponse<>(List.of(Map.of("title", "Interstellar")), 1, 2, 3, 2, false, true));
+    mockMvc
+        .perform(
+            get("/api/movies")
+                .param("fields", "title")
+                .param("page", "1")
+                .param("size", "2")
+                .param("sort", "title")
+                .param("direction", "desc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].title", is("Interstellar")))
+        .andExpect(jsonPath("$.content[0].id").doesNotExist())
+        .andExpect(jsonPath("$.totalElements", is(3)));
+  }
+
+  @Test
+  void getMovieDetails_ShouldReturnTheCast_WithItsTag() throws Exception {
+    MovieDetails details =
+        MovieDetails.builder()
+            .id(1L)
+            .title("Interstellar")
+            .genre(Genre.SCI_FI)
+            .cast(List.of(CastMember.builder().roleId(7L).characterName("Cooper").build()))
+            .build();
+    when(movieService.getMovieDetails(1L)).thenReturn(new Versioned<>(details, STAMP));
+    mockMvc
+        .perform(get("/api/movies/1/full"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", is("Interstellar")))
+        .andExpect(jsonPath("$.cast", hasSize(1)))
+        .andExpect(jsonPath("$.cast[0].characterName", is("Cooper")))
+        .andExpect(header().string(HttpHeaders.ETAG, STAMP.etag()));
+    mockMvc
+        .perform(get("/api/movies/1/full").header(HttpHeaders.IF_NONE_MATCH, STAMP.etag()))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
   }
 
   @Test
   void getMovieById_ShouldReturnNotFound_WhenMovieDoesNotExist() throws Exception {
-    when(movieService.getMovieById(99L))
+    when(movieService.getVersionedMovie(99L))
         .thenThrow(new EntityNotFoundException("Movie not found with ID: 99"));
     mockMvc.perform(get("/api/movies/99")).andExpect(status().isNotFound());
   }
@@ -175,7 +375,7 @@ class MovieControllerTest {
             .directorId(1L)
             .directorName("Christopher Nolan")
             .build();
-    when(movieService.updateMovie(eq(1L), any(MovieDTO.class))).thenReturn(updatedMovie);
+    when(movieService.updateMovie(eq(1L), any(MovieDTO.class), isNull())).thenReturn(updatedMovie);
     mockMvc
         .perform(
             put("/api/movies/1")
@@ -197,7 +397,7 @@ class MovieControllerTest {
             .durationMinutes(180)
             .directorId(1L)
             .build();
-    when(movieService.updateMovie(eq(99L), any(MovieDTO.class)))
+    when(movieService.updateMovie(eq(99L), any(MovieDTO.class), isNull()))
         .thenThrow(new EntityNotFoundException("Movie not found with ID: 99"));
     mockMvc
         .perform(
@@ -208,16 +408,20 @@ class MovieControllerTest {
   }
 
   @Test
-  void deleteMovie_ShouldReturnNoContent_WhenMovieExists() throws Exception {
-    doNothing().when(movieService).deleteMovie(1L);
-    mockMvc.perform(delete("/api/movies/1")).andExpect(status().isNoContent());
+  void deleteMovie_ShouldReturnDeletedCounts_WhenMovieExists() throws Exception {
+    when(movieService.deleteMovie(1L))
+        .thenReturn(DeletionResult.builder().movies(1).roles(4).build());
+    mockMvc
+        .perform(delete("/api/movies/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.movies", is(1)))
+        .andExpect(jsonPath("$.roles", is(4)));
   }
 
   @Test
   void deleteMovie_ShouldReturnNotFound_WhenMovieDoesNotExist() throws Exception {
-    doThrow(new EntityNotFoundException("Movie not found with ID: 99"))
-        .when(movieService)
-        .deleteMovie(99L);
+    when(movieService.deleteMovie(99L))
+        .thenThrow(new EntityNotFoundException("Movie not found with ID: 99"));
     mockMvc.perform(delete("/api/movies/99")).andExpect(status().isNotFound());
   }
 
@@ -236,7 +440,7 @@ class MovieControllerTest {
             .directorId(1L)
             .directorName("Christopher Nolan")
             .build();
-    when(movieService.patchMovie(eq(1L), any(Map.class))).thenReturn(patchedMovie);
+    when(movieService.patchMovie(eq(1L), any(Map.class), isNull())).thenReturn(patchedMovie);
     mockMvc
         .perform(
             patch("/api/movies/1")
@@ -253,7 +457,7 @@ class MovieControllerTest {
   void patchMovie_ShouldReturnNotFound_WhenMovieDoesNotExist() throws Exception {
     Map<String, Object> patchValues = new HashMap<>();
     patchValues.put("title", "Non-existent Movie");
-    when(movieService.patchMovie(eq(99L), any(Map.class)))
+    when(movieService.patchMovie(eq(99L), any(Map.class), isNull()))
         .thenThrow(new EntityNotFoundException("Movie not found with ID: 99"));
     mockMvc
         .perform(
@@ -0,0 +1,57 @@
+package com.sample.backend.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.dto.SimilarMovie;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.service.RecommendationService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(RecommendationController.class)
+@Import(TableVersions.class)
+class RecommendationControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private RecommendationService recommendationService;
+
+  @Test
+  void getSimilarMovies_ShouldPassTheLimit() throws Exception {
+    when(recommendationService.getSimilarMovies(1L, 5))
+        .thenReturn(
+            List.of(
+                SimilarMovie.builder()
+                    .movieId(2L)
+                    .title("The Dark Knight")
+                    .score(0.5)
+                    .sharedActors(0)
+                    .sameDirector(true)
+                    .sameGenre(false)
+                    .build()));
+    mockMvc
+        .perform(get("/api/movies/1/similar").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].title", is("The Dark Knight")))
+        .andExpect(jsonPath("$[0].score", is(0.5)))
+        .andExpect(jsonPath("$[0].sameDirector", is(true)));
+  }
+
+  @Test
+  void getSimilarMovies_ShouldReturnNotFound_WhenMovieDoesNotExist() throws Exception {
+    when(recommendationService.getSimilarMovies(99L, 10))
+        .thenThrow(new EntityNotFoundException("Movie not found with ID: 99"));
+    mockMvc.perform(get("/api/movies/99/similar")).andExpect(status().isNotFound());
+  }
+}
@@ -3,7 +3,9 @@ package com.sample.backend.controller;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
@@ -16,23 +18,36 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sample.backend.dto.BatchItemResult;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.PagedResponse;
 import com.sample.backend.dto.RoleDTO;
 import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.service.DtoCaches;
 import com.sample.backend.service.RoleService;
+import com.sample.backend.service.Versioned;
+import java.time.Instant;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(RoleController.class)
+@Import({TableVersions.class, SerializedResponses.class})
 class RoleControllerTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(3L, Instant.EPOCH);
+
   @Autowired private MockMvc mockMvc;
   @MockitoBean private RoleService roleService;
+  @MockitoBean private DtoCaches dtoCaches;
   private ObjectMapper objectMapper;
   private RoleDTO roleDTO;
 
@@ -64,9 +79,28 @@ class RoleControllerTest {
         .andExpect(jsonPath("$[0].actorName", is("Leonardo DiCaprio")));
   }
 
+  @Test
+  void getRolesByMovie_ShouldReturnPage_WhenPageRequested() throws Exception {
+    when(roleService.getRolesByMovieId(1L, 0, 10))
+        .thenReturn(new PagedResponse<>(List.of(roleDTO), 0, 10, -1, -1, true, true));
+    mockMvc
+        .perform(get("/api/roles/movie/1").param("page", "0").param("size", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].characterName", is("Dom Cobb")))
+        .andExpect(jsonPath("$.totalPages", is(-1)));
+  }
+
+  @Test
+  void getRoles_ShouldReturnBadRequest_WhenBothPageAndCursorGiven() throws Exception {
+    mockMvc
+        .perform(get("/api/roles").param("page", "0").param("cursor", "x"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Page by either page or cursor, not both")));
+  }
+
   @Test
   void getRoleById_ShouldReturnRole_WhenRoleExists() throws Exception {
-    when(roleService.getRoleById(1L)).thenReturn(roleDTO);
+    when(roleService.getVersionedRole(1L)).thenReturn(new Versioned<>(roleDTO, STAMP));
     mockMvc
         .perform(get("/api/roles/1"))
         .andExpect(status().isOk())
@@ -78,7 +112,7 @@ class RoleControllerTest {
 
   @Test
   void getRoleById_ShouldReturnNotFound_WhenRoleDoesNotExist() throws Exception {
-    when(roleService.getRoleById(99L))
+    when(roleService.getVersionedRole(99L))
         .thenThrow(new EntityNotFoundException("Role not found with ID: 99"));
     mockMvc.perform(get("/api/roles/99")).andExpect(status().isNotFound());
   }
@@ -95,6 +129,52 @@ class RoleControllerTest {
         .andExpect(jsonPath("$[0].movieTitle", is("Inception")));
   }
 
+  @Test
+  void getRolesByMovies_ShouldReturnTheRolesOfEveryMovieListed() throws Exception {
+    when(roleService.getRolesByMovieIds(List.of(1L, 2L))).thenReturn(List.of(roleDTO));
+    mockMvc
+        .perform(get("/api/roles").param("movieIds", "1,2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].movieTitle", is("Inception")));
+  }
+
+  @Test
+  void getRolesByActors_ShouldReturnTheRolesOfEveryActorListed() throws Exception {
+    when(roleService.getRolesByActorIds(List.of(1L))).thenReturn(List.of(roleDTO));
+    mockMvc
+        .perform(get("/api/roles").param("actorIds", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].actorName", is("Leonardo DiCaprio")));
+  }
+
+  @Test
+  void getRolesByIds_ShouldReturnTheRolesListed() throws Exception {
+    when(roleService.getRolesByIds(List.of(1L, 99L))).thenReturn(List.of(roleDTO));
+    mockMvc
+        .perform(get("/api/roles").param("ids", "1,99"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].characterName", is("Dom Cobb")));
+  }
+
+  @Test
+  void getRolesByIds_ShouldReturnBadRequest_WhenFieldsAreRequested() throws Exception {
+    mockMvc
+        .perform(get("/api/roles").param("ids", "1,2").param("fields", "id"))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            jsonPath(
+                "$.message", is("Select fields of a page or of all rows, not of rows by ids")));
+    mockMvc
+        .perform(get("/api/roles").param("movieIds", "1").param("fields", "id"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(get("/api/roles").param("actorIds", "1").param("fields", "id"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void getRolesByActor_ShouldReturnRolesForActor() throws Exception {
     when(roleService.getRolesByActorId(1L)).thenReturn(List.of(roleDTO));
@@ -143,6 +223,50 @@ class RoleControllerTest {
         .andExpect(jsonPath("$.actorName", is("Joseph Gordon-Levitt")));
   }
 
+  @Test
+  void createRoles_ShouldReturnMultiStatus_WhenSomeRolesFail() throws Exception {
+    RoleDTO arthur = RoleDTO.builder().characterName("Arthur").movieId(1L).actorId(2L).build();
+    RoleDTO ghost = RoleDTO.builder().characterName("Ghost").movieId(99L).actorId(2L).build();
+    BatchResponse<RoleDTO> response =
+        BatchResponse.<RoleDTO>builder()
+            .results(
+                List.of(
+                    BatchItemResult.created(0, roleDTO),
+                    BatchItemResult.failed(1, "Movie not found with ID: 99")))
+            .created(1)
+            .failed(1)
+            .build();
+    when(roleService.createRoles(anyList(), eq(true))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/roles/batch")
+                .param("allowPartial", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(arthur, ghost))))
+        .andExpect(status().isMultiStatus())
+        .andExpect(jsonPath("$.created", is(1)))
+        .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+        .andExpect(jsonPath("$.results[0].item.characterName", is("Dom Cobb")))
+        .andExpect(jsonPath("$.results[1].error", is("Movie not found with ID: 99")));
+  }
+
+  @Test
+  void createRoles_ShouldReturnBadRequest_WhenNothingWasCreated() throws Exception {
+    BatchResponse<RoleDTO> response =
+        BatchResponse.<RoleDTO>builder()
+            .results(List.of(BatchItemResult.failed(0, "Actor not found with ID: 99")))
+            .failed(1)
+            .build();
+    when(roleService.createRoles(anyList(), eq(false))).thenReturn(response);
+    mockMvc
+        .perform(
+            post("/api/roles/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(roleDTO))))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.results[0].status", is("FAILED")));
+  }
+
   @Test
   void updateRole_ShouldReturnUpdatedRole_WhenRoleExists() throws Exception {
     RoleDTO updateRole =
@@ -156,7 +280,7 @@ class RoleControllerTest {
             .actorId(1L)
             .actorName("Leonardo DiCaprio")
             .build();
-    when(roleService.updateRole(eq(1L), any(RoleDTO.class))).thenReturn(updatedRole);
+    when(roleService.updateRole(eq(1L), any(RoleDTO.class), isNull())).thenReturn(updatedRole);
     mockMvc
         .perform(
             put("/api/roles/1")
@@ -171,7 +295,7 @@ class RoleControllerTest {
   void updateRole_ShouldReturnNotFound_WhenRoleDoesNotExist() throws Exception {
     RoleDTO updateRole =
         RoleDTO.builder().characterName("Dominick Cobb").movieId(1L).actorId(1L).build();
-    when(roleService.updateRole(eq(99L), any(RoleDTO.class)))
+    when(roleService.updateRole(eq(99L), any(RoleDTO.class), isNull()))
         .thenThrow(new EntityNotFoundException("Role not found with ID: 99"));
     mockMvc
         .perform(
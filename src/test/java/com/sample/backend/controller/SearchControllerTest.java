@@ -0,0 +1,123 @@
+package com.sample.backend.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.Facets;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.ReindexResult;
+import com.sample.backend.dto.SearchHit;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.service.SearchService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(SearchController.class)
+@Import(TableVersions.class)
+class SearchControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private SearchService searchService;
+
+  @Test
+  void search_ShouldReturnRankedHits() throws Exception {
+    when(searchService.search("dark knight", null, 20))
+        .thenReturn(
+            List.of(
+                SearchHit.builder()
+                    .type(Type.MOVIE)
+                    .id(2L)
+                    .name("The Dark Knight")
+                    .score(2.5)
+                    .build()));
+    mockMvc
+        .perform(get("/api/search").param("q", "dark knight"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].type", is("MOVIE")))
+        .andExpect(jsonPath("$[0].name", is("The Dark Knight")))
+        .andExpect(jsonPath("$[0].score", is(2.5)));
+  }
+
+  @Test
+  void search_ShouldPassTheRequestedTypes() throws Exception {
+    when(searchService.search(eq("bale"), eq(List.of(Type.ACTOR, Type.ROLE)), eq(5)))
+        .thenReturn(List.of());
+    mockMvc
+        .perform(
+            get("/api/search").param("q", "bale").param("type", "ACTOR,ROLE").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(0)));
+  }
+
+  @Test
+  void facets_ShouldPassTheFilterAndReturnTheCounts() throws Exception {
+    MovieFilter filter =
+        MovieFilter.builder()
+            .genres(Set.of(Genre.SCI_FI))
+            .releasedFrom(LocalDate.of(2000, 1, 1))
+            .build();
+    when(searchService.facets(filter, 5))
+        .thenReturn(
+            Facets.builder()
+                .movies(1)
+                .genres(List.of(new FacetCount("SCI_FI", null, 1)))
+                .decades(List.of(new FacetCount("2010", null, 1)))
+                .directors(List.of(new FacetCount("1", "Christopher Nolan", 1)))
+                .actorNationalities(List.of(new FacetCount("American", null, 2)))
+                .directorNationalities(List.of())
+                .build());
+    mockMvc
+        .perform(
+            get("/api/search/facets")
+                .param("genre", "SCI_FI")
+                .param("releasedFrom", "2000-01-01")
+                .param("directors", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.movies", is(1)))
+        .andExpect(jsonPath("$.genres[0].label").doesNotExist())
+        .andExpect(jsonPath("$.directors[0].label", is("Christopher Nolan")))
+        .andExpect(jsonPath("$.actorNationalities[0].count", is(2)));
+  }
+
+  @Test
+  void reindex_ShouldReturnTheIndexedCounts() throws Exception {
+    when(searchService.reindex())
+        .thenReturn(
+            ReindexResult.builder()
+                .movies(3)
+                .actors(3)
+                .directors(2)
+                .roles(3)
+                .elapsedMillis(4)
+                .build());
+    mockMvc
+        .perform(post("/api/search/reindex"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.movies", is(3)))
+        .andExpect(jsonPath("$.directors", is(2)));
+  }
+
+  @Test
+  void reindex_ShouldReturnBadRequest_WhenSearchIsDisabled() throws Exception {
+    when(searchService.reindex()).thenThrow(new BadRequestException("Search indexes are disabled"));
+    mockMvc.perform(post("/api/search/reindex")).andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,113 @@
+package com.sample.backend.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.model.Genre;
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Times lookups of movies by id through MockMvc with the off-heap JSON store enabled and disabled,
+ * with the DTO caches enabled in both, and reports the heap allocated per request. The ids are
+ * drawn from a hot set that fits in both caches. Run with {@code mvn test -Pbenchmark
+ * -Dtest=SerializedResponsesBenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class SerializedResponsesBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+  private static final int HOT_ROWS = 5_000;
+  private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 100_000);
+  private static final long FIRST_ID = 1_000_000L;
+  private static final Genre[] GENRES = Genre.values();
+
+  @Test
+  void movieLookupWithAndWithoutOffHeapStore() throws Exception {
+    List<String> report = new ArrayList<>();
+    for (boolean offHeap : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context =
+          new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+              .run(
+                  "--server.port=0",
+                  "--spring.datasource.url=jdbc:h2:mem:serialized-responses-benchmark-" + offHeap,
+                  "--spring.jpa.show-sql=false",
+                  "--logging.level.com.sample.backend=info",
+                  "--catalog.loader.enabled=false",
+                  "--catalog.search.enabled=false",
+                  "--catalog.dto-cache.off-heap.enabled=" + offHeap)) {
+        seed(context.getBean(JdbcTemplate.class));
+        MockMvc mockMvc =
+            MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        report.add(measure(offHeap ? "off-heap JSON" : "DTO cache only", mockMvc));
+      }
+    }
+    log.info(
+        "{} movies, {} looked up; mean of {} movie lookups:\n{}",
+        ROWS,
+        HOT_ROWS,
+        ROUNDS,
+        String.join("\n", report));
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    List<Object[]> directors = new ArrayList<>();
+    List<Object[]> movies = new ArrayList<>();
+    Date birthDate = Date.valueOf(LocalDate.of(1970, 1, 1));
+    for (int i = 0; i < 500; i++) {
+      directors.add(new Object[] {FIRST_ID + i, "Person", "Number" + i, birthDate, "Danish"});
+    }
+    for (int i = 0; i < ROWS; i++) {
+      movies.add(
+          new Object[] {
+            FIRST_ID + i,
+            "Benchmark Movie " + i,
+            GENRES[i % GENRES.length].name(),
+            Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i % 7_000)),
+            90 + i % 60,
+            FIRST_ID + i % 500
+          });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO director (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        directors);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO movie (id, title, genre, release_date, duration_minutes, director_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?)",
+        movies);
+  }
+
+  private static String measure(String store, MockMvc mockMvc) throws Exception {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Random random = new Random(7);
+    for (int i = 0; i < ROUNDS / 5; i++) {
+      mockMvc.perform(get("/api/movies/{id}", FIRST_ID + random.nextInt(HOT_ROWS)));
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      mockMvc.perform(get("/api/movies/{id}", FIRST_ID + random.nextInt(HOT_ROWS)));
+    }
+    long nanos = System.nanoTime() - start;
+    allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+    return String.format(
+        "%-15s %8.2f us %8.1f KB allocated",
+        store, nanos / 1e3 / ROUNDS, allocated / 1024.0 / ROUNDS);
+  }
+}
@@ -0,0 +1,85 @@
+package com.sample.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.service.DtoCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:serialized-responses-test")
+@AutoConfigureMockMvc
+@DirtiesContext
+class SerializedResponsesTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DtoCaches dtoCaches;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  void hit_ShouldWriteTheSameResponseAsTheMiss() throws Exception {
+    MvcResult miss = mockMvc.perform(get("/api/movies/2")).andExpect(status().isOk()).andReturn();
+    double hits = hits(DtoCaches.MOVIES);
+
+    mockMvc
+        .perform(get("/api/movies/2"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(content().string(miss.getResponse().getContentAsString()))
+        .andExpect(
+            header().string(HttpHeaders.ETAG, miss.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andExpect(jsonPath("$.title").value("The Dark Knight"));
+    mockMvc
+        .perform(
+            get("/api/movies/2")
+                .header(HttpHeaders.IF_NONE_MATCH, miss.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    assertEquals(hits + 2, hits(DtoCaches.MOVIES));
+    assertEquals(1, dtoCaches.movieJson().size());
+    assertEquals(
+        dtoCaches.movieJson().usedBytes(),
+        meterRegistry.get("cache.off.heap.used").tag("cache", DtoCaches.MOVIES).gauge().value());
+  }
+
+  @Test
+  void actorUpdate_ShouldEvictTheirSerializedRoles() throws Exception {
+    mockMvc
+        .perform(get("/api/roles/3"))
+        .andExpect(jsonPath("$.actorName").value("Samuel L. Jackson"));
+    mockMvc.perform(get("/api/actors/3")).andExpect(jsonPath("$.firstName").value("Samuel L."));
+
+    mockMvc
+        .perform(
+            put("/api/actors/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Sam\"}"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/roles/3")).andExpect(jsonPath("$.actorName").value("Sam Jackson"));
+    mockMvc.perform(get("/api/actors/3")).andExpect(jsonPath("$.firstName").value("Sam"));
+  }
+
+  private double hits(String cache) {
+    return meterRegistry
+        .get("cache.off.heap.gets")
+        .tag("cache", cache)
+        .tag("result", "hit")
+        .functionCounter()
+        .count();
+  }
+}
@@ -0,0 +1,95 @@
+package com.sample.backend.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sample.backend.dto.DirectorOutput;
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.GenreRuntime;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.service.StatisticsService;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(StatisticsController.class)
+@Import(TableVersions.class)
+class StatisticsControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private StatisticsService statisticsService;
+
+  @Test
+  void runtimeByGenre_ShouldPassThePercentiles() throws Exception {
+    when(statisticsService.runtimeByGenre(List.of(50, 95)))
+        .thenReturn(
+            List.of(
+                GenreRuntime.builder()
+                    .genre(Genre.SCI_FI)
+                    .movies(1)
+                    .averageMinutes(148)
+                    .minMinutes(148)
+                    .maxMinutes(148)
+                    .percentiles(Map.of(50, 148, 95, 148))
+                    .longestTitle("Inception")
+                    .build()));
+    mockMvc
+        .perform(get("/api/stats/runtime").param("percentile", "50,95"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].genre", is("SCI_FI")))
+        .andExpect(jsonPath("$[0].percentiles.95", is(148)))
+        .andExpect(jsonPath("$[0].longestTitle", is("Inception")));
+  }
+
+  @Test
+  void releasesByYear_ShouldPassTheGenre() throws Exception {
+    when(statisticsService.releasesByYear(Genre.CRIME))
+        .thenReturn(List.of(FacetCount.builder().value("1994").count(1).build()));
+    mockMvc
+        .perform(get("/api/stats/releases").param("genre", "CRIME"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].value", is("1994")))
+        .andExpect(jsonPath("$[0].count", is(1)));
+  }
+
+  @Test
+  void directorOutput_ShouldReturnTheMoviesPerYear() throws Exception {
+    when(statisticsService.directorOutput(1L))
+        .thenReturn(
+            DirectorOutput.builder()
+                .directorId(1L)
+                .directorName("Christopher Nolan")
+                .movies(2)
+                .averageMinutes(150)
+                .years(
+                    List.of(
+                        FacetCount.builder().value("2008").count(1).build(),
+                        FacetCount.builder().value("2010").count(1).build()))
+                .build());
+    mockMvc
+        .perform(get("/api/stats/directors/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.movies", is(2)))
+        .andExpect(jsonPath("$.years", hasSize(2)))
+        .andExpect(jsonPath("$.years[1].value", is("2010")));
+  }
+
+  @Test
+  void directorOutput_ShouldReturnNotFound_WhenDirectorDoesNotExist() throws Exception {
+    when(statisticsService.directorOutput(99L))
+        .thenThrow(new EntityNotFoundException("Director not found with ID: 99"));
+    mockMvc.perform(get("/api/stats/directors/99")).andExpect(status().isNotFound());
+  }
+}
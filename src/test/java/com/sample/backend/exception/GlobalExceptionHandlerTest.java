@@ -4,13 +4,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.when;
 
+import com.sample.backend.model.Movie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.context.request.WebRequest;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +39,41 @@ class GlobalExceptionHandlerTest {
     assertNotNull(response.getBody().getTimestamp());
   }
 
+  @Test
+  void handleBadRequestException_ShouldReturnBadRequest() {
+    BadRequestException exception = new BadRequestException("Invalid cursor");
+    ResponseEntity<ErrorResponse> response =
+        GlobalExceptionHandler.handleBadRequestException(exception, webRequest);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Bad Request", response.getBody().getError());
+    assertEquals("Invalid cursor", response.getBody().getMessage());
+    assertEquals("uri=/api/movies/1", response.getBody().getPath());
+  }
+
+  @Test
+  void handlePreconditionFailedException_ShouldReturnPreconditionFailed() {
+    PreconditionFailedException exception = new PreconditionFailedException("Stale tag");
+    ResponseEntity<ErrorResponse> response =
+        GlobalExceptionHandler.handlePreconditionFailedException(exception, webRequest);
+    assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Precondition Failed", response.getBody().getError());
+    assertEquals("Stale tag", response.getBody().getMessage());
+  }
+
+  @Test
+  void handleOptimisticLockingFailureException_ShouldReturnConflict() {
+    OptimisticLockingFailureException exception =
+        new ObjectOptimisticLockingFailureException(Movie.class, 1L);
+    ResponseEntity<ErrorResponse> response =
+        GlobalExceptionHandler.handleOptimisticLockingFailureException(exception, webRequest);
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Conflict", response.getBody().getError());
+    assertEquals("uri=/api/movies/1", response.getBody().getPath());
+  }
+
   @Test
   void handleGlobalException_ShouldReturnInternalServerError() {
     Exception exception = new RuntimeException("Unexpected error");
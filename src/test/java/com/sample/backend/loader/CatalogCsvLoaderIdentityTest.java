@@ -0,0 +1,42 @@
+package com.sample.backend.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.sample.backend.model.Actor;
+import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:loader-identity-test",
+      "catalog.id.strategy=identity"
+    })
+class CatalogCsvLoaderIdentityTest {
+
+  @Autowired private ActorRepository actorRepository;
+  @Autowired private MovieRepository movieRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void startupLoad_ShouldUseIdentityColumnsWithoutSequences() {
+    assertEquals("Inception", movieRepository.findById(1L).orElseThrow().getTitle());
+    assertEquals(
+        0,
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'",
+            Integer.class));
+  }
+
+  @Test
+  void save_ShouldReadTheIdBackFromTheIdentityColumn() {
+    long before = actorRepository.count();
+    Actor saved = actorRepository.save(Actor.builder().firstName("Ida").lastName("Entity").build());
+    assertNotNull(saved.getId());
+    assertEquals(before + 1, actorRepository.count());
+  }
+}
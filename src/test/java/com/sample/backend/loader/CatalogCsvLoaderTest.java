@@ -0,0 +1,151 @@
+package com.sample.backend.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:loader-test",
+      "catalog.loader.batch-size=7",
+      "catalog.loader.chunk-size=25"
+    })
+class CatalogCsvLoaderTest {
+
+  @Autowired private CatalogCsvLoader catalogCsvLoader;
+  @Autowired private DirectorRepository directorRepository;
+  @Autowired private ActorRepository actorRepository;
+  @Autowired private MovieRepository movieRepository;
+  @Autowired private RoleRepository roleRepository;
+  @TempDir private Path dataDir;
+
+  @Test
+  void startupLoad_ShouldImportBundledCsvFiles() {
+    Map<String, Movie> movies =
+        movieRepository.findAll().stream()
+            .collect(Collectors.toMap(Movie::getTitle, Function.identity()));
+    Movie inception = movies.get("Inception");
+    assertEquals(Genre.SCI_FI, inception.getGenre());
+    assertEquals("Nolan", inception.getDirector().getLastName());
+    assertEquals("Tarantino", movies.get("Pulp Fiction").getDirector().getLastName());
+    RoleDTO cobb =
+        roleRepository
+            .findDTOsByCharacterName("Dom Cobb", Pageable.unpaged())
+            .getContent()
+            .getFirst();
+    assertEquals("Inception", cobb.movieTitle());
+    assertEquals("Leonardo DiCaprio", cobb.actorName());
+    assertEquals(inception.getId(), movieRepository.findById(1L).orElseThrow().getId());
+  }
+
+  @Test
+  void save_ShouldTakeIdsFromTheSequenceTheLoaderReservedFrom() {
+    Director saved =
+        directorRepository.save(
+            Director.builder().firstName("Pooled").lastName("Sequence").build());
+    Long largestLoaded =
+        directorRepository.findAll().stream()
+            .map(Director::getId)
+            .filter(id -> !id.equals(saved.getId()))
+            .max(Long::compare)
+            .orElseThrow();
+    assertTrue(saved.getId() > largestLoaded);
+  }
+
+  @Test
+  void load_ShouldResolveReferencesAcrossChunksAndRejectBrokenRows() throws IOException {
+    int people = 60;
+    StringBuilder directors = new StringBuilder("id,firstName,lastName,birthDate,nationality\n");
+    StringBuilder actors = new StringBuilder("id,firstName,lastName,birthDate,nationality\n");
+    StringBuilder movies =
+        new StringBuilder("id,title,genre,releaseDate,durationMinutes,directorId\n");
+    StringBuilder roles = new StringBuilder("id,characterName,movieId,actorId\n");
+    for (int i = 1; i <= people; i++) {
+      // Ids in the files deliberately differ from the ids the database will generate.
+      long fileId = 1000L + i;
+      directors.append(fileId).append(",Dir,Loader").append(i).append(",1960-01-01,French\n");
+      actors.append(fileId).append(",Act,Loader").append(i).append(",1980-02-02,Irish\n");
+      movies
+          .append(fileId)
+          .append(",Loader Movie ")
+          .append(i)
+          .append(",Film-Noir,2001-03-03,")
+          .append(90 + i)
+          .append(',')
+          .append(1000L + (people + 1 - i))
+          .append('\n');
+      roles
+          .append(i)
+          .append(",Loader Character ")
+          .append(i)
+          .append(',')
+          .append(fileId)
+          .append(',')
+          .append(fileId)
+          .append('\n');
+    }
+    movies.append("9001,Orphan Movie,Drama,2001-03-03,100,424242\n");
+    movies.append("9002,Unknown Genre Movie,Polka,2001-03-03,100,1001\n");
+    roles.append("9001,Orphan Character,9001,1001\n");
+    Files.writeString(dataDir.resolve(CatalogCsvSchema.DIRECTORS.fileName()), directors);
+    Files.writeString(dataDir.resolve(CatalogCsvSchema.ACTORS.fileName()), actors);
+    Files.writeString(dataDir.resolve(CatalogCsvSchema.MOVIES.fileName()), movies);
+    Files.writeString(dataDir.resolve(CatalogCsvSchema.ROLES.fileName()), roles);
+    long directorsBefore = directorRepository.count();
+    long actorsBefore = actorRepository.count();
+
+    List<TableLoadResult> results = catalogCsvLoader.load(dataDir.toUri().toString());
+
+    assertEquals(
+        List.of(people, people, people, people),
+        results.stream().map(result -> (int) result.rows()).toList());
+    assertEquals(2, results.get(2).rejected());
+    assertEquals(1, results.get(3).rejected());
+    assertEquals(directorsBefore + people, directorRepository.count());
+    assertEquals(actorsBefore + people, actorRepository.count());
+    MovieDTO first =
+        movieRepository.findDTOsByTitle("Loader Movie 1", Pageable.unpaged()).stream()
+            .filter(movie -> movie.title().equals("Loader Movie 1"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(Genre.FILM_NOIR, first.genre());
+    assertEquals("Dir Loader" + people, first.directorName());
+    RoleDTO role =
+        roleRepository
+            .findDTOsByCharacterName("Loader Character 42", Pageable.unpaged())
+            .getContent()
+            .getFirst();
+    assertEquals("Loader Movie 42", role.movieTitle());
+    assertEquals("Act Loader42", role.actorName());
+  }
+
+  @Test
+  void fromLabel_ShouldMapDisplayLabelsOntoGenres() {
+    assertEquals(Genre.SCI_FI, Genre.fromLabel("Sci-Fi"));
+    assertEquals(Genre.FILM_NOIR, Genre.fromLabel("film noir"));
+    assertEquals(Genre.ACTION, Genre.fromLabel(" ACTION "));
+    assertThrows(IllegalArgumentException.class, () -> Genre.fromLabel("Polka"));
+  }
+}
@@ -0,0 +1,147 @@
+package com.sample.backend.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.model.Genre;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares single-threaded commons-csv parsing with {@link MappedCsvParser} at increasing
+ * parallelism. Run with {@code mvn test -Pbenchmark}; the row count can be changed with {@code
+ * -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class MappedCsvParserBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int ROUNDS = 3;
+
+  @TempDir private Path dataDir;
+
+  @Test
+  void parseThroughputAcrossCoreCounts() throws IOException {
+    Path file = generateMovies(dataDir.resolve("movies.csv"));
+    double megabytes = Files.size(file) / (1024.0 * 1024.0);
+    assertTrue(
+        new MappedCsvParser().verifyAgainstCommonsCsv(file, CatalogCsvSchema.MOVIES).matches());
+
+    long baseline = best(() -> assertEquals(ROWS, parseWithCommonsCsv(file)));
+    List<String> report = new ArrayList<>();
+    report.add(line("commons-csv", 1, baseline, megabytes, baseline));
+    for (int parallelism : parallelismLevels()) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        MappedCsvParser parser = new MappedCsvParser(pool, MappedCsvParser.DEFAULT_CHUNK_BYTES);
+        long nanos =
+            best(() -> assertEquals(ROWS, parser.parse(file, CatalogCsvSchema.MOVIES).rowCount()));
+        report.add(line("mapped", parallelism, nanos, megabytes, baseline));
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+    log.info(
+        "Parsing {} rows ({} MB) of movies.csv, best of {} rounds:\n{}",
+        ROWS,
+        String.format("%.1f", megabytes),
+        ROUNDS,
+        String.join("\n", report));
+  }
+
+  private static long parseWithCommonsCsv(Path file) throws IOException {
+    long rows = 0;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        CSVParser parser = CatalogCsvLoader.CSV_FORMAT.parse(reader)) {
+      for (CSVRecord record : parser) {
+        Long.parseLong(record.get(0));
+        record.get(1);
+        Genre.fromLabel(record.get(2));
+        LocalDate.parse(record.get(3));
+        Integer.parseInt(record.get(4));
+        Long.parseLong(record.get(5));
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  private static List<Integer> parallelismLevels() {
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<Integer> levels = new ArrayList<>();
+    for (int level = 1; level < cores; level *= 2) {
+      levels.add(level);
+    }
+    levels.add(cores);
+    return levels;
+  }
+
+  private static long best(Round round) throws IOException {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      round.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  private static String line(
+      String parser, int threads, long nanos, double megabytes, long baselineNanos) {
+    double seconds = nanos / 1e9;
+    return String.format(
+        "%-12s threads=%-3d %8.1f ms %8.1f MB/s %12.0f rows/s  x%.2f",
+        parser,
+        threads,
+        nanos / 1e6,
+        megabytes / seconds,
+        ROWS / seconds,
+        (double) baselineNanos / nanos);
+  }
+
+  private static Path generateMovies(Path file) throws IOException {
+    Genre[] genres = Genre.values();
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("id,title,genre,releaseDate,durationMinutes,directorId\n");
+      LocalDate firstRelease = LocalDate.of(1920, 1, 1);
+      for (int i = 1; i <= ROWS; i++) {
+        String title = i % 10 == 0 ? "\"Movie " + i + ", Part II\"" : "Movie " + i;
+        writer
+            .append(String.valueOf(i))
+            .append(',')
+            .append(title)
+            .append(',')
+            .append(genres[i % genres.length].name())
+            .append(',')
+            .append(firstRelease.plusDays(i % 36_500).toString())
+            .append(',')
+            .append(String.valueOf(80 + i % 120))
+            .append(',')
+            .append(String.valueOf(1 + i % 50_000))
+            .append('\n');
+      }
+    }
+    return file;
+  }
+
+  @FunctionalInterface
+  private interface Round {
+
+    void run() throws IOException;
+  }
+}
@@ -0,0 +1,128 @@
+package com.sample.backend.loader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.loader.MappedCsvParser.CsvVerification;
+import com.sample.backend.model.Genre;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedCsvParserTest {
+
+  private static final String MOVIES_HEADER =
+      "id,title,genre,releaseDate,durationMinutes,directorId\n";
+
+  @TempDir private Path dataDir;
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void parse_ShouldReadBundledMoviesIntoColumns() throws IOException, URISyntaxException {
+    Path movies =
+        Path.of(Objects.requireNonNull(getClass().getResource("/data/movies.csv")).toURI());
+    MappedCsvTable table = new MappedCsvParser(pool, 32).parse(movies, CatalogCsvSchema.MOVIES);
+    int title = CatalogCsvSchema.MOVIES.columnIndex("title");
+    int genre = CatalogCsvSchema.MOVIES.columnIndex("genre");
+    int releaseDate = CatalogCsvSchema.MOVIES.columnIndex("releaseDate");
+    int duration = CatalogCsvSchema.MOVIES.columnIndex("durationMinutes");
+    assertEquals(3, table.rowCount());
+    assertEquals("Inception", table.getText(title, 0));
+    assertEquals(Genre.SCI_FI, table.getGenre(genre, 0));
+    assertEquals(LocalDate.of(2010, 7, 16), table.getDate(releaseDate, 0));
+    assertEquals(148, table.getInt(duration, 0));
+    assertEquals("Pulp Fiction", table.getText(title, 2));
+    assertEquals(2, table.getLong(CatalogCsvSchema.MOVIES.columnIndex("directorId"), 2));
+  }
+
+  @Test
+  void parse_ShouldHandleQuotingAndLineEndingsAcrossChunkBoundaries() throws IOException {
+    String content =
+        MOVIES_HEADER
+            + "1,\"Crouching Tiger, Hidden Dragon\",Action,2000-07-06,120,1\r\n"
+            + "2,\"The \"\"Quoted\"\" One\",film noir,1950-01-31,95,\n"
+            + "\n"
+            + "3,\"Multi\nLine, with comma\nTitle\",Sci-Fi,2024-02-29,,2\n"
+            + "4,  Amélie  ,Romance,2001-04-25,122,3\n"
+            + "5,千と千尋の神隠し,Animation,2001-07-20,125,4";
+    Path file = write("movies.csv", content);
+    MappedCsvParser parser = new MappedCsvParser(pool, 16);
+
+    MappedCsvTable table = parser.parse(file, CatalogCsvSchema.MOVIES);
+
+    int title = CatalogCsvSchema.MOVIES.columnIndex("title");
+    int duration = CatalogCsvSchema.MOVIES.columnIndex("durationMinutes");
+    int director = CatalogCsvSchema.MOVIES.columnIndex("directorId");
+    assertEquals(5, table.rowCount());
+    assertTrue(table.chunkCount() > 1);
+    assertEquals("Crouching Tiger, Hidden Dragon", table.getText(title, 0));
+    assertEquals("The \"Quoted\" One", table.getText(title, 1));
+    assertTrue(table.isNull(director, 1));
+    assertEquals("Multi\nLine, with comma\nTitle", table.getText(title, 2));
+    assertTrue(table.isNull(duration, 2));
+    assertEquals("Amélie", table.getText(title, 3));
+    assertEquals("千と千尋の神隠し", table.getText(title, 4));
+    assertTrue(parser.verifyAgainstCommonsCsv(file, CatalogCsvSchema.MOVIES).matches());
+  }
+
+  @Test
+  void verifyAgainstCommonsCsv_ShouldMatchOnGeneratedFileWithManyChunks() throws IOException {
+    StringBuilder content = new StringBuilder("id,characterName,movieId,actorId\n");
+    for (int i = 1; i <= 10_000; i++) {
+      String name = i % 7 == 0 ? "\"Agent \"\"" + i + "\"\", Esq.\"" : "Character " + i;
+      content.append(i).append(',').append(name).append(',').append(i % 500).append(',');
+      content.append(i % 3 == 0 ? "" : String.valueOf(i * 31L)).append('\n');
+    }
+    Path file = write("roles.csv", content.toString());
+
+    CsvVerification verification =
+        new MappedCsvParser(pool, 4096).verifyAgainstCommonsCsv(file, CatalogCsvSchema.ROLES);
+
+    assertTrue(verification.matches(), () -> String.join("\n", verification.samples()));
+    assertEquals(10_000, verification.rows());
+  }
+
+  @Test
+  void parse_ShouldRejectUnexpectedHeader() throws IOException {
+    Path file = write("actors.csv", "id,name\n1,Someone\n");
+    MappedCsvParser parser = new MappedCsvParser(pool, 1024);
+    assertThrows(IllegalStateException.class, () -> parser.parse(file, CatalogCsvSchema.ACTORS));
+  }
+
+  @Test
+  void parse_ShouldRejectMalformedValues() throws IOException {
+    Path file = write("movies.csv", MOVIES_HEADER + "1,Title,Action,2023-02-30,100,1\n");
+    MappedCsvParser parser = new MappedCsvParser(pool, 1024);
+    assertThrows(IllegalStateException.class, () -> parser.parse(file, CatalogCsvSchema.MOVIES));
+  }
+
+  @Test
+  void parse_ShouldReturnEmptyTable_WhenFileHasOnlyHeader() throws IOException {
+    Path file = write("directors.csv", "id,firstName,lastName,birthDate,nationality");
+    MappedCsvTable table = new MappedCsvParser(pool, 1024).parse(file, CatalogCsvSchema.DIRECTORS);
+    assertEquals(0, table.rowCount());
+  }
+
+  private Path write(String name, String content) throws IOException {
+    return Files.writeString(dataDir.resolve(name), content);
+  }
+}
@@ -0,0 +1,84 @@
+package com.sample.backend.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Inserts roles through JPA once per {@link IdStrategy} and compares the throughput. Run with
+ * {@code mvn test -Pbenchmark}; the row count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class IdStrategyBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+  private static final int ROWS_PER_TRANSACTION = 1_000;
+
+  @Test
+  void insertThroughputPerIdStrategy() {
+    List<String> report = new ArrayList<>();
+    for (IdStrategy strategy : IdStrategy.values()) {
+      report.add(insertRoles(strategy));
+    }
+    log.info("Inserting {} roles through JPA:\n{}", ROWS, String.join("\n", report));
+  }
+
+  private static String insertRoles(IdStrategy strategy) {
+    String name = strategy.name().toLowerCase(Locale.ROOT);
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:id-benchmark-" + name,
+                "spring.jpa.show-sql=false",
+                "catalog.id.strategy=" + name)
+            .run()) {
+      EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+      EntityManager entityManager =
+          SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+      TransactionTemplate transactionTemplate =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      Long movieId = context.getBean(MovieRepository.class).findAll().getFirst().getId();
+      Long actorId = context.getBean(ActorRepository.class).findAll().getFirst().getId();
+      long rolesBefore = context.getBean(RoleRepository.class).count();
+
+      long start = System.nanoTime();
+      for (int from = 0; from < ROWS; from += ROWS_PER_TRANSACTION) {
+        int first = from;
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              Movie movie = entityManager.getReference(Movie.class, movieId);
+              Actor actor = entityManager.getReference(Actor.class, actorId);
+              for (int i = first; i < Math.min(ROWS, first + ROWS_PER_TRANSACTION); i++) {
+                entityManager.persist(
+                    Role.builder().characterName("Extra " + i).movie(movie).actor(actor).build());
+              }
+              entityManager.flush();
+              entityManager.clear();
+            });
+      }
+      long nanos = System.nanoTime() - start;
+
+      assertEquals(rolesBefore + ROWS, context.getBean(RoleRepository.class).count());
+      return String.format("%-9s %8.1f ms %10.0f rows/s", name, nanos / 1e6, ROWS / (nanos / 1e9));
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.mapper.MovieMapper;
+import com.sample.backend.mapper.RoleMapper;
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares reading whole tables as entities converted by the mappers with reading them through the
+ * DTO projections, by time and by bytes allocated on the reading thread. Run with {@code mvn test
+ * -Pbenchmark}; the row count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class DtoProjectionBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 50_000);
+  private static final int ROUNDS = 5;
+  private static final long FIRST_ID = 1_000_000L;
+
+  @Test
+  void readThroughputEntitiesVersusProjections() {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:projection-benchmark",
+                "spring.jpa.show-sql=false")
+            .run()) {
+      seed(context.getBean(JdbcTemplate.class));
+      MovieRepository movieRepository = context.getBean(MovieRepository.class);
+      RoleRepository roleRepository = context.getBean(RoleRepository.class);
+      TransactionTemplate readOnly =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      readOnly.setReadOnly(true);
+
+      List<String> report = new ArrayList<>();
+      report.add(
+          measure(
+              "movies/entities",
+              () ->
+                  readOnly.execute(
+                      status ->
+                          movieRepository.findAll().stream().map(MovieMapper::toDTO).toList())));
+      report.add(
+          measure(
+              "movies/dto",
+              () ->
+                  readOnly.execute(
+                      status ->
+                          movieRepository
+                              .findAllDTOs(Pageable.unpaged(Sort.by("id")))
+                              .getContent())));
+      report.add(
+          measure(
+              "roles/entities",
+              () ->
+                  readOnly.execute(
+                      status ->
+                          roleRepository.findAll().stream().map(RoleMapper::toDTO).toList())));
+      report.add(
+          measure(
+              "roles/dto",
+              () ->
+                  readOnly.execute(
+                      status ->
+                          roleRepository
+                              .findAllDTOs(Pageable.unpaged(Sort.by("id")))
+                              .getContent())));
+      log.info(
+          "Reading {} movies and {} roles, best of {} rounds:\n{}",
+          ROWS,
+          ROWS,
+          ROUNDS,
+          String.join("\n", report));
+    }
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    List<Object[]> directors = new ArrayList<>();
+    List<Object[]> actors = new ArrayList<>();
+    List<Object[]> movies = new ArrayList<>();
+    List<Object[]> roles = new ArrayList<>();
+    Date birthDate = Date.valueOf(LocalDate.of(1970, 1, 1));
+    int people = Math.max(1, ROWS / 10);
+    for (int i = 0; i < people; i++) {
+      directors.add(new Object[] {FIRST_ID + i, "Director", "Number" + i, birthDate, "Danish"});
+      actors.add(new Object[] {FIRST_ID + i, "Actor", "Number" + i, birthDate, "Irish"});
+    }
+    for (int i = 0; i < ROWS; i++) {
+      movies.add(
+          new Object[] {
+            FIRST_ID + i,
+            "Benchmark Movie " + i,
+            "DRAMA",
+            Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i % 7_000)),
+            90 + i % 60,
+            FIRST_ID + i % people
+          });
+      roles.add(new Object[] {FIRST_ID + i, "Character " + i, FIRST_ID + i, FIRST_ID + i % people});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO director (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        directors);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO actor (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        actors);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO movie (id, title, genre, release_date, duration_minutes, director_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?)",
+        movies);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO role (id, character_name, movie_id, actor_id) VALUES (?, ?, ?, ?)", roles);
+  }
+
+  private static String measure(String name, Supplier<List<?>> read) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+    int expected = read.get().size();
+    long bestNanos = Long.MAX_VALUE;
+    long bestBytes = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      List<?> rows = read.get();
+      bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+      bestBytes = Math.min(bestBytes, threads.getThreadAllocatedBytes(threadId) - bytesBefore);
+      assertEquals(expected, rows.size());
+    }
+    return String.format(
+        "%-15s %8.1f ms %8.1f MB allocated %6d B/row",
+        name, bestNanos / 1e6, bestBytes / (1024.0 * 1024.0), bestBytes / expected);
+  }
+}
@@ -0,0 +1,97 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.CastMember;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.mapper.ActorMapper;
+import com.sample.backend.mapper.DirectorMapper;
+import com.sample.backend.mapper.MovieMapper;
+import com.sample.backend.mapper.RoleMapper;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dto-projection-test")
+@Transactional
+class DtoProjectionTest {
+
+  @Autowired private MovieRepository movieRepository;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private ActorRepository actorRepository;
+  @Autowired private DirectorRepository directorRepository;
+
+  @Test
+  void projections_ShouldMatchTheMappedEntities() {
+    assertEquals(
+        movieRepository.findAll().stream()
+            .sorted(Comparator.comparing(Movie::getId))
+            .map(MovieMapper::toDTO)
+            .toList(),
+        movieRepository.findAllDTOs(Pageable.unpaged(Sort.by("id"))).getContent());
+    assertEquals(
+        roleRepository.findAll().stream().map(RoleMapper::toDTO).toList(),
+        roleRepository.findAllDTOs(Pageable.unpaged(Sort.by("id"))).getContent());
+    assertEquals(
+        directorRepository.findAll().stream().map(DirectorMapper::toDTO).toList(),
+        directorRepository.findAllDTOs(Pageable.unpaged(Sort.by("id"))).getContent());
+    assertEquals(
+        ActorMapper.toDTO(actorRepository.findById(1L).orElseThrow()),
+        actorRepository.findDTOById(1L).orElseThrow());
+  }
+
+  @Test
+  void detailsProjections_ShouldMatchTheMappedEntities() {
+    Movie movie = movieRepository.findById(1L).orElseThrow();
+    MovieDetailsRow details = movieRepository.findDetailsById(1L).orElseThrow();
+    assertEquals(movie.getVersion(), details.version());
+    assertEquals(DirectorMapper.toDTO(movie.getDirector()), details.director());
+    assertEquals(
+        roleRepository.findAll().stream()
+            .filter(role -> role.getMovie().getId().equals(1L))
+            .map(
+                role ->
+                    new CastMember(
+                        role.getId(), role.getCharacterName(), ActorMapper.toDTO(role.getActor())))
+            .toList(),
+        roleRepository.findCastByMovieId(1L).stream().map(CastRow::toCastMember).toList());
+  }
+
+  @Test
+  void findDTOById_ShouldLeaveDirectorNameNull_WhenMovieHasNoDirector() {
+    Movie movie =
+        movieRepository.save(
+            Movie.builder()
+                .title("Orphan Reel")
+                .genre(Genre.DRAMA)
+                .releaseDate(LocalDate.of(1950, 1, 1))
+                .durationMinutes(80)
+                .build());
+    MovieDTO dto = movieRepository.findDTOById(movie.getId()).orElseThrow();
+    assertEquals("Orphan Reel", dto.title());
+    assertNull(dto.directorId());
+    assertNull(dto.directorName());
+  }
+
+  @Test
+  void findAllDTOs_ShouldApplyThePageableSort() {
+    List<ActorDTO> page =
+        actorRepository
+            .findAllDTOs(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "lastName")))
+            .getContent();
+    List<String> lastNames = page.stream().map(ActorDTO::lastName).toList();
+    assertEquals(2, lastNames.size());
+    assertEquals(lastNames.stream().sorted(Comparator.reverseOrder()).toList(), lastNames);
+  }
+}
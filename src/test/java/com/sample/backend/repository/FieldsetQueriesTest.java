@@ -0,0 +1,118 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fieldset-queries-test")
+@Transactional
+class FieldsetQueriesTest {
+
+  @Autowired private FieldsetQueries fieldsetQueries;
+  @Autowired private MovieRepository movieRepository;
+
+  @Test
+  void compile_ShouldJoinOnlyForTheFieldsThatNeedIt_AndReuseTheProjection() {
+    Fieldset.Projection titles = MovieRepository.FIELDS.compile("title, id");
+    assertEquals(List.of("id", "title"), titles.names());
+    assertEquals("select m.id, m.title from Movie m", titles.select());
+    assertSame(titles, MovieRepository.FIELDS.compile("id,title,id"));
+    assertFalse(MovieRepository.FIELDS.compile("directorId").select().contains("join"));
+    assertTrue(
+        MovieRepository.FIELDS
+            .compile("title,directorName")
+            .select()
+            .endsWith(" from Movie m left join m.director d"));
+  }
+
+  @Test
+  void find_ShouldReturnOnlyTheRequestedFields() {
+    List<MovieDTO> movies =
+        movieRepository.findAllDTOs(Pageable.unpaged(Sort.by("id"))).getContent();
+
+    Slice<Map<String, Object>> rows =
+        fieldsetQueries.find(
+            MovieRepository.FIELDS, "title,id", PageRequest.of(0, 100, Sort.by("id")));
+
+    assertEquals(
+        movies.stream()
+            .map(movie -> Map.<String, Object>of("id", movie.id(), "title", movie.title()))
+            .toList(),
+        rows.getContent());
+    assertEquals(List.of("id", "title"), List.copyOf(rows.getContent().getFirst().keySet()));
+  }
+
+  @Test
+  void find_ShouldKeepRowsWithoutTheJoinedRow_AndLeaveOutNullValues() {
+    Movie movie =
+        movieRepository.save(
+            Movie.builder()
+                .title("Orphan Reel")
+                .genre(Genre.DRAMA)
+                .releaseDate(LocalDate.of(1950, 1, 1))
+                .durationMinutes(80)
+                .build());
+
+    List<Map<String, Object>> rows =
+        fieldsetQueries
+            .find(
+                MovieRepository.FIELDS,
+                "id,directorId,directorName",
+                PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "id")))
+            .getContent();
+
+    assertEquals(Map.of("id", movie.getId()), rows.getFirst());
+    assertEquals(movieRepository.count(), rows.size());
+  }
+
+  @Test
+  void find_ShouldPageWithoutCounting() {
+    Slice<Map<String, Object>> first =
+        fieldsetQueries.find(
+            RoleRepository.FIELDS, "movieTitle", PageRequest.of(0, 2, Sort.by("id")));
+    Slice<Map<String, Object>> last =
+        fieldsetQueries.find(
+            RoleRepository.FIELDS, "movieTitle", PageRequest.of(1, 2, Sort.by("id")));
+
+    assertEquals(
+        List.of(Map.of("movieTitle", "Inception"), Map.of("movieTitle", "The Dark Knight")),
+        first.getContent());
+    assertTrue(first.hasNext());
+    assertEquals(List.of(Map.of("movieTitle", "Pulp Fiction")), last.getContent());
+    assertFalse(last.hasNext());
+  }
+
+  @Test
+  void find_ShouldRejectUnknownFields_AndSortsNeedingAJoin() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+    assertThrows(
+        BadRequestException.class,
+        () -> fieldsetQueries.find(MovieRepository.FIELDS, "id,budget", pageable));
+    assertThrows(
+        BadRequestException.class,
+        () -> fieldsetQueries.find(MovieRepository.FIELDS, " , ", pageable));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            fieldsetQueries.find(
+                MovieRepository.FIELDS, "id", PageRequest.of(0, 10, Sort.by("directorName"))));
+  }
+}
@@ -0,0 +1,103 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.dto.ActorDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Compares fetching pages of actors sorted by last name at increasing depth with page numbers
+ * (OFFSET/LIMIT plus COUNT) and with cursors. Run with {@code mvn test -Pbenchmark}; the row count
+ * can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class KeysetPagerBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 500_000);
+  private static final int PAGE_SIZE = 20;
+  private static final int ROUNDS = 50;
+  private static final long FIRST_ID = 1_000_000L;
+
+  @Test
+  void pageLatencyByDepth() {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:keyset-benchmark", "spring.jpa.show-sql=false")
+            .run()) {
+      seed(context.getBean(JdbcTemplate.class));
+      ActorRepository actorRepository = context.getBean(ActorRepository.class);
+      KeysetPager keysetPager = context.getBean(KeysetPager.class);
+      Sort sort = Sort.by("lastName").and(Sort.by("id"));
+
+      List<String> report = new ArrayList<>();
+      for (int page = 1; page * PAGE_SIZE < ROWS; page *= 10) {
+        PageRequest pageRequest = PageRequest.of(page, PAGE_SIZE, sort);
+        ActorDTO previous =
+            actorRepository
+                .findAllDTOs(PageRequest.of(page * PAGE_SIZE - 1, 1, sort))
+                .getContent()
+                .getFirst();
+        String cursor =
+            KeysetCursor.start("lastName", false)
+                .after(previous.lastName(), previous.id())
+                .encode();
+        List<ActorDTO> expected = actorRepository.findAllDTOs(pageRequest).getContent();
+        assertEquals(
+            expected,
+            keysetPager.page(ActorRepository.KEYSET, cursor, PAGE_SIZE, "id", "asc").content());
+
+        double offset = average(() -> actorRepository.findAllDTOs(pageRequest).getContent());
+        double keyset =
+            average(
+                () ->
+                    keysetPager
+                        .page(ActorRepository.KEYSET, cursor, PAGE_SIZE, "id", "asc")
+                        .content());
+        report.add(
+            String.format(
+                "page %-7d offset %8.2f ms   cursor %6.2f ms", page, offset / 1e6, keyset / 1e6));
+      }
+      log.info(
+          "Pages of {} actors by last name out of {}, average of {} requests:\n{}",
+          PAGE_SIZE,
+          ROWS,
+          ROUNDS,
+          String.join("\n", report));
+    }
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    List<Object[]> actors = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      actors.add(new Object[] {FIRST_ID + i, "Actor", "Name" + (i * 7919L % ROWS), "Irish"});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO actor (id, first_name, last_name, nationality) VALUES (?, ?, ?, ?)", actors);
+  }
+
+  private static double average(Supplier<List<ActorDTO>> fetch) {
+    fetch.get();
+    long total = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      assertEquals(PAGE_SIZE, fetch.get().size());
+      total += System.nanoTime() - start;
+    }
+    return (double) total / ROUNDS;
+  }
+}
@@ -0,0 +1,146 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
+import com.sample.backend.model.Actor;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:keyset-pager-test")
+@Transactional
+class KeysetPagerTest {
+
+  @Autowired private KeysetPager keysetPager;
+  @Autowired private ActorRepository actorRepository;
+
+  @BeforeEach
+  void setUp() {
+    String[] lastNames = {"Bale", null, "Adams", "Bale", null, "Cruz", "Adams", "Bale"};
+    for (int i = 0; i < lastNames.length; i++) {
+      actorRepository.save(
+          Actor.builder()
+              .firstName("Keyset" + i)
+              .lastName(lastNames[i])
+              .birthDate(i % 3 == 0 ? null : LocalDate.of(1960 + i, 1, 1))
+              .build());
+    }
+  }
+
+  @Test
+  void page_ShouldVisitEveryRowOnceInSortOrder_WalkingForward() {
+    for (String sort : List.of("id", "lastName", "birthDate")) {
+      for (String direction : List.of("asc", "desc")) {
+        for (int size : List.of(1, 3, 100)) {
+          assertEquals(expectedIds(sort, direction), walkForward(sort, direction, size));
+        }
+      }
+    }
+  }
+
+  @Test
+  void page_ShouldVisitEveryRowOnceInSortOrder_WalkingBackward() {
+    for (String sort : List.of("id", "lastName", "birthDate")) {
+      for (String direction : List.of("asc", "desc")) {
+        assertEquals(expectedIds(sort, direction), walkBackward(sort, direction, 3));
+      }
+    }
+  }
+
+  @Test
+  void page_ShouldMarkFirstAndLastPages() {
+    PagedResponse<ActorDTO> first = keysetPager.page(ActorRepository.KEYSET, "", 2, "id", "asc");
+    assertTrue(first.first());
+    assertFalse(first.last());
+    assertNull(first.prev());
+    assertEquals(-1, first.totalElements());
+
+    PagedResponse<ActorDTO> all = keysetPager.page(ActorRepository.KEYSET, null, 1000, "id", "asc");
+    assertTrue(all.first());
+    assertTrue(all.last());
+    assertNull(all.next());
+  }
+
+  @Test
+  void page_ShouldRejectUnsupportedSortAndMalformedCursor() {
+    assertThrows(
+        BadRequestException.class,
+        () -> keysetPager.page(ActorRepository.KEYSET, "", 10, "nationality", "asc"));
+    assertThrows(
+        BadRequestException.class,
+        () -> keysetPager.page(ActorRepository.KEYSET, "not-a-cursor", 10, "id", "asc"));
+  }
+
+  @Test
+  void page_ShouldRejectCursorWhoseKeyDoesNotParse() {
+    String cursor = KeysetCursor.start("birthDate", false).after("not-a-date", 1).encode();
+    BadRequestException exception =
+        assertThrows(
+            BadRequestException.class,
+            () -> keysetPager.page(ActorRepository.KEYSET, cursor, 10, "id", "asc"));
+    assertEquals("Invalid cursor: " + cursor, exception.getMessage());
+  }
+
+  private List<Long> walkForward(String sort, String direction, int size) {
+    List<Long> ids = new ArrayList<>();
+    String cursor = "";
+    do {
+      PagedResponse<ActorDTO> page =
+          keysetPager.page(ActorRepository.KEYSET, cursor, size, sort, direction);
+      page.content().forEach(actor -> ids.add(actor.id()));
+      cursor = page.next();
+    } while (cursor != null);
+    return ids;
+  }
+
+  private List<Long> walkBackward(String sort, String direction, int size) {
+    PagedResponse<ActorDTO> page =
+        keysetPager.page(ActorRepository.KEYSET, "", size, sort, direction);
+    while (page.next() != null) {
+      page = keysetPager.page(ActorRepository.KEYSET, page.next(), size, sort, direction);
+    }
+    List<Long> ids = new ArrayList<>();
+    while (true) {
+      ids.addAll(0, page.content().stream().map(ActorDTO::id).toList());
+      if (page.prev() == null) {
+        return ids;
+      }
+      page = keysetPager.page(ActorRepository.KEYSET, page.prev(), size, sort, direction);
+    }
+  }
+
+  private List<Long> expectedIds(String sort, String direction) {
+    Comparator<ActorDTO> order =
+        switch (sort) {
+          case "lastName" ->
+              Comparator.comparing(
+                  ActorDTO::lastName, Comparator.nullsFirst(Comparator.naturalOrder()));
+          case "birthDate" ->
+              Comparator.comparing(
+                  ActorDTO::birthDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+          default -> (a, b) -> 0;
+        };
+    order = order.thenComparing(ActorDTO::id);
+    if (direction.equals("desc")) {
+      order = order.reversed();
+    }
+    return actorRepository.findAll().stream()
+        .map(actor -> actorRepository.findDTOById(actor.getId()).orElseThrow())
+        .sorted(order)
+        .map(ActorDTO::id)
+        .toList();
+  }
+}
@@ -0,0 +1,100 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
+import com.sample.backend.service.DirectorService;
+import com.sample.backend.service.MovieService;
+import com.sample.backend.service.RoleService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:row-counters-test")
+@DirtiesContext
+class RowCountersTest {
+
+  @Autowired private RowCounters rowCounters;
+  @Autowired private MovieService movieService;
+  @Autowired private DirectorService directorService;
+  @Autowired private RoleService roleService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void counts_ShouldFollowTheWritesOfTheServices() {
+    assertCountsMatchTheDatabase();
+
+    MovieDTO movie =
+        movieService.createMovie(
+            MovieDTO.builder()
+                .title("Memento")
+                .genre(Genre.MYSTERY)
+                .releaseDate(LocalDate.of(2000, 9, 5))
+                .durationMinutes(113)
+                .directorId(1L)
+                .build());
+    roleService.createRoles(
+        List.of(RoleDTO.builder().characterName("Leonard").movieId(movie.id()).actorId(1L).build()),
+        false);
+    assertCountsMatchTheDatabase();
+
+    movieService.patchMovie(movie.id(), Map.of("genre", "THRILLER"));
+    assertCountsMatchTheDatabase();
+
+    directorService.deleteDirector(1L);
+    assertCountsMatchTheDatabase();
+  }
+
+  @Test
+  void counts_ShouldIgnoreWritesThatRollBack() {
+    long movies = rowCounters.count(Movie.class);
+    long crime = rowCounters.countMovies(Genre.CRIME);
+
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              movieService.createMovie(
+                  MovieDTO.builder()
+                      .title("Reservoir Dogs")
+                      .genre(Genre.CRIME)
+                      .releaseDate(LocalDate.of(1992, 10, 23))
+                      .durationMinutes(99)
+                      .build());
+              status.setRollbackOnly();
+            });
+
+    assertEquals(movies, rowCounters.count(Movie.class));
+    assertEquals(crime, rowCounters.countMovies(Genre.CRIME));
+  }
+
+  private void assertCountsMatchTheDatabase() {
+    assertEquals(count("SELECT COUNT(*) FROM movie"), rowCounters.count(Movie.class));
+    assertEquals(count("SELECT COUNT(*) FROM director"), rowCounters.count(Director.class));
+    assertEquals(count("SELECT COUNT(*) FROM actor"), rowCounters.count(Actor.class));
+    assertEquals(count("SELECT COUNT(*) FROM role"), rowCounters.count(Role.class));
+    for (Genre genre : Genre.values()) {
+      assertEquals(
+          count("SELECT COUNT(*) FROM movie WHERE genre = '" + genre.name() + "'"),
+          rowCounters.countMovies(genre),
+          genre.name());
+    }
+  }
+
+  private long count(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+}
@@ -0,0 +1,159 @@
+package com.sample.backend.repository;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.model.Genre;
+import com.sample.backend.service.MovieService;
+import com.sample.backend.service.RoleService;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Counts the statements sent to the database per request, and times the requests, with the
+ * second-level and query caches enabled and disabled. The requests look up a few hundred directors
+ * and actors, and movies by genre, as the write endpoints and the genre search do. Run with {@code
+ * mvn test -Pbenchmark -Dtest=SecondLevelCacheBenchmark}; the row count can be changed with {@code
+ * -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class SecondLevelCacheBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+  private static final int PEOPLE = 500;
+  private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 2_000);
+  private static final long FIRST_ID = 1_000_000L;
+  private static final Genre[] GENRES = Genre.values();
+
+  @Test
+  void roundTripsPerRequestWithAndWithoutCache() {
+    List<String> report = new ArrayList<>();
+    for (boolean enabled : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context =
+          new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+              .web(WebApplicationType.NONE)
+              .run(
+                  "--spring.datasource.url=jdbc:h2:mem:second-level-cache-benchmark-" + enabled,
+                  "--spring.jpa.show-sql=false",
+                  "--catalog.loader.enabled=false",
+                  "--catalog.search.enabled=false",
+                  "--catalog.cache.enabled=" + enabled)) {
+        seed(context.getBean(JdbcTemplate.class));
+        MovieService movieService = context.getBean(MovieService.class);
+        RoleService roleService = context.getBean(RoleService.class);
+        Statistics statistics =
+            context
+                .getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        String cache = enabled ? "cache" : "no cache";
+        Random random = new Random(7);
+        report.add(
+            measure(
+                cache,
+                "create movie",
+                statistics,
+                () ->
+                    movieService.createMovie(
+                        MovieDTO.builder()
+                            .title("Benchmark Sequel")
+                            .genre(Genre.DRAMA)
+                            .releaseDate(LocalDate.of(2024, 1, 1))
+                            .durationMinutes(100)
+                            .directorId(FIRST_ID + random.nextInt(PEOPLE))
+                            .build())));
+        report.add(
+            measure(
+                cache,
+                "create role",
+                statistics,
+                () ->
+                    roleService.createRole(
+                        RoleDTO.builder()
+                            .characterName("Extra")
+                            .movieId(FIRST_ID + random.nextInt(PEOPLE))
+                            .actorId(FIRST_ID + random.nextInt(PEOPLE))
+                            .build())));
+        report.add(
+            measure(
+                cache,
+                "movies by genre",
+                statistics,
+                () ->
+                    movieService.searchMovies(
+                        null, GENRES[random.nextInt(GENRES.length)], random.nextInt(3), 20)));
+      }
+    }
+    log.info(
+        "{} movies, {} directors and actors; mean of {} requests:\n{}",
+        ROWS,
+        PEOPLE,
+        ROUNDS,
+        String.join("\n", report));
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    List<Object[]> people = new ArrayList<>();
+    List<Object[]> movies = new ArrayList<>();
+    Date birthDate = Date.valueOf(LocalDate.of(1970, 1, 1));
+    for (int i = 0; i < PEOPLE; i++) {
+      people.add(new Object[] {FIRST_ID + i, "Person", "Number" + i, birthDate, "Danish"});
+    }
+    for (int i = 0; i < ROWS; i++) {
+      movies.add(
+          new Object[] {
+            FIRST_ID + i,
+            "Benchmark Movie " + i,
+            GENRES[i % GENRES.length].name(),
+            Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i % 7_000)),
+            90 + i % 60,
+            FIRST_ID + i % PEOPLE
+          });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO director (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        people);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO actor (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        people);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO movie (id, title, genre, release_date, duration_minutes, director_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?)",
+        movies);
+  }
+
+  private static String measure(
+      String cache, String name, Statistics statistics, Runnable request) {
+    for (int i = 0; i < ROUNDS; i++) {
+      request.run();
+    }
+    long statements = statistics.getPrepareStatementCount();
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      request.run();
+    }
+    long nanos = System.nanoTime() - start;
+    return String.format(
+        "%-16s %-9s %5.2f statements %8.1f us",
+        name,
+        cache,
+        (double) (statistics.getPrepareStatementCount() - statements) / ROUNDS,
+        nanos / 1e3 / ROUNDS);
+  }
+}
@@ -0,0 +1,128 @@
+package com.sample.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.loader.CatalogCsvLoader;
+import com.sample.backend.model.CacheRegions;
+import com.sample.backend.model.Director;
+import com.sample.backend.model.Genre;
+import com.sample.backend.service.MovieService;
+import com.sample.backend.service.RoleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:second-level-cache-test")
+@DirtiesContext
+class SecondLevelCacheTest {
+
+  @Autowired private MovieService movieService;
+  @Autowired private RoleService roleService;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private CatalogCsvLoader catalogCsvLoader;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void clearStatistics() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    entityManagerFactory.getCache().evictAll();
+    statistics.clear();
+  }
+
+  @Test
+  void referencedRows_ShouldBeReadFromTheCacheAfterTheFirstRequest() {
+    MovieDTO movie = movieService.createMovie(movie("Memento", Genre.MYSTERY));
+    roleService.createRole(role("Leonard", movie.id()));
+    long statements = statistics.getPrepareStatementCount();
+    long directorMisses =
+        statistics.getDomainDataRegionStatistics(CacheRegions.DIRECTORS).getMissCount();
+    long actorMisses = statistics.getDomainDataRegionStatistics(CacheRegions.ACTORS).getMissCount();
+
+    movieService.createMovie(movie("Insomnia", Genre.THRILLER));
+    roleService.createRole(role("Natalie", movie.id()));
+
+    // The director, movie and actor come from the cache, so only the two inserts are sent.
+    assertEquals(2, statistics.getPrepareStatementCount() - statements);
+    assertEquals(
+        directorMisses,
+        statistics.getDomainDataRegionStatistics(CacheRegions.DIRECTORS).getMissCount());
+    assertEquals(
+        actorMisses, statistics.getDomainDataRegionStatistics(CacheRegions.ACTORS).getMissCount());
+    assertTrue(statistics.getDomainDataRegionStatistics(CacheRegions.MOVIES).getHitCount() >= 1);
+  }
+
+  @Test
+  void genreQuery_ShouldBeCachedUntilAMovieIsWritten() {
+    int before = movieService.getMoviesByGenre(Genre.SCI_FI).size();
+    long statements = statistics.getPrepareStatementCount();
+    assertEquals(before, movieService.getMoviesByGenre(Genre.SCI_FI).size());
+    assertEquals(statements, statistics.getPrepareStatementCount());
+    assertEquals(1, statistics.getQueryCacheHitCount());
+
+    MovieDTO movie = movieService.createMovie(movie("Interstellar", Genre.SCI_FI));
+    assertEquals(before + 1, movieService.getMoviesByGenre(Genre.SCI_FI).size());
+
+    movieService.patchMovie(movie.id(), Map.of("genre", "DRAMA"));
+    assertEquals(before, movieService.getMoviesByGenre(Genre.SCI_FI).size());
+  }
+
+  @Test
+  void import_ShouldEmptyTheCaches() {
+    movieService.getMoviesByGenre(Genre.CRIME);
+    movieService.createMovie(movie("Tenet", Genre.ACTION));
+    assertTrue(entityManagerFactory.getCache().contains(Director.class, 1L));
+
+    catalogCsvLoader.load();
+
+    assertFalse(entityManagerFactory.getCache().contains(Director.class, 1L));
+    assertEquals(2, movieService.getMoviesByGenre(Genre.CRIME).size());
+  }
+
+  @Test
+  void hitsAndMisses_ShouldBePublishedAsMetrics() {
+    movieService.getMoviesByGenre(Genre.ACTION);
+    movieService.getMoviesByGenre(Genre.ACTION);
+
+    assertNotNull(
+        meterRegistry
+            .find("hibernate.second.level.cache.requests")
+            .tags("region", CacheRegions.DIRECTORS, "result", "hit")
+            .functionCounter());
+    assertTrue(
+        meterRegistry
+                .get("hibernate.cache.query.requests")
+                .tag("result", "hit")
+                .functionCounter()
+                .count()
+            >= 1);
+  }
+
+  private static RoleDTO role(String characterName, Long movieId) {
+    return RoleDTO.builder().characterName(characterName).movieId(movieId).actorId(1L).build();
+  }
+
+  private static MovieDTO movie(String title, Genre genre) {
+    return MovieDTO.builder()
+        .title(title)
+        .genre(genre)
+        .releaseDate(LocalDate.of(2000, 9, 5))
+        .durationMinutes(113)
+        .directorId(1L)
+        .build();
+  }
+}
@@ -0,0 +1,119 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.search.AutocompleteIndex.Completion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long an {@link AutocompleteIndex} of synthetic titles and names takes to build and
+ * the latency of a top 10 query by prefix length, before and after a batch of changes that are not
+ * merged yet. Run with {@code mvn test -Pbenchmark -Dtest=AutocompleteIndexBenchmark}; the row
+ * count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class AutocompleteIndexBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int TOP = 10;
+  private static final int ROUNDS = 10_000;
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ne", "ru", "sta", "tor", "vin", "zel", "qua", "bri", "dor", "fen", "gha",
+    "jun", "pex", "wyl", "xan", "yor", "ost", "ab", "el", "im", "oc", "ub", "cre", "dru", "fli"
+  };
+
+  @Test
+  void topTenLatencyByPrefixLength() {
+    Random random = new Random(7);
+    String[] words = new String[20_000];
+    for (int i = 0; i < words.length; i++) {
+      words[i] =
+          SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+    List<Completion> completions = new ArrayList<>(ROWS);
+    for (int id = 1; id <= ROWS; id++) {
+      StringBuilder text = new StringBuilder(random.nextInt(3) == 0 ? "The" : "");
+      for (int word = random.nextInt(3); word >= 0; word--) {
+        // Skewed towards the first words, as real titles and names reuse common words.
+        text.append(' ').append(words[(int) (words.length * Math.pow(random.nextDouble(), 3))]);
+      }
+      Type type = id % 3 == 0 ? Type.MOVIE : id % 3 == 1 ? Type.ACTOR : Type.DIRECTOR;
+      completions.add(
+          new Completion(
+              type, id, text.toString().strip(), (long) (1000 * Math.pow(random.nextDouble(), 8))));
+    }
+    AutocompleteIndex index = new AutocompleteIndex(TOP, Integer.MAX_VALUE, Runnable::run);
+    long start = System.nanoTime();
+    index.load(completions);
+    long build = System.nanoTime() - start;
+    assertEquals(ROWS, index.size());
+
+    List<String> report = new ArrayList<>();
+    measureAll(report, "", index, words, random);
+    for (int i = 0; i < 1_000; i++) {
+      long id = 1 + random.nextInt(ROWS);
+      if (i % 2 == 0) {
+        index.remove(Type.MOVIE, id - id % 3);
+      } else {
+        index.put(Type.ACTOR, ROWS + i, words[random.nextInt(words.length)]);
+      }
+    }
+    measureAll(report, "1000 changes, ", index, words, random);
+    log.info(
+        "Autocomplete index of {} titles and names: built in {} ms, about {} MB."
+            + " Latency of {} top {} queries:\n{}",
+        ROWS,
+        build / 1_000_000,
+        index.memoryBytes() / (1024 * 1024),
+        ROUNDS,
+        TOP,
+        String.join("\n", report));
+  }
+
+  private static void measureAll(
+      List<String> report, String label, AutocompleteIndex index, String[] words, Random random) {
+    for (int length = 1; length <= 6; length++) {
+      int prefix = length;
+      report.add(
+          measure(
+              label + prefix + " character(s)",
+              () -> index.complete(words[random.nextInt(words.length)].substring(0, prefix), TOP)));
+    }
+    report.add(
+        measure(
+            label + "two words",
+            () ->
+                index.complete(
+                    words[random.nextInt(words.length / 10)]
+                        + " "
+                        + words[random.nextInt(words.length)].substring(0, 2),
+                    TOP)));
+  }
+
+  private static String measure(String name, Supplier<List<Completion>> query) {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      query.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      query.get();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-32s p50 %8.3f ms   p99 %8.3f ms",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6);
+  }
+}
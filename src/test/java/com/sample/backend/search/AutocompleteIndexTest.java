@@ -0,0 +1,124 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.search.AutocompleteIndex.Completion;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AutocompleteIndexTest {
+
+  @Test
+  void complete_ShouldMatchWordStartsBestFirst() {
+    AutocompleteIndex index = new AutocompleteIndex(10);
+    index.load(
+        List.of(
+            new Completion(Type.MOVIE, 1, "The Dark Knight", 40),
+            new Completion(Type.MOVIE, 2, "Dark City", 5),
+            new Completion(Type.MOVIE, 3, "Amélie", 12),
+            new Completion(Type.ACTOR, 1, "Darko Peric", 5),
+            new Completion(Type.DIRECTOR, 1, "Christopher Nolan", 9)));
+
+    assertEquals(List.of("The Dark Knight", "Dark City", "Darko Peric"), texts(index, "dark", 10));
+    assertEquals(List.of("The Dark Knight"), texts(index, "DARK kn", 10));
+    assertEquals(List.of("The Dark Knight"), texts(index, "kni", 10));
+    assertEquals(List.of("Amélie"), texts(index, "ame", 10));
+    assertEquals(List.of("Christopher Nolan"), texts(index, "nol", 10));
+    assertEquals(List.of("The Dark Knight", "Amélie"), texts(index, "", 2));
+    assertEquals(List.of(), texts(index, "ark", 10));
+    assertEquals(5, index.size());
+  }
+
+  @Test
+  void complete_ShouldIncludeChangesMadeSinceTheLoad() {
+    AutocompleteIndex index = new AutocompleteIndex(2);
+    index.load(
+        List.of(
+            new Completion(Type.MOVIE, 1, "Heat", 30),
+            new Completion(Type.MOVIE, 2, "Heathers", 20),
+            new Completion(Type.MOVIE, 3, "Heatwave", 10),
+            new Completion(Type.MOVIE, 4, "Heat Lightning", 1)));
+
+    index.remove(Type.MOVIE, 1);
+    index.put(Type.MOVIE, 2, "Hellraiser");
+    index.put(Type.ACTOR, 7, "Heath Ledger");
+    index.remove(Type.ACTOR, 99);
+
+    // The two best under "heat" are gone, so the rest are read from below the node.
+    assertEquals(List.of("Heatwave", "Heat Lightning"), texts(index, "heat", 2));
+    assertEquals(List.of("Heath Ledger"), texts(index, "heath", 2));
+    assertEquals(List.of("Heath Ledger"), texts(index, "ledg", 2));
+    assertEquals(List.of("Hellraiser"), texts(index, "hell", 2));
+    assertEquals(20, index.complete("hell", 2).getFirst().weight());
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  void put_ShouldMergeTheChangesIntoANewTrie() {
+    AutocompleteIndex index = new AutocompleteIndex(5, 3, Runnable::run);
+    index.load(List.of(new Completion(Type.MOVIE, 1, "Alien", 8)));
+
+    index.put(Type.MOVIE, 2, "Aliens");
+    index.put(Type.MOVIE, 3, "Alien 3");
+    index.remove(Type.MOVIE, 1);
+
+    assertEquals(List.of("Aliens", "Alien 3"), texts(index, "ali", 5));
+    assertEquals(2, index.size());
+    index.put(Type.MOVIE, 4, "Alien Resurrection");
+    assertEquals(List.of("Aliens", "Alien 3", "Alien Resurrection"), texts(index, "ali", 5));
+  }
+
+  @Test
+  void complete_ShouldReturnTheBestOfAllMatchesAfterRandomWrites() {
+    String[] words = {"star", "stars", "start", "wars", "war", "trek", "dark", "darkest", "the"};
+    Random random = new Random(42);
+    AutocompleteIndex index = new AutocompleteIndex(5, 50, Runnable::run);
+    Map<Long, Completion> expected = new LinkedHashMap<>();
+    List<Completion> loaded = new ArrayList<>();
+    for (long id = 0; id < 500; id++) {
+      Completion completion =
+          new Completion(Type.MOVIE, id, title(words, random), random.nextInt(100));
+      loaded.add(completion);
+      expected.put(id, completion);
+    }
+    index.load(loaded);
+    for (int i = 0; i < 2_000; i++) {
+      long id = random.nextInt(600);
+      if (random.nextInt(3) == 0) {
+        index.remove(Type.MOVIE, id);
+        expected.remove(id);
+      } else {
+        String title = title(words, random);
+        index.put(Type.MOVIE, id, title);
+        Completion previous = expected.get(id);
+        expected.put(
+            id, new Completion(Type.MOVIE, id, title, previous == null ? 0 : previous.weight()));
+      }
+      String prefix = words[random.nextInt(words.length)].substring(0, 1 + random.nextInt(3));
+      List<Completion> best =
+          expected.values().stream()
+              .filter(completion -> (" " + completion.text().toLowerCase()).contains(" " + prefix))
+              .sorted(AutocompleteIndex.BEST_FIRST)
+              .limit(5)
+              .toList();
+      assertEquals(best, index.complete(prefix, 5), prefix);
+    }
+  }
+
+  private static String title(String[] words, Random random) {
+    StringBuilder title = new StringBuilder(words[random.nextInt(words.length)]);
+    for (int word = random.nextInt(3); word > 0; word--) {
+      title.append(' ').append(words[random.nextInt(words.length)]);
+    }
+    return title.toString();
+  }
+
+  private static List<String> texts(AutocompleteIndex index, String prefix, int limit) {
+    return index.complete(prefix, limit).stream().map(Completion::text).toList();
+  }
+}
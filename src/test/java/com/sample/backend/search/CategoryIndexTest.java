@@ -0,0 +1,39 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CategoryIndexTest {
+
+  private final CategoryIndex index = new CategoryIndex();
+
+  @Test
+  void counts_ShouldListTheValuesMostFirstThenByValue() {
+    index.put(1, "American");
+    index.put(2, "British");
+    index.put(3, "American");
+    index.put(4, "Irish");
+    index.put(5, null);
+
+    assertEquals(
+        List.of(Map.entry("American", 2L), Map.entry("British", 1L), Map.entry("Irish", 1L)),
+        List.copyOf(index.counts().entrySet()));
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  void put_ShouldMoveADocumentToItsNewValue() {
+    index.put(1, "American");
+    index.put(2, "British");
+    index.put(2, "American");
+    index.put(3, "Irish");
+    index.remove(3);
+    index.put(1, null);
+
+    assertEquals(Map.of("American", 1L), index.counts());
+    assertEquals(1, index.size());
+  }
+}
@@ -0,0 +1,79 @@
+package com.sample.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long a {@link CoStarGraph} of synthetic roles takes to build, and the latency of
+ * co-star lists and of paths between random actors on one thread and with every frontier expanded
+ * in parallel. Run with {@code mvn test -Pbenchmark -Dtest=CoStarGraphBenchmark}; the role count
+ * can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class CoStarGraphBenchmark {
+
+  private static final int ROLES = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int ROUNDS = 200;
+
+  @Test
+  void pathLatency() {
+    int actors = ROLES / 8;
+    int movies = ROLES / 10;
+    CoStarGraph sequential = new CoStarGraph(Integer.MAX_VALUE);
+    CoStarGraph parallel = new CoStarGraph(1 << 14);
+    Random random = new Random(11);
+    for (long role = 1; role <= ROLES; role++) {
+      // Skewed so that a few actors have many roles, as in a real catalogue.
+      long actor = (long) (actors * Math.pow(random.nextDouble(), 2));
+      long movie = random.nextInt(movies);
+      sequential.put(role, actor, movie);
+      parallel.put(role, actor, movie);
+    }
+    long start = System.nanoTime();
+    sequential.coStars(0, 1);
+    long build = System.nanoTime() - start;
+    parallel.coStars(0, 1);
+
+    List<String> report = new ArrayList<>();
+    report.add(measure("co-stars", () -> sequential.coStars(random.nextInt(actors), 20).size()));
+    report.add(
+        measure(
+            "path, 1 thread",
+            () -> sequential.path(random.nextInt(actors), random.nextInt(actors), 6).length));
+    report.add(
+        measure(
+            "path, parallel frontiers",
+            () -> parallel.path(random.nextInt(actors), random.nextInt(actors), 6).length));
+    log.info(
+        "Co-star graph of {} roles: built in {} ms, about {} MB. Latency of {} queries:\n{}",
+        ROLES,
+        build / 1_000_000,
+        sequential.memoryBytes() / (1024 * 1024),
+        ROUNDS,
+        String.join("\n", report));
+  }
+
+  private static String measure(String name, Supplier<Integer> query) {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      query.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    long found = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      found += query.get();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-26s p50 %8.3f ms   p99 %8.3f ms   %5.1f results",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6, (double) found / ROUNDS);
+  }
+}
@@ -0,0 +1,126 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.search.CoStarGraph.CoStar;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CoStarGraphTest {
+
+  private final CoStarGraph graph = new CoStarGraph(Integer.MAX_VALUE);
+
+  @Test
+  void coStars_ShouldCountSharedMoviesOnce() {
+    graph.put(1, 1L, 100L);
+    graph.put(2, 2L, 100L);
+    graph.put(3, 2L, 100L);
+    graph.put(4, 1L, 200L);
+    graph.put(5, 2L, 200L);
+    graph.put(6, 3L, 200L);
+    graph.put(7, 4L, 300L);
+
+    assertEquals(List.of(new CoStar(2, 2), new CoStar(3, 1)), graph.coStars(1, 10));
+    assertEquals(List.of(new CoStar(2, 2)), graph.coStars(1, 1));
+    assertEquals(List.of(), graph.coStars(4, 10));
+    assertEquals(List.of(), graph.coStars(99, 10));
+  }
+
+  @Test
+  void path_ShouldFindAShortestChainWithinTheDegrees() {
+    // 1 -100- 2 -200- 3 -300- 4, and a shortcut 1 -400- 5 -500- 4.
+    graph.put(1, 1L, 100L);
+    graph.put(2, 2L, 100L);
+    graph.put(3, 2L, 200L);
+    graph.put(4, 3L, 200L);
+    graph.put(5, 3L, 300L);
+    graph.put(6, 4L, 300L);
+
+    assertArrayEquals(new long[] {1, 100, 2, 200, 3, 300, 4}, graph.path(1, 4, 6));
+    assertArrayEquals(new long[] {4, 300, 3, 200, 2, 100, 1}, graph.path(4, 1, 6));
+    assertArrayEquals(new long[0], graph.path(1, 4, 2));
+    assertArrayEquals(new long[] {2}, graph.path(2, 2, 6));
+
+    graph.put(7, 1L, 400L);
+    graph.put(8, 5L, 400L);
+    graph.put(9, 5L, 500L);
+    graph.put(10, 4L, 500L);
+
+    assertArrayEquals(new long[] {1, 400, 5, 500, 4}, graph.path(1, 4, 2));
+  }
+
+  @Test
+  void writes_ShouldBeSeenByTheNextQuery() {
+    graph.put(1, 1L, 100L);
+    graph.put(2, 2L, 100L);
+    assertArrayEquals(new long[] {1, 100, 2}, graph.path(1, 2, 1));
+
+    graph.put(2, 2L, 200L);
+    assertArrayEquals(new long[0], graph.path(1, 2, 6));
+
+    graph.put(2, 2L, 100L);
+    graph.remove(1);
+    assertArrayEquals(new long[0], graph.path(1, 2, 6));
+    assertEquals(1, graph.size());
+
+    graph.put(3, 1L, 100L);
+    graph.put(4, null, 100L);
+    assertEquals(List.of(new CoStar(1, 1)), graph.coStars(2, 10));
+    assertEquals(2, graph.size());
+  }
+
+  @Test
+  void path_ShouldBeAsShortAsABreadthFirstSearch_WhenFrontiersAreExpandedInParallel() {
+    CoStarGraph parallel = new CoStarGraph(1);
+    Map<Long, Set<Long>> neighbours = new HashMap<>();
+    Random random = new Random(3);
+    for (long role = 0; role < 20_000; role++) {
+      long actor = random.nextInt(5_000);
+      long movie = 10_000 + random.nextInt(4_000);
+      graph.put(role, actor, movie);
+      parallel.put(role, actor, movie);
+      neighbours.computeIfAbsent(actor, key -> new HashSet<>()).add(movie);
+      neighbours.computeIfAbsent(movie, key -> new HashSet<>()).add(actor);
+    }
+    for (int i = 0; i < 50; i++) {
+      long from = random.nextInt(5_000);
+      long to = random.nextInt(5_000);
+      long[] path = graph.path(from, to, 6);
+      assertArrayEquals(path, parallel.path(from, to, 6));
+      int edges = distance(neighbours, from, to);
+      assertEquals(edges <= 12 ? edges + 1 : 0, path.length);
+      for (int step = 1; step < path.length; step++) {
+        assertTrue(neighbours.get(path[step - 1]).contains(path[step]));
+      }
+    }
+  }
+
+  /** Number of edges between two vertices by a plain breadth-first search, or MAX_VALUE. */
+  private static int distance(Map<Long, Set<Long>> neighbours, long from, long to) {
+    if (!neighbours.containsKey(from) || !neighbours.containsKey(to)) {
+      return Integer.MAX_VALUE;
+    }
+    Map<Long, Integer> distances = new HashMap<>(Map.of(from, 0));
+    ArrayDeque<Long> queue = new ArrayDeque<>(List.of(from));
+    while (!queue.isEmpty()) {
+      long vertex = queue.poll();
+      if (vertex == to) {
+        return distances.get(vertex);
+      }
+      for (long neighbour : neighbours.get(vertex)) {
+        if (distances.putIfAbsent(neighbour, distances.get(vertex) + 1) == null) {
+          queue.add(neighbour);
+        }
+      }
+    }
+    return Integer.MAX_VALUE;
+  }
+}
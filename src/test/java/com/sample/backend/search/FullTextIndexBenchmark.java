@@ -0,0 +1,100 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long a {@link FullTextIndex} of synthetic movie titles takes to build and the
+ * latency of a top 20 query by number of query words. Run with {@code mvn test -Pbenchmark
+ * -Dtest=FullTextIndexBenchmark}; the row count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class FullTextIndexBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int TOP = 20;
+  private static final int ROUNDS = 1_000;
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ne", "ru", "sta", "tor", "vin", "zel", "qua", "bri", "dor", "fen", "gha",
+    "jun", "pex", "wyl", "xan", "yor", "ost", "ab", "el", "im", "oc", "ub", "cre", "dru", "fli"
+  };
+
+  @Test
+  void topTwentyLatencyByQueryLength() {
+    Random random = new Random(7);
+    String[] words = new String[20_000];
+    for (int i = 0; i < words.length; i++) {
+      words[i] =
+          SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+    FullTextIndex index = new FullTextIndex("movies");
+    long start = System.nanoTime();
+    for (int id = 1; id <= ROWS; id++) {
+      StringBuilder title = new StringBuilder(random.nextInt(3) == 0 ? "The " : "");
+      for (int word = random.nextInt(4); word >= 0; word--) {
+        // Skewed towards the first words, as real titles reuse common words.
+        title.append(words[(int) (words.length * Math.pow(random.nextDouble(), 3))]).append(' ');
+      }
+      index.put(id, title.toString());
+    }
+    long build = System.nanoTime() - start;
+    assertEquals(ROWS, index.size());
+
+    List<String> report = new ArrayList<>();
+    report.add(measure("stop word", () -> index.search("the", TOP)));
+    for (int length = 1; length <= 3; length++) {
+      int terms = length;
+      report.add(
+          measure(
+              terms + " word(s)",
+              () -> {
+                StringBuilder query = new StringBuilder();
+                for (int i = 0; i < terms; i++) {
+                  query.append(words[random.nextInt(words.length / 10)]).append(' ');
+                }
+                return index.search(query.toString(), TOP);
+              }));
+    }
+    report.add(
+        measure(
+            "stop word + rare word",
+            () -> index.search("the " + words[words.length - 1 - random.nextInt(1000)], TOP)));
+    log.info(
+        "Full-text index of {} titles: built in {} ms, {} terms, about {} MB."
+            + " Latency of {} top {} queries:\n{}",
+        ROWS,
+        build / 1_000_000,
+        index.terms(),
+        index.memoryBytes() / (1024 * 1024),
+        ROUNDS,
+        TOP,
+        String.join("\n", report));
+  }
+
+  private static String measure(String name, Supplier<List<FullTextIndex.ScoredId>> query) {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      query.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      query.get();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-22s p50 %8.3f ms   p99 %8.3f ms",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6);
+  }
+}
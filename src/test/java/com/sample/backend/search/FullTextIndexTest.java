@@ -0,0 +1,85 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.search.FullTextIndex.ScoredId;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FullTextIndexTest {
+
+  private final FullTextIndex index = new FullTextIndex("test");
+
+  @Test
+  void terms_ShouldFoldAccentsAndCaseAndStemPlurals() {
+    assertEquals(
+        List.of("amelie", "poulain", "ocean", "eleven", "story", "glass"),
+        TextAnalyzer.terms("Amélie  POULAIN: Ocean's Elevens, Stories & Glass"));
+    assertEquals("matche", TextAnalyzer.stem("matches"));
+    assertEquals("status", TextAnalyzer.stem("status"));
+    assertEquals(List.of(), TextAnalyzer.terms(" - "));
+  }
+
+  @Test
+  void search_ShouldRankRareTermsAndShortDocumentsFirst() {
+    index.put(1, "The Dark Knight");
+    index.put(2, "The Dark Knight Rises");
+    index.put(3, "Dark City");
+    index.put(4, "The Prestige");
+
+    assertEquals(List.of(1L, 2L, 3L), ids(index.search("dark knight", 10)));
+    assertEquals(List.of(3L, 4L, 1L, 2L), ids(index.search("the city", 10)));
+    assertEquals(List.of(3L, 4L), ids(index.search("the city", 2)));
+    assertEquals(List.of(4L), ids(index.search("PRESTIGES", 10)));
+    assertEquals(List.of(), index.search("memento", 10));
+  }
+
+  @Test
+  void put_ShouldReplaceAndRemoveDocuments() {
+    index.put(1, "Memento");
+    index.put(2, "Insomnia");
+    index.put(1, "Following");
+    index.remove(2);
+    index.remove(42);
+
+    assertEquals(List.of(), index.search("memento insomnia", 10));
+    assertEquals(List.of(1L), ids(index.search("following", 10)));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void search_ShouldReturnTheBestOfTheExhaustiveRankingAfterRandomWrites() {
+    String[] words = {"star", "wars", "trek", "dark", "night", "knight", "heat", "alien", "the"};
+    Random random = new Random(42);
+    for (int i = 0; i < 20_000; i++) {
+      long id = random.nextInt(2_000);
+      if (random.nextInt(4) == 0) {
+        index.remove(id);
+      } else {
+        StringBuilder text = new StringBuilder();
+        for (int word = random.nextInt(6); word >= 0; word--) {
+          text.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        index.put(id, text.toString());
+      }
+    }
+
+    for (String query : new String[] {"star", "dark knight", "the heat", "alien trek wars"}) {
+      List<ScoredId> all = index.search(query, Integer.MAX_VALUE);
+      List<ScoredId> top = index.search(query, 10);
+      assertEquals(10, top.size(), query);
+      for (int i = 0; i < top.size(); i++) {
+        assertEquals(all.get(i).score(), top.get(i).score(), 1e-9, query);
+      }
+      for (int i = 1; i < all.size(); i++) {
+        assertTrue(all.get(i - 1).score() >= all.get(i).score(), query);
+      }
+    }
+  }
+
+  private static List<Long> ids(List<ScoredId> hits) {
+    return hits.stream().map(ScoredId::id).toList();
+  }
+}
@@ -0,0 +1,133 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long a phonetic {@link FuzzyIndex} of synthetic person names takes to build, how
+ * much heap it reports, and the latency of a page of matches for misspelled names. Run with {@code
+ * mvn test -Pbenchmark -Dtest=FuzzyIndexBenchmark}; the row count can be changed with {@code
+ * -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class FuzzyIndexBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+  private static final int PAGE_SIZE = 20;
+  private static final int ROUNDS = 2_000;
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ne", "ru", "sta", "tor", "vin", "zel", "qua", "bri", "dor", "fen", "gha",
+    "jun", "pex", "wyl", "xan", "yor", "ost", "ab", "el", "im", "oc", "ub", "cre", "dru", "fli",
+    "glo", "hap", "isk", "jor", "kle", "mun", "nix", "orb", "pla", "que", "rho", "sku", "tva",
+    "umb", "vex", "wha", "yel", "zor", "ae", "iu", "ch", "th"
+  };
+
+  @Test
+  void lookupLatencyOfMisspelledNames() {
+    Random random = new Random(7);
+    String[] firstNames = words(random, 5_000);
+    String[] lastNames = words(random, 100_000);
+    FuzzyIndex index = new FuzzyIndex("actors", true);
+    long start = System.nanoTime();
+    for (int id = 1; id <= ROWS; id++) {
+      index.put(
+          id,
+          firstNames[random.nextInt(firstNames.length)]
+              + " "
+              + lastNames[random.nextInt(lastNames.length)],
+          0);
+    }
+    long build = System.nanoTime() - start;
+    assertEquals(ROWS, index.size());
+
+    List<String> report = new ArrayList<>();
+    report.add(
+        measure(
+            "exact last name",
+            () -> find(index, lastNames[random.nextInt(lastNames.length)], true)));
+    report.add(
+        measure(
+            "one typo in last name",
+            () -> find(index, typo(random, lastNames[random.nextInt(lastNames.length)]), true)));
+    report.add(
+        measure(
+            "two typos in last name",
+            () ->
+                find(
+                    index,
+                    typo(random, typo(random, lastNames[random.nextInt(lastNames.length)])),
+                    false)));
+    report.add(
+        measure(
+            "full name, one typo each",
+            () ->
+                find(
+                    index,
+                    typo(random, firstNames[random.nextInt(firstNames.length)])
+                        + " "
+                        + typo(random, lastNames[random.nextInt(lastNames.length)]),
+                    false)));
+    report.add(measure("no match", () -> find(index, "zzzqqqxxx", false)));
+    log.info(
+        "Fuzzy index of {} names: built in {} ms, {} words, about {} MB."
+            + " Latency of {} lookups of a page of {}:\n{}",
+        ROWS,
+        build / 1_000_000,
+        index.words(),
+        index.memoryBytes() / (1024 * 1024),
+        ROUNDS,
+        PAGE_SIZE,
+        String.join("\n", report));
+  }
+
+  private static long[] find(FuzzyIndex index, String query, boolean mustMatch) {
+    long[] ids = index.find(query, TrigramIndex.ANY_TAG, 0, PAGE_SIZE).ids();
+    assertTrue(!mustMatch || ids.length > 0, query);
+    return ids;
+  }
+
+  private static String[] words(Random random, int count) {
+    String[] words = new String[count];
+    for (int i = 0; i < count; i++) {
+      words[i] =
+          SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+    return words;
+  }
+
+  /** Replaces one character of {@code word} other than the first. */
+  private static String typo(Random random, String word) {
+    char[] chars = word.toCharArray();
+    chars[1 + random.nextInt(chars.length - 1)] = (char) ('a' + random.nextInt(26));
+    return new String(chars);
+  }
+
+  private static String measure(String name, Supplier<long[]> lookup) {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      lookup.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    long matches = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      matches += lookup.get().length;
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-26s p50 %8.3f ms   p99 %8.3f ms   %5.1f matches",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6, (double) matches / ROUNDS);
+  }
+}
@@ -0,0 +1,155 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class FuzzyIndexTest {
+
+  private final FuzzyIndex names = new FuzzyIndex("names", true);
+  private final FuzzyIndex titles = new FuzzyIndex("titles", false);
+
+  @Test
+  void distance_ShouldCountInsertionsDeletionsAndReplacements() {
+    assertEquals(0, BkTree.distance("nolan", "nolan"));
+    assertEquals(1, BkTree.distance("nolan", "nolen"));
+    assertEquals(1, BkTree.distance("nolan", "nollan"));
+    assertEquals(2, BkTree.distance("tarantino", "tarentno"));
+    assertEquals(3, BkTree.distance("kitten", "sitting"));
+    assertEquals(4, BkTree.distance("", "bale"));
+    assertEquals(4, BkTree.distance("bale", ""));
+    assertEquals(1, BkTree.distance("amelie", "amélie"));
+    String longer = "a".repeat(70);
+    assertEquals(2, BkTree.distance(longer, longer.substring(2)));
+    assertEquals(2, BkTree.distance(longer.substring(2), longer));
+  }
+
+  @Test
+  void distance_ShouldAgreeWithTheTable() {
+    Random random = new Random(7);
+    for (int i = 0; i < 2_000; i++) {
+      String left = randomWord(random, random.nextInt(66));
+      String right = randomWord(random, random.nextInt(12));
+      int[] previous = new int[right.length() + 1];
+      for (int j = 0; j <= right.length(); j++) {
+        previous[j] = j;
+      }
+      for (int k = 1; k <= left.length(); k++) {
+        int[] current = new int[right.length() + 1];
+        current[0] = k;
+        for (int j = 1; j <= right.length(); j++) {
+          int replace = previous[j - 1] + (left.charAt(k - 1) == right.charAt(j - 1) ? 0 : 1);
+          current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+        }
+        previous = current;
+      }
+      assertEquals(previous[right.length()], BkTree.distance(left, right), left + " " + right);
+    }
+  }
+
+  @Test
+  void bkTree_ShouldFindTheSameWordsAsAScan() {
+    Random random = new Random(42);
+    List<String> words = new ArrayList<>();
+    BkTree tree = new BkTree();
+    for (int i = 0; i < 2_000; i++) {
+      StringBuilder word = new StringBuilder();
+      for (int length = 3 + random.nextInt(6); word.length() < length; ) {
+        word.append((char) ('a' + random.nextInt(6)));
+      }
+      words.add(word.toString());
+      tree.add(word.toString());
+    }
+    for (int i = 0; i < 50; i++) {
+      String query = words.get(random.nextInt(words.size())).substring(1);
+      TreeSet<String> expected = new TreeSet<>();
+      for (String word : words) {
+        if (BkTree.distance(query, word) <= 2) {
+          expected.add(word);
+        }
+      }
+      TreeSet<String> found = new TreeSet<>();
+      tree.search(query, 2, (word, distance) -> found.add(word));
+      assertEquals(expected, found, query);
+    }
+  }
+
+  @Test
+  void find_ShouldMatchWordsWithinTheirTypoBudget() {
+    titles.put(1, "Inception", 0);
+    titles.put(2, "The Dark Knight", 0);
+    titles.put(3, "Pulp Fiction", 0);
+
+    assertArrayEquals(new long[] {1}, find(titles, "Inseption"));
+    assertArrayEquals(new long[] {2}, find(titles, "dark knigth"));
+    assertArrayEquals(new long[] {3}, find(titles, "PULP ficton"));
+    // Up to two characters no typo is allowed, up to five one.
+    assertArrayEquals(new long[0], find(titles, "th dark"));
+    assertArrayEquals(new long[0], find(titles, "drak"));
+  }
+
+  @Test
+  void find_ShouldMatchNamesThatSoundAlike() {
+    names.put(1, "Joaquin Phoenix", 0);
+    names.put(2, "Christian Bale", 0);
+    titles.put(1, "Joaquin Phoenix", 0);
+
+    assertArrayEquals(new long[] {1}, find(names, "fenix"));
+    assertArrayEquals(new long[] {2}, find(names, "kristian"));
+    assertArrayEquals(new long[0], find(titles, "fenix"));
+  }
+
+  @Test
+  void find_ShouldRankByDistanceThenId() {
+    titles.put(5, "Heat", 0);
+    titles.put(3, "Heap", 0);
+    titles.put(4, "Hear", 0);
+    titles.put(1, "Beat", 0);
+
+    assertArrayEquals(new long[] {5, 1, 3, 4}, find(titles, "heat"));
+    FuzzyIndex.Matches page = titles.find("heat", TrigramIndex.ANY_TAG, 1, 2);
+    assertArrayEquals(new long[] {1, 3}, page.ids());
+    assertEquals(4, page.total());
+  }
+
+  @Test
+  void find_ShouldFilterByTag() {
+    titles.put(1, "Memento", 1);
+    titles.put(2, "Momento", 2);
+
+    assertArrayEquals(new long[] {2}, titles.find("memento", 2, 0, 10).ids());
+    assertArrayEquals(new long[] {1, 2}, find(titles, "memento"));
+  }
+
+  @Test
+  void put_ShouldReplaceAndRemoveTheWordsOfADocument() {
+    titles.put(1, "Following", 0);
+    titles.put(1, "Doodlebug", 0);
+    titles.put(2, "Memento", 0);
+
+    assertArrayEquals(new long[0], find(titles, "following"));
+    assertArrayEquals(new long[] {1}, find(titles, "doodlebugs"));
+
+    titles.remove(1);
+    assertArrayEquals(new long[0], find(titles, "doodlebug"));
+    assertEquals(1, titles.size());
+    assertEquals(1, titles.words());
+  }
+
+  private static String randomWord(Random random, int length) {
+    StringBuilder word = new StringBuilder();
+    while (word.length() < length) {
+      word.append("abcé".charAt(random.nextInt(4)));
+    }
+    return word.toString();
+  }
+
+  private static long[] find(FuzzyIndex index, String query) {
+    return index.find(query, TrigramIndex.ANY_TAG, 0, 100).ids();
+  }
+}
@@ -0,0 +1,97 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class IdBitmapTest {
+
+  @Test
+  void add_ShouldKeepIdsSortedAcrossContainers() {
+    IdBitmap bitmap = new IdBitmap();
+    assertTrue(bitmap.add(70_000));
+    assertTrue(bitmap.add(3));
+    assertTrue(bitmap.add(65_535));
+    assertFalse(bitmap.add(3));
+
+    assertEquals(3, bitmap.cardinality());
+    assertArrayEquals(new long[] {3, 65_535, 70_000}, bitmap.page(0, 10));
+    assertTrue(bitmap.contains(65_535));
+    assertFalse(bitmap.contains(65_536));
+  }
+
+  @Test
+  void add_ShouldSwitchDenseContainersToBitmapsAndBack() {
+    IdBitmap bitmap = new IdBitmap();
+    for (long id = 0; id < 10_000; id++) {
+      bitmap.add(id);
+    }
+    long dense = bitmap.memoryBytes();
+    for (long id = 0; id < 9_000; id++) {
+      bitmap.remove(id);
+    }
+
+    assertEquals(1_000, bitmap.cardinality());
+    assertTrue(dense < 10_000 * 2);
+    assertArrayEquals(new long[] {9_000, 9_001}, bitmap.page(0, 2));
+    assertTrue(bitmap.memoryBytes() < dense);
+  }
+
+  @Test
+  void andOr_ShouldMatchSetOperationsWithoutSharingContainers() {
+    Random random = new Random(42);
+    IdBitmap left = new IdBitmap();
+    IdBitmap right = new IdBitmap();
+    TreeSet<Long> leftIds = new TreeSet<>();
+    TreeSet<Long> rightIds = new TreeSet<>();
+    for (int i = 0; i < 20_000; i++) {
+      long sparse = random.nextInt(1_000_000);
+      long dense = random.nextInt(20_000);
+      left.add(sparse);
+      leftIds.add(sparse);
+      right.add(dense);
+      rightIds.add(dense);
+    }
+    TreeSet<Long> both = new TreeSet<>(leftIds);
+    both.retainAll(rightIds);
+    TreeSet<Long> either = new TreeSet<>(leftIds);
+    either.addAll(rightIds);
+
+    IdBitmap intersection = left.and(right);
+    IdBitmap union = left.or(right);
+    assertEquals(List.copyOf(both), ids(intersection));
+    assertEquals(List.copyOf(either), ids(union));
+
+    union.add(2_000_000);
+    union.remove(either.first());
+    assertFalse(left.contains(2_000_000));
+    assertEquals(List.copyOf(leftIds), ids(left));
+    assertEquals(List.copyOf(rightIds), ids(right));
+  }
+
+  @Test
+  void page_ShouldSkipWholeContainersBeforeTheOffset() {
+    IdBitmap bitmap = new IdBitmap();
+    for (long id = 0; id < 5 * 65_536L; id += 7) {
+      bitmap.add(id);
+    }
+
+    long offset = bitmap.cardinality() - 3;
+    assertArrayEquals(
+        new long[] {offset * 7, (offset + 1) * 7, (offset + 2) * 7}, bitmap.page(offset, 10));
+    assertArrayEquals(new long[0], bitmap.page(bitmap.cardinality(), 10));
+  }
+
+  private static List<Long> ids(IdBitmap bitmap) {
+    List<Long> ids = new ArrayList<>();
+    bitmap.forEach(ids::add);
+    return ids;
+  }
+}
@@ -0,0 +1,126 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class MovieFilterIndexTest {
+
+  private final MovieFilterIndex index = new MovieFilterIndex(100_000);
+
+  @Test
+  void find_ShouldIntersectEveryPredicate() {
+    index.put(1, null, Genre.SCI_FI, LocalDate.of(2010, 7, 16), 148, 1L);
+    index.put(2, null, Genre.ACTION, LocalDate.of(2008, 7, 18), 152, 1L);
+    index.put(3, null, Genre.CRIME, LocalDate.of(1994, 10, 14), 154, 2L);
+    index.put(4, null, Genre.SCI_FI, LocalDate.of(2014, 11, 7), 169, 1L);
+
+    assertArrayEquals(new long[] {1, 2, 3, 4}, find(MovieFilter.builder().build()));
+    assertArrayEquals(
+        new long[] {1, 2, 4},
+        find(MovieFilter.builder().genres(Set.of(Genre.SCI_FI, Genre.ACTION)).build()));
+    assertArrayEquals(
+        new long[] {4},
+        find(
+            MovieFilter.builder()
+                .genres(Set.of(Genre.SCI_FI))
+                .minDuration(150)
+                .directorIds(Set.of(1L))
+                .build()));
+    assertArrayEquals(
+        new long[0], find(MovieFilter.builder().directorIds(Set.of(2L)).maxDuration(150).build()));
+    assertArrayEquals(new long[0], find(MovieFilter.builder().genres(Set.of(Genre.DRAMA)).build()));
+  }
+
+  @Test
+  void find_ShouldCheckExactDatesInTheYearsAtEitherEndOfARange() {
+    index.put(1, null, Genre.DRAMA, LocalDate.of(2010, 1, 1), 100, null);
+    index.put(2, null, Genre.DRAMA, LocalDate.of(2010, 6, 30), 100, null);
+    index.put(3, null, Genre.DRAMA, LocalDate.of(2011, 3, 1), 100, null);
+    index.put(4, null, Genre.DRAMA, LocalDate.of(2012, 12, 31), 100, null);
+    index.put(5, null, Genre.DRAMA, null, 100, null);
+
+    assertArrayEquals(
+        new long[] {2, 3},
+        find(
+            MovieFilter.builder()
+                .releasedFrom(LocalDate.of(2010, 6, 30))
+                .releasedTo(LocalDate.of(2012, 12, 30))
+                .build()));
+    assertArrayEquals(
+        new long[] {1, 2, 3, 4},
+        find(MovieFilter.builder().releasedFrom(LocalDate.of(2010, 1, 1)).build()));
+    assertArrayEquals(
+        new long[] {2},
+        find(
+            MovieFilter.builder()
+                .releasedFrom(LocalDate.of(2010, 6, 30))
+                .releasedTo(LocalDate.of(2010, 6, 30))
+                .build()));
+  }
+
+  @Test
+  void put_ShouldMoveAnUpdatedMovieBetweenBitmaps() {
+    index.put(1, null, Genre.DRAMA, LocalDate.of(2000, 1, 1), 90, 1L);
+    index.put(1, null, Genre.COMEDY, LocalDate.of(2001, 1, 1), 95, 2L);
+    index.put(2, null, Genre.DRAMA, LocalDate.of(2000, 1, 1), 90, 1L);
+    index.remove(2);
+    index.put(3, null, Genre.DRAMA, LocalDate.of(2000, 1, 1), 90, 1L);
+
+    assertArrayEquals(
+        new long[] {3}, find(MovieFilter.builder().genres(Set.of(Genre.DRAMA)).build()));
+    assertArrayEquals(
+        new long[] {1},
+        find(MovieFilter.builder().directorIds(Set.of(2L)).minDuration(95).build()));
+    assertArrayEquals(
+        new long[] {3}, find(MovieFilter.builder().releasedTo(LocalDate.of(2000, 12, 31)).build()));
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void find_ShouldPageTheMatchesAndCountThemAll() {
+    for (long id = 1; id <= 100; id++) {
+      index.put(id, null, id % 2 == 0 ? Genre.DRAMA : Genre.COMEDY, null, (int) id, null);
+    }
+
+    MovieFilterIndex.Matches matches =
+        index.find(MovieFilter.builder().genres(Set.of(Genre.DRAMA)).minDuration(51).build(), 5, 3);
+
+    assertArrayEquals(new long[] {62, 64, 66}, matches.ids());
+    assertEquals(25, matches.total());
+  }
+
+  @Test
+  void facets_ShouldCountTheMatchesPerGenreDecadeAndDirector() {
+    index.put(1, null, Genre.SCI_FI, LocalDate.of(2010, 7, 16), 148, 1L);
+    index.put(2, null, Genre.ACTION, LocalDate.of(2008, 7, 18), 152, 1L);
+    index.put(3, null, Genre.CRIME, LocalDate.of(1994, 10, 14), 154, 2L);
+    index.put(4, null, Genre.SCI_FI, LocalDate.of(2014, 11, 7), 169, 1L);
+    index.put(5, null, Genre.CRIME, null, 99, 3L);
+
+    MovieFilterIndex.Facets all = index.facets(MovieFilter.builder().build(), 2);
+    MovieFilterIndex.Facets longOnes =
+        index.facets(MovieFilter.builder().minDuration(150).build(), 10);
+
+    assertEquals(5, all.total());
+    assertEquals(2, all.genres()[Genre.SCI_FI.ordinal()]);
+    assertEquals(Map.of(1990, 1L, 2000, 1L, 2010, 2L), all.decades());
+    assertArrayEquals(new long[] {1, 2}, all.directorIds());
+    assertArrayEquals(new long[] {3, 1}, all.directorCounts());
+    assertEquals(3, longOnes.total());
+    assertEquals(1, longOnes.genres()[Genre.SCI_FI.ordinal()]);
+    assertEquals(Map.of(1990, 1L, 2000, 1L, 2010, 1L), longOnes.decades());
+    assertArrayEquals(new long[] {1, 2}, longOnes.directorIds());
+    assertArrayEquals(new long[] {2, 1}, longOnes.directorCounts());
+  }
+
+  private long[] find(MovieFilter filter) {
+    return index.find(filter, 0, 100).ids();
+  }
+}
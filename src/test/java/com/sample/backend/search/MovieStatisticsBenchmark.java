@@ -0,0 +1,137 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the runtime percentiles and releases per year computed by {@link MovieStatistics} over
+ * synthetic {@link MovieColumns}, on one thread and on all processors, with the same statistics
+ * grouped by streams over a list of {@link MovieDTO}s. Run with {@code mvn test -Pbenchmark
+ * -Dtest=MovieStatisticsBenchmark}; the row count can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class MovieStatisticsBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+  private static final int ROUNDS = 20;
+  private static final int[] PERCENTILES = {50, 90, 99};
+
+  @Test
+  void columnsAgainstObjects() {
+    Random random = new Random(7);
+    Genre[] genres = Genre.values();
+    MovieColumns columns = new MovieColumns();
+    List<MovieDTO> movies = new ArrayList<>(ROWS);
+    for (int id = 1; id <= ROWS; id++) {
+      MovieDTO movie =
+          MovieDTO.builder()
+              .id((long) id)
+              .title("Movie " + random.nextInt(ROWS / 2))
+              .genre(genres[random.nextInt(genres.length)])
+              .releaseDate(LocalDate.ofEpochDay(random.nextInt(40_000) - 20_000))
+              .durationMinutes(60 + random.nextInt(150))
+              .directorId((long) random.nextInt(ROWS / 10))
+              .build();
+      movies.add(movie);
+      columns.put(
+          id,
+          movie.title(),
+          movie.genre(),
+          movie.releaseDate(),
+          movie.durationMinutes(),
+          movie.directorId());
+    }
+    assertEquals(
+        MovieStatistics.releasesByYear(columns, null, Integer.MAX_VALUE),
+        new TreeMap<>(
+            movies.stream()
+                .collect(
+                    Collectors.groupingBy(
+                        movie -> movie.releaseDate().getYear(), Collectors.counting()))));
+
+    List<String> report = new ArrayList<>();
+    report.add(
+        measure(
+            "runtime, columns, 1 thread",
+            () -> MovieStatistics.runtimeByGenre(columns, PERCENTILES, Integer.MAX_VALUE)));
+    report.add(
+        measure(
+            "runtime, columns, parallel",
+            () -> MovieStatistics.runtimeByGenre(columns, PERCENTILES, 1)));
+    report.add(measure("runtime, DTO stream", () -> runtimeByGenre(movies)));
+    report.add(
+        measure(
+            "releases, columns, 1 thread",
+            () -> MovieStatistics.releasesByYear(columns, null, Integer.MAX_VALUE)));
+    report.add(
+        measure(
+            "releases, columns, parallel", () -> MovieStatistics.releasesByYear(columns, null, 1)));
+    report.add(
+        measure(
+            "releases, DTO stream",
+            () ->
+                movies.stream()
+                    .collect(
+                        Collectors.groupingBy(
+                            movie -> movie.releaseDate().getYear(),
+                            TreeMap::new,
+                            Collectors.counting()))));
+    log.info(
+        "Statistics of {} movies, {} distinct titles, columns about {} MB:\n{}",
+        ROWS,
+        columns.distinctTitles(),
+        columns.memoryBytes() / (1024 * 1024),
+        String.join("\n", report));
+  }
+
+  /** The percentiles per genre as grouping the objects would compute them, by sorting. */
+  private static Map<Genre, int[]> runtimeByGenre(List<MovieDTO> movies) {
+    Map<Genre, int[]> percentiles = new TreeMap<>();
+    movies.stream()
+        .collect(
+            Collectors.groupingBy(
+                MovieDTO::genre,
+                Collectors.mapping(MovieDTO::durationMinutes, Collectors.toList())))
+        .forEach(
+            (genre, durations) -> {
+              int[] sorted = durations.stream().mapToInt(Integer::intValue).sorted().toArray();
+              percentiles.put(
+                  genre,
+                  Arrays.stream(PERCENTILES)
+                      .map(p -> sorted[Math.max(0, (sorted.length * p + 99) / 100 - 1)])
+                      .toArray());
+            });
+    return percentiles;
+  }
+
+  private static String measure(String name, Supplier<?> statistic) {
+    for (int i = 0; i < ROUNDS / 4; i++) {
+      statistic.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      statistic.get();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-28s p50 %8.3f ms   max %8.3f ms",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS - 1] / 1e6);
+  }
+}
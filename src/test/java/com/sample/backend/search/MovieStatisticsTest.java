@@ -0,0 +1,113 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sample.backend.model.Genre;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class MovieStatisticsTest {
+
+  @Test
+  void year_ShouldMatchLocalDate() {
+    for (LocalDate date = LocalDate.of(-400, 1, 1);
+        date.isBefore(LocalDate.of(2400, 1, 1));
+        date = date.plusDays(13)) {
+      assertEquals(date.getYear(), MovieStatistics.year((int) date.toEpochDay()), date::toString);
+    }
+  }
+
+  @Test
+  void runtimeByGenre_ShouldReportPercentilesAndTheLongestMovie() {
+    MovieColumns columns = new MovieColumns();
+    for (int i = 1; i <= 100; i++) {
+      columns.put(i, "Drama " + i, Genre.DRAMA, null, i, null);
+    }
+    columns.put(101, "Inception", Genre.SCI_FI, null, 148, 1L);
+    columns.put(102, "Interstellar", Genre.SCI_FI, null, 169, 1L);
+    columns.put(103, "Also 169", Genre.SCI_FI, null, 169, 1L);
+    columns.put(104, "Unknown length", Genre.ACTION, null, null, null);
+
+    List<MovieStatistics.GenreRuntime> runtimes =
+        MovieStatistics.runtimeByGenre(columns, new int[] {50, 90}, Integer.MAX_VALUE);
+
+    assertEquals(
+        List.of(Genre.DRAMA, Genre.SCI_FI), runtimes.stream().map(r -> r.genre()).toList());
+    MovieStatistics.GenreRuntime sciFi = runtimes.get(1);
+    assertEquals(3, sciFi.movies());
+    assertEquals((148 + 169 + 169) / 3.0, sciFi.averageMinutes(), 1e-9);
+    assertEquals(148, sciFi.minMinutes());
+    assertEquals(169, sciFi.maxMinutes());
+    assertEquals("Interstellar", sciFi.longestTitle());
+    MovieStatistics.GenreRuntime drama = runtimes.get(0);
+    assertEquals(Map.of(50, 50, 90, 90), drama.percentiles());
+    assertEquals(50.5, drama.averageMinutes(), 1e-9);
+  }
+
+  @Test
+  void aggregations_ShouldGiveTheSameResultsInParallel() {
+    MovieColumns columns = new MovieColumns();
+    for (int i = 0; i < 10_000; i++) {
+      columns.put(
+          i,
+          "Movie " + (i % 500),
+          Genre.values()[i % Genre.values().length],
+          LocalDate.of(1950 + i % 70, 1 + i % 12, 1),
+          60 + i % 120,
+          (long) (i % 40));
+    }
+    for (int i = 0; i < 10_000; i += 7) {
+      columns.remove(i);
+    }
+
+    assertEquals(
+        MovieStatistics.runtimeByGenre(columns, new int[] {25, 50, 99}, Integer.MAX_VALUE),
+        MovieStatistics.runtimeByGenre(columns, new int[] {25, 50, 99}, 1));
+    assertEquals(
+        MovieStatistics.releasesByYear(columns, null, Integer.MAX_VALUE),
+        MovieStatistics.releasesByYear(columns, null, 1));
+    assertEquals(
+        MovieStatistics.releasesByYear(columns, Genre.HORROR, Integer.MAX_VALUE),
+        MovieStatistics.releasesByYear(columns, Genre.HORROR, 1));
+  }
+
+  @Test
+  void releasesByYear_ShouldSkipFreedRowsAndMissingDates() {
+    MovieColumns columns = new MovieColumns();
+    columns.put(1, "Inception", Genre.SCI_FI, LocalDate.of(2010, 7, 16), 148, 1L);
+    columns.put(2, "The Dark Knight", Genre.ACTION, LocalDate.of(2008, 7, 18), 152, 1L);
+    columns.put(3, "Pulp Fiction", Genre.CRIME, LocalDate.of(1994, 10, 14), 154, 2L);
+    columns.put(4, "Undated", Genre.SCI_FI, null, 90, null);
+    columns.remove(3);
+
+    assertEquals(
+        new TreeMap<>(Map.of(2008, 1L, 2010, 1L)),
+        MovieStatistics.releasesByYear(columns, null, Integer.MAX_VALUE));
+    assertEquals(
+        new TreeMap<>(Map.of(2010, 1L)),
+        MovieStatistics.releasesByYear(columns, Genre.SCI_FI, Integer.MAX_VALUE));
+    assertEquals(MovieColumns.MISSING, columns.row(3));
+  }
+
+  @Test
+  void directorOutput_ShouldCountTheMoviesOfTheBitmap() {
+    MovieColumns columns = new MovieColumns();
+    columns.put(1, "Inception", Genre.SCI_FI, LocalDate.of(2010, 7, 16), 148, 1L);
+    columns.put(2, "The Dark Knight", Genre.ACTION, LocalDate.of(2008, 7, 18), 152, 1L);
+    IdBitmap movies = new IdBitmap();
+    movies.add(1);
+    movies.add(2);
+
+    MovieStatistics.DirectorOutput output = MovieStatistics.directorOutput(columns, 1, movies);
+
+    assertEquals(2, output.movies());
+    assertEquals(150.0, output.averageMinutes(), 1e-9);
+    NavigableMap<Integer, Long> years = new TreeMap<>(Map.of(2008, 1L, 2010, 1L));
+    assertEquals(years, output.years());
+    assertEquals(0, MovieStatistics.directorOutput(columns, 2, null).movies());
+  }
+}
@@ -0,0 +1,32 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PostingListTest {
+
+  @Test
+  void add_ShouldKeepTheStaleCount_WhenAnIdArrivesOutOfOrder() {
+    PostingList list = new PostingList();
+    for (long id = 100; id < 140; id++) {
+      list.add(id);
+    }
+    for (int i = 0; i < 33; i++) {
+      list.markStale();
+    }
+    assertTrue(list.needsCompaction());
+
+    list.add(1);
+
+    assertTrue(list.needsCompaction());
+    List<Long> ids = new ArrayList<>();
+    list.forEach(ids::add);
+    assertEquals(41, ids.size());
+    assertEquals(1L, ids.getFirst());
+    assertEquals(100L, ids.get(1));
+  }
+}
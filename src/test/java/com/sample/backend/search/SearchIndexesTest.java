@@ -0,0 +1,394 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.ActorPath;
+import com.sample.backend.dto.CoStar;
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.DirectorOutput;
+import com.sample.backend.dto.FacetCount;
+import com.sample.backend.dto.Facets;
+import com.sample.backend.dto.GenreRuntime;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.dto.PathStep;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.dto.SearchHit;
+import com.sample.backend.dto.SearchHit.Type;
+import com.sample.backend.dto.SimilarMovie;
+import com.sample.backend.dto.Suggestion;
+import com.sample.backend.model.Actor;
+import com.sample.backend.model.Genre;
+import com.sample.backend.repository.FacetQueries;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.service.ActorService;
+import com.sample.backend.service.CoStarService;
+import com.sample.backend.service.DirectorService;
+import com.sample.backend.service.MovieService;
+import com.sample.backend.service.RecommendationService;
+import com.sample.backend.service.RoleService;
+import com.sample.backend.service.SearchService;
+import com.sample.backend.service.StatisticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:search-indexes-test")
+@DirtiesContext
+class SearchIndexesTest {
+
+  @Autowired private SearchIndexes searchIndexes;
+  @Autowired private MovieService movieService;
+  @Autowired private MovieRepository movieRepository;
+  @Autowired private FacetQueries facetQueries;
+  @Autowired private ActorService actorService;
+  @Autowired private DirectorService directorService;
+  @Autowired private RoleService roleService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private SearchService searchService;
+  @Autowired private StatisticsService statisticsService;
+  @Autowired private CoStarService coStarService;
+  @Autowired private RecommendationService recommendationService;
+
+  @Test
+  void search_ShouldBeAnsweredFromTheIndexes() {
+    assertTrue(searchIndexes.isReady());
+
+    assertEquals(
+        List.of("The Dark Knight"), titles(movieService.searchMovies("DARK", null, 0, 10)));
+    assertEquals(
+        List.of("Inception"), titles(movieService.getMoviesByTitleAndGenre("n", Genre.SCI_FI)));
+    assertEquals(
+        List.of("Bale"),
+        actorService.searchActors("bal", 0, 10, true).content().stream()
+            .map(ActorDTO::lastName)
+            .toList());
+    assertEquals(
+        List.of("Tarantino"),
+        directorService.searchDirectors("quentin").stream().map(DirectorDTO::lastName).toList());
+    assertEquals(
+        List.of("Bruce Wayne / Batman"),
+        roleService.searchRolesByCharacterName("wayne").stream()
+            .map(RoleDTO::characterName)
+            .toList());
+  }
+
+  @Test
+  void indexes_ShouldFollowTheWritesOfTheServices() {
+    MovieDTO movie =
+        movieService.createMovie(
+            MovieDTO.builder()
+                .title("Following")
+                .genre(Genre.THRILLER)
+                .releaseDate(LocalDate.of(1998, 9, 12))
+                .durationMinutes(69)
+                .build());
+    RoleDTO role =
+        roleService.createRole(
+            RoleDTO.builder().characterName("The Young Man").movieId(movie.id()).build());
+    assertEquals(List.of("Following"), titles(movieService.getMoviesByTitle("follow")));
+    assertEquals(1, roleService.searchRolesByCharacterName("young man").size());
+
+    movieService.patchMovie(movie.id(), Map.of("title", "Doodlebug"));
+    assertEquals(List.of(), movieService.getMoviesByTitle("follow"));
+    assertEquals(List.of("Doodlebug"), titles(movieService.getMoviesByTitle("doodle")));
+
+    movieService.deleteMovie(movie.id());
+    assertEquals(List.of(), movieService.getMoviesByTitle("doodle"));
+    assertEquals(0, searchIndexes.roles().count("young man", TrigramIndex.ANY_TAG, 10));
+    assertTrue(
+        LongStream.of(searchIndexes.roles().find("", TrigramIndex.ANY_TAG, 0, 100))
+            .noneMatch(id -> id == role.id()));
+  }
+
+  @Test
+  void rankedSearch_ShouldFindAllKindsOfRowsBestFirst() {
+    actorService.createActor(ActorDTO.builder().firstName("Batman").lastName("Fan").build());
+
+    List<SearchHit> hits = searchService.search("batman", null, 20);
+
+    assertEquals(List.of(Type.ACTOR, Type.ROLE), hits.stream().map(SearchHit::type).toList());
+    assertEquals("Bruce Wayne / Batman", hits.get(1).name());
+    assertTrue(hits.get(0).score() > hits.get(1).score());
+    assertEquals(
+        List.of("Pulp Fiction"),
+        searchService.search("PULP fictions", List.of(Type.MOVIE), 20).stream()
+            .map(SearchHit::name)
+            .toList());
+  }
+
+  @Test
+  void autocomplete_ShouldSuggestTitlesAndNamesByWeight() {
+    MovieDTO movie =
+        movieService.createMovie(
+            MovieDTO.builder()
+                .title("Chronicle")
+                .genre(Genre.SCI_FI)
+                .releaseDate(LocalDate.of(2012, 2, 3))
+                .durationMinutes(84)
+                .build());
+
+    assertEquals(
+        List.of("Christopher Nolan", "Christian Bale", "Chronicle"),
+        searchService.autocomplete("CHR", 10).stream().map(Suggestion::name).toList());
+    assertEquals(
+        List.of(Type.MOVIE),
+        searchService.autocomplete("knig", 10).stream().map(Suggestion::type).toList());
+
+    movieService.deleteMovie(movie.id());
+    assertEquals(
+        List.of("Christopher Nolan"),
+        searchService.autocomplete("chr", 1).stream().map(Suggestion::name).toList());
+    assertEquals(2, searchService.autocomplete("chr", 10).size());
+  }
+
+  @Test
+  void fuzzySearch_ShouldTolerateTyposAndMatchNamesBySound() {
+    assertEquals(
+        List.of("Tarantino"),
+        directorService.fuzzySearchDirectors("tarentino").stream()
+            .map(DirectorDTO::lastName)
+            .toList());
+    PagedResponse<ActorDTO> actors = actorService.fuzzySearchActors("Leonardo Dicapprio", 0, 10);
+    assertEquals(List.of("DiCaprio"), actors.content().stream().map(ActorDTO::lastName).toList());
+    assertEquals(1, actors.totalElements());
+    assertEquals(
+        List.of("Jackson"),
+        actorService.fuzzySearchActors("samual jaksen", 0, 10).content().stream()
+            .map(ActorDTO::lastName)
+            .toList());
+    assertEquals(
+        List.of("The Dark Knight"), titles(movieService.fuzzySearchMovies("the dark knigt", null)));
+    assertEquals(
+        List.of(), movieService.fuzzySearchMovies("dark knigt", Genre.CRIME, 0, 10).content());
+  }
+
+  @Test
+  void filterMovies_ShouldIntersectTheIndexesAndAgreeWithTheDatabase() {
+    MovieFilter recentSciFiOrAction =
+        MovieFilter.builder()
+            .genres(Set.of(Genre.SCI_FI, Genre.ACTION))
+            .releasedTo(LocalDate.of(2011, 12, 31))
+            .build();
+    MovieFilter shortNolan = MovieFilter.builder().directorIds(Set.of(1L)).maxDuration(150).build();
+    MovieFilter betweenReleases =
+        MovieFilter.builder()
+            .releasedFrom(LocalDate.of(1994, 10, 14))
+            .releasedTo(LocalDate.of(2008, 7, 18))
+            .directorIds(Set.of(1L, 2L))
+            .build();
+
+    PagedResponse<MovieDTO> page = movieService.filterMovies(recentSciFiOrAction, 0, 10);
+    assertEquals(List.of("Inception", "The Dark Knight"), titles(page));
+    assertEquals(2, page.totalElements());
+    assertEquals(List.of("Inception"), titles(movieService.filterMovies(shortNolan, 0, 10)));
+    page = movieService.filterMovies(betweenReleases, 1, 1);
+    assertEquals(List.of("Pulp Fiction"), titles(page));
+    assertEquals(2, page.totalElements());
+    assertEquals(
+        List.of("The Dark Knight", "Pulp Fiction"),
+        titles(facetQueries.findMovies(betweenReleases, PageRequest.of(0, 10)).getContent()));
+  }
+
+  @Test
+  void facets_ShouldBeCountedFromTheIndexesAsTheGroupingQueriesCountThem() {
+    MovieFilter filter =
+        MovieFilter.builder()
+            .directorIds(Set.of(1L, 2L))
+            .releasedTo(LocalDate.of(2011, 12, 31))
+            .build();
+
+    Facets facets = searchService.facets(filter, 10);
+
+    assertEquals(3, facets.movies());
+    assertEquals(
+        List.of(
+            new FacetCount("1990", null, 1),
+            new FacetCount("2000", null, 1),
+            new FacetCount("2010", null, 1)),
+        facets.decades());
+    assertEquals(
+        List.of(
+            new FacetCount("1", "Christopher Nolan", 2),
+            new FacetCount("2", "Quentin Tarantino", 1)),
+        facets.directors());
+    assertEquals(facetQueries.countMoviesByDirector(filter, 10), facets.directors());
+    assertEquals(
+        facetQueries.countMoviesByGenre(filter).entrySet().stream()
+            .map(count -> new FacetCount(count.getKey().name(), null, count.getValue()))
+            .toList(),
+        facets.genres());
+    assertEquals(
+        facetQueries.countByNationality(Actor.class).entrySet().stream()
+            .map(count -> new FacetCount(count.getKey(), null, count.getValue()))
+            .toList(),
+        facets.actorNationalities());
+    assertEquals(
+        List.of(new FacetCount("American", null, 1), new FacetCount("British-American", null, 1)),
+        facets.directorNationalities());
+  }
+
+  @Test
+  void statistics_ShouldFollowTheWritesOfTheServices() {
+    assertEquals(
+        List.of(new FacetCount("2008", null, 1), new FacetCount("2010", null, 1)),
+        statisticsService.directorOutput(1L).years());
+
+    MovieDTO movie =
+        movieService.createMovie(
+            MovieDTO.builder()
+                .title("Interstellar")
+                .genre(Genre.SCI_FI)
+                .releaseDate(LocalDate.of(2014, 11, 7))
+                .durationMinutes(169)
+                .directorId(1L)
+                .build());
+    DirectorOutput output = statisticsService.directorOutput(1L);
+    GenreRuntime sciFi =
+        statisticsService.runtimeByGenre(List.of(50)).stream()
+            .filter(runtime -> runtime.genre() == Genre.SCI_FI)
+            .findFirst()
+            .orElseThrow();
+
+    assertEquals(3, output.movies());
+    assertEquals((148 + 152 + 169) / 3.0, output.averageMinutes(), 1e-9);
+    assertEquals("Interstellar", sciFi.longestTitle());
+    assertEquals(
+        List.of(new FacetCount("2014", null, 1)),
+        statisticsService.releasesByYear(Genre.SCI_FI).stream()
+            .filter(year -> year.value().equals("2014"))
+            .toList());
+
+    movieService.deleteMovie(movie.id());
+
+    assertEquals(2, statisticsService.directorOutput(1L).movies());
+  }
+
+  @Test
+  void coStars_ShouldFollowTheRolesWritten() {
+    assertEquals(List.of(), coStarService.getCoStars(1L, 10));
+    assertEquals(false, coStarService.findPath(1L, 3L, 6).connected());
+
+    RoleDTO cameo =
+        roleService.createRole(
+            RoleDTO.builder().characterName("Cameo").movieId(2L).actorId(1L).build());
+    RoleDTO crossover =
+        roleService.createRole(
+            RoleDTO.builder().characterName("Crossover").movieId(3L).actorId(2L).build());
+
+    assertEquals(
+        List.of(
+            CoStar.builder()
+                .actorId(2L)
+                .firstName("Christian")
+                .lastName("Bale")
+                .sharedMovies(1)
+                .build()),
+        coStarService.getCoStars(1L, 10));
+    ActorPath path = coStarService.findPath(1L, 3L, 6);
+    assertEquals(2, path.degrees());
+    assertEquals(
+        List.of(
+            "Leonardo DiCaprio",
+            "The Dark Knight",
+            "Christian Bale",
+            "Pulp Fiction",
+            "Samuel L. Jackson"),
+        path.steps().stream().map(PathStep::name).toList());
+    assertEquals(false, coStarService.findPath(1L, 3L, 1).connected());
+
+    roleService.deleteRole(cameo.id());
+    roleService.deleteRole(crossover.id());
+
+    assertEquals(false, coStarService.findPath(1L, 3L, 6).connected());
+  }
+
+  @Test
+  void similarMovies_ShouldFollowTheRolesWritten() {
+    // Inception and The Dark Knight share their director, 2 of 4 + 4 - 2.
+    assertEquals(
+        List.of(
+            SimilarMovie.builder()
+                .movieId(2L)
+                .title("The Dark Knight")
+                .score(2.0 / 6)
+                .sharedActors(0)
+                .sameDirector(true)
+                .sameGenre(false)
+                .build()),
+        recommendationService.getSimilarMovies(1L, 10));
+
+    RoleDTO cameo =
+        roleService.createRole(
+            RoleDTO.builder().characterName("Cameo").movieId(3L).actorId(1L).build());
+
+    List<SimilarMovie> similar = recommendationService.getSimilarMovies(1L, 10);
+    assertEquals(List.of(2L, 3L), similar.stream().map(SimilarMovie::movieId).toList());
+    // Pulp Fiction now shares an actor with Inception, 1 of 4 + 5 - 1.
+    assertEquals(1.0 / 8, similar.get(1).score());
+    assertEquals(1, similar.get(1).sharedActors());
+
+    roleService.deleteRole(cameo.id());
+
+    assertEquals(
+        List.of(2L),
+        recommendationService.getSimilarMovies(1L, 10).stream()
+            .map(SimilarMovie::movieId)
+            .toList());
+  }
+
+  @Test
+  void indexes_ShouldIgnoreWritesThatRollBack() {
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              actorService.createActor(
+                  ActorDTO.builder().firstName("Guy").lastName("Pearce").build());
+              status.setRollbackOnly();
+            });
+
+    assertEquals(0, actorService.searchActors("pearce", 0, 10, true).totalElements());
+  }
+
+  @Test
+  void rebuild_ShouldPickUpRowsWrittenOutsideTheServices() {
+    jdbcTemplate.update(
+        "INSERT INTO director (id, first_name, last_name) VALUES (900, 'Denis', 'Villeneuve')");
+    assertEquals(List.of(), directorService.searchDirectors("villeneuve"));
+
+    searchIndexes.rebuild();
+
+    assertEquals(1, directorService.searchDirectors("villeneuve").size());
+    assertEquals(
+        searchIndexes.directors().size(),
+        meterRegistry
+            .get("catalog.search.index.documents")
+            .tag("index", "directors")
+            .gauge()
+            .value());
+  }
+
+  private static List<String> titles(PagedResponse<MovieDTO> page) {
+    return titles(page.content());
+  }
+
+  private static List<String> titles(List<MovieDTO> movies) {
+    return movies.stream().map(MovieDTO::title).toList();
+  }
+}
@@ -0,0 +1,106 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import com.sample.backend.model.Genre;
+import com.sample.backend.search.SimilarMovies.Similar;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SimilarMoviesTest {
+
+  private final CoStarGraph graph = new CoStarGraph(Integer.MAX_VALUE);
+  private final MovieFilterIndex movies = new MovieFilterIndex(Integer.MAX_VALUE);
+  private final SimilarMovies similarMovies = new SimilarMovies(graph, movies, 10, Runnable::run);
+
+  @BeforeEach
+  void setUp() {
+    movie(10, Genre.SCI_FI, 1L);
+    movie(20, Genre.ACTION, 1L);
+    movie(30, Genre.SCI_FI, 2L);
+    movie(40, Genre.DRAMA, 3L);
+    graph.put(1, 1L, 10L);
+    graph.put(2, 2L, 10L);
+    graph.put(3, 1L, 20L);
+    graph.put(4, 1L, 30L);
+    graph.put(5, 2L, 30L);
+    graph.put(6, 9L, 40L);
+  }
+
+  @Test
+  void similar_ShouldRankByWeightedJaccard() {
+    // 10 weighs 2 actors + director 2 + genre 1 = 5. 20 shares an actor and the director, 3 of
+    // 4 + 5 - 3; 30 shares both actors and the genre, 3 of 5 + 5 - 3. 40 shares nothing.
+    List<Similar> expected =
+        List.of(new Similar(20, 3.0 / 6, 1, true, false), new Similar(30, 3.0 / 7, 2, false, true));
+    assertEquals(expected, similarMovies.similar(10, 10));
+
+    similarMovies.rebuild();
+
+    assertTrue(similarMovies.isCurrent());
+    assertEquals(4, similarMovies.size());
+    assertEquals(expected, similarMovies.similar(10, 10));
+    assertEquals(expected.subList(0, 1), similarMovies.similar(10, 1));
+    assertEquals(List.of(), similarMovies.similar(40, 10));
+    assertEquals(List.of(), similarMovies.similar(99, 10));
+  }
+
+  @Test
+  void changed_ShouldRefreshTheMoviesAround() {
+    similarMovies.rebuild();
+
+    graph.put(7, 9L, 10L);
+    similarMovies.changed(List.of(10L));
+
+    assertTrue(similarMovies.isCurrent());
+    // 10 now weighs 6 and 40 weighs 4, sharing actor 9.
+    assertEquals(List.of(new Similar(10, 1.0 / 9, 1, false, false)), similarMovies.similar(40, 10));
+    assertEquals(3, similarMovies.similar(10, 10).size());
+    // 20 no longer shares as large a part of 10.
+    assertEquals(new Similar(10, 3.0 / 7, 1, true, false), similarMovies.similar(20, 10).get(0));
+
+    graph.remove(7);
+    similarMovies.changed(List.of(10L));
+
+    assertEquals(List.of(), similarMovies.similar(40, 10));
+  }
+
+  @Test
+  void changed_ShouldDropRemovedMovies() {
+    similarMovies.rebuild();
+
+    movies.remove(20);
+    graph.remove(3);
+    similarMovies.changed(List.of(20L));
+
+    assertEquals(3, similarMovies.size());
+    assertEquals(List.of(new Similar(30, 3.0 / 7, 2, false, true)), similarMovies.similar(10, 10));
+    assertEquals(List.of(), similarMovies.similar(20, 10));
+  }
+
+  @Test
+  void rebuild_ShouldStayPending_WhenTheRefreshFails() {
+    MovieFilterIndex failing = spy(movies);
+    doThrow(new IllegalStateException("index closed")).doCallRealMethod().when(failing).ids();
+    SimilarMovies similar = new SimilarMovies(graph, failing, 10, Runnable::run);
+
+    similar.rebuild();
+
+    assertFalse(similar.isCurrent());
+    assertEquals(2, similar.similar(10, 10).size());
+
+    similar.changed(List.of());
+
+    assertTrue(similar.isCurrent());
+    assertEquals(4, similar.size());
+  }
+
+  private void movie(long id, Genre genre, Long directorId) {
+    movies.put(id, "Movie " + id, genre, null, null, directorId);
+  }
+}
@@ -0,0 +1,113 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how long a {@link TrigramIndex} of synthetic movie titles takes to build, how much heap
+ * it reports, and the latency of a page of matches for queries of different selectivity. Run with
+ * {@code mvn test -Pbenchmark -Dtest=TrigramIndexBenchmark}; the row count can be changed with
+ * {@code -Dbenchmark.rows=...}. Ten million rows need a larger heap, for example {@code
+ * -DargLine=-Xmx4g}.
+ */
+@Tag("benchmark")
+@Slf4j
+class TrigramIndexBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int PAGE_SIZE = 21;
+  private static final int ROUNDS = 2_000;
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ne", "ru", "sta", "tor", "vin", "zel", "qua", "bri", "dor", "fen", "gha",
+    "jun", "pex", "wyl", "xan", "yor", "ost", "ab", "el", "im", "oc", "ub", "cre", "dru", "fli",
+    "glo", "hap", "isk", "jor", "kle", "mun", "nix", "orb", "pla", "que", "rho", "sku", "tva",
+    "umb", "vex", "wha", "yel", "zor", "ae", "iu", "ch", "th"
+  };
+
+  @Test
+  void lookupLatencyBySelectivity() {
+    Random random = new Random(7);
+    String[] words = new String[20_000];
+    for (int i = 0; i < words.length; i++) {
+      words[i] =
+          SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)]
+              + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+    TrigramIndex index = new TrigramIndex("movies");
+    long start = System.nanoTime();
+    for (int id = 1; id <= ROWS; id++) {
+      String title =
+          "The "
+              + words[random.nextInt(words.length)]
+              + " "
+              + words[random.nextInt(words.length)]
+              + " "
+              + id;
+      index.put(id, title, id % 20);
+    }
+    long build = System.nanoTime() - start;
+    assertEquals(ROWS, index.size());
+
+    List<String> report = new ArrayList<>();
+    report.add(measure("common word, first page", () -> index.find("the ", -1, 0, PAGE_SIZE)));
+    report.add(measure("common word and tag", () -> index.find("the ", 7, 0, PAGE_SIZE)));
+    report.add(
+        measure(
+            "one word, first page",
+            () -> index.find(words[random.nextInt(words.length)], -1, 0, PAGE_SIZE)));
+    report.add(
+        measure(
+            "two words",
+            () -> {
+              String query =
+                  words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+              return index.find(query, -1, 0, PAGE_SIZE);
+            }));
+    report.add(
+        measure(
+            "unique id",
+            () -> {
+              long[] ids = index.find(" " + (1 + random.nextInt(ROWS)), -1, 0, PAGE_SIZE);
+              assertTrue(ids.length >= 1);
+              return ids;
+            }));
+    report.add(measure("no match", () -> index.find("zzzqqq", -1, 0, PAGE_SIZE)));
+    log.info(
+        "Trigram index of {} titles: built in {} ms, {} trigrams, about {} MB."
+            + " Latency of {} lookups of a page of {}:\n{}",
+        ROWS,
+        build / 1_000_000,
+        index.trigrams(),
+        index.memoryBytes() / (1024 * 1024),
+        ROUNDS,
+        PAGE_SIZE,
+        String.join("\n", report));
+  }
+
+  private static String measure(String name, Supplier<long[]> lookup) {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      lookup.get();
+    }
+    long[] nanos = new long[ROUNDS];
+    long matches = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      matches += lookup.get().length;
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return String.format(
+        "%-26s p50 %8.3f ms   p99 %8.3f ms   %5.1f matches",
+        name, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6, (double) matches / ROUNDS);
+  }
+}
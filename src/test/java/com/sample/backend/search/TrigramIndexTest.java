@@ -0,0 +1,122 @@
+package com.sample.backend.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+  private final TrigramIndex index = new TrigramIndex("test");
+
+  @Test
+  void find_ShouldMatchSubstringsIgnoringCase() {
+    index.put(1, "Inception", 0);
+    index.put(2, "The Dark Knight", 0);
+    index.put(3, "The Dark Knight Rises", 0);
+
+    assertArrayEquals(new long[] {2, 3}, find("dark KNIGHT"));
+    assertArrayEquals(new long[] {1}, find("cep"));
+    assertArrayEquals(new long[] {3}, find("rises"));
+    assertArrayEquals(new long[0], find("Matrix"));
+  }
+
+  @Test
+  void find_ShouldDropCandidatesThatHaveEveryTrigramButNotTheQuery() {
+    index.put(1, "abc bcd", 0);
+    index.put(2, "abcd", 0);
+
+    assertArrayEquals(new long[] {2}, find("abcd"));
+  }
+
+  @Test
+  void find_ShouldCheckEveryDocumentForQueriesShorterThanATrigram() {
+    index.put(1, "Pulp Fiction", 0);
+    index.put(2, "Up", 0);
+    index.put(3, "Memento", 0);
+
+    assertArrayEquals(new long[] {1, 2}, find("P"));
+    assertArrayEquals(new long[] {1}, find("ul"));
+    assertArrayEquals(new long[] {1, 2, 3}, find(""));
+  }
+
+  @Test
+  void find_ShouldFilterByTagAndPage() {
+    for (long id = 1; id <= 10; id++) {
+      index.put(id, "Movie " + id, (int) (id % 2));
+    }
+
+    assertArrayEquals(new long[] {2, 4, 6, 8, 10}, index.find("movie", 0, 0, 10));
+    assertArrayEquals(new long[] {5, 7}, index.find("movie", 1, 2, 2));
+    assertArrayEquals(new long[] {3, 4, 5}, index.find("movie", TrigramIndex.ANY_TAG, 2, 3));
+    assertEquals(5, index.count("movie", 1, Long.MAX_VALUE));
+    assertEquals(3, index.count("movie", TrigramIndex.ANY_TAG, 3));
+  }
+
+  @Test
+  void put_ShouldReplaceTheTextOfAnIndexedDocument() {
+    index.put(1, "Memento", 0);
+    index.put(1, "Insomnia", 0);
+
+    assertArrayEquals(new long[0], find("memento"));
+    assertArrayEquals(new long[] {1}, find("insomnia"));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void put_ShouldKeepIdsOrderedWhenTheyArriveOutOfOrder() {
+    index.put(30, "Heat", 0);
+    index.put(10, "Heathers", 0);
+    index.put(20, "Heat Wave", 0);
+
+    assertArrayEquals(new long[] {10, 20, 30}, find("heat"));
+  }
+
+  @Test
+  void remove_ShouldDropTheDocument() {
+    index.put(1, "aaaa", 0);
+    index.put(2, "aaa", 0);
+    index.remove(1);
+    index.remove(42);
+
+    assertArrayEquals(new long[] {2}, find("aaa"));
+    index.put(1, "aaaaa", 0);
+    assertArrayEquals(new long[] {1, 2}, find("aaa"));
+  }
+
+  @Test
+  void find_ShouldMatchABruteForceScanAfterRandomWrites() {
+    String[] words = {"star", "wars", "trek", "dark", "night", "knight", "heat", "alien"};
+    Random random = new Random(42);
+    TreeMap<Long, String> expected = new TreeMap<>();
+    for (int i = 0; i < 20_000; i++) {
+      long id = random.nextInt(2_000);
+      if (random.nextInt(3) == 0) {
+        index.remove(id);
+        expected.remove(id);
+      } else {
+        String text =
+            words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+        index.put(id, text, 0);
+        expected.put(id, text);
+      }
+    }
+
+    for (String query : new String[] {"star", "ar w", "night", "k", "alien heat", "trek"}) {
+      long[] matches =
+          expected.entrySet().stream()
+              .filter(entry -> entry.getValue().contains(query))
+              .mapToLong(entry -> entry.getKey())
+              .toArray();
+      assertArrayEquals(matches, find(query), query);
+    }
+    assertEquals(expected.size(), index.size());
+    assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).toArray(), find(""));
+  }
+
+  private long[] find(String query) {
+    return index.find(query, TrigramIndex.ANY_TAG, 0, Integer.MAX_VALUE);
+  }
+}
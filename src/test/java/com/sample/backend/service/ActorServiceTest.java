@@ -1,36 +1,64 @@
 package com.sample.backend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.sample.backend.config.DtoCacheProperties;
+import com.sample.backend.config.PaginationProperties;
 import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.PagedResponse;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.model.Actor;
 import com.sample.backend.repository.ActorRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class ActorServiceTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(0L, Instant.EPOCH);
+  private static final DtoCacheProperties DTO_CACHE =
+      new DtoCacheProperties(true, new DtoCacheProperties.Cache(100, null, null), null, null);
+
   @Mock private ActorRepository actorRepository;
+  @Mock private RoleRepository roleRepository;
+  @Mock private RowCounters rowCounters;
+  @Mock private SearchIndexes searchIndexes;
+  @Spy private DtoCaches dtoCaches = new DtoCaches(DTO_CACHE);
+  @Spy private TableVersions tableVersions = new TableVersions();
+  @Spy private PageLimits pageLimits = new PageLimits(new PaginationProperties(100, 1000, 10000));
   @InjectMocks private ActorService actorService;
   private Actor actor;
   private ActorDTO actorDTO;
@@ -58,8 +86,9 @@ class ActorServiceTest {
   @Test
   void getAllActors_ShouldReturnPagedResponse() {
     Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
-    Page<Actor> actorPage = new PageImpl<>(List.of(actor), pageable, 1);
-    when(actorRepository.findAll(pageable)).thenReturn(actorPage);
+    Page<ActorDTO> actorPage = new PageImpl<>(List.of(actorDTO), pageable, 1);
+    when(actorRepository.findAllDTOs(pageable)).thenReturn(actorPage);
+    when(rowCounters.count(Actor.class)).thenReturn(1L);
     PagedResponse<ActorDTO> result = actorService.getAllActors(0, 10, "id", "ASC");
     assertEquals(1, result.content().size());
     assertEquals(actorDTO, result.content().getFirst());
@@ -69,31 +98,58 @@ class ActorServiceTest {
 
   @Test
   void getActorById_ShouldReturnActor_WhenActorExists() {
-    when(actorRepository.findById(1L)).thenReturn(Optional.of(actor));
+    when(actorRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(actorRepository.findDTOById(1L)).thenReturn(Optional.of(actorDTO));
     ActorDTO result = actorService.getActorById(1L);
     assertEquals(actorDTO, result);
   }
 
   @Test
   void getActorById_ShouldThrowException_WhenActorDoesNotExist() {
-    when(actorRepository.findById(99L)).thenReturn(Optional.empty());
+    when(actorRepository.findVersionById(99L)).thenReturn(Optional.empty());
     assertThrows(EntityNotFoundException.class, () -> actorService.getActorById(99L));
   }
 
   @Test
   void searchActors_ShouldReturnMatchingActors() {
-    Pageable pageable = PageRequest.of(0, 10);
-    Page<Actor> actorPage = new PageImpl<>(List.of(actor), pageable, 1);
-    when(actorRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-            "Pit", "Pit", pageable))
-        .thenReturn(actorPage);
-    PagedResponse<ActorDTO> result = actorService.searchActors("Pit", 0, 10);
+    Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+    Page<ActorDTO> actorPage = new PageImpl<>(List.of(actorDTO), pageable, 1);
+    when(actorRepository.findDTOsByName("Pit", pageable)).thenReturn(actorPage);
+    PagedResponse<ActorDTO> result = actorService.searchActors("Pit", 0, 10, true);
     assertEquals(1, result.content().size());
     assertEquals(actorDTO, result.content().getFirst());
     assertEquals(1, result.totalElements());
     assertEquals(1, result.totalPages());
   }
 
+  @Test
+  void searchActors_ShouldReportLowerBound_WhenInexactAndMoreMatchesThanTheCountLimit() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+    when(actorRepository.findDTOSliceByName("Pit", pageable))
+        .thenReturn(new SliceImpl<>(List.of(actorDTO), pageable, true));
+    when(actorRepository.findIdsByName("Pit", PageRequest.of(0, 10000)))
+        .thenReturn(
+            new SliceImpl<>(
+                LongStream.rangeClosed(1, 10000).boxed().toList(), PageRequest.of(0, 10000), true));
+    PagedResponse<ActorDTO> result = actorService.searchActors("Pit", 0, 10, false);
+    assertEquals(10000, result.totalElements());
+    assertEquals(1000, result.totalPages());
+    assertTrue(result.approximate());
+    verify(actorRepository, never()).findDTOsByName(any(), any());
+  }
+
+  @Test
+  void searchActors_ShouldReportExactTotal_WhenInexactAndMatchesWithinTheCountLimit() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+    when(actorRepository.findDTOSliceByName("Pit", pageable))
+        .thenReturn(new SliceImpl<>(List.of(actorDTO), pageable, false));
+    when(actorRepository.findIdsByName("Pit", PageRequest.of(0, 10000)))
+        .thenReturn(new SliceImpl<>(List.of(1L), PageRequest.of(0, 10000), false));
+    PagedResponse<ActorDTO> result = actorService.searchActors("Pit", 0, 10, false);
+    assertEquals(1, result.totalElements());
+    assertFalse(result.approximate());
+  }
+
   @Test
   void createActor_ShouldReturnCreatedActor() {
     when(actorRepository.save(any(Actor.class))).thenReturn(actor);
@@ -101,6 +157,47 @@ class ActorServiceTest {
     assertEquals(actorDTO, result);
   }
 
+  @Test
+  void createActors_ShouldSaveAllActorsInOneCall() {
+    ActorDTO other = ActorDTO.builder().firstName("Tom").lastName("Hanks").build();
+    when(actorRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<ActorDTO> result = actorService.createActors(List.of(actorDTO, other), false);
+
+    assertEquals(2, result.created());
+    assertEquals(0, result.failed());
+    assertEquals("Hanks", result.results().get(1).item().lastName());
+    verify(actorRepository).saveAll(anyList());
+    verify(rowCounters).add(Actor.class, 2);
+  }
+
+  @Test
+  void createActors_ShouldSaveNothing_WhenAnyActorIsInvalid() {
+    BatchResponse<ActorDTO> result =
+        actorService.createActors(Arrays.asList(actorDTO, null), false);
+
+    assertEquals(0, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.SKIPPED, result.results().getFirst().status());
+    assertEquals(Status.FAILED, result.results().get(1).status());
+    assertEquals("Actor must not be null", result.results().get(1).error());
+    verify(actorRepository, never()).saveAll(anyList());
+    verify(searchIndexes, never()).indexActor(any());
+  }
+
+  @Test
+  void createActors_ShouldSaveValidActors_WhenPartialFailureIsAllowed() {
+    when(actorRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<ActorDTO> result = actorService.createActors(Arrays.asList(null, actorDTO), true);
+
+    assertEquals(1, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.FAILED, result.results().getFirst().status());
+    assertEquals("Pitt", result.results().get(1).item().lastName());
+    verify(searchIndexes).indexActor(result.results().get(1).item());
+  }
+
   @Test
   void updateActor_FullUpdate_ShouldReturnUpdatedActor() {
     ActorDTO fullUpdateDTO =
@@ -151,16 +248,16 @@ class ActorServiceTest {
   }
 
   @Test
-  void deleteActor_ShouldDeleteActor_WhenActorExists() {
-    when(actorRepository.existsById(1L)).thenReturn(true);
-    doNothing().when(actorRepository).deleteById(1L);
-    actorService.deleteActor(1L);
-    verify(actorRepository).deleteById(1L);
+  void deleteActor_ShouldBulkDeleteRolesThenActor_WhenActorExists() {
+    when(roleRepository.bulkDeleteByActorId(1L)).thenReturn(3);
+    when(actorRepository.bulkDeleteById(1L)).thenReturn(1);
+    DeletionResult result = actorService.deleteActor(1L);
+    assertEquals(DeletionResult.builder().actors(1).roles(3).build(), result);
   }
 
   @Test
   void deleteActor_ShouldThrowException_WhenActorDoesNotExist() {
-    when(actorRepository.existsById(99L)).thenReturn(false);
+    when(actorRepository.bulkDeleteById(99L)).thenReturn(0);
     assertThrows(EntityNotFoundException.class, () -> actorService.deleteActor(99L));
   }
 }
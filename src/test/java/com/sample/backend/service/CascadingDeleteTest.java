@@ -0,0 +1,51 @@
+package com.sample.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sample.backend.dto.DeletionResult;
+import com.sample.backend.exception.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cascading-delete-test")
+@DirtiesContext
+class CascadingDeleteTest {
+
+  @Autowired private DirectorService directorService;
+  @Autowired private ActorService actorService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void deleteDirector_ShouldRemoveTheirMoviesAndTheRolesInThem() {
+    int movies = count("SELECT COUNT(*) FROM movie WHERE director_id = 1");
+    int roles =
+        count(
+            "SELECT COUNT(*) FROM role r JOIN movie m ON r.movie_id = m.id"
+                + " WHERE m.director_id = 1");
+
+    DeletionResult result = directorService.deleteDirector(1L);
+
+    assertEquals(DeletionResult.builder().directors(1).movies(movies).roles(roles).build(), result);
+    assertEquals(0, count("SELECT COUNT(*) FROM movie WHERE director_id = 1"));
+    assertEquals(0, count("SELECT COUNT(*) FROM director WHERE id = 1"));
+    assertThrows(EntityNotFoundException.class, () -> directorService.deleteDirector(1L));
+  }
+
+  @Test
+  void deleteActor_ShouldRemoveTheirRoles() {
+    int roles = count("SELECT COUNT(*) FROM role WHERE actor_id = 2");
+
+    DeletionResult result = actorService.deleteActor(2L);
+
+    assertEquals(DeletionResult.builder().actors(1).roles(roles).build(), result);
+    assertEquals(0, count("SELECT COUNT(*) FROM role WHERE actor_id = 2"));
+  }
+
+  private int count(String sql) {
+    return jdbcTemplate.queryForObject(sql, Integer.class);
+  }
+}
@@ -3,28 +3,59 @@ package com.sample.backend.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.sample.backend.config.DtoCacheProperties;
+import com.sample.backend.config.PaginationProperties;
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.DirectorDTO;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.model.Director;
 import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 @ExtendWith(MockitoExtension.class)
 class DirectorServiceTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(0L, Instant.EPOCH);
+  private static final DtoCacheProperties DTO_CACHE =
+      new DtoCacheProperties(true, new DtoCacheProperties.Cache(100, null, null), null, null);
+
   @Mock private DirectorRepository directorRepository;
+  @Mock private MovieRepository movieRepository;
+  @Mock private RoleRepository roleRepository;
+  @Mock private RowCounters rowCounters;
+  @Mock private SearchIndexes searchIndexes;
+  @Spy private DtoCaches dtoCaches = new DtoCaches(DTO_CACHE);
+  @Spy private TableVersions tableVersions = new TableVersions();
+  @Spy private PageLimits pageLimits = new PageLimits(new PaginationProperties(100, 1000, 10000));
   @InjectMocks private DirectorService directorService;
   private Director director;
   private DirectorDTO directorDTO;
@@ -51,7 +82,8 @@ class DirectorServiceTest {
 
   @Test
   void getAllDirectors_ShouldReturnList() {
-    when(directorRepository.findAll()).thenReturn(List.of(director));
+    when(directorRepository.findAllDTOs(any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(directorDTO)));
     List<DirectorDTO> result = directorService.getAllDirectors();
     assertEquals(1, result.size());
     assertEquals(directorDTO, result.getFirst());
@@ -59,22 +91,22 @@ class DirectorServiceTest {
 
   @Test
   void getDirectorById_ShouldReturnDirector_WhenDirectorExists() {
-    when(directorRepository.findById(1L)).thenReturn(Optional.of(director));
+    when(directorRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(directorRepository.findDTOById(1L)).thenReturn(Optional.of(directorDTO));
     DirectorDTO result = directorService.getDirectorById(1L);
     assertEquals(directorDTO, result);
   }
 
   @Test
   void getDirectorById_ShouldThrowException_WhenDirectorDoesNotExist() {
-    when(directorRepository.findById(99L)).thenReturn(Optional.empty());
+    when(directorRepository.findVersionById(99L)).thenReturn(Optional.empty());
     assertThrows(EntityNotFoundException.class, () -> directorService.getDirectorById(99L));
   }
 
   @Test
   void searchDirectors_ShouldReturnMatchingDirectors() {
-    when(directorRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-            "Spiel", "Spiel"))
-        .thenReturn(List.of(director));
+    when(directorRepository.findDTOsByName(eq("Spiel"), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(directorDTO)));
     List<DirectorDTO> result = directorService.searchDirectors("Spiel");
     assertEquals(1, result.size());
     assertEquals(directorDTO, result.getFirst());
@@ -94,6 +126,49 @@ class DirectorServiceTest {
     assertEquals(directorDTO, result);
   }
 
+  @Test
+  void createDirectors_ShouldSaveAllDirectorsInOneCall() {
+    DirectorDTO other = DirectorDTO.builder().firstName("Christopher").lastName("Nolan").build();
+    when(directorRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<DirectorDTO> result =
+        directorService.createDirectors(List.of(directorDTO, other), false);
+
+    assertEquals(2, result.created());
+    assertEquals(0, result.failed());
+    assertEquals("Nolan", result.results().get(1).item().lastName());
+    verify(directorRepository).saveAll(anyList());
+    verify(rowCounters).add(Director.class, 2);
+  }
+
+  @Test
+  void createDirectors_ShouldSaveNothing_WhenAnyDirectorIsInvalid() {
+    BatchResponse<DirectorDTO> result =
+        directorService.createDirectors(Arrays.asList(directorDTO, null), false);
+
+    assertEquals(0, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.SKIPPED, result.results().getFirst().status());
+    assertEquals(Status.FAILED, result.results().get(1).status());
+    assertEquals("Director must not be null", result.results().get(1).error());
+    verify(directorRepository, never()).saveAll(anyList());
+    verify(searchIndexes, never()).indexDirector(any());
+  }
+
+  @Test
+  void createDirectors_ShouldSaveValidDirectors_WhenPartialFailureIsAllowed() {
+    when(directorRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<DirectorDTO> result =
+        directorService.createDirectors(Arrays.asList(null, directorDTO), true);
+
+    assertEquals(1, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.FAILED, result.results().getFirst().status());
+    assertEquals("Spielberg", result.results().get(1).item().lastName());
+    verify(searchIndexes).indexDirector(result.results().get(1).item());
+  }
+
   @Test
   void updateDirector_FullUpdate_ShouldReturnUpdatedDirector() {
     DirectorDTO fullUpdateDTO =
@@ -144,16 +219,21 @@ class DirectorServiceTest {
   }
 
   @Test
-  void deleteDirector_ShouldDeleteDirector_WhenDirectorExists() {
-    when(directorRepository.existsById(1L)).thenReturn(true);
-    doNothing().when(directorRepository).deleteById(1L);
-    directorService.deleteDirector(1L);
-    verify(directorRepository).deleteById(1L);
+  void deleteDirector_ShouldBulkDeleteInDependencyOrder_WhenDirectorExists() {
+    when(roleRepository.bulkDeleteByDirectorId(1L)).thenReturn(25);
+    when(movieRepository.bulkDeleteByDirectorId(1L)).thenReturn(5);
+    when(directorRepository.bulkDeleteById(1L)).thenReturn(1);
+    DeletionResult result = directorService.deleteDirector(1L);
+    assertEquals(DeletionResult.builder().directors(1).movies(5).roles(25).build(), result);
+    InOrder order = inOrder(roleRepository, movieRepository, directorRepository);
+    order.verify(roleRepository).bulkDeleteByDirectorId(1L);
+    order.verify(movieRepository).bulkDeleteByDirectorId(1L);
+    order.verify(directorRepository).bulkDeleteById(1L);
   }
 
   @Test
   void deleteDirector_ShouldThrowException_WhenDirectorDoesNotExist() {
-    when(directorRepository.existsById(99L)).thenReturn(false);
+    when(directorRepository.bulkDeleteById(99L)).thenReturn(0);
     assertThrows(EntityNotFoundException.class, () -> directorService.deleteDirector(99L));
   }
 }
@@ -0,0 +1,113 @@
+package com.sample.backend.service;
+
+import com.sample.backend.SampleJavaBackendApplication;
+import com.sample.backend.model.Genre;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Times lookups of movies and roles by id with the DTO caches enabled and disabled, with the
+ * second-level cache enabled in both. The ids are drawn from a hot set that fits in the caches. Run
+ * with {@code mvn test -Pbenchmark -Dtest=DtoCachesBenchmark}; the row count can be changed with
+ * {@code -Dbenchmark.rows=...}.
+ */
+@Tag("benchmark")
+@Slf4j
+class DtoCachesBenchmark {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+  private static final int HOT_ROWS = 5_000;
+  private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 200_000);
+  private static final long FIRST_ID = 1_000_000L;
+  private static final Genre[] GENRES = Genre.values();
+
+  @Test
+  void lookupLatencyWithAndWithoutDtoCache() {
+    List<String> report = new ArrayList<>();
+    for (boolean enabled : new boolean[] {false, true}) {
+      try (ConfigurableApplicationContext context =
+          new SpringApplicationBuilder(SampleJavaBackendApplication.class)
+              .web(WebApplicationType.NONE)
+              .run(
+                  "--spring.datasource.url=jdbc:h2:mem:dto-caches-benchmark-" + enabled,
+                  "--spring.jpa.show-sql=false",
+                  "--logging.level.com.sample.backend=info",
+                  "--catalog.loader.enabled=false",
+                  "--catalog.search.enabled=false",
+                  "--catalog.dto-cache.enabled=" + enabled)) {
+        seed(context.getBean(JdbcTemplate.class));
+        MovieService movieService = context.getBean(MovieService.class);
+        RoleService roleService = context.getBean(RoleService.class);
+        String cache = enabled ? "DTO cache" : "no DTO cache";
+        report.add(measure(cache, "movie by id", movieService::getMovieById));
+        report.add(measure(cache, "role by id", roleService::getRoleById));
+      }
+    }
+    log.info(
+        "{} movies and roles, {} looked up; mean of {} lookups:\n{}",
+        ROWS,
+        HOT_ROWS,
+        ROUNDS,
+        String.join("\n", report));
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    List<Object[]> people = new ArrayList<>();
+    List<Object[]> movies = new ArrayList<>();
+    List<Object[]> roles = new ArrayList<>();
+    Date birthDate = Date.valueOf(LocalDate.of(1970, 1, 1));
+    for (int i = 0; i < 500; i++) {
+      people.add(new Object[] {FIRST_ID + i, "Person", "Number" + i, birthDate, "Danish"});
+    }
+    for (int i = 0; i < ROWS; i++) {
+      movies.add(
+          new Object[] {
+            FIRST_ID + i,
+            "Benchmark Movie " + i,
+            GENRES[i % GENRES.length].name(),
+            Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i % 7_000)),
+            90 + i % 60,
+            FIRST_ID + i % 500
+          });
+      roles.add(new Object[] {FIRST_ID + i, "Character " + i, FIRST_ID + i, FIRST_ID + i % 500});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO director (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        people);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO actor (id, first_name, last_name, birth_date, nationality)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        people);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO movie (id, title, genre, release_date, duration_minutes, director_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?)",
+        movies);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO role (id, character_name, movie_id, actor_id) VALUES (?, ?, ?, ?)", roles);
+  }
+
+  private static String measure(String cache, String name, LongConsumer lookup) {
+    Random random = new Random(7);
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      lookup.accept(FIRST_ID + random.nextInt(HOT_ROWS));
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      lookup.accept(FIRST_ID + random.nextInt(HOT_ROWS));
+    }
+    long nanos = System.nanoTime() - start;
+    return String.format("%-12s %-13s %8.2f us", name, cache, nanos / 1e3 / ROUNDS);
+  }
+}
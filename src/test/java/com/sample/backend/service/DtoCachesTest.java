@@ -0,0 +1,177 @@
+package com.sample.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sample.backend.dto.ActorDTO;
+import com.sample.backend.dto.DirectorDTO;
+import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.RoleDTO;
+import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.loader.CatalogCsvLoader;
+import com.sample.backend.model.Genre;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dto-caches-test")
+@DirtiesContext
+class DtoCachesTest {
+
+  @Autowired private MovieService movieService;
+  @Autowired private DirectorService directorService;
+  @Autowired private ActorService actorService;
+  @Autowired private RoleService roleService;
+  @Autowired private CatalogCsvLoader catalogCsvLoader;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  void directorUpdate_ShouldEvictTheirMovies() {
+    assertEquals("Christopher Nolan", movieService.getMovieById(1L).directorName());
+
+    directorService.updateDirector(1L, DirectorDTO.builder().firstName("Chris").build());
+
+    assertEquals("Chris Nolan", movieService.getMovieById(1L).directorName());
+    assertEquals("Chris", directorService.getDirectorById(1L).firstName());
+  }
+
+  @Test
+  void directorUpdate_ShouldKeepTheMoviesOfOtherDirectors() {
+    movieService.getMovieById(3L);
+
+    directorService.updateDirector(1L, DirectorDTO.builder().nationality("British").build());
+
+    double hits = hits(DtoCaches.MOVIES);
+    movieService.getMovieById(3L);
+    assertEquals(hits + 1, hits(DtoCaches.MOVIES));
+  }
+
+  @Test
+  void actorAndMovieUpdates_ShouldEvictTheirRoles() {
+    RoleDTO role = roleService.getRoleById(1L);
+    assertEquals("Leonardo DiCaprio", role.actorName());
+
+    actorService.updateActor(role.actorId(), ActorDTO.builder().firstName("Leo").build());
+    assertEquals("Leo DiCaprio", roleService.getRoleById(1L).actorName());
+
+    movieService.patchMovie(role.movieId(), Map.of("title", "Inception (Director's Cut)"));
+    assertEquals("Inception (Director's Cut)", roleService.getRoleById(1L).movieTitle());
+  }
+
+  @Test
+  void hits_ShouldNotReadTheDatabase() {
+    MovieDTO movie = movieService.getMovieById(3L);
+    // A write that bypasses the services is not seen until the caches are evicted.
+    jdbcTemplate.update("UPDATE movie SET title = 'Pulp' WHERE id = 3");
+    double hits = hits(DtoCaches.MOVIES);
+
+    assertEquals(movie, movieService.getMovieById(3L));
+    assertEquals(hits + 1, hits(DtoCaches.MOVIES));
+
+    catalogCsvLoader.load();
+    assertEquals("Pulp", movieService.getMovieById(3L).title());
+  }
+
+  @Test
+  void lookupsByIds_ShouldKeepTheRequestedOrder_AndLoadOnlyTheMisses() {
+    catalogCsvLoader.load();
+    movieService.getMovieById(1L);
+    double hits = hits(DtoCaches.MOVIES);
+    double misses = misses(DtoCaches.MOVIES);
+
+    assertEquals(
+        List.of(3L, 1L),
+        movieService.getMoviesByIds(List.of(3L, 99L, 1L, 3L)).stream().map(MovieDTO::id).toList());
+    assertEquals(hits + 1, hits(DtoCaches.MOVIES));
+    assertEquals(misses + 2, misses(DtoCaches.MOVIES));
+
+    assertEquals(
+        List.of(2L, 1L),
+        actorService.getActorsByIds(List.of(2L, 1L)).stream().map(ActorDTO::id).toList());
+    assertEquals(
+        List.of(2L, 1L),
+        directorService.getDirectorsByIds(List.of(2L, 1L)).stream().map(DirectorDTO::id).toList());
+    List<RoleDTO> roles = roleService.getRolesByMovieIds(List.of(3L, 1L));
+    assertEquals(List.of(3L, 1L), roles.stream().map(RoleDTO::movieId).toList());
+    assertEquals(
+        List.of(1L, 3L),
+        roleService.getRolesByActorIds(List.of(1L, 3L)).stream().map(RoleDTO::actorId).toList());
+    assertEquals(
+        roles.reversed(),
+        roleService.getRolesByIds(roles.reversed().stream().map(RoleDTO::id).toList()));
+  }
+
+  @Test
+  void rolledBackWrite_ShouldKeepTheCachedDto() {
+    MovieDTO movie = movieService.getMovieById(2L);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  movieService.patchMovie(2L, Map.of("title", "The Dark Knight Rises"));
+                  throw new IllegalStateException("rollback");
+                }));
+
+    double hits = hits(DtoCaches.MOVIES);
+    assertEquals(movie, movieService.getMovieById(2L));
+    assertEquals(hits + 1, hits(DtoCaches.MOVIES));
+  }
+
+  @Test
+  void directorDelete_ShouldEvictTheirMoviesAndTheRolesInThem() {
+    DirectorDTO director =
+        directorService.createDirector(
+            DirectorDTO.builder()
+                .firstName("Sofia")
+                .lastName("Coppola")
+                .birthDate(LocalDate.of(1971, 5, 14))
+                .nationality("American")
+                .build());
+    MovieDTO movie =
+        movieService.createMovie(
+            MovieDTO.builder()
+                .title("Lost in Translation")
+                .genre(Genre.DRAMA)
+                .releaseDate(LocalDate.of(2003, 9, 12))
+                .durationMinutes(102)
+                .directorId(director.id())
+                .build());
+    RoleDTO role =
+        roleService.createRole(
+            RoleDTO.builder().characterName("Bob Harris").movieId(movie.id()).actorId(3L).build());
+    movieService.getMovieById(movie.id());
+    roleService.getRoleById(role.id());
+
+    directorService.deleteDirector(director.id());
+
+    assertThrows(EntityNotFoundException.class, () -> movieService.getMovieById(movie.id()));
+    assertThrows(EntityNotFoundException.class, () -> roleService.getRoleById(role.id()));
+  }
+
+  private double misses(String cache) {
+    return meterRegistry
+        .get("cache.gets")
+        .tags("cache", cache, "result", "miss")
+        .functionCounter()
+        .count();
+  }
+
+  private double hits(String cache) {
+    return meterRegistry
+        .get("cache.gets")
+        .tags("cache", cache, "result", "hit")
+        .functionCounter()
+        .count();
+  }
+}
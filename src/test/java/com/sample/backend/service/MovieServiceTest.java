@@ -1,36 +1,79 @@
 package com.sample.backend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.sample.backend.config.DtoCacheProperties;
+import com.sample.backend.config.PaginationProperties;
+import com.sample.backend.dto.BatchResponse;
+import com.sample.backend.dto.DeletionResult;
 import com.sample.backend.dto.MovieDTO;
+import com.sample.backend.dto.MovieDetails;
+import com.sample.backend.dto.MovieFilter;
+import com.sample.backend.dto.PagedResponse;
+import com.sample.backend.exception.BadRequestException;
 import com.sample.backend.exception.EntityNotFoundException;
+import com.sample.backend.exception.PreconditionFailedException;
 import com.sample.backend.model.Director;
 import com.sample.backend.model.Genre;
 import com.sample.backend.model.Movie;
+import com.sample.backend.model.Role;
+import com.sample.backend.repository.CastRow;
 import com.sample.backend.repository.DirectorRepository;
+import com.sample.backend.repository.FacetQueries;
+import com.sample.backend.repository.MovieDetailsRow;
 import com.sample.backend.repository.MovieRepository;
+import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.RowVersion;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class MovieServiceTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(0L, Instant.EPOCH);
+  private static final DtoCacheProperties DTO_CACHE =
+      new DtoCacheProperties(true, new DtoCacheProperties.Cache(100, null, null), null, null);
+
   @Mock private MovieRepository movieRepository;
   @Mock private DirectorRepository directorRepository;
+  @Mock private RoleRepository roleRepository;
+  @Mock private RowCounters rowCounters;
+  @Mock private SearchIndexes searchIndexes;
+  @Mock private FacetQueries facetQueries;
+  @Spy private DtoCaches dtoCaches = new DtoCaches(DTO_CACHE);
+  @Spy private TableVersions tableVersions = new TableVersions();
+  @Spy private PageLimits pageLimits = new PageLimits(new PaginationProperties(100, 1000, 10000));
   @InjectMocks private MovieService movieService;
   private Movie movie;
   private MovieDTO movieDTO;
@@ -69,28 +112,186 @@ class MovieServiceTest {
 
   @Test
   void getAllMovies_ShouldReturnList() {
-    when(movieRepository.findAll()).thenReturn(List.of(movie));
+    when(movieRepository.findAllDTOs(any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
     List<MovieDTO> result = movieService.getAllMovies();
     assertEquals(1, result.size());
     assertEquals(movieDTO, result.getFirst());
   }
 
+  @Test
+  void getAllMovies_ShouldRejectWithGuidance_WhenMoreMoviesThanTheListLimit() {
+    when(movieRepository.findAllDTOs(PageRequest.of(0, 1000, Sort.by("id"))))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO), PageRequest.of(0, 1000), true));
+    BadRequestException exception =
+        assertThrows(BadRequestException.class, () -> movieService.getAllMovies());
+    assertTrue(exception.getMessage().contains("page=0&size=100"));
+  }
+
+  @Test
+  void getMovies_ShouldReportTheMaintainedRowCount() {
+    when(movieRepository.findAllDTOs(
+            PageRequest.of(1, 100, Sort.by(Sort.Direction.DESC, "title", "id"))))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO), PageRequest.of(1, 100), true));
+    when(rowCounters.count(Movie.class)).thenReturn(250L);
+    PagedResponse<MovieDTO> result = movieService.getMovies(1, 5000, "title", "desc");
+    assertEquals(List.of(movieDTO), result.content());
+    assertEquals(1, result.page());
+    assertEquals(250, result.totalElements());
+    assertEquals(3, result.totalPages());
+    assertFalse(result.last());
+  }
+
+  @Test
+  void searchMovies_ShouldReportTheGenreCount_WhenSearchingByGenreOnly() {
+    when(movieRepository.findDTOsByGenre(Genre.SCI_FI, PageRequest.of(0, 20, Sort.by("id"))))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
+    when(rowCounters.countMovies(Genre.SCI_FI)).thenReturn(1L);
+    PagedResponse<MovieDTO> result = movieService.searchMovies(null, Genre.SCI_FI, 0, 20);
+    assertEquals(1, result.totalElements());
+    verify(movieRepository, never()).count();
+  }
+
+  @Test
+  void searchMovies_ShouldUseTitleAndGenreQuery_WhenBothGiven() {
+    when(movieRepository.findDTOsByTitleAndGenre(
+            "Inter", Genre.SCI_FI, PageRequest.of(0, 20, Sort.by("id"))))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
+    PagedResponse<MovieDTO> result = movieService.searchMovies("Inter", Genre.SCI_FI, 0, 20);
+    assertEquals(List.of(movieDTO), result.content());
+    assertTrue(result.last());
+  }
+
+  @Test
+  void filterMovies_ShouldQueryTheDatabaseWithoutCounting_UntilTheIndexesAreReady() {
+    MovieFilter filter = MovieFilter.builder().minDuration(120).build();
+    when(facetQueries.findMovies(filter, PageRequest.of(0, 20, Sort.by("id"))))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
+    PagedResponse<MovieDTO> result = movieService.filterMovies(filter, 0, 20);
+    assertEquals(List.of(movieDTO), result.content());
+    assertEquals(-1, result.totalElements());
+  }
+
   @Test
   void getMovieById_ShouldReturnMovie_WhenMovieExists() {
-    when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+    when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(movieRepository.findDTOById(1L)).thenReturn(Optional.of(movieDTO));
     MovieDTO result = movieService.getMovieById(1L);
     assertEquals(movieDTO, result);
   }
 
+  @Test
+  void getMovieById_ShouldReadTheDatabaseOnce_UntilTheMovieIsPatched() {
+    when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(movieRepository.findDTOById(1L)).thenReturn(Optional.of(movieDTO));
+    when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+    when(movieRepository.save(any(Movie.class))).thenReturn(movie);
+
+    movieService.getMovieById(1L);
+    assertEquals(movieDTO, movieService.getMovieById(1L));
+    verify(movieRepository, times(1)).findDTOById(1L);
+
+    movieService.patchMovie(1L, Map.of("durationMinutes", 170));
+    movieService.getMovieById(1L);
+    verify(movieRepository, times(2)).findDTOById(1L);
+  }
+
   @Test
   void getMovieById_ShouldThrowException_WhenMovieDoesNotExist() {
-    when(movieRepository.findById(99L)).thenReturn(Optional.empty());
+    when(movieRepository.findVersionById(99L)).thenReturn(Optional.empty());
     assertThrows(EntityNotFoundException.class, () -> movieService.getMovieById(99L));
   }
 
+  @Test
+  void getMoviesByIds_ShouldReadTheMissesTogether_InTheRequestedOrder() {
+    MovieDTO other =
+        MovieDTO.builder().id(2L).title("Dunkirk").genre(Genre.WAR).directorId(1L).build();
+    when(movieRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(movieRepository.findDTOById(1L)).thenReturn(Optional.of(movieDTO));
+    when(movieRepository.findVersionsByIdIn(Set.of(2L, 99L)))
+        .thenReturn(List.of(new RowVersion(2L, 0L, Instant.EPOCH, 0L, Instant.EPOCH)));
+    when(movieRepository.findDTOsByIdIn(Set.of(2L))).thenReturn(List.of(other));
+    movieService.getMovieById(1L);
+
+    assertEquals(List.of(other, movieDTO), movieService.getMoviesByIds(List.of(2L, 99L, 1L, 2L)));
+    verify(movieRepository, times(1)).findDTOById(1L);
+  }
+
+  @Test
+  void getMovieDetails_ShouldJoinTheCast_AndTagEveryRowShown() {
+    when(movieRepository.findDetailsById(1L))
+        .thenReturn(
+            Optional.of(
+                new MovieDetailsRow(
+                    1L,
+                    "Interstellar",
+                    Genre.SCI_FI,
+                    LocalDate.of(2014, 11, 7),
+                    169,
+                    0L,
+                    Instant.EPOCH,
+                    1L,
+                    "Christopher",
+                    "Nolan",
+                    LocalDate.of(1970, 7, 30),
+                    "British-American",
+                    0L,
+                    Instant.EPOCH)));
+    CastRow cooper =
+        new CastRow(
+            7L,
+            "Cooper",
+            0L,
+            Instant.EPOCH,
+            4L,
+            "Matthew",
+            "McConaughey",
+            LocalDate.of(1969, 11, 4),
+            "American",
+            0L,
+            Instant.ofEpochSecond(60));
+    when(roleRepository.findCastByMovieId(1L)).thenReturn(List.of(cooper));
+
+    Versioned<MovieDetails> details = movieService.getMovieDetails(1L);
+
+    assertEquals("Nolan", details.dto().director().lastName());
+    assertEquals(1, details.dto().cast().size());
+    assertEquals("Cooper", details.dto().cast().getFirst().characterName());
+    assertEquals("McConaughey", details.dto().cast().getFirst().actor().lastName());
+    assertEquals(Instant.ofEpochSecond(60), details.stamp().lastModified());
+    assertEquals(details.stamp(), movieService.getMovieDetails(1L).stamp());
+
+    // Renaming the actor bumps their version, which the tag covers.
+    when(roleRepository.findCastByMovieId(1L))
+        .thenReturn(
+            List.of(
+                new CastRow(
+                    7L,
+                    "Cooper",
+                    0L,
+                    Instant.EPOCH,
+                    4L,
+                    "Matt",
+                    "McConaughey",
+                    LocalDate.of(1969, 11, 4),
+                    "American",
+                    1L,
+                    Instant.ofEpochSecond(120))));
+    assertNotEquals(details.stamp().etag(), movieService.getMovieDetails(1L).stamp().etag());
+    when(roleRepository.findCastByMovieId(1L)).thenReturn(List.of());
+    assertNotEquals(details.stamp().etag(), movieService.getMovieDetails(1L).stamp().etag());
+  }
+
+  @Test
+  void getMovieDetails_ShouldThrowException_WhenMovieDoesNotExist() {
+    when(movieRepository.findDetailsById(99L)).thenReturn(Optional.empty());
+    assertThrows(EntityNotFoundException.class, () -> movieService.getMovieDetails(99L));
+  }
+
   @Test
   void getMoviesByTitle_ShouldReturnMatchingMovies() {
-    when(movieRepository.findByTitleContainingIgnoreCase("Inter")).thenReturn(List.of(movie));
+    when(movieRepository.findDTOsByTitle(eq("Inter"), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
     List<MovieDTO> result = movieService.getMoviesByTitle("Inter");
     assertEquals(1, result.size());
     assertEquals(movieDTO, result.getFirst());
@@ -98,7 +299,8 @@ class MovieServiceTest {
 
   @Test
   void getMoviesByGenre_ShouldReturnMatchingMovies() {
-    when(movieRepository.findByGenre(Genre.SCI_FI)).thenReturn(List.of(movie));
+    when(movieRepository.findDTOsByGenre(eq(Genre.SCI_FI), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(movieDTO)));
     List<MovieDTO> result = movieService.getMoviesByGenre(Genre.SCI_FI);
     assertEquals(1, result.size());
     assertEquals(movieDTO, result.getFirst());
@@ -183,6 +385,25 @@ class MovieServiceTest {
     assertThrows(EntityNotFoundException.class, () -> movieService.createMovie(newMovieDTO));
   }
 
+  @Test
+  void createMovies_ShouldLoadDirectorsOnceForTheWholeBatch() {
+    List<MovieDTO> newMovies =
+        List.of(
+            MovieDTO.builder().title("Tenet").genre(Genre.ACTION).directorId(1L).build(),
+            MovieDTO.builder().title("Dunkirk").genre(Genre.WAR).directorId(1L).build(),
+            MovieDTO.builder().title("Unknown").genre(Genre.DRAMA).directorId(99L).build());
+    when(directorRepository.findAllById(List.of(1L, 99L))).thenReturn(List.of(director));
+    when(movieRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<MovieDTO> result = movieService.createMovies(newMovies, true);
+
+    assertEquals(2, result.created());
+    assertEquals(1, result.failed());
+    assertEquals("Christopher Nolan", result.results().get(1).item().directorName());
+    assertEquals("Director not found with ID: 99", result.results().get(2).error());
+    verify(directorRepository, never()).findById(any());
+  }
+
   @Test
   void updateMovie_FullUpdate_ShouldReturnUpdatedMovie() {
     MovieDTO fullUpdateDTO =
@@ -277,16 +498,21 @@ class MovieServiceTest {
   }
 
   @Test
-  void deleteMovie_ShouldDeleteMovie_WhenMovieExists() {
-    when(movieRepository.existsById(1L)).thenReturn(true);
-    doNothing().when(movieRepository).deleteById(1L);
-    movieService.deleteMovie(1L);
-    verify(movieRepository).deleteById(1L);
+  void deleteMovie_ShouldBulkDeleteRolesThenMovie_WhenMovieExists() {
+    when(movieRepository.findGenreById(1L)).thenReturn(Optional.of(Genre.SCI_FI));
+    when(roleRepository.bulkDeleteByMovieId(1L)).thenReturn(4);
+    when(movieRepository.bulkDeleteById(1L)).thenReturn(1);
+    DeletionResult result = movieService.deleteMovie(1L);
+    assertEquals(DeletionResult.builder().movies(1).roles(4).build(), result);
+    verify(movieRepository, never()).deleteById(any());
+    verify(rowCounters).add(Movie.class, -1);
+    verify(rowCounters).add(Role.class, -4);
+    verify(rowCounters).addMovies(Genre.SCI_FI, -1);
   }
 
   @Test
   void deleteMovie_ShouldThrowException_WhenMovieDoesNotExist() {
-    when(movieRepository.existsById(99L)).thenReturn(false);
+    when(movieRepository.bulkDeleteById(99L)).thenReturn(0);
     assertThrows(EntityNotFoundException.class, () -> movieService.deleteMovie(99L));
   }
 
@@ -404,4 +630,17 @@ class MovieServiceTest {
     MovieDTO result = movieService.patchMovie(1L, patches);
     assertEquals(patchedMovieDTO, result);
   }
+
+  @Test
+  void patchMovie_ShouldThrowException_WhenIfMatchIsStale() {
+    movie.setVersion(1L);
+    when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
+    when(movieRepository.findVersionById(1L))
+        .thenReturn(Optional.of(new VersionStamp(1L, Instant.EPOCH, 2L, Instant.EPOCH)));
+    Map<String, Object> patches = Map.of("durationMinutes", 170);
+
+    assertThrows(
+        PreconditionFailedException.class, () -> movieService.patchMovie(1L, patches, "\"1.1\""));
+    verify(movieRepository, never()).save(any(Movie.class));
+  }
 }
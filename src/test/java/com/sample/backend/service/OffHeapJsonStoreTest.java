@@ -0,0 +1,163 @@
+package com.sample.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class OffHeapJsonStoreTest {
+
+  private static final int SLOT_BYTES = 64;
+
+  /** A role-like DTO showing two other rows. */
+  private record Row(long first, long second) {}
+
+  private static OffHeapJsonStore<Row> store(int slots) {
+    return new OffHeapJsonStore<>(slots, SLOT_BYTES, Row::first, Row::second);
+  }
+
+  private static boolean put(OffHeapJsonStore<Row> store, long id, Row row, String json) {
+    return store.put(
+        id,
+        row,
+        "\"" + id + "\"",
+        1_000L + id,
+        json.getBytes(StandardCharsets.UTF_8),
+        store.generation());
+  }
+
+  private static String read(OffHeapJsonStore<Row> store, long id) {
+    OffHeapJsonStore.Hit hit = new OffHeapJsonStore.Hit(store.slotBytes());
+    if (!store.read(id, hit)) {
+      return null;
+    }
+    assertEquals("\"" + id + "\"", hit.etag());
+    assertEquals(1_000L + id, hit.lastModified());
+    return new String(hit.buffer(), hit.jsonOffset(), hit.jsonLength(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void read_ShouldReturnWhatWasPut() {
+    OffHeapJsonStore<Row> store = store(4);
+    assertEquals(0, store.allocatedBytes());
+
+    assertTrue(put(store, 7, new Row(1, 2), "{\"id\":7,\"name\":\"Zoë\"}"));
+    assertTrue(put(store, 7, new Row(1, 2), "{\"id\":7}"));
+
+    assertEquals("{\"id\":7}", read(store, 7));
+    assertEquals(null, read(store, 8));
+    assertEquals(1, store.size());
+    assertEquals("\"7\"".length() + "{\"id\":7}".length(), store.usedBytes());
+    assertEquals(4 * SLOT_BYTES, store.allocatedBytes());
+    assertEquals(1, store.hitCount());
+    assertEquals(1, store.missCount());
+  }
+
+  @Test
+  void put_ShouldSkipResponsesLargerThanASlot() {
+    OffHeapJsonStore<Row> store = store(4);
+
+    assertFalse(put(store, 1, new Row(1, 2), "x".repeat(SLOT_BYTES)));
+    assertEquals(null, read(store, 1));
+  }
+
+  @Test
+  void put_ShouldSkipResponsesReadBeforeAnEviction() {
+    OffHeapJsonStore<Row> store = store(4);
+    long generation = store.generation();
+
+    store.evict(List.of(99L));
+
+    assertFalse(store.put(1, new Row(1, 2), "\"1\"", 0, new byte[] {'{', '}'}, generation));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  void put_WhenFull_ShouldEvictAnEntryNotReadSinceTheHandPassed() {
+    OffHeapJsonStore<Row> store = store(3);
+    put(store, 1, new Row(0, 0), "one");
+    put(store, 2, new Row(0, 0), "two");
+    put(store, 3, new Row(0, 0), "three");
+    read(store, 1);
+    read(store, 3);
+
+    put(store, 4, new Row(0, 0), "four");
+
+    assertEquals(null, read(store, 2));
+    assertEquals("one", read(store, 1));
+    assertEquals("three", read(store, 3));
+    assertEquals("four", read(store, 4));
+  }
+
+  @Test
+  void evictReferences_ShouldEvictTheEntriesShowingTheRows() {
+    OffHeapJsonStore<Row> store = store(8);
+    put(store, 1, new Row(10, 20), "a");
+    put(store, 2, new Row(11, 20), "b");
+    put(store, 3, new Row(10, 21), "c");
+    put(store, 4, new Row(12, OffHeapJsonStore.NO_REFERENCE), "d");
+
+    store.evictFirstReferences(List.of(10L));
+    assertEquals(null, read(store, 1));
+    assertEquals(null, read(store, 3));
+    assertEquals("b", read(store, 2));
+
+    store.evictSecondReferences(List.of(20L));
+    assertEquals(null, read(store, 2));
+    assertEquals("d", read(store, 4));
+    assertEquals(1, store.size());
+
+    store.clear();
+    assertEquals(0, store.size());
+    assertEquals(0, store.usedBytes());
+  }
+
+  @Test
+  void evictReferences_ShouldFollowTheReferencesOfTheLatestPut() {
+    OffHeapJsonStore<Row> store = store(2);
+    put(store, 1, new Row(10, 20), "a");
+    put(store, 1, new Row(11, 20), "a2");
+    put(store, 2, new Row(11, 21), "b");
+    read(store, 1);
+    read(store, 2);
+    put(store, 3, new Row(11, 22), "c");
+
+    store.evictFirstReferences(List.of(10L));
+    assertEquals(2, store.size());
+
+    store.evictFirstReferences(List.of(11L));
+    assertEquals(0, store.size());
+
+    put(store, 4, new Row(11, 20), "d");
+    store.evictSecondReferences(List.of(21L, 22L));
+    assertEquals("d", read(store, 4));
+  }
+
+  @Test
+  void randomWritesAndEvictions_ShouldMatchAMap() {
+    OffHeapJsonStore<Row> store = store(256);
+    Map<Long, String> expected = new HashMap<>();
+    Random random = new Random(11);
+    for (int i = 0; i < 20_000; i++) {
+      long id = random.nextInt(200) * 4_096L;
+      if (random.nextInt(3) == 0) {
+        store.evict(List.of(id));
+        expected.remove(id);
+      } else {
+        String json = "{\"id\":" + id + ",\"n\":" + i + "}";
+        put(store, id, new Row(0, 0), json);
+        expected.put(id, json);
+      }
+    }
+    for (long id = 0; id < 200 * 4_096L; id += 4_096L) {
+      assertEquals(expected.get(id), read(store, id));
+    }
+    assertEquals(expected.size(), store.size());
+  }
+}
@@ -3,10 +3,17 @@ package com.sample.backend.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.sample.backend.config.DtoCacheProperties;
+import com.sample.backend.config.PaginationProperties;
+import com.sample.backend.dto.BatchItemResult.Status;
+import com.sample.backend.dto.BatchResponse;
 import com.sample.backend.dto.RoleDTO;
 import com.sample.backend.exception.EntityNotFoundException;
 import com.sample.backend.model.Actor;
@@ -16,6 +23,11 @@ import com.sample.backend.model.Role;
 import com.sample.backend.repository.ActorRepository;
 import com.sample.backend.repository.MovieRepository;
 import com.sample.backend.repository.RoleRepository;
+import com.sample.backend.repository.RowCounters;
+import com.sample.backend.repository.TableVersions;
+import com.sample.backend.repository.VersionStamp;
+import com.sample.backend.search.SearchIndexes;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -24,14 +36,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 @ExtendWith(MockitoExtension.class)
 class RoleServiceTest {
 
+  private static final VersionStamp STAMP = new VersionStamp(0L, Instant.EPOCH);
+  private static final DtoCacheProperties DTO_CACHE =
+      new DtoCacheProperties(true, new DtoCacheProperties.Cache(100, null, null), null, null);
+
   @Mock private RoleRepository roleRepository;
   @Mock private MovieRepository movieRepository;
   @Mock private ActorRepository actorRepository;
+  @Mock private RowCounters rowCounters;
+  @Mock private SearchIndexes searchIndexes;
+  @Spy private DtoCaches dtoCaches = new DtoCaches(DTO_CACHE);
+  @Spy private TableVersions tableVersions = new TableVersions();
+  @Spy private PageLimits pageLimits = new PageLimits(new PaginationProperties(100, 1000, 10000));
   @InjectMocks private RoleService roleService;
   private Role role;
   private RoleDTO roleDTO;
@@ -70,7 +94,8 @@ class RoleServiceTest {
 
   @Test
   void getAllRoles_ShouldReturnList() {
-    when(roleRepository.findAll()).thenReturn(List.of(role));
+    when(roleRepository.findAllDTOs(any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(roleDTO)));
     List<RoleDTO> result = roleService.getAllRoles();
     assertEquals(1, result.size());
     assertEquals(roleDTO, result.getFirst());
@@ -78,28 +103,40 @@ class RoleServiceTest {
 
   @Test
   void getRoleById_ShouldReturnRole_WhenRoleExists() {
-    when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
+    when(roleRepository.findVersionById(1L)).thenReturn(Optional.of(STAMP));
+    when(roleRepository.findDTOById(1L)).thenReturn(Optional.of(roleDTO));
     RoleDTO result = roleService.getRoleById(1L);
     assertEquals(roleDTO, result);
   }
 
   @Test
   void getRoleById_ShouldThrowException_WhenRoleDoesNotExist() {
-    when(roleRepository.findById(99L)).thenReturn(Optional.empty());
+    when(roleRepository.findVersionById(99L)).thenReturn(Optional.empty());
     assertThrows(EntityNotFoundException.class, () -> roleService.getRoleById(99L));
   }
 
   @Test
   void getRolesByMovieId_ShouldReturnMatchingRoles() {
-    when(roleRepository.findByMovieId(1L)).thenReturn(List.of(role));
+    when(roleRepository.findDTOsByMovieId(eq(1L), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(roleDTO)));
     List<RoleDTO> result = roleService.getRolesByMovieId(1L);
     assertEquals(1, result.size());
     assertEquals(roleDTO, result.getFirst());
   }
 
+  @Test
+  void getRolesByMovieIds_ShouldGroupTheRolesInTheRequestedOrder() {
+    RoleDTO inOther =
+        RoleDTO.builder().id(2L).characterName("Arthur").movieId(2L).actorId(2L).build();
+    when(roleRepository.findDTOsByMovieIdIn(eq(List.of(2L, 1L)), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(roleDTO, inOther)));
+    assertEquals(List.of(inOther, roleDTO), roleService.getRolesByMovieIds(List.of(2L, 1L, 2L)));
+  }
+
   @Test
   void getRolesByActorId_ShouldReturnMatchingRoles() {
-    when(roleRepository.findByActorId(1L)).thenReturn(List.of(role));
+    when(roleRepository.findDTOsByActorId(eq(1L), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(roleDTO)));
     List<RoleDTO> result = roleService.getRolesByActorId(1L);
     assertEquals(1, result.size());
     assertEquals(roleDTO, result.getFirst());
@@ -107,7 +144,8 @@ class RoleServiceTest {
 
   @Test
   void searchRolesByCharacterName_ShouldReturnMatchingRoles() {
-    when(roleRepository.findByCharacterNameContainingIgnoreCase("Cobb")).thenReturn(List.of(role));
+    when(roleRepository.findDTOsByCharacterName(eq("Cobb"), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(roleDTO)));
     List<RoleDTO> result = roleService.searchRolesByCharacterName("Cobb");
     assertEquals(1, result.size());
     assertEquals(roleDTO, result.getFirst());
@@ -150,6 +188,64 @@ class RoleServiceTest {
     assertThrows(EntityNotFoundException.class, () -> roleService.createRole(newRoleDTO));
   }
 
+  @Test
+  void createRoles_ShouldResolveReferencesOnceAndSaveAllRoles() {
+    Actor joseph = Actor.builder().id(2L).firstName("Joseph").lastName("Gordon-Levitt").build();
+    List<RoleDTO> newRoles =
+        List.of(
+            RoleDTO.builder().characterName("Arthur").movieId(1L).actorId(2L).build(),
+            RoleDTO.builder().characterName("Cobb").movieId(1L).actorId(1L).build());
+    when(movieRepository.findAllById(List.of(1L))).thenReturn(List.of(movie));
+    when(actorRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(joseph, actor));
+    when(roleRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<RoleDTO> result = roleService.createRoles(newRoles, false);
+
+    assertEquals(2, result.created());
+    assertEquals(0, result.failed());
+    assertEquals("Joseph Gordon-Levitt", result.results().getFirst().item().actorName());
+    assertEquals("Inception", result.results().get(1).item().movieTitle());
+    verify(movieRepository, never()).findById(any());
+    verify(actorRepository, never()).findById(any());
+  }
+
+  @Test
+  void createRoles_ShouldSaveNothing_WhenAnyRoleIsInvalid() {
+    List<RoleDTO> newRoles =
+        List.of(
+            RoleDTO.builder().characterName("Arthur").movieId(1L).actorId(1L).build(),
+            RoleDTO.builder().characterName("Ghost").movieId(99L).actorId(1L).build());
+    when(movieRepository.findAllById(List.of(1L, 99L))).thenReturn(List.of(movie));
+    when(actorRepository.findAllById(List.of(1L))).thenReturn(List.of(actor));
+
+    BatchResponse<RoleDTO> result = roleService.createRoles(newRoles, false);
+
+    assertEquals(0, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.SKIPPED, result.results().getFirst().status());
+    assertEquals(Status.FAILED, result.results().get(1).status());
+    assertEquals("Movie not found with ID: 99", result.results().get(1).error());
+    verify(roleRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void createRoles_ShouldSaveValidRoles_WhenPartialFailureIsAllowed() {
+    List<RoleDTO> newRoles =
+        List.of(
+            RoleDTO.builder().characterName("Arthur").movieId(1L).actorId(1L).build(),
+            RoleDTO.builder().characterName("Ghost").movieId(1L).actorId(99L).build());
+    when(movieRepository.findAllById(List.of(1L))).thenReturn(List.of(movie));
+    when(actorRepository.findAllById(List.of(1L, 99L))).thenReturn(List.of(actor));
+    when(roleRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    BatchResponse<RoleDTO> result = roleService.createRoles(newRoles, true);
+
+    assertEquals(1, result.created());
+    assertEquals(1, result.failed());
+    assertEquals(Status.CREATED, result.results().getFirst().status());
+    assertEquals("Actor not found with ID: 99", result.results().get(1).error());
+  }
+
   @Test
   void updateRole_ShouldReturnUpdatedRole() {
     RoleDTO updateRoleDTO =